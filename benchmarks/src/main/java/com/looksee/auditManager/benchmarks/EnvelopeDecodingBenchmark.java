@@ -0,0 +1,77 @@
+package com.looksee.auditManager.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.looksee.auditManager.PageBuiltMessageDecoder;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.mapper.Body;
+import com.looksee.models.message.PageBuiltMessage;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * Compares binding the push envelope to a {@link Body} and decoding it in
+ * stages with the single-pass
+ * {@link PageBuiltMessageDecoder#decodePushEnvelope(java.io.InputStream)}.
+ *
+ * <p>The allocation per message ({@code gc.alloc.rate.norm}) is what the
+ * streaming path reduces.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvelopeDecodingBenchmark {
+	/** Binds envelopes like Spring Boot's default mapper, which ignores unknown fields. */
+	private static final ObjectMapper ENVELOPE_MAPPER = new ObjectMapper()
+		.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private final PageBuiltMessageDecoder decoder = new PageBuiltMessageDecoder(
+		new AuditMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)));
+	private byte[] envelope;
+
+	@Setup
+	public void setup() {
+		String payload = "{\"accountId\":5,\"pageId\":1048576,\"auditRecordId\":4237}";
+		String data = Base64.getEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+		envelope = ("{\"message\":{\"attributes\":{},\"data\":\"" + data + "\",\"messageId\":\"9876543210\","
+			+ "\"publishTime\":\"2024-05-01T12:00:00.000Z\"},\"subscription\":\"projects/look-see/subscriptions/page-built\"}")
+			.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/** The pre-streaming path: envelope object, Base64 to String, String to message. */
+	@Benchmark
+	public PageBuiltMessage boundEnvelope() throws IOException {
+		Body body = ENVELOPE_MAPPER.readValue(new ByteArrayInputStream(envelope), Body.class);
+		if (body.getMessage() == null || body.getMessage().getData() == null || body.getMessage().getData().isEmpty()) {
+			return null;
+		}
+		String payload = new String(Base64.getDecoder().decode(body.getMessage().getData()), StandardCharsets.UTF_8);
+		return ENVELOPE_MAPPER.readValue(payload, PageBuiltMessage.class);
+	}
+
+	@Benchmark
+	public PageBuiltMessage streamingEnvelope() {
+		return decoder.decodePushEnvelope(new ByteArrayInputStream(envelope)).message();
+	}
+}
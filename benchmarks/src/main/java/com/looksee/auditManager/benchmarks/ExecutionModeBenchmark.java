@@ -0,0 +1,115 @@
+package com.looksee.auditManager.benchmarks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.looksee.auditManager.execution.Bulkhead;
+import com.looksee.auditManager.execution.VirtualThreads;
+
+/**
+ * Compares the platform-thread request pool with virtual-thread-per-request
+ * execution for a burst of requests that block on Neo4j.
+ *
+ * <p>Each request makes {@code callsPerRequest} simulated Bolt calls of
+ * {@code neo4jLatencyMicros} each through a Neo4j {@link Bulkhead} sized like
+ * the driver pool. In {@code platform} mode the burst is limited by Tomcat's
+ * default 200 worker threads; in {@code virtual} mode it is limited only by the
+ * bulkhead. The {@code virtual} mode needs a Java 21 runtime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionModeBenchmark {
+	private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+
+	@Param({ "platform", "virtual" })
+	public String mode;
+
+	@Param({ "1000", "5000" })
+	public int concurrentRequests;
+
+	@Param({ "100" })
+	public int neo4jPoolSize;
+
+	@Param({ "2" })
+	public int callsPerRequest;
+
+	@Param({ "2000" })
+	public long neo4jLatencyMicros;
+
+	private ExecutorService requestExecutor;
+	private Bulkhead neo4j;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		neo4j = new Bulkhead("neo4j", neo4jPoolSize, Duration.ofMinutes(1));
+		if ("virtual".equals(mode)) {
+			requestExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+		} else {
+			requestExecutor = Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		requestExecutor.shutdownNow();
+	}
+
+	/**
+	 * Serves one burst of requests and waits for all of them to finish.
+	 *
+	 * @return the number of completed Neo4j calls
+	 */
+	@Benchmark
+	public int burst() throws InterruptedException, ExecutionException {
+		List<Future<Integer>> responses = new ArrayList<>(concurrentRequests);
+		for (int i = 0; i < concurrentRequests; i++) {
+			responses.add(requestExecutor.submit(this::request));
+		}
+		int calls = 0;
+		for (Future<Integer> response : responses) {
+			calls += response.get();
+		}
+		return calls;
+	}
+
+	private int request() {
+		int calls = 0;
+		for (int i = 0; i < callsPerRequest; i++) {
+			calls += neo4j.call(this::boltCall);
+		}
+		return calls;
+	}
+
+	private int boltCall() {
+		try {
+			TimeUnit.MICROSECONDS.sleep(neo4jLatencyMicros);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return 1;
+	}
+}
@@ -0,0 +1,127 @@
+package com.looksee.auditManager.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Payloads shared by the benchmarks, derived from the
+ * {@code test_messages/UrlMessage} fixture so they carry realistic ids.
+ *
+ * <p>The fixture describes a domain audit (account, domain audit record and
+ * url) rather than a page; the page id is {@link #PAGE_ID} unless a caller
+ * needs distinct pages.
+ */
+final class Fixtures {
+	static final long PAGE_ID = 1_048_576L;
+
+	private static final String FIXTURE = "/test_messages/UrlMessage";
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	final long accountId;
+	final long auditRecordId;
+	final String url;
+
+	private Fixtures(long accountId, long auditRecordId, String url) {
+		this.accountId = accountId;
+		this.auditRecordId = auditRecordId;
+		this.url = url;
+	}
+
+	/**
+	 * Loads the first page-audit message from the fixture.
+	 *
+	 * @return the fixture values; never {@code null}
+	 * @throws IllegalStateException if the fixture is missing or has no message
+	 */
+	static Fixtures load() {
+		try (InputStream in = Fixtures.class.getResourceAsStream(FIXTURE)) {
+			if (in == null) {
+				throw new IllegalStateException("Missing benchmark fixture " + FIXTURE);
+			}
+			String json = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+				.filter(line -> !line.startsWith("#"))
+				.collect(Collectors.joining("\n"));
+			try (MappingIterator<JsonNode> documents = MAPPER.readerFor(JsonNode.class).readValues(json)) {
+				while (documents.hasNext()) {
+					JsonNode document = documents.next();
+					if (document.has("accountId") && document.has("domainAuditRecordId")) {
+						return new Fixtures(document.get("accountId").asLong(),
+							document.get("domainAuditRecordId").asLong(), document.get("url").asText());
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		throw new IllegalStateException("No page-audit message in " + FIXTURE);
+	}
+
+	/**
+	 * Returns the {@code PageBuiltMessage} JSON carried in the envelope's data.
+	 *
+	 * @return the payload; never {@code null}
+	 */
+	String payload() {
+		return payload(PAGE_ID);
+	}
+
+	/**
+	 * Returns the {@code PageBuiltMessage} JSON for the given page.
+	 *
+	 * @param pageId the page id
+	 * @return the payload; never {@code null}
+	 */
+	String payload(long pageId) {
+		return "{\"accountId\":" + accountId + ",\"pageId\":" + pageId + ",\"auditRecordId\":" + auditRecordId + "}";
+	}
+
+	private String encodedPayload(long pageId) {
+		return Base64.getEncoder().encodeToString(payload(pageId).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns a push envelope as Pub/Sub sends it, including the attributes,
+	 * ids and timestamps the service skips over.
+	 *
+	 * @return the UTF-8 request body; never {@code null}
+	 */
+	byte[] envelope() {
+		return envelope(PAGE_ID).getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns a push envelope for the given page, as {@link #envelope()} does.
+	 *
+	 * @param pageId the page id
+	 * @return the envelope JSON; never {@code null}
+	 */
+	String envelope(long pageId) {
+		return "{\"message\":{\"attributes\":{\"url\":\"" + url + "\"},\"data\":\"" + encodedPayload(pageId) + "\","
+			+ "\"messageId\":\"9876543210\",\"publishTime\":\"2024-05-01T12:00:00.000Z\"},"
+			+ "\"subscription\":\"projects/look-see/subscriptions/page-built\"}";
+	}
+
+	/**
+	 * Returns a batch push body: a JSON array of envelopes for consecutive
+	 * pages starting at {@link #PAGE_ID}.
+	 *
+	 * @param size the number of envelopes
+	 * @return the UTF-8 request body; never {@code null}
+	 */
+	byte[] batch(int size) {
+		StringJoiner items = new StringJoiner(",", "[", "]");
+		for (int i = 0; i < size; i++) {
+			items.add(envelope(PAGE_ID + i));
+		}
+		return items.toString().getBytes(StandardCharsets.UTF_8);
+	}
+}
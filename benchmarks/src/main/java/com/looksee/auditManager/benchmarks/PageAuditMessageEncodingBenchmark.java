@@ -0,0 +1,84 @@
+package com.looksee.auditManager.benchmarks;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.pubsub.v1.PubsubMessage;
+import com.looksee.auditManager.publish.PageAuditMessageFormat;
+import com.looksee.models.message.PageAuditMessage;
+
+/**
+ * Cost of turning a {@link PageAuditMessage} into Pub/Sub data in each
+ * {@link PageAuditMessageFormat}, and of a consumer decoding it again.
+ *
+ * <p>{@link #encode} builds the {@code PubsubMessage} the way
+ * {@code PageAuditMessagePublisher} does: encoded straight to bytes, wrapped
+ * without a copy, with the {@code contentType} attribute. {@link #encodeViaString}
+ * is the path it replaced for JSON: serialize to a {@code String}, then let
+ * the client's converter copy it into UTF-8 bytes. The encoded size of each
+ * format is printed once per trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageAuditMessageEncodingBenchmark {
+	private static final JsonMapper STRING_MAPPER = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+	@Param({ "JSON", "CBOR" })
+	public PageAuditMessageFormat format;
+
+	private PageAuditMessage message;
+	private byte[] encoded;
+
+	@Setup
+	public void setup() throws IOException {
+		message = new PageAuditMessage(Fixtures.load().accountId, 77_000_001L);
+		message.setMessageId(UUID.randomUUID().toString());
+		message.setPublishTime(LocalDateTime.of(2024, 1, 1, 12, 30, 15, 123_000_000));
+		encoded = format.encode(message);
+		System.out.println("# PageAuditMessage " + format + ": " + encoded.length + " bytes");
+	}
+
+	@Benchmark
+	public PubsubMessage encode() throws IOException {
+		return PubsubMessage.newBuilder()
+			.setData(UnsafeByteOperations.unsafeWrap(format.encode(message)))
+			.putAttributes(PageAuditMessageFormat.CONTENT_TYPE_ATTRIBUTE, format.getContentType())
+			.build();
+	}
+
+	/** The publish path before messages were encoded to bytes; ignores {@code format}. */
+	@Benchmark
+	public PubsubMessage encodeViaString() throws IOException {
+		return PubsubMessage.newBuilder()
+			.setData(ByteString.copyFromUtf8(STRING_MAPPER.writeValueAsString(message)))
+			.build();
+	}
+
+	/** What every downstream consumer pays per message. */
+	@Benchmark
+	public PageAuditMessage decode() throws IOException {
+		return format.decode(encoded);
+	}
+}
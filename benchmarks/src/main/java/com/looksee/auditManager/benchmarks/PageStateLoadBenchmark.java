@@ -0,0 +1,213 @@
+package com.looksee.auditManager.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.TypeVariable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.internal.value.NodeValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import com.looksee.auditManager.repository.PageAuditEligibility;
+import com.looksee.auditManager.repository.PageAuditEligibilityRepository;
+import com.looksee.models.PageState;
+
+/**
+ * Heap allocated per message to read the page a new audit record is linked
+ * to: the full {@code PageState} the audit path used to load after the
+ * eligibility check, against the eligibility row that is now the only thing
+ * it reads. Compare {@code gc.alloc.rate.norm} between {@link #fullPageState}
+ * and {@link #eligibility}.
+ *
+ * <p>Neo4j is not involved. Each operation builds the result row its query
+ * returns from UTF-8 bytes, as the driver does when unpacking a response,
+ * and maps it. {@link #fullPageState} gets a node with every
+ * {@code PageState} property, {@code sourceBytes} of HTML in both
+ * {@code src} and {@code generalizedSrc}, and {@code elements} related
+ * {@code ElementState} nodes. {@link #eligibility} gets the scalars of
+ * {@link PageAuditEligibilityRepository}'s query and is mapped by the
+ * repository itself. The full-page figure is a lower bound: SDN's reflective mapping of
+ * the node and its elements into entities comes on top.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageStateLoadBenchmark {
+	private static final List<String> PAGE_LABELS = List.of("PageState", "LookseeObject");
+	private static final List<String> ELEMENT_LABELS = List.of("ElementState", "LookseeObject");
+	private static final List<String> FULL_KEYS = List.of("page", "elements");
+	private static final List<String> ELIGIBILITY_KEYS = List.of("auditLabels", "alreadyAudited", "landable", "pageStatePresent");
+
+	@Param({ "20000", "200000" })
+	public int sourceBytes;
+
+	@Param({ "0", "200" })
+	public int elements;
+
+	private long auditRecordId;
+	private byte[] url;
+	private byte[] source;
+	private byte[] shortText;
+	private byte[] outerHtml;
+	private PageAuditEligibilityRepository repository;
+	private Record eligibilityRow;
+
+	@Setup
+	public void setup() {
+		Fixtures fixtures = Fixtures.load();
+		auditRecordId = fixtures.auditRecordId;
+		url = fixtures.url.getBytes(StandardCharsets.UTF_8);
+		byte[] html = "<div class=\"section\"><a href=\"/path\">link text</a></div>".getBytes(StandardCharsets.UTF_8);
+		source = new byte[sourceBytes];
+		for (int i = 0; i < sourceBytes; i++) {
+			source[i] = html[i % html.length];
+		}
+		shortText = Arrays.copyOf(source, 64);
+		outerHtml = Arrays.copyOf(source, Math.min(sourceBytes, 512));
+		repository = new PageAuditEligibilityRepository(neo4jClient(() -> eligibilityRow));
+	}
+
+	/** What the audit path loaded before: the whole page and its elements. */
+	@Benchmark
+	public PageState fullPageState() {
+		Map<String, Value> properties = new HashMap<>();
+		properties.put("key", text(shortText));
+		properties.put("createdAt", text(shortText));
+		properties.put("auditRecordId", Values.value(Fixtures.PAGE_ID));
+		properties.put("src", text(source));
+		properties.put("generalizedSrc", text(source));
+		properties.put("url", text(url));
+		properties.put("urlAfterLoading", text(url));
+		properties.put("viewportScreenshotUrl", text(shortText));
+		properties.put("fullPageScreenshotUrl", text(shortText));
+		properties.put("pageName", text(shortText));
+		properties.put("browser", Values.value("CHROME"));
+		properties.put("title", text(shortText));
+		properties.put("loginRequired", Values.value(false));
+		properties.put("secured", Values.value(true));
+		properties.put("elementExtractionComplete", Values.value(true));
+		properties.put("interactiveElementExtractionComplete", Values.value(true));
+		properties.put("scrollXOffset", Values.value(0L));
+		properties.put("scrollYOffset", Values.value(0L));
+		properties.put("viewportWidth", Values.value(1280));
+		properties.put("viewportHeight", Values.value(800));
+		properties.put("fullPageWidth", Values.value(1280));
+		properties.put("fullPageHeight", Values.value(6400));
+		properties.put("httpStatus", Values.value(200));
+		properties.put("scriptUrls", texts(20));
+		properties.put("stylesheetUrls", texts(10));
+		properties.put("metadata", texts(10));
+		properties.put("faviconUrl", texts(1));
+		properties.put("keywords", texts(10));
+		Value page = new NodeValue(new InternalNode(Fixtures.PAGE_ID, PAGE_LABELS, properties));
+
+		List<Value> elementNodes = new ArrayList<>(elements);
+		for (int i = 0; i < elements; i++) {
+			Map<String, Value> element = new HashMap<>();
+			element.put("key", text(shortText));
+			element.put("xpath", text(shortText));
+			element.put("outerHtml", text(outerHtml));
+			element.put("ownedText", text(shortText));
+			element.put("cssSelector", text(shortText));
+			element.put("screenshotUrl", text(shortText));
+			elementNodes.add(new NodeValue(new InternalNode(Fixtures.PAGE_ID + 1 + i, ELEMENT_LABELS, element)));
+		}
+		Record row = new InternalRecord(FULL_KEYS, new Value[] { page, Values.value(elementNodes) });
+
+		PageState pageState = new PageState();
+		pageState.setUrl(row.get("page").asNode().get("url").asString());
+		return pageState;
+	}
+
+	/** What the audit path reads now: the eligibility row alone. */
+	@Benchmark
+	public PageAuditEligibility eligibility() {
+		eligibilityRow = new InternalRecord(ELIGIBILITY_KEYS, new Value[] {
+			Values.value(List.of("LINKS", "TITLES", "ALT_TEXT")),
+			Values.value(false), Values.value(true), Values.value(true) });
+		return repository.resolve(auditRecordId, Fixtures.PAGE_ID);
+	}
+
+	private static Value text(byte[] utf8) {
+		return Values.value(new String(utf8, StandardCharsets.UTF_8));
+	}
+
+	private Value texts(int count) {
+		List<String> values = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			values.add(new String(shortText, StandardCharsets.UTF_8));
+		}
+		return Values.value(values);
+	}
+
+	/**
+	 * A {@link Neo4jClient} whose every query returns the row {@code row}
+	 * supplies, mapped by the caller's mapping function. Each step of the
+	 * fluent API is proxied once, so a query allocates little beyond the
+	 * proxies' argument arrays.
+	 */
+	private static Neo4jClient neo4jClient(Supplier<Record> row) {
+		return (Neo4jClient) new SingleRowHandler(row).proxy(Neo4jClient.class);
+	}
+
+	private static final class SingleRowHandler implements InvocationHandler {
+		private final Supplier<Record> row;
+		private final Map<Class<?>, Object> proxies = new HashMap<>();
+		private BiFunction<Object, Record, Object> mapper;
+
+		SingleRowHandler(Supplier<Record> row) {
+			this.row = row;
+		}
+
+		Object proxy(Class<?> step) {
+			return proxies.computeIfAbsent(step, type -> Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, this));
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			if ("mappedBy".equals(method.getName())) {
+				mapper = (BiFunction<Object, Record, Object>) args[0];
+			} else if ("one".equals(method.getName())) {
+				return Optional.ofNullable(mapper.apply(null, row.get()));
+			}
+			if (method.getGenericReturnType() instanceof TypeVariable) {
+				// bindAll and friends return the step they were called on
+				return proxy;
+			}
+			if (!method.getReturnType().isInterface()) {
+				throw new UnsupportedOperationException(method.getName());
+			}
+			return proxy(method.getReturnType());
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.looksee.auditManager.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.looksee.auditManager.PageBuiltMessageDecoder;
+import com.looksee.auditManager.PageBuiltMessageDecoder.PushDecodeResult;
+import com.looksee.auditManager.cache.DomainAuditLabelCache;
+import com.looksee.auditManager.config.LabelCacheProperties;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.auditManager.metrics.AuditMetrics.Stage;
+import com.looksee.models.enums.AuditName;
+import com.looksee.models.message.PageAuditMessage;
+import com.looksee.models.message.PageBuiltMessage;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * One benchmark per stage a push delivery goes through, measured on the
+ * {@code UrlMessage} fixture through the decoder entry points the service
+ * uses, plus the cost of the metrics recorded around each stage.
+ *
+ * <p>Envelope validation and Base64 decoding happen inside the streaming
+ * pass, so their cost together is the difference between
+ * {@link #decodePushEnvelope} and {@link #parseMessage}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineStageBenchmark {
+	/** Same configuration as {@code PageAuditMessageFormat.JSON}. */
+	private static final JsonMapper OUTPUT_MAPPER = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+	private static final int BATCH_SIZE = 10;
+	private static final List<String> CUSTOM_LABELS = List.of("TEXT_BACKGROUND_CONTRAST", "LINKS", "ALT_TEXT",
+		"READING_COMPLEXITY", "TITLES");
+
+	private final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+	private final AuditMetrics metrics = new AuditMetrics(registry);
+	private final PageBuiltMessageDecoder decoder = new PageBuiltMessageDecoder(metrics);
+	private final DomainAuditLabelCache labelCache = new DomainAuditLabelCache(new LabelCacheProperties(), registry);
+
+	private Fixtures fixtures;
+	private byte[] envelope;
+	private byte[] batch;
+	private byte[] payload;
+	private PageAuditMessage auditMessage;
+	private long uncachedAuditRecordId;
+
+	@Setup
+	public void setup() {
+		fixtures = Fixtures.load();
+		envelope = fixtures.envelope();
+		batch = fixtures.batch(BATCH_SIZE);
+		payload = fixtures.payload().getBytes(StandardCharsets.UTF_8);
+		auditMessage = new PageAuditMessage(fixtures.accountId, 77_000_001L);
+		labelCache.resolve(fixtures.auditRecordId, CUSTOM_LABELS);
+	}
+
+	/** Binding already-decoded bytes to a message, as the pull subscriber does. */
+	@Benchmark
+	public PageBuiltMessage parseMessage() {
+		return decoder.parseMessage(payload);
+	}
+
+	/** Validation, decoding and parsing together, as the push endpoint does them. */
+	@Benchmark
+	public PageBuiltMessage decodePushEnvelope() {
+		return decoder.decodePushEnvelope(new ByteArrayInputStream(envelope)).message();
+	}
+
+	/** A batch push of {@value #BATCH_SIZE} envelopes, as the batch endpoint decodes it. */
+	@Benchmark
+	public List<PushDecodeResult> decodeBatch() {
+		return decoder.decodeBatch(new ByteArrayInputStream(batch));
+	}
+
+	/** Label resolution for a domain audit seen before, the common case. */
+	@Benchmark
+	public Set<AuditName> resolveAuditNamesCached() {
+		return labelCache.resolve(fixtures.auditRecordId, CUSTOM_LABELS);
+	}
+
+	/** Label resolution for the first page of a domain audit with custom labels. */
+	@Benchmark
+	public Set<AuditName> resolveAuditNamesUncached() {
+		long auditRecordId = --uncachedAuditRecordId;
+		Set<AuditName> names = labelCache.resolve(auditRecordId, CUSTOM_LABELS);
+		labelCache.invalidate(auditRecordId);
+		return names;
+	}
+
+	/** Label resolution for the first page of a domain audit without labels, which falls back to the defaults. */
+	@Benchmark
+	public Set<AuditName> resolveDefaultAuditNames() {
+		long auditRecordId = --uncachedAuditRecordId;
+		Set<AuditName> names = labelCache.resolve(auditRecordId, List.of());
+		labelCache.invalidate(auditRecordId);
+		return names;
+	}
+
+	/** The cost instrumentation adds to each stage: one histogram timer update. */
+	@Benchmark
+	public void recordStageTimer() {
+		metrics.recordStage(Stage.DECODE, System.nanoTime(), true);
+	}
+
+	@Benchmark
+	public String serializeAuditMessage() throws IOException {
+		return OUTPUT_MAPPER.writeValueAsString(auditMessage);
+	}
+}
@@ -0,0 +1,186 @@
+package com.looksee.auditManager.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherOperations;
+import com.looksee.auditManager.AuditController;
+import com.looksee.auditManager.PageAuditProcessor;
+import com.looksee.auditManager.AuditController.BatchItemResult;
+import com.looksee.auditManager.PageBuiltMessageDecoder;
+import com.looksee.auditManager.batch.PageAuditRecordBatcher;
+import com.looksee.auditManager.cache.DomainAuditLabelCache;
+import com.looksee.auditManager.config.AuditProgressProperties;
+import com.looksee.auditManager.config.BatchPushProperties;
+import com.looksee.auditManager.config.ConcurrencyLimitProperties;
+import com.looksee.auditManager.config.DuplicateFilterProperties;
+import com.looksee.auditManager.config.ExecutionProperties;
+import com.looksee.auditManager.config.FairSchedulingProperties;
+import com.looksee.auditManager.config.LabelCacheProperties;
+import com.looksee.auditManager.config.OutboxProperties;
+import com.looksee.auditManager.config.PageAuditMessageProperties;
+import com.looksee.auditManager.config.PageAuditRoutingProperties;
+import com.looksee.auditManager.config.RetryProperties;
+import com.looksee.auditManager.config.WriteBatchProperties;
+import com.looksee.auditManager.dedup.DuplicatePageFilter;
+import com.looksee.auditManager.dedup.InFlightPages;
+import com.looksee.auditManager.execution.AdaptiveConcurrencyLimiter;
+import com.looksee.auditManager.execution.Bulkheads;
+import com.looksee.auditManager.execution.FairAdmissionScheduler;
+import com.looksee.auditManager.execution.Retries;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.auditManager.progress.AuditProgressTracker;
+import com.looksee.auditManager.publish.PageAuditMessagePublisher;
+import com.looksee.auditManager.publish.PageAuditOutboxRelay;
+import com.looksee.auditManager.publish.PageAuditTopicRouter;
+import com.looksee.auditManager.repository.PageAuditEligibility;
+import com.looksee.auditManager.repository.PageAuditEligibilityRepository;
+import com.looksee.auditManager.repository.PageAuditOutboxRepository;
+import com.looksee.auditManager.repository.PageAuditRecordDraft;
+import com.looksee.auditManager.repository.PageAuditRecordRepository;
+import com.looksee.models.message.PageBuiltMessage;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * A whole {@link AuditController#receiveMessage} call for an eligible page,
+ * with Neo4j and Pub/Sub replaced by in-memory stubs so only this service's
+ * own work is measured.
+ *
+ * <p>Every in-repo stage is real: decoding, the bulkheads, label cache,
+ * record batcher (flushing synchronously, as it does before startup) and
+ * metrics, recorded to a Prometheus registry. Publishing is no longer on the
+ * request path: the outbox relay is not started, so waking it costs only the
+ * check a running relay makes before folding the wake into a pending drain. The duplicate
+ * filter is disabled so every call takes the full path instead of being
+ * rejected after the first.
+ *
+ * <p>{@link #receiveBatch} posts {@code batchSize} envelopes to
+ * {@code POST /batch} per operation; dividing its time per operation by
+ * {@code batchSize} gives the cost per message to compare against
+ * {@link #receiveMessage}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReceiveMessageBenchmark {
+	private AuditController controller;
+	private byte[] envelope;
+
+	@Setup
+	public void setup() {
+		Fixtures fixtures = Fixtures.load();
+		envelope = fixtures.envelope();
+
+		Neo4jClient neo4jClient = unsupported(Neo4jClient.class);
+		PageAuditEligibility eligible = new PageAuditEligibility(List.of("LINKS", "TITLES", "ALT_TEXT"), false, true, true);
+		PageAuditEligibilityRepository eligibilityRepository = new PageAuditEligibilityRepository(neo4jClient) {
+			@Override
+			public PageAuditEligibility resolve(long auditRecordId, long pageId) {
+				return eligible;
+			}
+
+			@Override
+			public List<PageAuditEligibility> resolveAll(List<PageBuiltMessage> messages) {
+				return Collections.nCopies(messages.size(), eligible);
+			}
+		};
+		PageAuditRecordRepository recordRepository = new PageAuditRecordRepository(neo4jClient) {
+			@Override
+			public long[] createForPages(List<PageAuditRecordDraft> drafts) {
+				return new long[drafts.size()];
+			}
+		};
+
+		SettableListenableFuture<String> published = new SettableListenableFuture<>();
+		published.set("message-id");
+		PubSubPublisherOperations publisherOperations = (PubSubPublisherOperations) Proxy.newProxyInstance(
+			PubSubPublisherOperations.class.getClassLoader(), new Class<?>[] { PubSubPublisherOperations.class },
+			(proxy, method, args) -> {
+				if (!"publish".equals(method.getName())) {
+					throw new UnsupportedOperationException(method.getName());
+				}
+				return published;
+			});
+
+		DuplicateFilterProperties dedup = new DuplicateFilterProperties();
+		dedup.setEnabled(false);
+		Bulkheads bulkheads = new Bulkheads(new ExecutionProperties());
+		PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+		AuditMetrics metrics = new AuditMetrics(registry);
+		Retries retries = new Retries(new RetryProperties(), new ExecutionProperties(), registry);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new ConcurrencyLimitProperties(), registry);
+		PageAuditProcessor processor = new PageAuditProcessor(
+			new PageAuditOutboxRelay(new PageAuditOutboxRepository(neo4jClient),
+				new PageAuditMessagePublisher(publisherOperations,
+					new PageAuditTopicRouter("page-audit-topic", new PageAuditRoutingProperties()),
+					new PageAuditMessageProperties(), bulkheads, retries),
+				new OutboxProperties(), bulkheads, metrics, registry),
+			eligibilityRepository,
+			new PageAuditRecordBatcher(recordRepository, new WriteBatchProperties(), bulkheads, retries, metrics),
+			new DomainAuditLabelCache(new LabelCacheProperties(), registry),
+			new DuplicatePageFilter(dedup, registry),
+			new InFlightPages(),
+			bulkheads,
+			retries,
+			metrics,
+			limiter,
+			new AuditProgressTracker(publisherOperations, "audit-update-topic", new AuditProgressProperties(), bulkheads, retries, registry));
+		controller = new AuditController(processor, new PageBuiltMessageDecoder(metrics), metrics, new BatchPushProperties(), limiter,
+			new FairAdmissionScheduler(new FairSchedulingProperties(), new ExecutionProperties(), registry));
+	}
+
+	@Benchmark
+	public ResponseEntity<String> receiveMessage() {
+		return controller.receiveMessage(new ByteArrayInputStream(envelope)).join();
+	}
+
+	@Benchmark
+	public ResponseEntity<List<BatchItemResult>> receiveBatch(BatchBody batch) {
+		return controller.receiveBatch(new ByteArrayInputStream(batch.body)).join();
+	}
+
+	/** A {@code POST /batch} body of {@code batchSize} fixture envelopes for distinct pages. */
+	@State(Scope.Thread)
+	public static class BatchBody {
+		@Param({ "1", "10", "100" })
+		public int batchSize;
+
+		byte[] body;
+
+		@Setup
+		public void setup() {
+			body = Fixtures.load().batch(batchSize);
+		}
+	}
+
+	/** A proxy for collaborators the overridden methods never touch. */
+	private static <T> T unsupported(Class<T> type) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+			(proxy, method, args) -> {
+				throw new UnsupportedOperationException(method.getName());
+			}));
+	}
+}
@@ -0,0 +1,148 @@
+package com.looksee.auditManager.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.looksee.auditManager.loadtest.LoadTestOptions.Arrivals;
+import com.looksee.auditManager.loadtest.MessageGenerator.PlannedMessage;
+
+/**
+ * Sends planned messages to the push endpoint, {@code POST /}, and records
+ * each response in a {@link StepReport}.
+ *
+ * <p>A closed-loop step keeps a fixed number of requests outstanding and
+ * sends the next message as soon as one is answered, so it finds the
+ * throughput the service sustains at that concurrency. An open-loop step
+ * starts requests on a schedule whatever the service's response times, as
+ * Pub/Sub push delivery does, so it shows the latency at a given arrival
+ * rate and how queues build once the rate is more than the service keeps up
+ * with.
+ */
+final class LoadDriver {
+
+	private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(1);
+
+	private final HttpClient client;
+	private final URI endpoint;
+
+	/**
+	 * Creates a driver for the service listening on {@code port}.
+	 *
+	 * @param port the service's HTTP port
+	 */
+	LoadDriver(int port) {
+		this.client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(10))
+			.build();
+		this.endpoint = URI.create("http://localhost:" + port + "/");
+	}
+
+	/**
+	 * Sends every message with {@code concurrency} requests outstanding at a
+	 * time and waits for the last response.
+	 *
+	 * @param messages    the messages, sent in order; must not be {@code null}
+	 * @param concurrency requests to keep outstanding; must be positive
+	 * @param report      where responses are recorded; must not be {@code null}
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	void closedLoop(PlannedMessage[] messages, int concurrency, StepReport report) throws InterruptedException {
+		Objects.requireNonNull(messages, "messages must not be null");
+		Objects.requireNonNull(report, "report must not be null");
+		assert concurrency > 0 : "concurrency must be positive";
+
+		AtomicInteger next = new AtomicInteger();
+		CountDownLatch finished = new CountDownLatch(concurrency);
+		long start = System.nanoTime();
+		for (int i = 0; i < concurrency; i++) {
+			sendNext(messages, next, finished, report);
+		}
+		finished.await();
+		report.elapsed(System.nanoTime() - start);
+	}
+
+	private void sendNext(PlannedMessage[] messages, AtomicInteger next, CountDownLatch finished, StepReport report) {
+		int index = next.getAndIncrement();
+		if (index >= messages.length) {
+			finished.countDown();
+			return;
+		}
+		PlannedMessage message = messages[index];
+		long sent = System.nanoTime();
+		send(message).whenComplete((status, error) -> {
+			report.record(message.expected(), System.nanoTime() - sent, error == null ? status : -1);
+			sendNext(messages, next, finished, report);
+		});
+	}
+
+	/**
+	 * Starts one request per message at {@code rate} per second, never more
+	 * than {@code maxOutstanding} at once, and waits for the last response.
+	 *
+	 * @param messages       the messages, sent in order; must not be {@code null}
+	 * @param rate           requests started per second; must be positive
+	 * @param arrivals       how start times are spaced; must not be {@code null}
+	 * @param maxOutstanding cap on requests awaiting a response; must be positive
+	 * @param random         source of Poisson gaps; must not be {@code null}
+	 * @param report         where responses are recorded; must not be {@code null}
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	void openLoop(
+		PlannedMessage[] messages,
+		double rate,
+		Arrivals arrivals,
+		int maxOutstanding,
+		Random random,
+		StepReport report) throws InterruptedException {
+		Objects.requireNonNull(messages, "messages must not be null");
+		Objects.requireNonNull(arrivals, "arrivals must not be null");
+		Objects.requireNonNull(random, "random must not be null");
+		Objects.requireNonNull(report, "report must not be null");
+		assert rate > 0 : "rate must be positive";
+		assert maxOutstanding > 0 : "maxOutstanding must be positive";
+
+		Semaphore outstanding = new Semaphore(maxOutstanding);
+		AtomicLong lastResponse = new AtomicLong();
+		double meanGapNanos = 1e9 / rate;
+		double offsetNanos = 0;
+		long start = System.nanoTime();
+		for (PlannedMessage message : messages) {
+			long due = start + (long) offsetNanos;
+			offsetNanos += arrivals == Arrivals.POISSON ? -Math.log(1 - random.nextDouble()) * meanGapNanos : meanGapNanos;
+
+			for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+				LockSupport.parkNanos(wait);
+			}
+			outstanding.acquire();
+			send(message).whenComplete((status, error) -> {
+				long now = System.nanoTime();
+				report.record(message.expected(), now - due, error == null ? status : -1);
+				lastResponse.accumulateAndGet(now, Math::max);
+				outstanding.release();
+			});
+		}
+		outstanding.acquire(maxOutstanding);
+		report.elapsed(lastResponse.get() - start);
+	}
+
+	private CompletableFuture<Integer> send(PlannedMessage message) {
+		HttpRequest request = HttpRequest.newBuilder(endpoint)
+			.timeout(REQUEST_TIMEOUT)
+			.header("Content-Type", "application/json")
+			.POST(HttpRequest.BodyPublishers.ofByteArray(message.envelope()))
+			.build();
+		return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+	}
+}
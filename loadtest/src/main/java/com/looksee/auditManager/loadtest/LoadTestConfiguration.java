@@ -0,0 +1,31 @@
+package com.looksee.auditManager.loadtest;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Beans the harness adds to the service's context.
+ *
+ * <p>{@link PageAuditTopicStandIn} takes precedence over the auto-configured
+ * {@code PubSubTemplate} as the service's publisher, so page-audit messages
+ * and progress updates never leave the process. The template itself is still created, pointed at
+ * an emulator address nothing listens on, and is never used for publishing.
+ */
+@Configuration(proxyBeanMethods = false)
+class LoadTestConfiguration {
+
+	/** Property carrying {@code --publish-latency} into the context. */
+	static final String PUBLISH_LATENCY_PROPERTY = "loadtest.publish-latency";
+
+	@Bean
+	@Primary
+	PageAuditTopicStandIn pageAuditTopicStandIn(
+		@Value("${" + PUBLISH_LATENCY_PROPERTY + ":0ms}") Duration latency,
+		@Value("${pubsub.audit_update}") String auditUpdateTopic) {
+		return new PageAuditTopicStandIn(latency, auditUpdateTopic);
+	}
+}
@@ -0,0 +1,253 @@
+package com.looksee.auditManager.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Command line of {@code loadtest.jar}, given as {@code --name=value} pairs.
+ *
+ * <p>Options starting with {@code --spring.}, {@code --server.},
+ * {@code --management.}, {@code --logging.} or {@code --audit-manager.} are
+ * not the harness's own and are handed to the service unchanged, so it can be
+ * load tested under any configuration it supports.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> Exactly one of {@link #concurrencySteps()} and
+ *       {@link #rateSteps()} is non-empty.</li>
+ *   <li><b>Invariant:</b> The duplicate and non-landable ratios are in
+ *       {@code [0, 1]} and add up to at most {@code 1}.</li>
+ * </ul>
+ */
+final class LoadTestOptions {
+
+	/** How request start times are spaced in an open-loop step. */
+	enum Arrivals {
+		/** Evenly spaced, one every {@code 1 / rate} seconds. */
+		FIXED,
+		/** Exponentially distributed gaps with a mean of {@code 1 / rate} seconds. */
+		POISSON
+	}
+
+	static final String USAGE = String.join(System.lineSeparator(),
+		"Usage: java -jar target/loadtest.jar [options] [service properties]",
+		"",
+		"Graph:",
+		"  --domain-audits=N          domain audits to seed (default 10)",
+		"  --pages-per-audit=N        page states per domain audit (default 1000)",
+		"  --non-landable-pages=F     fraction of pages no landing step starts with (default 0.2)",
+		"",
+		"Messages:",
+		"  --messages=N               page-built messages per step (default 5000)",
+		"  --warmup=N                 unreported messages sent before the first step (default 1000)",
+		"  --duplicate-ratio=F        share of messages for a page already sent (default 0.1)",
+		"  --non-landable-ratio=F     share of messages for a non-landable page (default 0.1)",
+		"  --seed=N                   random seed for the graph and the message mix (default 42)",
+		"",
+		"Load, one step per value:",
+		"  --concurrency=N[,N...]     closed loop: requests kept outstanding (default 16)",
+		"  --rate=R[,R...]            open loop: requests started per second",
+		"  --arrivals=fixed|poisson   spacing of open-loop start times (default fixed)",
+		"  --max-outstanding=N        open-loop cap on requests outstanding (default 10000)",
+		"",
+		"Page-audit topic stand-in:",
+		"  --publish-latency=MS       delay before each publish completes (default 0)",
+		"",
+		"Any --spring.*, --server.*, --management.*, --logging.* or --audit-manager.*",
+		"option is passed to the service.");
+
+	private static final List<String> SERVICE_PREFIXES = List.of(
+		"--spring.", "--server.", "--management.", "--logging.", "--audit-manager.");
+
+	private int domainAudits = 10;
+	private int pagesPerAudit = 1000;
+	private double nonLandablePages = 0.2;
+	private int messages = 5000;
+	private int warmup = 1000;
+	private double duplicateRatio = 0.1;
+	private double nonLandableRatio = 0.1;
+	private long seed = 42L;
+	private List<Integer> concurrencySteps = List.of();
+	private List<Double> rateSteps = List.of();
+	private Arrivals arrivals = Arrivals.FIXED;
+	private int maxOutstanding = 10_000;
+	private Duration publishLatency = Duration.ZERO;
+	private final List<String> serviceArguments = new ArrayList<>();
+
+	private LoadTestOptions() {
+	}
+
+	/**
+	 * Parses the command line.
+	 *
+	 * @param args the arguments of {@code main}; must not be {@code null}
+	 * @return the options; never {@code null}
+	 * @throws IllegalArgumentException if an option is unknown, malformed or
+	 *         out of range
+	 */
+	static LoadTestOptions parse(String[] args) {
+		Objects.requireNonNull(args, "args must not be null");
+
+		LoadTestOptions options = new LoadTestOptions();
+		Map<String, String> own = new LinkedHashMap<>();
+		for (String arg : args) {
+			if (SERVICE_PREFIXES.stream().anyMatch(arg::startsWith)) {
+				options.serviceArguments.add(arg);
+				continue;
+			}
+			int separator = arg.indexOf('=');
+			if (!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("Expected --name=value but got '" + arg + "'");
+			}
+			own.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+
+		for (Map.Entry<String, String> option : own.entrySet()) {
+			String value = option.getValue();
+			try {
+				switch (option.getKey()) {
+					case "domain-audits" -> options.domainAudits = Integer.parseInt(value);
+					case "pages-per-audit" -> options.pagesPerAudit = Integer.parseInt(value);
+					case "non-landable-pages" -> options.nonLandablePages = Double.parseDouble(value);
+					case "messages" -> options.messages = Integer.parseInt(value);
+					case "warmup" -> options.warmup = Integer.parseInt(value);
+					case "duplicate-ratio" -> options.duplicateRatio = Double.parseDouble(value);
+					case "non-landable-ratio" -> options.nonLandableRatio = Double.parseDouble(value);
+					case "seed" -> options.seed = Long.parseLong(value);
+					case "concurrency" -> options.concurrencySteps = parseList(value, Integer::valueOf);
+					case "rate" -> options.rateSteps = parseList(value, Double::valueOf);
+					case "arrivals" -> options.arrivals = Arrivals.valueOf(value.toUpperCase(Locale.ROOT));
+					case "max-outstanding" -> options.maxOutstanding = Integer.parseInt(value);
+					case "publish-latency" -> options.publishLatency = Duration.ofMillis(Long.parseLong(value));
+					default -> throw new IllegalArgumentException("Unknown option --" + option.getKey());
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Malformed value for --" + option.getKey() + ": '" + value + "'", e);
+			}
+		}
+		if (options.concurrencySteps.isEmpty() && options.rateSteps.isEmpty()) {
+			options.concurrencySteps = List.of(16);
+		}
+		options.validate();
+		return options;
+	}
+
+	private void validate() {
+		require(domainAudits > 0, "--domain-audits must be positive");
+		require(pagesPerAudit > 0, "--pages-per-audit must be positive");
+		require(nonLandablePages >= 0 && nonLandablePages < 1, "--non-landable-pages must be in [0, 1)");
+		require(messages > 0, "--messages must be positive");
+		require(warmup >= 0, "--warmup must not be negative");
+		require(duplicateRatio >= 0 && nonLandableRatio >= 0 && duplicateRatio + nonLandableRatio <= 1,
+			"--duplicate-ratio and --non-landable-ratio must not be negative and must add up to at most 1");
+		require(nonLandableRatio == 0 || nonLandablePages > 0,
+			"--non-landable-ratio needs --non-landable-pages above 0");
+		require(concurrencySteps.isEmpty() || rateSteps.isEmpty(), "--concurrency and --rate cannot be combined");
+		require(concurrencySteps.stream().allMatch(concurrency -> concurrency > 0), "--concurrency must be positive");
+		require(rateSteps.stream().allMatch(rate -> rate > 0), "--rate must be positive");
+		require(maxOutstanding > 0, "--max-outstanding must be positive");
+		require(!publishLatency.isNegative(), "--publish-latency must not be negative");
+	}
+
+	private static void require(boolean condition, String message) {
+		if (!condition) {
+			throw new IllegalArgumentException(message);
+		}
+	}
+
+	private static <T> List<T> parseList(String value, Function<String, T> parser) {
+		List<T> values = new ArrayList<>();
+		for (String item : value.split(",")) {
+			values.add(parser.apply(item.trim()));
+		}
+		return Collections.unmodifiableList(values);
+	}
+
+	/**
+	 * Returns the number of steps the run is made of.
+	 *
+	 * @return the number of concurrency or rate values; at least {@code 1}
+	 */
+	int steps() {
+		return Math.max(concurrencySteps.size(), rateSteps.size());
+	}
+
+	/**
+	 * Returns the number of messages for pages not sent before that the whole
+	 * run is expected to need, warm-up included.
+	 *
+	 * @return the expected number of new pages
+	 */
+	long freshPagesNeeded() {
+		double freshShare = 1 - duplicateRatio - nonLandableRatio;
+		return (long) Math.ceil(((long) messages * steps() + warmup) * freshShare);
+	}
+
+	int domainAudits() {
+		return domainAudits;
+	}
+
+	int pagesPerAudit() {
+		return pagesPerAudit;
+	}
+
+	double nonLandablePages() {
+		return nonLandablePages;
+	}
+
+	int messages() {
+		return messages;
+	}
+
+	int warmup() {
+		return warmup;
+	}
+
+	double duplicateRatio() {
+		return duplicateRatio;
+	}
+
+	double nonLandableRatio() {
+		return nonLandableRatio;
+	}
+
+	long seed() {
+		return seed;
+	}
+
+	List<Integer> concurrencySteps() {
+		return concurrencySteps;
+	}
+
+	List<Double> rateSteps() {
+		return rateSteps;
+	}
+
+	Arrivals arrivals() {
+		return arrivals;
+	}
+
+	int maxOutstanding() {
+		return maxOutstanding;
+	}
+
+	Duration publishLatency() {
+		return publishLatency;
+	}
+
+	/**
+	 * Returns the options meant for the service, in the order given.
+	 *
+	 * @return the {@code --name=value} arguments; never {@code null}
+	 */
+	List<String> serviceArguments() {
+		return Collections.unmodifiableList(serviceArguments);
+	}
+}
@@ -0,0 +1,211 @@
+package com.looksee.auditManager.loadtest;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.looksee.auditManager.Application;
+import com.looksee.auditManager.ProcessingOutcome;
+import com.looksee.auditManager.loadtest.MessageGenerator.PlannedMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Entry point of {@code loadtest.jar}; see {@link LoadTestOptions#USAGE} for
+ * the command line.
+ *
+ * <p>A run starts an embedded Neo4j with only the Bolt connector, seeds it
+ * with a {@link SyntheticGraph}, and starts the service in the same JVM
+ * against it, on a random port and with {@link PageAuditTopicStandIn} in
+ * place of the page-audit topic. Every message of the run is generated
+ * before the service starts. A warm-up is sent and discarded, then each
+ * {@code --concurrency} or {@code --rate} value is run as a step over fresh
+ * messages, and its {@link StepReport} printed as soon as it finishes.
+ * Finally the harness waits for the outbox to be drained and checks that the
+ * service audited exactly the pages that were generated as new.
+ *
+ * <p>The harness, the service and Neo4j share the machine, so the figures
+ * are for comparing configurations, concurrency and graph sizes with each
+ * other, not absolute capacity.
+ */
+public final class LoadTestRunner {
+
+	private static final String MESSAGE_COUNTER = "audit_manager.messages";
+	private static final long OUTBOX_DRAIN_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+	private LoadTestRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (List.of(args).contains("--help")) {
+			System.out.println(LoadTestOptions.USAGE);
+			return;
+		}
+		LoadTestOptions options;
+		try {
+			options = LoadTestOptions.parse(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println();
+			System.err.println(LoadTestOptions.USAGE);
+			System.exit(2);
+			return;
+		}
+		System.exit(run(options, System.out) ? 0 : 1);
+	}
+
+	/**
+	 * Runs a whole load test.
+	 *
+	 * @param options the parsed command line; must not be {@code null}
+	 * @param out     where reports are printed; must not be {@code null}
+	 * @return {@code true} if every new page was audited and published exactly once
+	 * @throws InterruptedException if interrupted while sending
+	 */
+	static boolean run(LoadTestOptions options, PrintStream out) throws InterruptedException {
+		try (Neo4j neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build()) {
+			long seedStart = System.nanoTime();
+			SyntheticGraph graph = SyntheticGraph.seed(neo4j.defaultDatabaseService(), options);
+			out.printf(Locale.ROOT, "Seeded %d domain audits, %d landable and %d non-landable pages (%d nodes) in %.1f s%n",
+				graph.domainAudits(), graph.landablePageCount(), graph.nonLandablePageCount(), graph.nodeCount(),
+				(System.nanoTime() - seedStart) / 1e9);
+
+			MessageGenerator generator = new MessageGenerator(graph, options);
+			PlannedMessage[] warmup = generator.next(options.warmup());
+			List<PlannedMessage[]> steps = new ArrayList<>();
+			for (int step = 0; step < options.steps(); step++) {
+				steps.add(generator.next(options.messages()));
+			}
+			long expectedAudits = countNewPages(warmup);
+			for (PlannedMessage[] step : steps) {
+				expectedAudits += countNewPages(step);
+			}
+
+			try (ConfigurableApplicationContext context = startService(neo4j.boltURI(), options)) {
+				int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+				MeterRegistry registry = context.getBean(MeterRegistry.class);
+				PageAuditTopicStandIn topic = context.getBean(PageAuditTopicStandIn.class);
+				LoadDriver driver = new LoadDriver(port);
+				Random arrivals = new Random(options.seed());
+
+				long unanswered = 0;
+				if (warmup.length > 0) {
+					out.printf(Locale.ROOT, "Warming up with %d messages%n", warmup.length);
+					StepReport report = new StepReport("warm-up");
+					driver.closedLoop(warmup, options.concurrencySteps().isEmpty() ? 16 : options.concurrencySteps().get(0), report);
+					unanswered += report.unanswered();
+				}
+
+				for (int step = 0; step < steps.size(); step++) {
+					StepReport report;
+					Map<String, Double> countedBefore = outcomeCounts(registry);
+					long publishedBefore = topic.published();
+					if (options.concurrencySteps().isEmpty()) {
+						double rate = options.rateSteps().get(step);
+						report = new StepReport(String.format(Locale.ROOT, "rate=%.0f/s (%s), %d messages",
+							rate, options.arrivals().name().toLowerCase(Locale.ROOT), options.messages()));
+						driver.openLoop(steps.get(step), rate, options.arrivals(), options.maxOutstanding(), arrivals, report);
+					} else {
+						int concurrency = options.concurrencySteps().get(step);
+						report = new StepReport("concurrency=" + concurrency + ", " + options.messages() + " messages");
+						driver.closedLoop(steps.get(step), concurrency, report);
+					}
+					report.serviceOutcomes(difference(outcomeCounts(registry), countedBefore));
+					report.published(topic.published() - publishedBefore);
+					report.print(out);
+					unanswered += report.unanswered();
+				}
+
+				return verify(out, neo4j, topic, expectedAudits, unanswered);
+			}
+		}
+	}
+
+	private static ConfigurableApplicationContext startService(URI boltUri, LoadTestOptions options) {
+		List<String> args = new ArrayList<>(List.of(
+			"--server.port=0",
+			"--management.server.port=-1",
+			"--spring.main.banner-mode=off",
+			"--spring.neo4j.uri=" + boltUri,
+			"--spring.cloud.gcp.pubsub.emulator-host=localhost:8085",
+			"--spring.cloud.gcp.secretmanager.enabled=false",
+			"--" + LoadTestConfiguration.PUBLISH_LATENCY_PROPERTY + "=" + options.publishLatency().toMillis() + "ms"));
+		// given last, so they take precedence over the defaults above
+		args.addAll(options.serviceArguments());
+		return new SpringApplicationBuilder(Application.class, LoadTestConfiguration.class)
+			.run(args.toArray(new String[0]));
+	}
+
+	/**
+	 * Waits for the outbox relay to publish a message for every new page, then
+	 * compares what the service wrote and published with what was generated.
+	 * Pages whose messages were shed or failed may legitimately have no
+	 * record, so if any were, records only need to match what was published.
+	 */
+	private static boolean verify(
+		PrintStream out,
+		Neo4j neo4j,
+		PageAuditTopicStandIn topic,
+		long expectedAudits,
+		long unanswered) throws InterruptedException {
+		long waitStart = System.nanoTime();
+		long deadline = System.currentTimeMillis() + OUTBOX_DRAIN_TIMEOUT_MILLIS;
+		long records = SyntheticGraph.countPageAuditRecords(neo4j.defaultDatabaseService());
+		while (topic.published() < records && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		long drainMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waitStart);
+		long published = topic.published();
+
+		out.printf(Locale.ROOT, "%n== totals%n");
+		out.printf(Locale.ROOT, "new pages sent: %d, page audit records: %d, page-audit messages published: %d (%d bytes)%n",
+			expectedAudits, records, published, topic.publishedBytes());
+		out.printf(Locale.ROOT, "outbox drained %d ms after the last response%n", drainMillis);
+		out.printf(Locale.ROOT, "audit progress updates published: %d%n", topic.progressUpdates());
+		boolean consistent = published == records && (records == expectedAudits || unanswered > 0 && records < expectedAudits);
+		if (!consistent) {
+			out.println("MISMATCH: every new page should have exactly one record and one published message");
+		} else if (records < expectedAudits) {
+			out.printf(Locale.ROOT, "%d messages were shed or failed, so %d new pages were not audited%n",
+				unanswered, expectedAudits - records);
+		}
+		return consistent;
+	}
+
+	private static long countNewPages(PlannedMessage[] messages) {
+		long fresh = 0;
+		for (PlannedMessage message : messages) {
+			if (message.expected() == ProcessingOutcome.AUDIT_CREATED) {
+				fresh++;
+			}
+		}
+		return fresh;
+	}
+
+	private static Map<String, Double> outcomeCounts(MeterRegistry registry) {
+		Map<String, Double> counts = new HashMap<>();
+		for (Counter counter : registry.find(MESSAGE_COUNTER).counters()) {
+			counts.merge(counter.getId().getTag("outcome"), counter.count(), Double::sum);
+		}
+		return counts;
+	}
+
+	private static Map<String, Double> difference(Map<String, Double> after, Map<String, Double> before) {
+		Map<String, Double> difference = new HashMap<>();
+		after.forEach((outcome, count) -> difference.put(outcome, count - before.getOrDefault(outcome, 0.0)));
+		return difference;
+	}
+}
@@ -0,0 +1,148 @@
+package com.looksee.auditManager.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Random;
+
+import com.looksee.auditManager.ProcessingOutcome;
+
+/**
+ * Produces the push envelopes of a run, each labelled with the outcome the
+ * service should answer it with.
+ *
+ * <p>Each message is, independently, a duplicate with probability
+ * {@code --duplicate-ratio}, for a non-landable page with probability
+ * {@code --non-landable-ratio}, and otherwise for a landable page not sent
+ * before. Duplicates repeat a random earlier new page, possibly one whose
+ * first message is still in flight; the first message before any new page
+ * has been sent is a new page instead. New pages are taken from every domain
+ * audit in a shuffled order, so consecutive messages land on different
+ * domain audits as they do when many crawls run at once.
+ *
+ * <p>Envelopes carry the same fields Pub/Sub push delivery sends; see the
+ * {@code test_messages/UrlMessage} fixture.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> A message labelled {@link ProcessingOutcome#AUDIT_CREATED}
+ *       names a page no earlier message named.</li>
+ * </ul>
+ */
+final class MessageGenerator {
+
+	/** A generated push envelope and the outcome it should be processed to. */
+	record PlannedMessage(ProcessingOutcome expected, byte[] envelope) {
+	}
+
+	private final SyntheticGraph graph;
+	private final double duplicateRatio;
+	private final double nonLandableRatio;
+	private final Random random;
+	private final int[] freshAudits;
+	private final long[] freshPages;
+	private final int[] nonLandableAudits;
+	private int nextFresh;
+	private long nextMessageId = 1;
+
+	/**
+	 * Creates a generator over the pages of {@code graph}.
+	 *
+	 * @param graph   the seeded graph; must not be {@code null}
+	 * @param options the message mix and seed; must not be {@code null}
+	 * @throws IllegalArgumentException if the graph has too few landable pages
+	 *         for the run
+	 */
+	MessageGenerator(SyntheticGraph graph, LoadTestOptions options) {
+		this.graph = Objects.requireNonNull(graph, "graph must not be null");
+		Objects.requireNonNull(options, "options must not be null");
+		this.duplicateRatio = options.duplicateRatio();
+		this.nonLandableRatio = options.nonLandableRatio();
+		this.random = new Random(options.seed());
+
+		long landable = graph.landablePageCount();
+		if (landable < options.freshPagesNeeded() * 11 / 10) {
+			throw new IllegalArgumentException("The run needs about " + options.freshPagesNeeded()
+				+ " new pages but the graph has " + landable + " landable ones;"
+				+ " raise --domain-audits or --pages-per-audit, or send fewer --messages");
+		}
+		if (nonLandableRatio > 0 && graph.nonLandablePageCount() == 0) {
+			throw new IllegalArgumentException("The graph has no non-landable pages; raise --non-landable-pages or --pages-per-audit");
+		}
+
+		this.freshAudits = new int[(int) landable];
+		this.freshPages = new long[(int) landable];
+		int index = 0;
+		int nonLandableAuditCount = 0;
+		for (int audit = 0; audit < graph.domainAudits(); audit++) {
+			for (long page : graph.landablePages(audit)) {
+				freshAudits[index] = audit;
+				freshPages[index++] = page;
+			}
+			if (graph.nonLandablePages(audit).length > 0) {
+				nonLandableAuditCount++;
+			}
+		}
+		for (int i = freshPages.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int audit = freshAudits[i];
+			freshAudits[i] = freshAudits[j];
+			freshAudits[j] = audit;
+			long page = freshPages[i];
+			freshPages[i] = freshPages[j];
+			freshPages[j] = page;
+		}
+
+		this.nonLandableAudits = new int[nonLandableAuditCount];
+		for (int audit = 0, i = 0; audit < graph.domainAudits(); audit++) {
+			if (graph.nonLandablePages(audit).length > 0) {
+				nonLandableAudits[i++] = audit;
+			}
+		}
+	}
+
+	/**
+	 * Generates the next {@code count} messages.
+	 *
+	 * @param count the number of messages
+	 * @return the messages, in the order to send them; never {@code null}
+	 * @throws IllegalStateException if the graph runs out of landable pages
+	 */
+	PlannedMessage[] next(int count) {
+		PlannedMessage[] messages = new PlannedMessage[count];
+		for (int i = 0; i < count; i++) {
+			messages[i] = next();
+		}
+		return messages;
+	}
+
+	private PlannedMessage next() {
+		double draw = random.nextDouble();
+		if (draw < duplicateRatio && nextFresh > 0) {
+			int earlier = random.nextInt(nextFresh);
+			return plan(ProcessingOutcome.ALREADY_AUDITED, freshAudits[earlier], freshPages[earlier]);
+		}
+		if (draw >= duplicateRatio && draw < duplicateRatio + nonLandableRatio) {
+			int audit = nonLandableAudits[random.nextInt(nonLandableAudits.length)];
+			long[] pages = graph.nonLandablePages(audit);
+			return plan(ProcessingOutcome.NOT_LANDABLE, audit, pages[random.nextInt(pages.length)]);
+		}
+		if (nextFresh == freshPages.length) {
+			throw new IllegalStateException("Ran out of landable pages after " + nextFresh
+				+ "; raise --domain-audits or --pages-per-audit");
+		}
+		int fresh = nextFresh++;
+		return plan(ProcessingOutcome.AUDIT_CREATED, freshAudits[fresh], freshPages[fresh]);
+	}
+
+	private PlannedMessage plan(ProcessingOutcome expected, int audit, long pageId) {
+		String payload = "{\"accountId\":" + graph.accountId(audit) + ",\"pageId\":" + pageId
+			+ ",\"auditRecordId\":" + graph.auditRecordId(audit) + "}";
+		String envelope = "{\"message\":{\"attributes\":{},\"data\":\""
+			+ Base64.getEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "\","
+			+ "\"messageId\":\"" + nextMessageId++ + "\",\"publishTime\":\"" + Instant.now() + "\"},"
+			+ "\"subscription\":\"projects/look-see/subscriptions/page-built\"}";
+		return new PlannedMessage(expected, envelope.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,129 @@
+package com.looksee.auditManager.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherOperations;
+import com.google.pubsub.v1.PubsubMessage;
+
+/**
+ * In-process stand-in for the page-audit topic: accepts every publish,
+ * counts it, and completes its future after {@code --publish-latency}, or at
+ * once if that is zero. Progress updates for the audit-update topic are
+ * accepted the same way but counted apart, so the page-audit totals still
+ * match the records written.
+ *
+ * <p>Only the {@link PubsubMessage} variant is used by the service's
+ * {@link com.looksee.auditManager.publish.PageAuditMessagePublisher}; the
+ * others are counted the same way so nothing published is lost from the
+ * totals.
+ */
+final class PageAuditTopicStandIn implements PubSubPublisherOperations, DisposableBean {
+
+	private final Duration latency;
+	private final String auditUpdateTopic;
+	private final ScheduledExecutorService scheduler;
+	private final LongAdder published = new LongAdder();
+	private final LongAdder publishedBytes = new LongAdder();
+	private final LongAdder progressUpdates = new LongAdder();
+	private final AtomicLong messageIds = new AtomicLong();
+
+	/**
+	 * Creates a new {@code PageAuditTopicStandIn}.
+	 *
+	 * @param latency          delay before each publish completes; must not be {@code null} or negative
+	 * @param auditUpdateTopic the topic progress updates are published to; must not be {@code null}
+	 * @throws NullPointerException if any argument is {@code null}
+	 */
+	PageAuditTopicStandIn(Duration latency, String auditUpdateTopic) {
+		this.latency = Objects.requireNonNull(latency, "latency must not be null");
+		this.auditUpdateTopic = Objects.requireNonNull(auditUpdateTopic, "auditUpdateTopic must not be null");
+		assert !latency.isNegative() : "latency must not be negative";
+		this.scheduler = latency.isZero() ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "page-audit-topic-stand-in");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	public <T> ListenableFuture<String> publish(String topic, T payload, Map<String, String> headers) {
+		return accept(topic, 0);
+	}
+
+	@Override
+	public <T> ListenableFuture<String> publish(String topic, T payload) {
+		return accept(topic, 0);
+	}
+
+	@Override
+	public ListenableFuture<String> publish(String topic, PubsubMessage message) {
+		return accept(topic, message.getData().size());
+	}
+
+	/**
+	 * Returns the number of messages published so far.
+	 *
+	 * @return the number of publishes
+	 */
+	long published() {
+		return published.sum();
+	}
+
+	/**
+	 * Returns the number of payload bytes published so far.
+	 *
+	 * @return the total size of the published data
+	 */
+	long publishedBytes() {
+		return publishedBytes.sum();
+	}
+
+	/**
+	 * Returns the number of progress updates published to the audit-update
+	 * topic so far.
+	 *
+	 * @return the number of progress updates
+	 */
+	long progressUpdates() {
+		return progressUpdates.sum();
+	}
+
+	@Override
+	public void destroy() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+	}
+
+	private ListenableFuture<String> accept(String topic, int bytes) {
+		String messageId = Long.toString(messageIds.incrementAndGet());
+		SettableListenableFuture<String> future = new SettableListenableFuture<>();
+		boolean progressUpdate = auditUpdateTopic.equals(topic);
+		Runnable complete = () -> {
+			if (progressUpdate) {
+				progressUpdates.increment();
+			} else {
+				published.increment();
+				publishedBytes.add(bytes);
+			}
+			future.set(messageId);
+		};
+		if (scheduler == null) {
+			complete.run();
+		} else {
+			scheduler.schedule(complete, latency.toNanos(), TimeUnit.NANOSECONDS);
+		}
+		return future;
+	}
+}
@@ -0,0 +1,175 @@
+package com.looksee.auditManager.loadtest;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.looksee.auditManager.ProcessingOutcome;
+
+/**
+ * Responses to one step of a run, grouped by the outcome each message was
+ * generated to have.
+ *
+ * <p>Latency is taken from when a request was due to start to when its
+ * response arrived. In a closed-loop step that is when it was sent; in an
+ * open-loop step it is its scheduled start time, so time spent waiting
+ * behind {@code --max-outstanding} counts against the service as it would
+ * against Pub/Sub, rather than being left out.
+ *
+ * <p>Responses are counted as {@code ok} ({@code 200}), {@code shed}
+ * ({@code 429}, the adaptive concurrency limit) or {@code failed} (any other
+ * status, or no response). Only the outcome a message was generated for is
+ * known here, as {@code POST /} answers every processed message the same
+ * way; {@link #serviceOutcomes(Map)} records what the service itself counted.
+ */
+final class StepReport {
+
+	private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+	private final String label;
+	private final Map<ProcessingOutcome, OutcomeStats> outcomes = new EnumMap<>(ProcessingOutcome.class);
+	private long elapsedNanos;
+	private long published;
+	private Map<String, Double> serviceOutcomes = Map.of();
+
+	/**
+	 * Creates an empty report.
+	 *
+	 * @param label how the step is shown, such as {@code concurrency=16}; must not be {@code null}
+	 */
+	StepReport(String label) {
+		this.label = Objects.requireNonNull(label, "label must not be null");
+		for (ProcessingOutcome outcome : ProcessingOutcome.values()) {
+			outcomes.put(outcome, new OutcomeStats());
+		}
+	}
+
+	/**
+	 * Records a response. Safe to call from any thread.
+	 *
+	 * @param expected     the outcome the message was generated for; must not be {@code null}
+	 * @param latencyNanos time from the request's due start to its response
+	 * @param status       the HTTP status, or {@code -1} if there was no response
+	 */
+	void record(ProcessingOutcome expected, long latencyNanos, int status) {
+		OutcomeStats stats = outcomes.get(expected);
+		stats.latency.recordValue(Math.min(Math.max(latencyNanos, 0), HIGHEST_TRACKABLE_NANOS));
+		if (status == 200) {
+			stats.ok.increment();
+		} else if (status == 429) {
+			stats.shed.increment();
+		} else {
+			stats.failed.increment();
+		}
+	}
+
+	/**
+	 * Returns the number of responses other than {@code 200}, or missing.
+	 *
+	 * @return the number of shed and failed messages
+	 */
+	long unanswered() {
+		long unanswered = 0;
+		for (OutcomeStats stats : outcomes.values()) {
+			unanswered += stats.shed.sum() + stats.failed.sum();
+		}
+		return unanswered;
+	}
+
+	/**
+	 * Sets the time from the first request's due start to the last response.
+	 *
+	 * @param elapsedNanos the step's duration
+	 */
+	void elapsed(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Sets the number of page-audit messages published during the step.
+	 *
+	 * @param published the number of messages the topic stand-in accepted
+	 */
+	void published(long published) {
+		this.published = published;
+	}
+
+	/**
+	 * Sets the messages the service counted during the step, by the
+	 * {@code outcome} tag of {@code audit_manager.messages}.
+	 *
+	 * @param counts the counter increments by outcome; must not be {@code null}
+	 */
+	void serviceOutcomes(Map<String, Double> counts) {
+		this.serviceOutcomes = new TreeMap<>(counts);
+	}
+
+	/**
+	 * Prints the step as a table, one row per generated outcome and one for
+	 * every response.
+	 *
+	 * @param out where to print; must not be {@code null}
+	 */
+	void print(PrintStream out) {
+		Histogram all = new Histogram(3);
+		long ok = 0;
+		long shed = 0;
+		long failed = 0;
+		double seconds = elapsedNanos / 1e9;
+
+		out.printf(Locale.ROOT, "%n== %s: %.1f s%n", label, seconds);
+		out.printf(Locale.ROOT, "%-16s %8s %8s %8s %8s %10s %9s %9s %9s %9s %9s%n",
+			"outcome", "sent", "ok", "shed", "failed", "msg/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+		for (Map.Entry<ProcessingOutcome, OutcomeStats> entry : outcomes.entrySet()) {
+			OutcomeStats stats = entry.getValue();
+			Histogram latency = stats.latency.copy();
+			if (latency.getTotalCount() == 0) {
+				continue;
+			}
+			all.add(latency);
+			ok += stats.ok.sum();
+			shed += stats.shed.sum();
+			failed += stats.failed.sum();
+			printRow(out, entry.getKey().name().toLowerCase(Locale.ROOT), latency, stats.ok.sum(), stats.shed.sum(),
+				stats.failed.sum(), seconds);
+		}
+		printRow(out, "all", all, ok, shed, failed, seconds);
+
+		StringBuilder counted = new StringBuilder();
+		serviceOutcomes.forEach((outcome, count) -> {
+			if (count > 0) {
+				counted.append(' ').append(outcome).append('=').append(Math.round(count));
+			}
+		});
+		out.printf(Locale.ROOT, "service counted:%s%n", counted.length() == 0 ? " nothing" : counted);
+		out.printf(Locale.ROOT, "page-audit messages published: %d%n", published);
+	}
+
+	private static void printRow(PrintStream out, String name, Histogram latency, long ok, long shed, long failed, double seconds) {
+		out.printf(Locale.ROOT, "%-16s %8d %8d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+			name, latency.getTotalCount(), ok, shed, failed, seconds > 0 ? latency.getTotalCount() / seconds : 0,
+			millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+			millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+			millis(latency.getMaxValue()));
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6;
+	}
+
+	/** Latency and response counts of the messages generated for one outcome. */
+	private static final class OutcomeStats {
+		final ConcurrentHistogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+		final LongAdder ok = new LongAdder();
+		final LongAdder shed = new LongAdder();
+		final LongAdder failed = new LongAdder();
+	}
+}
@@ -0,0 +1,241 @@
+package com.looksee.auditManager.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+
+import com.looksee.auditManager.cache.DomainAuditLabelCache;
+import com.looksee.models.enums.AuditName;
+
+/**
+ * Domain audits and page states written straight into the embedded database
+ * before the service starts.
+ *
+ * <p>Every page belongs to one domain audit through
+ * {@code (DomainAuditRecord)-[:HAS]->(PageState)}. A page is landable when a
+ * {@code (LandingStep)-[:STARTS_WITH]->(PageState)} relationship points at
+ * it, which {@code --non-landable-pages} of them are given none of. These are
+ * the patterns the service's eligibility query matches, with the labels
+ * Spring Data Neo4j maps the LookseeCore entities to, so the graph looks to
+ * the service like one LookseeCore wrote. No page has a page audit record
+ * yet.
+ *
+ * <p>Pages are written in {@value #PAGES_PER_TRANSACTION}-page transactions;
+ * each carries a URL, as the eligible-page projection loads it.
+ */
+final class SyntheticGraph {
+
+	static final int PAGES_PER_TRANSACTION = 5_000;
+
+	static final String CREATE_DOMAIN_AUDIT_QUERY =
+		"CREATE (dar:DomainAuditRecord:AuditRecord:LookseeObject {key: $key, auditLabels: $auditLabels, "
+		+ "createdAt: localdatetime()}) "
+		+ "RETURN id(dar) AS id";
+
+	static final String CREATE_PAGES_QUERY =
+		"MATCH (dar:DomainAuditRecord) WHERE id(dar) = $auditRecordId "
+		+ "UNWIND $pages AS row "
+		+ "CREATE (dar)-[:HAS]->(page:PageState:LookseeObject {key: row.key, url: row.url, createdAt: localdatetime()}) "
+		+ "FOREACH (landable IN CASE WHEN row.landable THEN [1] ELSE [] END | "
+		+ "CREATE (:LandingStep:Step:LookseeObject {key: row.key + ':landing'})-[:STARTS_WITH]->(page)) "
+		+ "RETURN id(page) AS id, row.landable AS landable";
+
+	private final long[] auditRecordIds;
+	private final long[] accountIds;
+	private final long[][] landablePages;
+	private final long[][] nonLandablePages;
+
+	private SyntheticGraph(long[] auditRecordIds, long[] accountIds, long[][] landablePages, long[][] nonLandablePages) {
+		this.auditRecordIds = auditRecordIds;
+		this.accountIds = accountIds;
+		this.landablePages = landablePages;
+		this.nonLandablePages = nonLandablePages;
+	}
+
+	/**
+	 * Writes the graph described by {@code options}.
+	 *
+	 * @param database the embedded database; must not be {@code null}
+	 * @param options  graph size and seed; must not be {@code null}
+	 * @return the ids of everything written; never {@code null}
+	 */
+	static SyntheticGraph seed(GraphDatabaseService database, LoadTestOptions options) {
+		Objects.requireNonNull(database, "database must not be null");
+		Objects.requireNonNull(options, "options must not be null");
+
+		List<String> auditLabels = new ArrayList<>();
+		for (AuditName auditName : DomainAuditLabelCache.DEFAULT_AUDIT_NAMES) {
+			auditLabels.add(auditName.name());
+		}
+
+		Random random = new Random(options.seed());
+		int audits = options.domainAudits();
+		long[] auditRecordIds = new long[audits];
+		long[] accountIds = new long[audits];
+		long[][] landablePages = new long[audits][];
+		long[][] nonLandablePages = new long[audits][];
+		for (int audit = 0; audit < audits; audit++) {
+			String key = "domainauditrecord:loadtest-" + audit;
+			auditRecordIds[audit] = database.executeTransactionally(CREATE_DOMAIN_AUDIT_QUERY,
+				Map.of("key", key, "auditLabels", auditLabels),
+				result -> (Long) result.next().get("id"));
+			accountIds[audit] = 1_000L + audit;
+
+			PageIds pages = new PageIds();
+			for (int first = 0; first < options.pagesPerAudit(); first += PAGES_PER_TRANSACTION) {
+				int last = Math.min(first + PAGES_PER_TRANSACTION, options.pagesPerAudit());
+				List<Map<String, Object>> rows = new ArrayList<>(last - first);
+				for (int page = first; page < last; page++) {
+					Map<String, Object> row = new HashMap<>();
+					row.put("key", "pagestate:loadtest-" + audit + "-" + page);
+					row.put("url", "https://site-" + audit + ".example.com/page/" + page);
+					row.put("landable", random.nextDouble() >= options.nonLandablePages());
+					rows.add(row);
+				}
+				database.executeTransactionally(CREATE_PAGES_QUERY,
+					Map.of("auditRecordId", auditRecordIds[audit], "pages", rows),
+					result -> {
+						result.forEachRemaining(row -> pages.add((Long) row.get("id"), (Boolean) row.get("landable")));
+						return null;
+					});
+			}
+			landablePages[audit] = pages.landable();
+			nonLandablePages[audit] = pages.nonLandable();
+		}
+		return new SyntheticGraph(auditRecordIds, accountIds, landablePages, nonLandablePages);
+	}
+
+	/**
+	 * Returns the number of domain audits.
+	 *
+	 * @return the number of domain audits
+	 */
+	int domainAudits() {
+		return auditRecordIds.length;
+	}
+
+	/**
+	 * Returns the node id of a domain audit record.
+	 *
+	 * @param audit the domain audit's index, from {@code 0}
+	 * @return its node id
+	 */
+	long auditRecordId(int audit) {
+		return auditRecordIds[audit];
+	}
+
+	/**
+	 * Returns the account a domain audit belongs to.
+	 *
+	 * @param audit the domain audit's index, from {@code 0}
+	 * @return its account id
+	 */
+	long accountId(int audit) {
+		return accountIds[audit];
+	}
+
+	/**
+	 * Returns the landable pages of a domain audit.
+	 *
+	 * @param audit the domain audit's index, from {@code 0}
+	 * @return their node ids; must not be modified
+	 */
+	long[] landablePages(int audit) {
+		return landablePages[audit];
+	}
+
+	/**
+	 * Returns the pages of a domain audit that no landing step starts with.
+	 *
+	 * @param audit the domain audit's index, from {@code 0}
+	 * @return their node ids; must not be modified
+	 */
+	long[] nonLandablePages(int audit) {
+		return nonLandablePages[audit];
+	}
+
+	/**
+	 * Returns the number of landable pages across every domain audit.
+	 *
+	 * @return the number of landable pages
+	 */
+	long landablePageCount() {
+		long count = 0;
+		for (long[] pages : landablePages) {
+			count += pages.length;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of non-landable pages across every domain audit.
+	 *
+	 * @return the number of non-landable pages
+	 */
+	long nonLandablePageCount() {
+		long count = 0;
+		for (long[] pages : nonLandablePages) {
+			count += pages.length;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of nodes the graph was seeded with: domain audits,
+	 * pages and landing steps.
+	 *
+	 * @return the number of nodes
+	 */
+	long nodeCount() {
+		return domainAudits() + 2 * landablePageCount() + nonLandablePageCount();
+	}
+
+	/**
+	 * Counts the page audit records the service has written so far. Pages
+	 * are only ever sent for domain audits of this graph, so this is also the
+	 * number of distinct pages it audited.
+	 *
+	 * @param database the embedded database; must not be {@code null}
+	 * @return the number of {@code PageAuditRecord} nodes
+	 */
+	static long countPageAuditRecords(GraphDatabaseService database) {
+		return database.executeTransactionally("MATCH (par:PageAuditRecord) RETURN count(par) AS count",
+			Map.of(), result -> (Long) result.next().get("count"));
+	}
+
+	/** Page ids of one domain audit, split by landability as they come back from Neo4j. */
+	private static final class PageIds {
+		private long[] landable = new long[16];
+		private long[] nonLandable = new long[16];
+		private int landableCount;
+		private int nonLandableCount;
+
+		void add(long id, boolean isLandable) {
+			if (isLandable) {
+				if (landableCount == landable.length) {
+					landable = Arrays.copyOf(landable, landableCount * 2);
+				}
+				landable[landableCount++] = id;
+			} else {
+				if (nonLandableCount == nonLandable.length) {
+					nonLandable = Arrays.copyOf(nonLandable, nonLandableCount * 2);
+				}
+				nonLandable[nonLandableCount++] = id;
+			}
+		}
+
+		long[] landable() {
+			return Arrays.copyOf(landable, landableCount);
+		}
+
+		long[] nonLandable() {
+			return Arrays.copyOf(nonLandable, nonLandableCount);
+		}
+	}
+}
@@ -3,17 +3,32 @@ package com.looksee.auditManager;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.annotation.PropertySources;
 import org.springframework.data.neo4j.repository.config.EnableNeo4jRepositories;
 
+import com.looksee.auditManager.config.ReplayProperties;
+import com.looksee.auditManager.config.StartupProperties;
+
 /**
  * Entry point for the Audit Manager Spring Boot microservice.
  *
  * <p>Bootstraps the application context, scanning only the
  * {@code com.looksee.auditManager} package for components while pulling
- * entity and repository definitions from the LookseeCore library.
+ * entity and repository definitions from the LookseeCore library. Typed
+ * settings classes are picked up from {@code com.looksee.auditManager.config}.
+ * Entities are scanned from {@code com.looksee.models} only; LookseeCore's
+ * {@code com.looksee.gcp} package holds clients, not entities.
+ *
+ * <p>With {@code audit-manager.startup.exit-after-start=true} the application
+ * shuts down as soon as it has started. The Docker build uses this to record
+ * the classes loaded during startup in a class-data sharing archive. With
+ * {@code audit-manager.replay.enabled=true}, as in the {@code replay} profile,
+ * it shuts down once {@link com.looksee.auditManager.replay.ArchiveReplayer}
+ * has replayed its archives, with a non-zero exit code if any record failed.
  *
  * <p>The auto-configuration class {@link com.looksee.LookseeCoreAutoConfiguration}
  * is explicitly excluded to avoid a circular-import issue; the beans it would
@@ -26,6 +41,7 @@ import org.springframework.data.neo4j.repository.config.EnableNeo4jRepositories;
     com.looksee.LookseeCoreAutoConfiguration.class
 })
 @ComponentScan(basePackages = {"com.looksee.auditManager"})
+@ConfigurationPropertiesScan(basePackages = {"com.looksee.auditManager.config"})
 @PropertySources({
 	@PropertySource("classpath:application.properties")
 })
@@ -33,12 +49,15 @@ import org.springframework.data.neo4j.repository.config.EnableNeo4jRepositories;
     "com.looksee.models.repository"
 })
 @EntityScan(basePackages = {
-    "com.looksee.models",
-	"com.looksee.gcp"
+    "com.looksee.models"
 })
 public class Application {
 
 	public static void main(String[] args) {
-		SpringApplication.run(Application.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(Application.class, args);
+		if (context.getBean(StartupProperties.class).isExitAfterStart()
+				|| context.getBean(ReplayProperties.class).isEnabled()) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 }
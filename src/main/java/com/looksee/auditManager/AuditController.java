@@ -1,12 +1,12 @@
 package com.looksee.auditManager;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
-import java.util.HashSet;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,32 +17,55 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.looksee.gcp.PubSubPageAuditPublisherImpl;
+import com.looksee.auditManager.PageBuiltMessageDecoder.PushDecodeResult;
+import com.looksee.auditManager.config.BatchPushProperties;
+import com.looksee.auditManager.execution.AdaptiveConcurrencyLimiter;
+import com.looksee.auditManager.execution.AdaptiveConcurrencyLimiter.Permit;
+import com.looksee.auditManager.execution.AdmissionRejectedException;
+import com.looksee.auditManager.execution.FairAdmissionScheduler;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.auditManager.metrics.FailureCause;
 import com.looksee.mapper.Body;
 import com.looksee.models.PageState;
-import com.looksee.models.audit.AuditRecord;
-import com.looksee.models.audit.DomainAuditRecord;
 import com.looksee.models.audit.PageAuditRecord;
-import com.looksee.models.enums.AuditName;
-import com.looksee.models.enums.ExecutionStatus;
 import com.looksee.models.message.PageAuditMessage;
 import com.looksee.models.message.PageBuiltMessage;
-import com.looksee.services.AuditRecordService;
-import com.looksee.services.PageStateService;
 
 /**
  * REST controller that receives page-built notifications from Google Cloud
  * Pub/Sub and orchestrates the creation of page audit records.
  *
+ * <p>Decoding is delegated to {@link PageBuiltMessageDecoder} and the
+ * eligibility and creation logic to {@link PageAuditProcessor}; this class only
+ * maps their results onto HTTP responses.
+ *
+ * <p>The handler returns a {@link CompletableFuture}, so Spring MVC releases the
+ * request thread while the audit record is being written and writes the
+ * response from the write callback.
+ *
+ * <p>Decoded push messages are started in per-account fair order by
+ * {@link FairAdmissionScheduler}, and answered {@code 429} if they wait there
+ * too long. When a message starts it takes a permit from the
+ * {@link AdaptiveConcurrencyLimiter}; when that is at its limit the request
+ * is answered {@code 429} straight away, which Pub/Sub treats as a negative
+ * acknowledgement and backs off from, instead of waiting on an already
+ * overloaded Neo4j. Taking the permit only once the message starts keeps a
+ * busy account's waiting messages from using up the limit that would let
+ * other accounts' messages through.
+ *
+ * <p>{@code POST /batch} accepts many messages per request and answers with one
+ * {@link BatchItemResult} per item, carrying the status and body
+ * {@code POST /} would have returned for that item alone.
+ *
+ * <p>{@code POST /seed} audits every page of a domain audit whose crawl has
+ * already finished, without a page-built message per page, and answers with
+ * a {@link SeedResult} summary.
+ *
  * <h3>Contract</h3>
  * <ul>
  *   <li><b>Precondition:</b> All constructor dependencies must be non-null.</li>
  *   <li><b>Postcondition:</b> Every HTTP response uses the correct status code
- *       ({@code 200}, {@code 400}, or {@code 500}) and includes a human-readable
+ *       ({@code 200}, {@code 400}, {@code 404}, {@code 429}, or {@code 500}) and includes a human-readable
  *       body describing the outcome.</li>
  *   <li><b>Invariant:</b> A page is never audited more than once within the
  *       same domain audit, and only landable pages with a persisted
@@ -53,34 +76,48 @@ import com.looksee.services.PageStateService;
 public class AuditController {
 	private static final Logger log = LoggerFactory.getLogger(AuditController.class);
 
-	private static final ObjectMapper INPUT_MAPPER = new ObjectMapper();
-	private static final JsonMapper OUTPUT_MAPPER = JsonMapper.builder().addModule(new JavaTimeModule()).build();
-
-	private final AuditRecordService auditRecordService;
-	private final PubSubPageAuditPublisherImpl auditRecordTopic;
-	private final PageStateService pageStateService;
+	private final PageAuditProcessor pageAuditProcessor;
+	private final PageBuiltMessageDecoder messageDecoder;
+	private final AuditMetrics metrics;
+	private final BatchPushProperties batchProperties;
+	private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+	private final FairAdmissionScheduler admissionScheduler;
 
 	/**
 	 * Creates a new {@code AuditController}.
 	 *
-	 * @param auditRecordService service for persisting and querying audit records; must not be {@code null}
-	 * @param auditRecordTopic   Pub/Sub publisher for page-audit messages; must not be {@code null}
-	 * @param pageStateService   service for querying page state and landability; must not be {@code null}
-	 * @throws NullPointerException if any argument is {@code null}
+	 * @param pageAuditProcessor processor that creates page audits; must not be {@code null}
+	 * @param messageDecoder     decoder for Pub/Sub push envelopes; must not be {@code null}
+	 * @param metrics            outcome counters and in-flight gauge; must not be {@code null}
+	 * @param batchProperties    batch endpoint settings; must not be {@code null}
+	 * @param concurrencyLimiter admission control for push requests; must not be {@code null}
+	 * @param admissionScheduler per-account fair ordering of admitted messages; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if the batch size limit is not positive
 	 */
 	public AuditController(
-		AuditRecordService auditRecordService,
-		PubSubPageAuditPublisherImpl auditRecordTopic,
-		PageStateService pageStateService) {
-		this.auditRecordService = Objects.requireNonNull(auditRecordService, "auditRecordService must not be null");
-		this.auditRecordTopic = Objects.requireNonNull(auditRecordTopic, "auditRecordTopic must not be null");
-		this.pageStateService = Objects.requireNonNull(pageStateService, "pageStateService must not be null");
+		PageAuditProcessor pageAuditProcessor,
+		PageBuiltMessageDecoder messageDecoder,
+		AuditMetrics metrics,
+		BatchPushProperties batchProperties,
+		AdaptiveConcurrencyLimiter concurrencyLimiter,
+		FairAdmissionScheduler admissionScheduler) {
+		this.pageAuditProcessor = Objects.requireNonNull(pageAuditProcessor, "pageAuditProcessor must not be null");
+		this.messageDecoder = Objects.requireNonNull(messageDecoder, "messageDecoder must not be null");
+		this.metrics = Objects.requireNonNull(metrics, "metrics must not be null");
+		this.batchProperties = Objects.requireNonNull(batchProperties, "batchProperties must not be null");
+		this.concurrencyLimiter = Objects.requireNonNull(concurrencyLimiter, "concurrencyLimiter must not be null");
+		this.admissionScheduler = Objects.requireNonNull(admissionScheduler, "admissionScheduler must not be null");
+
+		if (batchProperties.getMaxItems() < 1) {
+			throw new IllegalArgumentException("audit-manager.batch-push.max-items must be positive");
+		}
 	}
 
 	/**
 	 * Receives a Base64-encoded {@link PageBuiltMessage} wrapped in a Pub/Sub
 	 * {@link Body} and, when eligible, creates a {@link PageAuditRecord} and
-	 * publishes a {@link PageAuditMessage}.
+	 * queues a {@link PageAuditMessage} in the outbox.
 	 *
 	 * <h4>Contract</h4>
 	 * <ul>
@@ -88,211 +125,310 @@ public class AuditController {
 	 *       non-empty, valid Base64 data that deserializes to a
 	 *       {@link PageBuiltMessage}.</li>
 	 *   <li><b>Postcondition (success):</b> Returns {@code 200 OK}. If the page
-	 *       was eligible, a new audit record has been persisted and a message
-	 *       published to Pub/Sub.</li>
+	 *       was eligible, a new audit record has been persisted together with
+	 *       the outbox entry its message is published from.</li>
 	 *   <li><b>Postcondition (client error):</b> Returns {@code 400 Bad Request}
 	 *       when preconditions are violated.</li>
+	 *   <li><b>Postcondition (overload):</b> Returns {@code 429 Too Many
+	 *       Requests}, without touching Neo4j, when the concurrency limit is
+	 *       reached or fair scheduling does not admit the message in time.</li>
 	 *   <li><b>Postcondition (server error):</b> Returns {@code 500} when an
 	 *       unexpected or infrastructure error occurs.</li>
 	 * </ul>
 	 *
-	 * @param body the Pub/Sub push message envelope
-	 * @return a {@link ResponseEntity} indicating the processing outcome
+	 * <p>The request body is read as a stream by
+	 * {@link PageBuiltMessageDecoder#decodePushEnvelope(InputStream)} rather
+	 * than bound to a {@link Body}, so no intermediate objects or strings are
+	 * built for the envelope or its payload.
+	 *
+	 * @param body the raw Pub/Sub push message envelope; must not be {@code null}
+	 * @return a future completed with the {@link ResponseEntity} indicating the
+	 *         processing outcome; never completed exceptionally
 	 */
 	@RequestMapping(value = "/", method = RequestMethod.POST)
-	public ResponseEntity<String> receiveMessage(@RequestBody Body body) {
-		if (!hasValidPayload(body)) {
-			log.warn("Received invalid Pub/Sub payload: message or data is missing");
-			return badRequest("Invalid Pub/Sub payload");
+	public CompletableFuture<ResponseEntity<String>> receiveMessage(InputStream body) {
+		metrics.requestStarted();
+		PushDecodeResult decoded = messageDecoder.decodePushEnvelope(body);
+		if (!decoded.isAccepted()) {
+			metrics.rejected(decoded.rejection());
+			metrics.requestFinished();
+			return CompletableFuture.completedFuture(badRequest(decoded.rejection().getDescription()));
 		}
 
-		String payload = decodePayload(body.getMessage().getData());
-		if (payload == null) {
-			return badRequest("Invalid message encoding");
-		}
-
-		PageBuiltMessage pageBuiltMessage = parseMessage(payload);
-		if (pageBuiltMessage == null) {
-			return badRequest("Invalid message format");
-		}
-
-		return processMessage(pageBuiltMessage);
+		PageBuiltMessage message = decoded.message();
+		CompletableFuture<ResponseEntity<String>> response = admissionScheduler
+			.trySubmit(message.getAccountId(), () -> processMessage(message))
+			.exceptionally(error -> {
+				// processMessage's future never fails: the message was turned away, or processing threw
+				if (unwrap(error) instanceof AdmissionRejectedException) {
+					metrics.admissionShed();
+					return new ResponseEntity<>("Too many requests", HttpStatus.TOO_MANY_REQUESTS);
+				}
+				return toResponse(message, null, error);
+			});
+		response.whenComplete((result, error) -> metrics.requestFinished());
+		return response;
 	}
 
 	/**
-	 * Determines whether a page is eligible for auditing and, if so, creates
-	 * and publishes the audit record.
+	 * Receives a JSON array of Pub/Sub push envelopes and raw
+	 * {@link PageBuiltMessage} objects, in any mix, and processes them as one
+	 * batch.
 	 *
-	 * @param pageBuiltMessage the validated message; must not be {@code null}
-	 * @return {@code 200 OK} on success, {@code 500} on infrastructure failure
+	 * <h4>Contract</h4>
+	 * <ul>
+	 *   <li><b>Precondition:</b> {@code body} is a JSON array of at most
+	 *       {@code audit-manager.batch-push.max-items} items.</li>
+	 *   <li><b>Postcondition (success):</b> Returns {@code 200 OK} with one
+	 *       {@link BatchItemResult} per item, in request order, each holding the
+	 *       status and body {@link #receiveMessage(InputStream)} returns for
+	 *       that item. A malformed item gets its own {@code 400} result and
+	 *       does not affect the others.</li>
+	 *   <li><b>Postcondition (client error):</b> Returns {@code 400 Bad Request}
+	 *       with no results when preconditions are violated.</li>
+	 * </ul>
+	 *
+	 * <p>Eligibility is resolved for all valid items in one query and their
+	 * records are queued for creation together; see
+	 * {@link PageAuditProcessor#processAll(List)}.
+	 *
+	 * @param body the raw JSON array; must not be {@code null}
+	 * @return a future completed once every item has been processed; never
+	 *         completed exceptionally
 	 */
-	private ResponseEntity<String> processMessage(PageBuiltMessage pageBuiltMessage) {
-		assert pageBuiltMessage != null : "pageBuiltMessage must not be null at this point";
-
-		try {
-			Set<AuditName> auditNames = buildAuditNames(pageBuiltMessage.getAuditRecordId());
-
-			boolean alreadyAudited = auditRecordService.wasPageAlreadyAudited(pageBuiltMessage.getAuditRecordId(), pageBuiltMessage.getPageId());
-			boolean isLandable = pageStateService.isPageLandable(pageBuiltMessage.getPageId());
-			Optional<PageState> pageState = pageStateService.findById(pageBuiltMessage.getPageId());
+	@RequestMapping(value = "/batch", method = RequestMethod.POST)
+	public CompletableFuture<ResponseEntity<List<BatchItemResult>>> receiveBatch(InputStream body) {
+		metrics.requestStarted();
+		List<PushDecodeResult> decoded = messageDecoder.decodeBatch(body);
+		if (decoded == null || decoded.size() > batchProperties.getMaxItems()) {
+			if (decoded != null) {
+				log.warn("Rejected batch of {} items; the limit is {}", decoded.size(), batchProperties.getMaxItems());
+			}
+			metrics.requestFinished();
+			return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+		}
 
-			if (!alreadyAudited && isLandable && pageState.isPresent()) {
-				return createAndPublishAudit(pageBuiltMessage, pageState.get(), auditNames);
+		List<CompletableFuture<BatchItemResult>> results = new ArrayList<>(decoded.size());
+		List<PageBuiltMessage> accepted = new ArrayList<>(decoded.size());
+		List<Integer> acceptedIndices = new ArrayList<>(decoded.size());
+		for (PushDecodeResult item : decoded) {
+			if (item.isAccepted()) {
+				acceptedIndices.add(results.size());
+				accepted.add(item.message());
+				results.add(null);
+			} else {
+				metrics.rejected(item.rejection());
+				results.add(CompletableFuture.completedFuture(BatchItemResult.of(badRequest(item.rejection().getDescription()))));
 			}
+		}
 
-			log.info("Skipping pageId={} (alreadyAudited={}, landable={}, pageStatePresent={})",
-				pageBuiltMessage.getPageId(), alreadyAudited, isLandable, pageState.isPresent());
-			return ResponseEntity.ok("Successfully processed message");
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-			log.error("Audit processing interrupted", e);
-			return new ResponseEntity<>("Audit processing interrupted", HttpStatus.INTERNAL_SERVER_ERROR);
-		} catch (ExecutionException e) {
-			log.error("Error publishing audit message", e);
-			return new ResponseEntity<>("Failed to process message", HttpStatus.INTERNAL_SERVER_ERROR);
-		} catch (Exception e) {
-			log.error("Unexpected error while handling PageBuiltMessage", e);
-			return new ResponseEntity<>("Failed to process message", HttpStatus.INTERNAL_SERVER_ERROR);
+		List<CompletableFuture<ProcessingOutcome>> outcomes = accepted.isEmpty()
+			? List.of()
+			: pageAuditProcessor.processAll(accepted);
+		for (int i = 0; i < outcomes.size(); i++) {
+			PageBuiltMessage message = accepted.get(i);
+			results.set(acceptedIndices.get(i), outcomes.get(i)
+				.handle((outcome, error) -> BatchItemResult.of(toResponse(message, outcome, error))));
 		}
+
+		CompletableFuture<ResponseEntity<List<BatchItemResult>>> response = CompletableFuture
+			.allOf(results.toArray(new CompletableFuture<?>[0]))
+			.thenApply(done -> {
+				List<BatchItemResult> items = new ArrayList<>(results.size());
+				results.forEach(result -> items.add(result.join()));
+				return ResponseEntity.ok(items);
+			});
+		response.whenComplete((result, error) -> metrics.requestFinished());
+		return response;
 	}
 
 	/**
-	 * Creates a {@link PageAuditRecord}, persists it, links it to the parent
-	 * domain audit, and publishes a {@link PageAuditMessage} to Pub/Sub.
+	 * Creates page audits for every landable page of a domain
+	 * audit that does not have one yet.
+	 *
+	 * <h4>Contract</h4>
+	 * <ul>
+	 *   <li><b>Precondition:</b> {@code request} names both the account and
+	 *       the domain audit.</li>
+	 *   <li><b>Postcondition (success):</b> Returns {@code 200 OK} with a
+	 *       {@link SeedResult} once every page has been written,
+	 *       or has failed. Pages that failed can be retried by seeding
+	 *       again.</li>
+	 *   <li><b>Postcondition (client error):</b> Returns {@code 400 Bad Request}
+	 *       when preconditions are violated, and {@code 404 Not Found} when
+	 *       the domain audit does not exist.</li>
+	 *   <li><b>Postcondition (server error):</b> Returns {@code 500} when the
+	 *       pages cannot be listed.</li>
+	 * </ul>
+	 *
+	 * <p>The request is not subject to the concurrency limit; the batcher and
+	 * the bulkheads bound its load on Neo4j and Pub/Sub. See
+	 * {@link PageAuditProcessor#processDomainAudit(long, long)}.
 	 *
-	 * @param pageBuiltMessage the source message; must not be {@code null}
-	 * @param pageState        the page to audit; must not be {@code null}
-	 * @param auditNames       audit types to run; must not be {@code null} or empty
-	 * @return {@code 200 OK} after successful persistence and publishing
-	 * @throws JsonProcessingException if the audit message cannot be serialized
-	 * @throws ExecutionException      if the Pub/Sub publish future fails
-	 * @throws InterruptedException    if the current thread is interrupted while publishing
+	 * @param request the domain audit to seed; must not be {@code null}
+	 * @return a future completed once every page has been processed; never
+	 *         completed exceptionally
 	 */
-	private ResponseEntity<String> createAndPublishAudit(PageBuiltMessage pageBuiltMessage, PageState pageState, Set<AuditName> auditNames)
-		throws JsonProcessingException, ExecutionException, InterruptedException {
-		assert pageBuiltMessage != null : "pageBuiltMessage must not be null";
-		assert pageState != null : "pageState must not be null";
-		assert auditNames != null && !auditNames.isEmpty() : "auditNames must not be null or empty";
-
-		log.info("Received page for auditing, pageId={}, url={}", pageBuiltMessage.getPageId(), pageState.getUrl());
-
-		AuditRecord auditRecord = new PageAuditRecord(
-			ExecutionStatus.BUILDING_PAGE,
-			new HashSet<>(),
-			pageState,
-			true,
-			auditNames);
+	@RequestMapping(value = "/seed", method = RequestMethod.POST)
+	public CompletableFuture<ResponseEntity<SeedResult>> seedDomainAudit(@RequestBody SeedRequest request) {
+		if (request.accountId() == null || request.auditRecordId() == null) {
+			return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+		}
+		long auditRecordId = request.auditRecordId();
 
-		auditRecord = auditRecordService.save(auditRecord);
-		assert auditRecord != null : "auditRecordService.save() must return a non-null record";
+		metrics.requestStarted();
+		Optional<List<CompletableFuture<ProcessingOutcome>>> seeded;
+		try {
+			seeded = pageAuditProcessor.processDomainAudit(request.accountId(), auditRecordId);
+		} catch (RuntimeException e) {
+			metrics.requestFinished();
+			log.error("Failed to list pages to seed for auditRecordId={}", auditRecordId, e);
+			return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+		}
+		if (seeded.isEmpty()) {
+			metrics.requestFinished();
+			return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+		}
 
-		auditRecordService.addPageAuditToDomainAudit(pageBuiltMessage.getAuditRecordId(), auditRecord.getId());
-		auditRecordService.addPageToAuditRecord(auditRecord.getId(), pageBuiltMessage.getPageId());
+		List<CompletableFuture<ProcessingOutcome>> outcomes = new ArrayList<>(seeded.get().size());
+		for (CompletableFuture<ProcessingOutcome> outcome : seeded.get()) {
+			outcomes.add(outcome.handle((result, error) -> {
+				if (error != null) {
+					metrics.failed(error);
+					return null;
+				}
+				metrics.processed(result);
+				return result;
+			}));
+		}
 
-		PageAuditMessage auditMessage = new PageAuditMessage(pageBuiltMessage.getAccountId(), auditRecord.getId());
-		String auditRecordJson = OUTPUT_MAPPER.writeValueAsString(auditMessage);
-		log.info("Sending PageAuditMessage to Pub/Sub for pageAuditId={}", auditRecord.getId());
-		auditRecordTopic.publish(auditRecordJson);
-		return ResponseEntity.ok("Successfully processed message");
+		CompletableFuture<ResponseEntity<SeedResult>> response = CompletableFuture
+			.allOf(outcomes.toArray(new CompletableFuture<?>[0]))
+			.thenApply(done -> {
+				SeedResult result = SeedResult.of(outcomes);
+				if (result.failed() > 0) {
+					log.error("Seeding auditRecordId={} failed for {} of {} pages", auditRecordId, result.failed(), result.pages());
+				}
+				return ResponseEntity.ok(result);
+			});
+		response.whenComplete((result, error) -> metrics.requestFinished());
+		return response;
 	}
 
 	/**
-	 * Resolves the set of audit types to execute. Uses the labels from the
-	 * parent {@link DomainAuditRecord} when available, otherwise falls back to
-	 * a default set.
+	 * Takes a concurrency permit, runs the message through
+	 * {@link PageAuditProcessor}, releases the permit and maps the result onto
+	 * an HTTP response.
 	 *
-	 * @param auditRecordId the parent audit record identifier
-	 * @return a non-null, non-empty set of {@link AuditName}s
+	 * @param pageBuiltMessage the validated message; must not be {@code null}
+	 * @return a future completed with {@code 200 OK} on success, {@code 429}
+	 *         when the concurrency limit is reached or {@code 500} on
+	 *         infrastructure failure
 	 */
-	private Set<AuditName> buildAuditNames(long auditRecordId) {
-		Optional<AuditRecord> optRecord = auditRecordService.findById(auditRecordId);
-		if (optRecord.isPresent() && optRecord.get() instanceof DomainAuditRecord) {
-			DomainAuditRecord record = (DomainAuditRecord) optRecord.get();
-			Set<AuditName> labels = record.getAuditLabels();
-			if (labels != null && !labels.isEmpty()) {
-				return labels;
-			}
-		}
+	private CompletableFuture<ResponseEntity<String>> processMessage(PageBuiltMessage pageBuiltMessage) {
+		assert pageBuiltMessage != null : "pageBuiltMessage must not be null at this point";
 
-		Set<AuditName> defaults = buildDefaultAuditNames();
-		assert !defaults.isEmpty() : "default audit names must never be empty";
-		return defaults;
+		Permit permit = concurrencyLimiter.tryAcquire();
+		if (permit == null) {
+			metrics.shed();
+			return CompletableFuture.completedFuture(new ResponseEntity<>("Too many requests", HttpStatus.TOO_MANY_REQUESTS));
+		}
+		CompletableFuture<ProcessingOutcome> outcome;
+		try {
+			outcome = pageAuditProcessor.process(pageBuiltMessage);
+		} catch (RuntimeException e) {
+			permit.release();
+			throw e;
+		}
+		return outcome
+			.handle((result, error) -> {
+				permit.release();
+				if (error != null && FailureCause.of(error).isBackendFailure()) {
+					concurrencyLimiter.onDropped();
+				}
+				return toResponse(pageBuiltMessage, result, error);
+			});
 	}
 
 	/**
-	 * Returns the default set of audit types applied when no domain-level
-	 * configuration is available.
+	 * Maps the result of processing one message onto its response and counts it.
 	 *
-	 * @return a non-null, non-empty set of {@link AuditName}s
+	 * @param pageBuiltMessage the processed message; must not be {@code null}
+	 * @param outcome          the outcome, if processing succeeded
+	 * @param error            the failure, if processing failed
+	 * @return {@code 200 OK} on success or {@code 500} on infrastructure failure
 	 */
-	private Set<AuditName> buildDefaultAuditNames() {
-		Set<AuditName> auditNames = new HashSet<>();
-		auditNames.add(AuditName.TEXT_BACKGROUND_CONTRAST);
-		auditNames.add(AuditName.NON_TEXT_BACKGROUND_CONTRAST);
-		auditNames.add(AuditName.LINKS);
-		auditNames.add(AuditName.TITLES);
-		auditNames.add(AuditName.ENCRYPTED);
-		auditNames.add(AuditName.METADATA);
-		auditNames.add(AuditName.ALT_TEXT);
-		auditNames.add(AuditName.READING_COMPLEXITY);
-		auditNames.add(AuditName.PARAGRAPHING);
-		auditNames.add(AuditName.IMAGE_COPYRIGHT);
-		auditNames.add(AuditName.IMAGE_POLICY);
-		return auditNames;
+	private ResponseEntity<String> toResponse(PageBuiltMessage pageBuiltMessage, ProcessingOutcome outcome, Throwable error) {
+		if (error == null) {
+			metrics.processed(outcome);
+			return ResponseEntity.ok("Successfully processed message");
+		}
+		metrics.failed(error);
+		log.error("Failed to process PageBuiltMessage for pageId={}", pageBuiltMessage.getPageId(), unwrap(error));
+		return new ResponseEntity<>("Failed to process message", HttpStatus.INTERNAL_SERVER_ERROR);
+	}
+
+	private static Throwable unwrap(Throwable error) {
+		return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
 	}
 
 	/**
-	 * Validates that the Pub/Sub envelope contains a message with non-empty data.
+	 * Convenience factory for {@code 400 Bad Request} responses.
 	 *
-	 * @param body the request body to validate; may be {@code null}
-	 * @return {@code true} if the payload is structurally valid
+	 * @param msg the response body; must not be {@code null}
+	 * @return a {@link ResponseEntity} with status {@code 400}
 	 */
-	private boolean hasValidPayload(Body body) {
-		return body != null
-			&& body.getMessage() != null
-			&& body.getMessage().getData() != null
-			&& !body.getMessage().getData().isEmpty();
+	private ResponseEntity<String> badRequest(String msg) {
+		return new ResponseEntity<>(msg, HttpStatus.BAD_REQUEST);
 	}
 
 	/**
-	 * Decodes a Base64-encoded string to UTF-8 text.
+	 * The response {@code POST /} would have returned for one item of a batch.
 	 *
-	 * @param encodedData the Base64 string; must not be {@code null}
-	 * @return the decoded payload, or {@code null} if decoding fails
+	 * @param status  the HTTP status code
+	 * @param message the response body
 	 */
-	private String decodePayload(String encodedData) {
-		assert encodedData != null : "encodedData must not be null when called";
-		try {
-			return new String(Base64.getDecoder().decode(encodedData), StandardCharsets.UTF_8);
-		} catch (IllegalArgumentException e) {
-			log.warn("Received invalid Base64 data from Pub/Sub message", e);
-			return null;
+	public record BatchItemResult(int status, String message) {
+
+		static BatchItemResult of(ResponseEntity<String> response) {
+			return new BatchItemResult(response.getStatusCodeValue(), response.getBody());
 		}
 	}
 
 	/**
-	 * Deserializes a JSON string into a {@link PageBuiltMessage}.
+	 * Body of {@code POST /seed}.
 	 *
-	 * @param payload the JSON payload; must not be {@code null}
-	 * @return the parsed message, or {@code null} if parsing fails
+	 * @param accountId     the account the audit messages are published for
+	 * @param auditRecordId the domain audit whose pages are audited
 	 */
-	private PageBuiltMessage parseMessage(String payload) {
-		assert payload != null : "payload must not be null when called";
-		try {
-			return INPUT_MAPPER.readValue(payload, PageBuiltMessage.class);
-		} catch (JsonProcessingException e) {
-			log.error("Error occurred while mapping payload to PageBuiltMessage", e);
-			return null;
-		}
+	public record SeedRequest(Long accountId, Long auditRecordId) {
 	}
 
 	/**
-	 * Convenience factory for {@code 400 Bad Request} responses.
+	 * Summary of a {@code POST /seed} request.
 	 *
-	 * @param msg the response body; must not be {@code null}
-	 * @return a {@link ResponseEntity} with status {@code 400}
+	 * @param pages          pages that had no page audit when the request started
+	 * @param created        pages audited by this request
+	 * @param alreadyAudited pages a concurrent delivery audited first
+	 * @param failed         pages whose write failed
 	 */
-	private ResponseEntity<String> badRequest(String msg) {
-		return new ResponseEntity<>(msg, HttpStatus.BAD_REQUEST);
+	public record SeedResult(int pages, int created, int alreadyAudited, int failed) {
+
+		static SeedResult of(List<CompletableFuture<ProcessingOutcome>> outcomes) {
+			int created = 0;
+			int alreadyAudited = 0;
+			int failed = 0;
+			for (CompletableFuture<ProcessingOutcome> outcome : outcomes) {
+				ProcessingOutcome result = outcome.join();
+				if (result == null) {
+					failed++;
+				} else if (result == ProcessingOutcome.AUDIT_CREATED) {
+					created++;
+				} else {
+					alreadyAudited++;
+				}
+			}
+			return new SeedResult(outcomes.size(), created, alreadyAudited, failed);
+		}
 	}
 }
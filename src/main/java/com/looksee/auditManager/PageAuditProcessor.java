@@ -0,0 +1,403 @@
+package com.looksee.auditManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.looksee.auditManager.batch.PageAuditRecordBatcher;
+import com.looksee.auditManager.cache.DomainAuditLabelCache;
+import com.looksee.auditManager.dedup.DuplicatePageFilter;
+import com.looksee.auditManager.dedup.InFlightPages;
+import com.looksee.auditManager.execution.AdaptiveConcurrencyLimiter;
+import com.looksee.auditManager.execution.Bulkheads;
+import com.looksee.auditManager.execution.Retries;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.auditManager.metrics.AuditMetrics.Stage;
+import com.looksee.auditManager.progress.AuditProgressTracker;
+import com.looksee.auditManager.publish.PageAuditOutboxRelay;
+import com.looksee.auditManager.repository.PageAuditEligibility;
+import com.looksee.auditManager.repository.PageAuditEligibilityRepository;
+import com.looksee.auditManager.repository.PageAuditRecordDraft;
+import com.looksee.auditManager.repository.UnauditedPages;
+import com.looksee.models.PageState;
+import com.looksee.models.audit.PageAuditRecord;
+import com.looksee.models.enums.AuditName;
+import com.looksee.models.message.PageAuditMessage;
+import com.looksee.models.message.PageBuiltMessage;
+
+/**
+ * Decides whether a built page is eligible for auditing and, when it is,
+ * creates the {@link PageAuditRecord} and queues a {@link PageAuditMessage}
+ * for it.
+ *
+ * <p>Pages this instance has already seen audited are rejected in memory by
+ * {@link DuplicatePageFilter}. For the rest, eligibility is resolved in one
+ * Neo4j round trip by {@link PageAuditEligibilityRepository}. That query
+ * already confirms the {@link PageState} exists, so an eligible page is never
+ * loaded before its record is written.
+ * Concurrent deliveries of the same page are serialized by
+ * {@link InFlightPages}: only the first runs the check and the write, the
+ * others share its outcome.
+ *
+ * <p>This is the ingestion-agnostic core of the service: the push endpoint in
+ * {@link AuditController} and the streaming-pull subscriber both hand decoded
+ * messages to {@link #process(PageBuiltMessage)} and only differ in how they
+ * report the result back to Pub/Sub.
+ *
+ * <p>Eligibility is checked on the calling thread, and each single-page
+ * check's latency is reported to the {@link AdaptiveConcurrencyLimiter}.
+ * Neo4j calls that fail transiently are retried by {@link Retries#neo4j()}
+ * on its scheduler; the calling thread gets the pending future back and
+ * moves on. Record creation is handed to
+ * {@link PageAuditRecordBatcher}, which writes many pages per transaction.
+ * The page's {@link PageAuditMessage} is written to the outbox by the same
+ * transaction and published later by {@link PageAuditOutboxRelay}, so the
+ * returned future completes as soon as that one write commits, and callers
+ * finish their response or ack from a callback without waiting on Pub/Sub.
+ *
+ * <p>{@link #processAll(List)} does the same for many messages at once: one
+ * eligibility query for the whole batch, and every record queued for creation
+ * together. {@link #processDomainAudit(long, long)} seeds every page of a
+ * domain audit without any page-built messages at all.
+ *
+ * <p>Every page checked, in any of these ways, is reported to the
+ * {@link AuditProgressTracker} with its outcome. A delivery that shares the
+ * outcome of a concurrent one for the same page is not, so each check is
+ * counted once.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Precondition:</b> All constructor dependencies must be non-null.</li>
+ *   <li><b>Invariant:</b> A page is never audited more than once within the
+ *       same domain audit, and only landable pages with a persisted
+ *       {@link PageState} are eligible for auditing.</li>
+ * </ul>
+ */
+@Service
+public class PageAuditProcessor {
+	private static final Logger log = LoggerFactory.getLogger(PageAuditProcessor.class);
+
+	private final PageAuditOutboxRelay outboxRelay;
+	private final PageAuditEligibilityRepository eligibilityRepository;
+	private final PageAuditRecordBatcher pageAuditRecordBatcher;
+	private final DomainAuditLabelCache labelCache;
+	private final DuplicatePageFilter duplicateFilter;
+	private final InFlightPages inFlightPages;
+	private final Bulkheads bulkheads;
+	private final Retries retries;
+	private final AuditMetrics metrics;
+	private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+	private final AuditProgressTracker progressTracker;
+
+	/**
+	 * Creates a new {@code PageAuditProcessor}.
+	 *
+	 * @param outboxRelay               publisher of the page-audit messages written to the outbox; must not be {@code null}
+	 * @param eligibilityRepository     single-query eligibility resolver; must not be {@code null}
+	 * @param pageAuditRecordBatcher    batching page audit writer; must not be {@code null}
+	 * @param labelCache                cache of resolved audit types per domain audit; must not be {@code null}
+	 * @param duplicateFilter           in-memory index of pages already audited; must not be {@code null}
+	 * @param inFlightPages             serializes concurrent deliveries of the same page; must not be {@code null}
+	 * @param bulkheads                 backend concurrency limits; must not be {@code null}
+	 * @param retries                   backend retry policies; must not be {@code null}
+	 * @param metrics                   stage timers; must not be {@code null}
+	 * @param concurrencyLimiter        receives eligibility query latencies; must not be {@code null}
+	 * @param progressTracker           counts each domain audit's progress; must not be {@code null}
+	 * @throws NullPointerException if any argument is {@code null}
+	 */
+	public PageAuditProcessor(
+		PageAuditOutboxRelay outboxRelay,
+		PageAuditEligibilityRepository eligibilityRepository,
+		PageAuditRecordBatcher pageAuditRecordBatcher,
+		DomainAuditLabelCache labelCache,
+		DuplicatePageFilter duplicateFilter,
+		InFlightPages inFlightPages,
+		Bulkheads bulkheads,
+		Retries retries,
+		AuditMetrics metrics,
+		AdaptiveConcurrencyLimiter concurrencyLimiter,
+		AuditProgressTracker progressTracker) {
+		this.outboxRelay = Objects.requireNonNull(outboxRelay, "outboxRelay must not be null");
+		this.eligibilityRepository = Objects.requireNonNull(eligibilityRepository, "eligibilityRepository must not be null");
+		this.pageAuditRecordBatcher = Objects.requireNonNull(pageAuditRecordBatcher, "pageAuditRecordBatcher must not be null");
+		this.labelCache = Objects.requireNonNull(labelCache, "labelCache must not be null");
+		this.duplicateFilter = Objects.requireNonNull(duplicateFilter, "duplicateFilter must not be null");
+		this.inFlightPages = Objects.requireNonNull(inFlightPages, "inFlightPages must not be null");
+		this.bulkheads = Objects.requireNonNull(bulkheads, "bulkheads must not be null");
+		this.retries = Objects.requireNonNull(retries, "retries must not be null");
+		this.metrics = Objects.requireNonNull(metrics, "metrics must not be null");
+		this.concurrencyLimiter = Objects.requireNonNull(concurrencyLimiter, "concurrencyLimiter must not be null");
+		this.progressTracker = Objects.requireNonNull(progressTracker, "progressTracker must not be null");
+	}
+
+	/**
+	 * Determines whether a page is eligible for auditing and, if so, creates
+	 * the audit record and its outbox entry.
+	 *
+	 * <p>Failures never escape as exceptions: a Neo4j error completes the
+	 * returned future exceptionally.
+	 *
+	 * @param pageBuiltMessage the validated message; must not be {@code null}
+	 * @return a future completed with the outcome once any record has been
+	 *         written; never {@code null}
+	 */
+	public CompletableFuture<ProcessingOutcome> process(PageBuiltMessage pageBuiltMessage) {
+		assert pageBuiltMessage != null : "pageBuiltMessage must not be null at this point";
+
+		long auditRecordId = pageBuiltMessage.getAuditRecordId();
+		long pageId = pageBuiltMessage.getPageId();
+		long accountId = pageBuiltMessage.getAccountId();
+		if (duplicateFilter.isProcessed(auditRecordId, pageId)) {
+			log.info("Skipping pageId={} because it was already audited by this instance", pageId);
+			return progressTracker.track(accountId, auditRecordId, CompletableFuture.completedFuture(ProcessingOutcome.ALREADY_AUDITED));
+		}
+		return inFlightPages.run(auditRecordId, pageId,
+			() -> progressTracker.track(accountId, auditRecordId, audit(pageBuiltMessage)));
+	}
+
+	/**
+	 * Runs the eligibility check and, for an eligible page, the record write,
+	 * while this delivery holds the page's claim.
+	 *
+	 * @param pageBuiltMessage the validated message; must not be {@code null}
+	 * @return a future completed with the outcome; never {@code null}
+	 */
+	private CompletableFuture<ProcessingOutcome> audit(PageBuiltMessage pageBuiltMessage) {
+		long auditRecordId = pageBuiltMessage.getAuditRecordId();
+		long pageId = pageBuiltMessage.getPageId();
+		return retries.neo4j()
+			.call(() -> {
+				long start = System.nanoTime();
+				PageAuditEligibility eligibility = metrics.time(Stage.ELIGIBILITY,
+					() -> bulkheads.neo4j().call(() -> eligibilityRepository.resolve(auditRecordId, pageId)));
+				concurrencyLimiter.onLatency(System.nanoTime() - start);
+				return eligibility;
+			})
+			.thenCompose(eligibility -> auditIfEligible(pageBuiltMessage, eligibility));
+	}
+
+	/**
+	 * Creates the record of an eligible page. The eligibility query already
+	 * confirmed the page exists, and the record write fails for any page
+	 * deleted since, so the page itself is not loaded.
+	 *
+	 * @param pageBuiltMessage the validated message; must not be {@code null}
+	 * @param eligibility      the page's resolved eligibility; must not be {@code null}
+	 * @return a future completed with the outcome; never {@code null}
+	 */
+	private CompletableFuture<ProcessingOutcome> auditIfEligible(PageBuiltMessage pageBuiltMessage, PageAuditEligibility eligibility) {
+		long auditRecordId = pageBuiltMessage.getAuditRecordId();
+		long pageId = pageBuiltMessage.getPageId();
+		if (!eligibility.isEligible()) {
+			log.info("Skipping pageId={} (alreadyAudited={}, landable={}, pageStatePresent={})",
+				pageId, eligibility.isAlreadyAudited(), eligibility.isLandable(), eligibility.isPageStatePresent());
+			if (eligibility.isAlreadyAudited()) {
+				duplicateFilter.markProcessed(auditRecordId, pageId);
+			}
+			return CompletableFuture.completedFuture(eligibility.getSkipOutcome());
+		}
+
+		log.info("Received page for auditing, pageId={}, auditRecordId={}", pageId, auditRecordId);
+		Set<AuditName> auditNames = labelCache.resolve(auditRecordId, eligibility.getAuditLabels());
+		return createdOnceWritten(pageBuiltMessage,
+			pageAuditRecordBatcher.submit(pageBuiltMessage.getAccountId(), auditRecordId, pageId, auditNames));
+	}
+
+	/**
+	 * Processes a batch of messages as {@link #process(PageBuiltMessage)} does
+	 * one, with a single eligibility query for all of them and their records
+	 * queued for creation together.
+	 *
+	 * <p>As in {@link #process(PageBuiltMessage)}, eligible pages are not
+	 * loaded before their records are written. Every message gets its own future, so one
+	 * message failing never fails the others, except that a failed eligibility
+	 * query fails every message that needed it. A page that appears more than
+	 * once, or is already in flight through another request, is checked and
+	 * written only once.
+	 *
+	 * @param pageBuiltMessages the validated messages; must not be {@code null}
+	 * @return one future per message, aligned with {@code pageBuiltMessages},
+	 *         each completed as by {@link #process(PageBuiltMessage)}; never {@code null}
+	 */
+	public List<CompletableFuture<ProcessingOutcome>> processAll(List<PageBuiltMessage> pageBuiltMessages) {
+		assert pageBuiltMessages != null : "pageBuiltMessages must not be null at this point";
+
+		List<CompletableFuture<ProcessingOutcome>> outcomes = new ArrayList<>(Collections.nCopies(pageBuiltMessages.size(), null));
+		List<Integer> unresolved = new ArrayList<>(pageBuiltMessages.size());
+		List<PageBuiltMessage> toResolve = new ArrayList<>(pageBuiltMessages.size());
+		List<InFlightPages.Claim> claims = new ArrayList<>(pageBuiltMessages.size());
+		for (int i = 0; i < pageBuiltMessages.size(); i++) {
+			PageBuiltMessage message = pageBuiltMessages.get(i);
+			if (duplicateFilter.isProcessed(message.getAuditRecordId(), message.getPageId())) {
+				log.info("Skipping pageId={} because it was already audited by this instance", message.getPageId());
+				outcomes.set(i, progressTracker.track(message.getAccountId(), message.getAuditRecordId(),
+					CompletableFuture.completedFuture(ProcessingOutcome.ALREADY_AUDITED)));
+				continue;
+			}
+			InFlightPages.Claim claim = inFlightPages.claim(message.getAuditRecordId(), message.getPageId());
+			if (claim.isOwner()) {
+				unresolved.add(i);
+				toResolve.add(message);
+				claims.add(claim);
+			} else {
+				outcomes.set(i, claim.outcome());
+			}
+		}
+		if (toResolve.isEmpty()) {
+			return outcomes;
+		}
+
+		CompletableFuture<List<CompletableFuture<ProcessingOutcome>>> audited = retries.neo4j()
+			.call(() -> metrics.time(Stage.ELIGIBILITY, () -> bulkheads.neo4j().call(() -> eligibilityRepository.resolveAll(toResolve))))
+			.thenApply(eligibilities -> auditAll(toResolve, eligibilities));
+		for (int j = 0; j < unresolved.size(); j++) {
+			int position = j;
+			PageBuiltMessage message = toResolve.get(j);
+			outcomes.set(unresolved.get(j), claims.get(j).complete(progressTracker.track(message.getAccountId(), message.getAuditRecordId(),
+				audited.thenCompose(audits -> audits.get(position)))));
+		}
+		return outcomes;
+	}
+
+	/**
+	 * Audits every landable page of a domain audit that has no page audit yet,
+	 * as if a page-built message had arrived for each.
+	 *
+	 * <p>The pages are found by one set-based query, their records are written
+	 * by the batcher in statements of {@code audit-manager.write-batch.max-size},
+	 * one statement's worth at a time so a domain audit larger than the write
+	 * queue never overflows it, and their messages are relayed from the outbox in batches. Claims are not taken: a
+	 * page that a concurrent delivery audits first is caught by the record
+	 * write and reported as {@link ProcessingOutcome#ALREADY_AUDITED}. Once
+	 * every page is written the domain audit is finished, and its cached audit
+	 * types and duplicate index are dropped.
+	 *
+	 * @param accountId     the account the audit messages are published for
+	 * @param auditRecordId the domain audit record identifier
+	 * @return one future per page seeded, each completed as by
+	 *         {@link #process(PageBuiltMessage)}, or empty if the domain audit
+	 *         does not exist; never {@code null}
+	 * @throws RuntimeException if the pages cannot be listed
+	 */
+	public Optional<List<CompletableFuture<ProcessingOutcome>>> processDomainAudit(long accountId, long auditRecordId) {
+		Optional<UnauditedPages> unaudited = metrics.time(Stage.ELIGIBILITY,
+			() -> bulkheads.neo4j().call(() -> eligibilityRepository.findUnauditedPages(auditRecordId)));
+		if (unaudited.isEmpty()) {
+			return Optional.empty();
+		}
+
+		long[] pageIds = unaudited.get().getPageIds();
+		if (pageIds.length == 0) {
+			domainAuditSeeded(auditRecordId);
+			return Optional.of(List.of());
+		}
+		Set<AuditName> auditNames = labelCache.resolve(auditRecordId, unaudited.get().getAuditLabels());
+		List<PageAuditRecordDraft> drafts = new ArrayList<>(pageIds.length);
+		for (long pageId : pageIds) {
+			drafts.add(new PageAuditRecordDraft(accountId, auditRecordId, pageId, auditNames));
+		}
+		log.info("Seeding {} page audits for auditRecordId={}", pageIds.length, auditRecordId);
+
+		List<CompletableFuture<OptionalLong>> written = pageAuditRecordBatcher.submitPaced(drafts);
+		List<CompletableFuture<ProcessingOutcome>> outcomes = new ArrayList<>(pageIds.length);
+		for (int i = 0; i < pageIds.length; i++) {
+			outcomes.add(progressTracker.track(accountId, auditRecordId,
+				createdOnceWritten(new PageBuiltMessage(accountId, pageIds[i], auditRecordId), written.get(i))));
+		}
+		CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0])).whenComplete((seeded, error) -> {
+			if (error == null) {
+				domainAuditSeeded(auditRecordId);
+			}
+		});
+		return Optional.of(outcomes);
+	}
+
+	/**
+	 * Drops what this instance keeps for a domain audit once every landable
+	 * page of it has a page audit: nothing more is created for it, and any
+	 * later delivery is answered by the eligibility query.
+	 *
+	 * @param auditRecordId the domain audit record identifier
+	 */
+	private void domainAuditSeeded(long auditRecordId) {
+		labelCache.invalidate(auditRecordId);
+		duplicateFilter.evict(auditRecordId);
+	}
+
+	/**
+	 * Starts the record write for the eligible messages of a batch.
+	 *
+	 * @param toResolve     the claimed messages; must not be {@code null}
+	 * @param eligibilities their resolved eligibilities, aligned with {@code toResolve}; must not be {@code null}
+	 * @return one future per message, aligned with {@code toResolve}; never {@code null}
+	 */
+	private List<CompletableFuture<ProcessingOutcome>> auditAll(
+		List<PageBuiltMessage> toResolve,
+		List<PageAuditEligibility> eligibilities) {
+		List<CompletableFuture<ProcessingOutcome>> outcomes = new ArrayList<>(Collections.nCopies(toResolve.size(), null));
+		List<Integer> toWrite = new ArrayList<>(toResolve.size());
+		List<PageAuditRecordDraft> drafts = new ArrayList<>(toResolve.size());
+		for (int j = 0; j < toResolve.size(); j++) {
+			PageBuiltMessage message = toResolve.get(j);
+			PageAuditEligibility eligibility = eligibilities.get(j);
+			long auditRecordId = message.getAuditRecordId();
+			long pageId = message.getPageId();
+			if (!eligibility.isEligible()) {
+				log.info("Skipping pageId={} (alreadyAudited={}, landable={}, pageStatePresent={})",
+					pageId, eligibility.isAlreadyAudited(), eligibility.isLandable(), eligibility.isPageStatePresent());
+				if (eligibility.isAlreadyAudited()) {
+					duplicateFilter.markProcessed(auditRecordId, pageId);
+				}
+				outcomes.set(j, CompletableFuture.completedFuture(eligibility.getSkipOutcome()));
+				continue;
+			}
+			try {
+				drafts.add(new PageAuditRecordDraft(message.getAccountId(), auditRecordId, pageId, labelCache.resolve(auditRecordId, eligibility.getAuditLabels())));
+				toWrite.add(j);
+			} catch (RuntimeException e) {
+				outcomes.set(j, CompletableFuture.failedFuture(e));
+			}
+		}
+
+		List<CompletableFuture<OptionalLong>> written = pageAuditRecordBatcher.submitAll(drafts);
+		for (int k = 0; k < toWrite.size(); k++) {
+			int position = toWrite.get(k);
+			outcomes.set(position, createdOnceWritten(toResolve.get(position), written.get(k)));
+		}
+		return outcomes;
+	}
+
+	/**
+	 * Reports the outcome for a page once its record has been written, and
+	 * wakes the relay to publish the message the write queued.
+	 *
+	 * @param pageBuiltMessage the source message; must not be {@code null}
+	 * @param pageAuditId      the pending record write; must not be {@code null}
+	 * @return a future completed with the outcome once the record has been
+	 *         written; never {@code null}
+	 */
+	private CompletableFuture<ProcessingOutcome> createdOnceWritten(
+		PageBuiltMessage pageBuiltMessage,
+		CompletableFuture<OptionalLong> pageAuditId) {
+		long auditRecordId = pageBuiltMessage.getAuditRecordId();
+		long pageId = pageBuiltMessage.getPageId();
+		return pageAuditId.thenApply(id -> {
+			if (id.isEmpty()) {
+				log.info("Skipping pageId={} because it was created by a concurrent message", pageId);
+				return ProcessingOutcome.ALREADY_AUDITED;
+			}
+			duplicateFilter.markProcessed(auditRecordId, pageId);
+			outboxRelay.wake();
+			return ProcessingOutcome.AUDIT_CREATED;
+		});
+	}
+}
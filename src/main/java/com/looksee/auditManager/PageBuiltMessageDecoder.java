@@ -0,0 +1,449 @@
+package com.looksee.auditManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.auditManager.metrics.AuditMetrics.Stage;
+import com.looksee.models.message.PageBuiltMessage;
+
+/**
+ * Turns the raw payloads delivered by Pub/Sub into {@link PageBuiltMessage}s.
+ *
+ * <p>Push deliveries arrive as a {@code Body} envelope whose {@code data}
+ * field is Base64 text; pull deliveries hand over the already-decoded bytes.
+ * Both paths share the same JSON binding so a message is accepted or rejected
+ * identically regardless of how it was received.
+ *
+ * <p>{@link #decodePushEnvelope(InputStream)} is the push endpoint's fast
+ * path: it streams the envelope, decodes the Base64 {@code data} straight into
+ * a per-thread buffer and binds the message from those bytes, without building
+ * a {@code Body} or any intermediate {@code String}.
+ * {@link #decodeBatch(InputStream)} decodes the batch endpoint's array of
+ * envelopes and raw messages, accepting or rejecting each item on its own.
+ * {@link #decodeArchiveLine(byte[])} decodes one record of a replay archive
+ * by the same rules.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Postcondition:</b> Decoding methods never throw for malformed
+ *       input. {@link #decodePushEnvelope(InputStream)} and
+ *       {@link #decodeArchiveLine(byte[])} return a {@link PushDecodeResult}
+ *       carrying the {@link Rejection}; {@link #decodeBatch(InputStream)}
+ *       rejects items the same way and returns {@code null} only when the
+ *       body is not a JSON array; {@link #parseMessage(byte[])} returns
+ *       {@code null}. The cause is logged in every case.</li>
+ * </ul>
+ */
+@Component
+public class PageBuiltMessageDecoder {
+	private static final Logger log = LoggerFactory.getLogger(PageBuiltMessageDecoder.class);
+
+	private static final ObjectMapper INPUT_MAPPER = new ObjectMapper();
+	private static final ObjectReader MESSAGE_READER = INPUT_MAPPER.readerFor(PageBuiltMessage.class);
+
+	/**
+	 * Standard alphabet, padding optional. Strict: whitespace, line breaks and
+	 * any other character outside the alphabet are rejected, since Pub/Sub
+	 * never sends them.
+	 */
+	private static final Base64.Decoder PUSH_BASE64 = Base64.getDecoder();
+
+	/** Buffers that grew past this size are dropped rather than kept per thread. */
+	private static final int MAX_RETAINED_BUFFER_BYTES = 64 * 1024;
+
+	/**
+	 * Reused by every push request a Tomcat platform thread serves. With
+	 * {@code audit-manager.execution.virtual-threads=true} each request runs
+	 * on a new virtual thread, so every request gets a buffer of its own and
+	 * none is reused; that costs what decoding without a buffer would, and a
+	 * pool shared across virtual threads is not worth its contention here.
+	 */
+	private static final ThreadLocal<PayloadBuffer> PAYLOAD_BUFFER = ThreadLocal.withInitial(PayloadBuffer::new);
+
+	private final AuditMetrics metrics;
+
+	/**
+	 * Creates a new {@code PageBuiltMessageDecoder}.
+	 *
+	 * @param metrics records decode and parse timings; must not be {@code null}
+	 * @throws NullPointerException if {@code metrics} is {@code null}
+	 */
+	public PageBuiltMessageDecoder(AuditMetrics metrics) {
+		this.metrics = Objects.requireNonNull(metrics, "metrics must not be null");
+	}
+
+	/**
+	 * Why a push envelope was rejected, each mapped to its own {@code 400}
+	 * response body.
+	 */
+	public enum Rejection {
+		/** The envelope is not JSON, or has no message or no data. */
+		INVALID_PAYLOAD("Invalid Pub/Sub payload"),
+		/** The data is not valid Base64. */
+		INVALID_ENCODING("Invalid message encoding"),
+		/** The decoded data does not bind to a {@link PageBuiltMessage}. */
+		INVALID_FORMAT("Invalid message format");
+
+		private final String description;
+
+		Rejection(String description) {
+			this.description = description;
+		}
+
+		/**
+		 * Returns the response body reported to Pub/Sub.
+		 *
+		 * @return the description; never {@code null}
+		 */
+		public String getDescription() {
+			return description;
+		}
+	}
+
+	/**
+	 * Result of {@link #decodePushEnvelope(InputStream)}, or of one item of
+	 * {@link #decodeBatch(InputStream)}: exactly one of
+	 * {@code message} and {@code rejection} is non-null.
+	 */
+	public record PushDecodeResult(PageBuiltMessage message, Rejection rejection) {
+		private static final PushDecodeResult INVALID_PAYLOAD = new PushDecodeResult(null, Rejection.INVALID_PAYLOAD);
+		private static final PushDecodeResult INVALID_ENCODING = new PushDecodeResult(null, Rejection.INVALID_ENCODING);
+		private static final PushDecodeResult INVALID_FORMAT = new PushDecodeResult(null, Rejection.INVALID_FORMAT);
+
+		/**
+		 * Returns whether the envelope was decoded into a message.
+		 *
+		 * @return {@code true} if {@link #message()} is set
+		 */
+		public boolean isAccepted() {
+			return message != null;
+		}
+	}
+
+	/**
+	 * Decodes a Pub/Sub push request body in a single streaming pass.
+	 *
+	 * <p>Rejects bodies that are not a JSON object, envelopes without a
+	 * message or with empty data, data that is not strict Base64, and payloads
+	 * that do not bind to a {@link PageBuiltMessage}.
+	 *
+	 * @param body the raw request body; must not be {@code null}
+	 * @return the decoded message or the reason it was rejected; never {@code null}
+	 */
+	public PushDecodeResult decodePushEnvelope(InputStream body) {
+		assert body != null : "body must not be null when called";
+
+		PayloadBuffer data = PAYLOAD_BUFFER.get();
+		data.reset();
+		try {
+			long start = System.nanoTime();
+			Rejection rejection = readData(body, data);
+			metrics.recordStage(Stage.DECODE, start, rejection == null);
+			if (rejection != null) {
+				return rejection == Rejection.INVALID_ENCODING ? PushDecodeResult.INVALID_ENCODING : PushDecodeResult.INVALID_PAYLOAD;
+			}
+			start = System.nanoTime();
+			PageBuiltMessage message = bind(data);
+			metrics.recordStage(Stage.PARSE, start, message != null);
+			return message != null ? new PushDecodeResult(message, null) : PushDecodeResult.INVALID_FORMAT;
+		} finally {
+			if (data.capacity() > MAX_RETAINED_BUFFER_BYTES) {
+				PAYLOAD_BUFFER.remove();
+			}
+		}
+	}
+
+	/**
+	 * Decodes a batch request body: a JSON array whose items are each either a
+	 * Pub/Sub push envelope or a raw {@link PageBuiltMessage} object.
+	 *
+	 * <p>An item with a {@code message} field is treated as an envelope and
+	 * rejected exactly as {@link #decodePushEnvelope(InputStream)} would reject
+	 * it; any other object is bound directly. A rejected item never affects the
+	 * others.
+	 *
+	 * @param body the raw request body; must not be {@code null}
+	 * @return one result per item, in request order, or {@code null} if the
+	 *         body is not a well-formed JSON array
+	 */
+	public List<PushDecodeResult> decodeBatch(InputStream body) {
+		assert body != null : "body must not be null when called";
+
+		List<PushDecodeResult> results = new ArrayList<>();
+		try (JsonParser parser = INPUT_MAPPER.getFactory().createParser(body)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				log.warn("Received invalid batch payload: body is not a JSON array");
+				return null;
+			}
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				JsonNode item = parser.readValueAsTree();
+				results.add(decodeBatchItem(item));
+			}
+		} catch (IOException e) {
+			log.warn("Received unreadable batch payload", e);
+			return null;
+		}
+		return results;
+	}
+
+	/**
+	 * Decodes one line of a replay archive: a push envelope or raw
+	 * {@link PageBuiltMessage} as JSON, accepted or rejected exactly like an
+	 * item of {@link #decodeBatch(InputStream)}, or the Base64 of a message's
+	 * JSON, as found in an envelope's {@code data}.
+	 *
+	 * @param line the line, without its newline or surrounding whitespace; must not be {@code null}
+	 * @return the decoded message or the reason it was rejected; never {@code null}
+	 */
+	public PushDecodeResult decodeArchiveLine(byte[] line) {
+		assert line != null : "line must not be null when called";
+
+		if (line.length > 0 && line[0] == '{') {
+			JsonNode item;
+			try {
+				item = INPUT_MAPPER.readTree(line);
+			} catch (IOException e) {
+				log.warn("Read unparseable archive record", e);
+				return PushDecodeResult.INVALID_PAYLOAD;
+			}
+			return decodeBatchItem(item);
+		}
+
+		long start = System.nanoTime();
+		byte[] payload;
+		try {
+			payload = PUSH_BASE64.decode(line);
+		} catch (IllegalArgumentException e) {
+			metrics.recordStage(Stage.DECODE, start, false);
+			log.warn("Read archive record that is neither JSON nor Base64", e);
+			return PushDecodeResult.INVALID_ENCODING;
+		}
+		metrics.recordStage(Stage.DECODE, start, payload.length > 0);
+		if (payload.length == 0) {
+			return PushDecodeResult.INVALID_PAYLOAD;
+		}
+
+		start = System.nanoTime();
+		PageBuiltMessage message = null;
+		try {
+			message = MESSAGE_READER.readValue(payload);
+		} catch (IOException e) {
+			log.error("Error occurred while mapping archive record to PageBuiltMessage", e);
+		}
+		metrics.recordStage(Stage.PARSE, start, message != null);
+		return message != null ? new PushDecodeResult(message, null) : PushDecodeResult.INVALID_FORMAT;
+	}
+
+	/**
+	 * Decodes one item of a batch request body.
+	 *
+	 * @param item the item; must not be {@code null}
+	 * @return the decoded message or the reason it was rejected; never {@code null}
+	 */
+	private PushDecodeResult decodeBatchItem(JsonNode item) {
+		if (!item.isObject()) {
+			log.warn("Received invalid batch item: not a JSON object");
+			return PushDecodeResult.INVALID_PAYLOAD;
+		}
+		if (!item.has("message")) {
+			long start = System.nanoTime();
+			PageBuiltMessage message = null;
+			try {
+				message = MESSAGE_READER.readValue(item);
+			} catch (IOException e) {
+				log.error("Error occurred while mapping batch item to PageBuiltMessage", e);
+			}
+			metrics.recordStage(Stage.PARSE, start, message != null);
+			return message != null ? new PushDecodeResult(message, null) : PushDecodeResult.INVALID_FORMAT;
+		}
+
+		long start = System.nanoTime();
+		JsonNode data = item.get("message").path("data");
+		byte[] payload;
+		try {
+			payload = data.isTextual() ? PUSH_BASE64.decode(data.textValue()) : null;
+		} catch (IllegalArgumentException e) {
+			metrics.recordStage(Stage.DECODE, start, false);
+			log.warn("Received invalid Base64 data from Pub/Sub message", e);
+			return PushDecodeResult.INVALID_ENCODING;
+		}
+		if (payload == null || payload.length == 0) {
+			metrics.recordStage(Stage.DECODE, start, false);
+			log.warn("Received invalid Pub/Sub payload: message or data is missing");
+			return PushDecodeResult.INVALID_PAYLOAD;
+		}
+		metrics.recordStage(Stage.DECODE, start, true);
+
+		start = System.nanoTime();
+		PageBuiltMessage message = null;
+		try {
+			message = MESSAGE_READER.readValue(payload);
+		} catch (IOException e) {
+			log.error("Error occurred while mapping payload to PageBuiltMessage", e);
+		}
+		metrics.recordStage(Stage.PARSE, start, message != null);
+		return message != null ? new PushDecodeResult(message, null) : PushDecodeResult.INVALID_FORMAT;
+	}
+
+	/**
+	 * Streams the envelope and decodes {@code message.data} into {@code data}.
+	 *
+	 * @param body the raw request body; must not be {@code null}
+	 * @param data receives the decoded payload; must be empty
+	 * @return {@code null} if non-empty data was decoded, otherwise why not
+	 */
+	private Rejection readData(InputStream body, PayloadBuffer data) {
+		boolean found = false;
+		try (JsonParser parser = INPUT_MAPPER.getFactory().createParser(body)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				log.warn("Received invalid Pub/Sub payload: body is not a JSON object");
+				return Rejection.INVALID_PAYLOAD;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if ("message".equals(field) && value == JsonToken.START_OBJECT) {
+					Rejection rejection = readMessage(parser, data);
+					if (rejection == Rejection.INVALID_ENCODING) {
+						return rejection;
+					}
+					found = rejection == null;
+				} else {
+					parser.skipChildren();
+				}
+			}
+		} catch (IOException e) {
+			log.warn("Received unreadable Pub/Sub payload", e);
+			return Rejection.INVALID_PAYLOAD;
+		}
+		if (!found) {
+			log.warn("Received invalid Pub/Sub payload: message or data is missing");
+			return Rejection.INVALID_PAYLOAD;
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the fields of the {@code message} object, decoding {@code data}.
+	 *
+	 * @param parser positioned on the message's {@code START_OBJECT}
+	 * @param data   receives the decoded payload
+	 * @return {@code null} if non-empty data was decoded, otherwise why not
+	 * @throws IOException if the envelope is not well-formed JSON
+	 */
+	private Rejection readMessage(JsonParser parser, PayloadBuffer data) throws IOException {
+		Rejection rejection = Rejection.INVALID_PAYLOAD;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			if ("data".equals(field) && value == JsonToken.VALUE_STRING) {
+				try {
+					data.decodeBase64(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+				} catch (IllegalArgumentException e) {
+					log.warn("Received invalid Base64 data from Pub/Sub message", e);
+					return Rejection.INVALID_ENCODING;
+				}
+				rejection = data.size() > 0 ? null : Rejection.INVALID_PAYLOAD;
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return rejection;
+	}
+
+	/**
+	 * Binds the decoded payload to a {@link PageBuiltMessage}.
+	 *
+	 * @param data the decoded payload; must not be {@code null}
+	 * @return the message, or {@code null} if the payload does not bind
+	 */
+	private PageBuiltMessage bind(PayloadBuffer data) {
+		try {
+			return MESSAGE_READER.readValue(data.array(), 0, data.size());
+		} catch (IOException e) {
+			log.error("Error occurred while mapping payload to PageBuiltMessage", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Deserializes raw UTF-8 JSON bytes, as delivered by streaming pull, into
+	 * a {@link PageBuiltMessage}.
+	 *
+	 * @param payload the JSON payload; must not be {@code null}
+	 * @return the parsed message, or {@code null} if parsing fails
+	 */
+	public PageBuiltMessage parseMessage(byte[] payload) {
+		assert payload != null : "payload must not be null when called";
+		long start = System.nanoTime();
+		PageBuiltMessage message = null;
+		try {
+			message = MESSAGE_READER.readValue(payload);
+		} catch (IOException e) {
+			log.error("Error occurred while mapping payload to PageBuiltMessage", e);
+		}
+		metrics.recordStage(Stage.PARSE, start, message != null);
+		return message;
+	}
+
+	/**
+	 * Byte buffer that exposes its backing array, so the decoded payload can
+	 * be bound without copying it out. It also keeps the ASCII copy of the
+	 * Base64 text between calls, since the JDK decoder reads bytes; that copy
+	 * only ever grows, and just its first {@code length} bytes are decoded.
+	 */
+	private static final class PayloadBuffer extends ByteArrayOutputStream {
+		private byte[] encoded = new byte[0];
+
+		PayloadBuffer() {
+			super(256);
+		}
+
+		/**
+		 * Replaces the contents with the strictly decoded Base64 text.
+		 *
+		 * @param text   the characters holding the text; must not be {@code null}
+		 * @param offset where the text starts in {@code text}
+		 * @param length the length of the text
+		 * @throws IllegalArgumentException if the text is not valid Base64
+		 */
+		void decodeBase64(char[] text, int offset, int length) {
+			if (encoded.length < length) {
+				encoded = new byte[length];
+			}
+			for (int i = 0; i < length; i++) {
+				char c = text[offset + i];
+				// Anything beyond ASCII is outside the alphabet: map it to a byte the decoder rejects too
+				encoded[i] = c < 0x80 ? (byte) c : (byte) ' ';
+			}
+			// decode(byte[], byte[]) would read the stale bytes past length as well
+			ByteBuffer decoded = PUSH_BASE64.decode(ByteBuffer.wrap(encoded, 0, length));
+			buf = decoded.array();
+			count = decoded.remaining();
+		}
+
+		byte[] array() {
+			return buf;
+		}
+
+		int capacity() {
+			return Math.max(buf.length, encoded.length);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.looksee.auditManager;
+
+/**
+ * Result of running a single {@link com.looksee.models.message.PageBuiltMessage}
+ * through {@link PageAuditProcessor}.
+ *
+ * <p>Every outcome is terminal for the message: callers acknowledge it (push
+ * mode returns {@code 200 OK}, pull mode acks). Infrastructure failures are
+ * not outcomes; they surface as exceptions so the message is redelivered.
+ */
+public enum ProcessingOutcome {
+
+	/** A page audit record was created and its page-audit message queued in the outbox. */
+	AUDIT_CREATED,
+
+	/** The page already has an audit record within the same domain audit. */
+	ALREADY_AUDITED,
+
+	/** The page is not reachable from a landing step. */
+	NOT_LANDABLE,
+
+	/** No {@link com.looksee.models.PageState} is persisted for the page. */
+	PAGE_STATE_MISSING;
+
+	/**
+	 * Indicates whether the page was skipped rather than audited.
+	 *
+	 * @return {@code true} for every outcome except {@link #AUDIT_CREATED}
+	 */
+	public boolean isSkipped() {
+		return this != AUDIT_CREATED;
+	}
+}
@@ -0,0 +1,57 @@
+package com.looksee.auditManager.batch;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains a {@link BlockingQueue} into size- and time-bounded batches.
+ *
+ * <p>Shared by every stage that groups work before handing it on, so they all
+ * wait for a batch to fill the same way.
+ */
+public final class BatchCollector {
+
+	private BatchCollector() {
+	}
+
+	/**
+	 * Fills {@code batch} with up to {@code maxSize} elements, waiting at most
+	 * {@code window} for the first element and again for the batch to fill
+	 * once the first has arrived.
+	 *
+	 * @param queue   the queue to drain; must not be {@code null}
+	 * @param batch   the list to fill; must be empty
+	 * @param maxSize the maximum batch size; must be positive
+	 * @param window  how long to wait; must not be {@code null}
+	 * @param <T>     the element type
+	 * @throws InterruptedException if the caller is interrupted while waiting
+	 */
+	public static <T> void collect(BlockingQueue<T> queue, List<T> batch, int maxSize, Duration window)
+		throws InterruptedException {
+		assert batch.isEmpty() : "batch must be empty before collecting";
+		assert maxSize > 0 : "maxSize must be positive";
+
+		long windowNanos = window.toNanos();
+		T first = queue.poll(windowNanos, TimeUnit.NANOSECONDS);
+		if (first == null) {
+			return;
+		}
+		batch.add(first);
+
+		long deadline = System.nanoTime() + windowNanos;
+		while (batch.size() < maxSize) {
+			queue.drainTo(batch, maxSize - batch.size());
+			long remaining = deadline - System.nanoTime();
+			if (batch.size() >= maxSize || remaining <= 0) {
+				return;
+			}
+			T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+			if (next == null) {
+				return;
+			}
+			batch.add(next);
+		}
+	}
+}
@@ -0,0 +1,427 @@
+package com.looksee.auditManager.batch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.looksee.auditManager.config.WriteBatchProperties;
+import com.looksee.auditManager.execution.BulkheadFullException;
+import com.looksee.auditManager.execution.Bulkheads;
+import com.looksee.auditManager.execution.Retries;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.auditManager.metrics.AuditMetrics.Stage;
+import com.looksee.auditManager.repository.PageAuditRecordDraft;
+import com.looksee.auditManager.repository.PageAuditRecordRepository;
+import com.looksee.models.enums.AuditName;
+
+/**
+ * Micro-batching stage in front of {@link PageAuditRecordRepository}.
+ *
+ * <p>During a crawl many eligible pages of the same domain audit arrive within
+ * milliseconds of each other. Instead of one transaction per page, each
+ * contending for the lock on the same {@code DomainAuditRecord}, submitted
+ * drafts are collected for up to {@code audit-manager.write-batch.window} or
+ * {@code max-size} drafts and written by one {@code UNWIND} statement. Every
+ * caller gets a future completed with its own new record id. Each statement
+ * writes its rows ordered by domain audit, so two statements that touch the
+ * same domain audits lock them in the same order and cannot deadlock.
+ *
+ * <p>At most {@code queue-capacity} drafts wait for a writer; a draft
+ * submitted while the queue is full fails straight away with a
+ * {@link BulkheadFullException}, so an overloaded Neo4j pushes back on
+ * ingestion instead of growing the heap.
+ *
+ * <p>If the same page of the same domain audit is submitted twice within one
+ * batch, only the first is written; once it succeeds the others complete with
+ * an empty {@link OptionalLong} so their callers can treat the page as already
+ * audited. The same applies when the page already had a record, for example
+ * one another instance created since the caller's eligibility check.
+ *
+ * <p>A statement that fails transiently is retried by {@link Retries#neo4j()}
+ * on its scheduler, so the writer thread moves on to the next batch instead
+ * of waiting out the backoff.
+ *
+ * <p>Drafts still queued at shutdown are written before the context closes,
+ * and shutdown waits up to {@code shutdown-timeout} for every statement,
+ * retries included, to finish. The stage stops after the ingestion paths that feed it. Drafts submitted
+ * while it is not running are written immediately on the caller's thread.
+ */
+@Component
+public class PageAuditRecordBatcher implements SmartLifecycle {
+	private static final Logger log = LoggerFactory.getLogger(PageAuditRecordBatcher.class);
+
+	/** Stops after the web server and the pull subscriber, which both stop at the default phase. */
+	static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 2048;
+
+	private final PageAuditRecordRepository repository;
+	private final WriteBatchProperties properties;
+	private final Bulkheads bulkheads;
+	private final Retries retries;
+	private final AuditMetrics metrics;
+	private final BlockingQueue<PendingWrite> queue;
+	private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean running;
+	private ExecutorService writers;
+
+	/**
+	 * Creates a new {@code PageAuditRecordBatcher}.
+	 *
+	 * @param repository batch writer for page audit records; must not be {@code null}
+	 * @param properties batching settings; must not be {@code null}
+	 * @param bulkheads  backend concurrency limits; must not be {@code null}
+	 * @param retries    backend retry policies; must not be {@code null}
+	 * @param metrics    write timer; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if a size or count setting is not positive
+	 */
+	public PageAuditRecordBatcher(
+		PageAuditRecordRepository repository,
+		WriteBatchProperties properties,
+		Bulkheads bulkheads,
+		Retries retries,
+		AuditMetrics metrics) {
+		this.repository = Objects.requireNonNull(repository, "repository must not be null");
+		this.properties = Objects.requireNonNull(properties, "properties must not be null");
+		this.bulkheads = Objects.requireNonNull(bulkheads, "bulkheads must not be null");
+		this.retries = Objects.requireNonNull(retries, "retries must not be null");
+		this.metrics = Objects.requireNonNull(metrics, "metrics must not be null");
+
+		if (properties.getMaxSize() < 1 || properties.getWriterThreads() < 1 || properties.getQueueCapacity() < 1) {
+			throw new IllegalArgumentException("audit-manager.write-batch.max-size, writer-threads and queue-capacity must be positive");
+		}
+		this.queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+	}
+
+	/**
+	 * Queues a page audit record for creation.
+	 *
+	 * @param accountId     the account the page audit message is published for
+	 * @param auditRecordId the parent domain audit record identifier
+	 * @param pageId        the page state identifier
+	 * @param auditNames    audit types to run; must not be {@code null} or empty
+	 * @return a future completed with the new record id, with an empty value if
+	 *         the same page was already written by this batch, or exceptionally
+	 *         if the write failed or the queue was full; never {@code null}
+	 */
+	public CompletableFuture<OptionalLong> submit(long accountId, long auditRecordId, long pageId, Set<AuditName> auditNames) {
+		assert auditNames != null && !auditNames.isEmpty() : "auditNames must not be null or empty";
+
+		PendingWrite write = new PendingWrite(new PageAuditRecordDraft(accountId, auditRecordId, pageId, auditNames));
+		if (!running) {
+			flush(List.of(write));
+			return write.future;
+		}
+		enqueue(write);
+		if (!running) {
+			// Stopped between the check and the add; nobody else will drain it.
+			flushRemaining();
+		}
+		return write.future;
+	}
+
+	/**
+	 * Queues page audit records for creation together, so they are written by
+	 * as few statements as {@code max-size} allows.
+	 *
+	 * @param drafts the records to create; must not be {@code null}
+	 * @return one future per draft, aligned with {@code drafts}, each completed
+	 *         as by {@link #submit(long, long, long, Set)}; never {@code null}
+	 */
+	public List<CompletableFuture<OptionalLong>> submitAll(List<PageAuditRecordDraft> drafts) {
+		assert drafts != null : "drafts must not be null";
+
+		List<PendingWrite> writes = new ArrayList<>(drafts.size());
+		List<CompletableFuture<OptionalLong>> futures = new ArrayList<>(drafts.size());
+		for (PageAuditRecordDraft draft : drafts) {
+			PendingWrite write = new PendingWrite(draft);
+			writes.add(write);
+			futures.add(write.future);
+		}
+		if (!running) {
+			flushInChunks(writes);
+			return futures;
+		}
+		writes.forEach(this::enqueue);
+		if (!running) {
+			flushRemaining();
+		}
+		return futures;
+	}
+
+	/**
+	 * Queues page audit records for creation {@code max-size} at a time, each
+	 * chunk only once every record of the previous one has been written or
+	 * has failed, so a list larger than {@code queue-capacity} never fills the
+	 * queue on its own.
+	 *
+	 * @param drafts the records to create; must not be {@code null}
+	 * @return one future per draft, aligned with {@code drafts}, each completed
+	 *         as by {@link #submit(long, long, long, Set)}; never {@code null}
+	 */
+	public List<CompletableFuture<OptionalLong>> submitPaced(List<PageAuditRecordDraft> drafts) {
+		assert drafts != null : "drafts must not be null";
+
+		List<CompletableFuture<OptionalLong>> futures = new ArrayList<>(drafts.size());
+		for (int i = 0; i < drafts.size(); i++) {
+			futures.add(new CompletableFuture<>());
+		}
+		submitChunk(drafts, futures, 0);
+		return futures;
+	}
+
+	/**
+	 * Submits the chunk of {@code drafts} starting at {@code from}, then the
+	 * next one once it has completed.
+	 */
+	private void submitChunk(List<PageAuditRecordDraft> drafts, List<CompletableFuture<OptionalLong>> futures, int from) {
+		int to = Math.min(drafts.size(), from + properties.getMaxSize());
+		List<CompletableFuture<OptionalLong>> chunk = submitAll(drafts.subList(from, to));
+		for (int i = 0; i < chunk.size(); i++) {
+			CompletableFuture<OptionalLong> future = futures.get(from + i);
+			chunk.get(i).whenComplete((id, error) -> {
+				if (error != null) {
+					future.completeExceptionally(error);
+				} else {
+					future.complete(id);
+				}
+			});
+		}
+		if (to < drafts.size()) {
+			// Async, so a chunk that completed synchronously does not recurse into the next on this stack
+			CompletableFuture.allOf(chunk.toArray(new CompletableFuture<?>[0]))
+				.whenCompleteAsync((written, error) -> submitChunk(drafts, futures, to));
+		}
+	}
+
+	private void enqueue(PendingWrite write) {
+		if (!queue.offer(write)) {
+			write.future.completeExceptionally(new BulkheadFullException(
+				"Page audit write queue is full (" + properties.getQueueCapacity() + " drafts)"));
+		}
+	}
+
+	@Override
+	public void start() {
+		running = true;
+		int threads = properties.getWriterThreads();
+		AtomicInteger threadIndex = new AtomicInteger();
+		writers = Executors.newFixedThreadPool(threads,
+			runnable -> new Thread(runnable, "page-audit-writer-" + threadIndex.incrementAndGet()));
+		for (int i = 0; i < threads; i++) {
+			writers.execute(this::writeLoop);
+		}
+		log.info("Started page audit write batching with maxSize={} window={} writerThreads={}",
+			properties.getMaxSize(), properties.getWindow(), threads);
+	}
+
+	/**
+	 * Stops the writers, writes whatever is still queued, then waits until
+	 * every statement has finished, all within {@code shutdown-timeout}.
+	 */
+	@Override
+	public void stop() {
+		running = false;
+		long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+		writers.shutdown();
+		try {
+			if (!writers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+				writers.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			writers.shutdownNow();
+		}
+		flushRemaining();
+		awaitInFlight(deadline);
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+
+	/**
+	 * Writer loop: repeatedly collects a batch and writes it until the stage
+	 * is stopped.
+	 */
+	private void writeLoop() {
+		List<PendingWrite> batch = new ArrayList<>(properties.getMaxSize());
+		while (running) {
+			try {
+				BatchCollector.collect(queue, batch, properties.getMaxSize(), properties.getWindow());
+			} catch (InterruptedException e) {
+				// flush before restoring the interrupt so the write can still take a Neo4j bulkhead permit
+				flush(batch);
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if (!batch.isEmpty()) {
+				flush(batch);
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * Writes everything still queued on the calling thread.
+	 */
+	private void flushRemaining() {
+		List<PendingWrite> remaining = new ArrayList<>();
+		queue.drainTo(remaining);
+		flushInChunks(remaining);
+		if (!remaining.isEmpty()) {
+			log.info("Flushed {} queued page audit records on shutdown", remaining.size());
+		}
+	}
+
+	/**
+	 * Waits for every statement still running or retrying, until the deadline.
+	 *
+	 * @param deadline {@link System#nanoTime()} after which to stop waiting
+	 */
+	private void awaitInFlight(long deadline) {
+		CompletableFuture<?>[] pending = inFlight.toArray(new CompletableFuture<?>[0]);
+		if (pending.length == 0) {
+			return;
+		}
+		try {
+			CompletableFuture.allOf(pending).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (ExecutionException e) {
+			// each failed statement has already failed its callers and been logged
+		} catch (TimeoutException e) {
+			log.warn("{} page audit record batches were still being written when shutdown timed out", inFlight.size());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes {@code writes} on the calling thread, at most {@code max-size} per statement.
+	 *
+	 * @param writes the writes; must not be {@code null}
+	 */
+	private void flushInChunks(List<PendingWrite> writes) {
+		for (int from = 0; from < writes.size(); from += properties.getMaxSize()) {
+			flush(writes.subList(from, Math.min(writes.size(), from + properties.getMaxSize())));
+		}
+	}
+
+	/**
+	 * Writes one batch and completes the future of every write in it, once
+	 * the statement and any retries of it have finished.
+	 *
+	 * @param batch the writes; must not be {@code null}
+	 */
+	void flush(List<PendingWrite> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		List<PendingWrite> unique = new ArrayList<>(batch.size());
+		Map<PageKey, PendingWrite> seen = new HashMap<>();
+		for (PendingWrite write : batch) {
+			PageKey key = new PageKey(write.draft.getAuditRecordId(), write.draft.getPageId());
+			PendingWrite original = seen.putIfAbsent(key, write);
+			if (original == null) {
+				unique.add(write);
+			} else {
+				original.future.whenComplete((id, error) -> {
+					if (error != null) {
+						write.future.completeExceptionally(error);
+					} else {
+						write.future.complete(OptionalLong.empty());
+					}
+				});
+			}
+		}
+
+		unique.sort(WRITE_ORDER);
+		List<PageAuditRecordDraft> drafts = new ArrayList<>(unique.size());
+		for (PendingWrite write : unique) {
+			drafts.add(write.draft);
+		}
+
+		CompletableFuture<long[]> written = retries.neo4j()
+			.call(() -> metrics.time(Stage.RECORD_WRITE, () -> bulkheads.neo4j().call(() -> repository.createForPages(drafts))))
+			.whenComplete((ids, error) -> {
+				if (error != null) {
+					log.error("Failed to write batch of {} page audit records", drafts.size(), error);
+					unique.forEach(write -> write.future.completeExceptionally(error));
+				} else {
+					complete(unique, ids);
+				}
+			});
+		inFlight.add(written);
+		written.whenComplete((ids, error) -> inFlight.remove(written));
+	}
+
+	/**
+	 * Completes the futures of a written batch from the ids the statement
+	 * returned.
+	 *
+	 * @param unique the writes the statement was built from; must not be {@code null}
+	 * @param ids    the returned ids, aligned with {@code unique}; must not be {@code null}
+	 */
+	private static void complete(List<PendingWrite> unique, long[] ids) {
+		for (int i = 0; i < unique.size(); i++) {
+			PendingWrite write = unique.get(i);
+			if (ids[i] == PageAuditRecordRepository.MISSING) {
+				write.future.completeExceptionally(new IllegalStateException(
+					"Cannot create page audit: domain audit " + write.draft.getAuditRecordId()
+						+ " or page " + write.draft.getPageId() + " does not exist"));
+			} else if (ids[i] == PageAuditRecordRepository.EXISTING) {
+				write.future.complete(OptionalLong.empty());
+			} else {
+				write.future.complete(OptionalLong.of(ids[i]));
+			}
+		}
+	}
+
+	/** Orders a statement's rows by domain audit, then page, so locks are always taken in the same order. */
+	private static final Comparator<PendingWrite> WRITE_ORDER = Comparator
+		.<PendingWrite>comparingLong(write -> write.draft.getAuditRecordId())
+		.thenComparingLong(write -> write.draft.getPageId());
+
+	/** A queued draft and the future its caller is waiting on. */
+	static final class PendingWrite {
+		private final PageAuditRecordDraft draft;
+		private final CompletableFuture<OptionalLong> future = new CompletableFuture<>();
+
+		PendingWrite(PageAuditRecordDraft draft) {
+			this.draft = draft;
+		}
+
+		CompletableFuture<OptionalLong> future() {
+			return future;
+		}
+	}
+
+	private record PageKey(long auditRecordId, long pageId) {
+	}
+}
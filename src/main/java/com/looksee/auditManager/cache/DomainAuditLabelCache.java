@@ -0,0 +1,174 @@
+package com.looksee.auditManager.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Sets;
+import com.looksee.auditManager.config.LabelCacheProperties;
+import com.looksee.models.enums.AuditName;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+/**
+ * Size- and TTL-bounded cache of the audit types to run for each domain audit,
+ * keyed by domain audit record id.
+ *
+ * <p>Every page of a domain audit runs the same audit types, so the raw labels
+ * are parsed once per domain audit and every later page shares the same
+ * immutable, {@link EnumSet}-backed result. The eligibility query returns the
+ * domain audit's current labels with every page, and each lookup compares them
+ * with the labels the entry was parsed from: when they differ, the entry is
+ * replaced, so a label change applies to the very next page. Domain audits
+ * without usable labels map to {@link #DEFAULT_AUDIT_NAMES}, which is built
+ * once for the lifetime of the class.
+ *
+ * <p>Hits, misses, puts and evictions are published through
+ * {@link GuavaCacheMetrics} as the {@code cache.*} meters tagged
+ * {@code cache=domain_audit_labels}. A label change counts as a hit followed by
+ * a put.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> Every set returned is immutable and non-empty, and
+ *       parsed from exactly the labels passed in.</li>
+ * </ul>
+ */
+@Component
+public class DomainAuditLabelCache {
+	private static final Logger log = LoggerFactory.getLogger(DomainAuditLabelCache.class);
+
+	/** Audit types applied when a domain audit has no usable labels. */
+	public static final Set<AuditName> DEFAULT_AUDIT_NAMES = Sets.immutableEnumSet(
+		AuditName.TEXT_BACKGROUND_CONTRAST,
+		AuditName.NON_TEXT_BACKGROUND_CONTRAST,
+		AuditName.LINKS,
+		AuditName.TITLES,
+		AuditName.ENCRYPTED,
+		AuditName.METADATA,
+		AuditName.ALT_TEXT,
+		AuditName.READING_COMPLEXITY,
+		AuditName.PARAGRAPHING,
+		AuditName.IMAGE_COPYRIGHT,
+		AuditName.IMAGE_POLICY);
+
+	static final String CACHE_NAME = "domain_audit_labels";
+
+	private final Cache<Long, Entry> cache;
+
+	/**
+	 * Creates a new {@code DomainAuditLabelCache}.
+	 *
+	 * @param properties cache bounds; must not be {@code null}
+	 * @param registry   registry the cache statistics are published to; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if a bound is negative
+	 */
+	public DomainAuditLabelCache(LabelCacheProperties properties, MeterRegistry registry) {
+		Objects.requireNonNull(properties, "properties must not be null");
+		Objects.requireNonNull(registry, "registry must not be null");
+		this.cache = CacheBuilder.newBuilder()
+			.maximumSize(properties.getMaximumSize())
+			.expireAfterWrite(properties.getExpireAfterWrite())
+			.recordStats()
+			.build();
+		GuavaCacheMetrics.monitor(registry, cache, CACHE_NAME);
+	}
+
+	/**
+	 * Returns the audit types for a domain audit, parsing {@code rawLabels}
+	 * only if the domain audit is not cached yet or was cached with other
+	 * labels.
+	 *
+	 * @param auditRecordId the domain audit record identifier
+	 * @param rawLabels     the labels currently stored on the domain audit; must not be {@code null}
+	 * @return an immutable, non-empty set of {@link AuditName}s
+	 */
+	public Set<AuditName> resolve(long auditRecordId, List<String> rawLabels) {
+		assert rawLabels != null : "rawLabels must not be null";
+
+		Entry entry;
+		try {
+			entry = cache.get(auditRecordId, () -> Entry.of(rawLabels));
+		} catch (ExecutionException e) {
+			// parse does not throw checked exceptions
+			throw new IllegalStateException(e.getCause());
+		}
+		if (entry.rawLabels().equals(rawLabels)) {
+			return entry.auditNames();
+		}
+		Entry replaced = Entry.of(rawLabels);
+		cache.put(auditRecordId, replaced);
+		return replaced.auditNames();
+	}
+
+	/**
+	 * Drops the cached audit types for a domain audit once no more pages are
+	 * expected for it.
+	 *
+	 * @param auditRecordId the domain audit record identifier
+	 */
+	public void invalidate(long auditRecordId) {
+		cache.invalidate(auditRecordId);
+	}
+
+	/**
+	 * Returns a snapshot of the hit, miss, load, and eviction counters.
+	 *
+	 * @return the current statistics; never {@code null}
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	/**
+	 * Returns the approximate number of cached domain audits.
+	 *
+	 * @return the number of entries
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * Audit types parsed from a domain audit's labels, kept with the labels so
+	 * a change to them is noticed.
+	 */
+	private record Entry(List<String> rawLabels, Set<AuditName> auditNames) {
+
+		static Entry of(List<String> rawLabels) {
+			return new Entry(Collections.unmodifiableList(new ArrayList<>(rawLabels)), parse(rawLabels));
+		}
+	}
+
+	/**
+	 * Converts raw labels into audit types. Labels that do not name a known
+	 * {@link AuditName} are ignored; if none remain the defaults are used.
+	 *
+	 * @param rawLabels the raw labels; must not be {@code null}
+	 * @return an immutable, non-empty set of {@link AuditName}s
+	 */
+	static Set<AuditName> parse(List<String> rawLabels) {
+		EnumSet<AuditName> auditNames = EnumSet.noneOf(AuditName.class);
+		for (String label : rawLabels) {
+			try {
+				auditNames.add(AuditName.valueOf(label));
+			} catch (IllegalArgumentException e) {
+				log.warn("Ignoring unknown audit label '{}' on domain audit", label);
+			}
+		}
+		return auditNames.isEmpty() ? DEFAULT_AUDIT_NAMES : Sets.immutableEnumSet(auditNames);
+	}
+}
@@ -0,0 +1,62 @@
+package com.looksee.auditManager.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for reporting domain audit progress on the audit-update topic,
+ * bound from {@code audit-manager.progress.*}.
+ *
+ * @see com.looksee.auditManager.progress.AuditProgressTracker
+ */
+@ConfigurationProperties(prefix = "audit-manager.progress")
+public class AuditProgressProperties {
+
+	/**
+	 * Whether progress is counted and published to {@code pubsub.audit_update};
+	 * off until every consumer of that topic handles the new message type.
+	 */
+	private boolean enabled = false;
+
+	/** How often the counts of each domain audit that made progress are published. */
+	private Duration flushInterval = Duration.ofSeconds(5);
+
+	/** How long a domain audit with no progress keeps its counters before they are dropped. */
+	private Duration idleTimeout = Duration.ofMinutes(10);
+
+	/** How long shutdown waits for a running flush before publishing what is left itself. */
+	private Duration shutdownTimeout = Duration.ofSeconds(5);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getFlushInterval() {
+		return flushInterval;
+	}
+
+	public void setFlushInterval(Duration flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	public Duration getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public void setIdleTimeout(Duration idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	public Duration getShutdownTimeout() {
+		return shutdownTimeout;
+	}
+
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		this.shutdownTimeout = shutdownTimeout;
+	}
+}
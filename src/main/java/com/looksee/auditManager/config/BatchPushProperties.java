@@ -0,0 +1,24 @@
+package com.looksee.auditManager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the {@code POST /batch} endpoint, bound from
+ * {@code audit-manager.batch-push.*}.
+ *
+ * @see com.looksee.auditManager.AuditController#receiveBatch(java.io.InputStream)
+ */
+@ConfigurationProperties(prefix = "audit-manager.batch-push")
+public class BatchPushProperties {
+
+	/** Maximum number of items accepted in one request. */
+	private int maxItems = 500;
+
+	public int getMaxItems() {
+		return maxItems;
+	}
+
+	public void setMaxItems(int maxItems) {
+		this.maxItems = maxItems;
+	}
+}
@@ -0,0 +1,57 @@
+package com.looksee.auditManager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the push endpoint's adaptive concurrency limit, bound from
+ * {@code audit-manager.concurrency-limit.*}.
+ *
+ * @see com.looksee.auditManager.execution.AdaptiveConcurrencyLimiter
+ */
+@ConfigurationProperties(prefix = "audit-manager.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+	/** Whether push requests beyond the limit are shed; when off, every request is admitted. */
+	private boolean enabled = true;
+
+	/** Limit used until enough latency samples have been observed. */
+	private int initialLimit = 50;
+
+	/** The limit never drops below this, so a latency spike cannot stop all traffic. */
+	private int minLimit = 10;
+
+	/** The limit never grows beyond this. */
+	private int maxLimit = 1000;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getInitialLimit() {
+		return initialLimit;
+	}
+
+	public void setInitialLimit(int initialLimit) {
+		this.initialLimit = initialLimit;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public void setMinLimit(int minLimit) {
+		this.minLimit = minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public void setMaxLimit(int maxLimit) {
+		this.maxLimit = maxLimit;
+	}
+}
@@ -0,0 +1,48 @@
+package com.looksee.auditManager.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the in-process duplicate filter, bound from
+ * {@code audit-manager.dedup.*}.
+ *
+ * @see com.looksee.auditManager.dedup.DuplicatePageFilter
+ */
+@ConfigurationProperties(prefix = "audit-manager.dedup")
+public class DuplicateFilterProperties {
+
+	/** Whether already-processed pages are rejected before querying Neo4j. */
+	private boolean enabled = true;
+
+	/** Upper bound on heap used by all per-audit indexes together. */
+	private long maxBytes = 64L * 1024 * 1024;
+
+	/** How long a domain audit may go without messages before it is treated as complete and evicted. */
+	private Duration idleTimeout = Duration.ofHours(1);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	public Duration getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public void setIdleTimeout(Duration idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+}
@@ -0,0 +1,60 @@
+package com.looksee.auditManager.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for request execution and backend bulkheads, bound from
+ * {@code audit-manager.execution.*}.
+ *
+ * @see com.looksee.auditManager.execution.Bulkheads
+ * @see VirtualThreadConfig
+ */
+@ConfigurationProperties(prefix = "audit-manager.execution")
+public class ExecutionProperties {
+
+	/** Whether Tomcat serves requests on virtual threads; requires a Java 21 runtime. */
+	private boolean virtualThreads = false;
+
+	/** Maximum concurrent Neo4j calls; should match the driver's connection pool size. */
+	private int neo4jMaxConcurrent = 100;
+
+	/** Maximum page-audit messages being published at once; should match publisher flow control. */
+	private int pubsubMaxConcurrent = 1000;
+
+	/** How long a caller waits for a bulkhead permit before the call fails. */
+	private Duration bulkheadMaxWait = Duration.ofSeconds(10);
+
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	public int getNeo4jMaxConcurrent() {
+		return neo4jMaxConcurrent;
+	}
+
+	public void setNeo4jMaxConcurrent(int neo4jMaxConcurrent) {
+		this.neo4jMaxConcurrent = neo4jMaxConcurrent;
+	}
+
+	public int getPubsubMaxConcurrent() {
+		return pubsubMaxConcurrent;
+	}
+
+	public void setPubsubMaxConcurrent(int pubsubMaxConcurrent) {
+		this.pubsubMaxConcurrent = pubsubMaxConcurrent;
+	}
+
+	public Duration getBulkheadMaxWait() {
+		return bulkheadMaxWait;
+	}
+
+	public void setBulkheadMaxWait(Duration bulkheadMaxWait) {
+		this.bulkheadMaxWait = bulkheadMaxWait;
+	}
+}
@@ -0,0 +1,105 @@
+package com.looksee.auditManager.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for per-account fair scheduling of page-built messages, bound
+ * from {@code audit-manager.fair-scheduling.*}.
+ *
+ * @see com.looksee.auditManager.execution.FairAdmissionScheduler
+ */
+@ConfigurationProperties(prefix = "audit-manager.fair-scheduling")
+public class FairSchedulingProperties {
+
+	/** Whether messages wait in per-account queues; when off, every message is processed on arrival. */
+	private boolean enabled = false;
+
+	/** Messages processed at once across every account, push and pull together. */
+	private int maxConcurrent = 64;
+
+	/** How long a push delivery may wait in its account's queue before it is answered {@code 429}. */
+	private Duration pushMaxWait = Duration.ofSeconds(2);
+
+	/** Push deliveries an account may have waiting; beyond it they are answered {@code 429} at once. */
+	private int maxQueuedPerAccount = 1000;
+
+	/** Share of the budget of an account with no weight of its own. */
+	private double defaultWeight = 1.0;
+
+	/** Share of the budget of individual accounts, relative to {@code default-weight}, by account id. */
+	private Map<Long, Double> weights = new LinkedHashMap<>();
+
+	/** How long an account may go without messages before its queue and meters are dropped. */
+	private Duration idleTimeout = Duration.ofMinutes(10);
+
+	/** How long shutdown keeps dispatching waiting messages before rejecting the rest. */
+	private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	public void setMaxConcurrent(int maxConcurrent) {
+		this.maxConcurrent = maxConcurrent;
+	}
+
+	public Duration getPushMaxWait() {
+		return pushMaxWait;
+	}
+
+	public void setPushMaxWait(Duration pushMaxWait) {
+		this.pushMaxWait = pushMaxWait;
+	}
+
+	public int getMaxQueuedPerAccount() {
+		return maxQueuedPerAccount;
+	}
+
+	public void setMaxQueuedPerAccount(int maxQueuedPerAccount) {
+		this.maxQueuedPerAccount = maxQueuedPerAccount;
+	}
+
+	public double getDefaultWeight() {
+		return defaultWeight;
+	}
+
+	public void setDefaultWeight(double defaultWeight) {
+		this.defaultWeight = defaultWeight;
+	}
+
+	public Map<Long, Double> getWeights() {
+		return weights;
+	}
+
+	public void setWeights(Map<Long, Double> weights) {
+		this.weights = weights;
+	}
+
+	public Duration getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public void setIdleTimeout(Duration idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	public Duration getShutdownTimeout() {
+		return shutdownTimeout;
+	}
+
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		this.shutdownTimeout = shutdownTimeout;
+	}
+}
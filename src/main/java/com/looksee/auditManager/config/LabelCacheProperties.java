@@ -0,0 +1,37 @@
+package com.looksee.auditManager.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the per-domain-audit label cache, bound from
+ * {@code audit-manager.label-cache.*}.
+ *
+ * @see com.looksee.auditManager.cache.DomainAuditLabelCache
+ */
+@ConfigurationProperties(prefix = "audit-manager.label-cache")
+public class LabelCacheProperties {
+
+	/** Maximum number of domain audits whose labels are kept. */
+	private long maximumSize = 10_000;
+
+	/** How long resolved labels are kept after they were first loaded. */
+	private Duration expireAfterWrite = Duration.ofMinutes(30);
+
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	public void setMaximumSize(long maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	public Duration getExpireAfterWrite() {
+		return expireAfterWrite;
+	}
+
+	public void setExpireAfterWrite(Duration expireAfterWrite) {
+		this.expireAfterWrite = expireAfterWrite;
+	}
+}
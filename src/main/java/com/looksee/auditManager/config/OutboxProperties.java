@@ -0,0 +1,59 @@
+package com.looksee.auditManager.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for relaying page audit messages from the Neo4j outbox to
+ * Pub/Sub, bound from {@code audit-manager.outbox.*}.
+ *
+ * @see com.looksee.auditManager.publish.PageAuditOutboxRelay
+ */
+@ConfigurationProperties(prefix = "audit-manager.outbox")
+public class OutboxProperties {
+
+	/** Maximum number of entries claimed, published and cleared together. */
+	private int batchSize = 500;
+
+	/** How often the relay looks for entries when no write has woken it. */
+	private Duration pollInterval = Duration.ofSeconds(1);
+
+	/** How long a claim keeps entries from other instances, and how long the relay waits for their publishes. */
+	private Duration lease = Duration.ofMinutes(1);
+
+	/** How long shutdown waits for a running drain before draining what is left itself. */
+	private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public Duration getPollInterval() {
+		return pollInterval;
+	}
+
+	public void setPollInterval(Duration pollInterval) {
+		this.pollInterval = pollInterval;
+	}
+
+	public Duration getLease() {
+		return lease;
+	}
+
+	public void setLease(Duration lease) {
+		this.lease = lease;
+	}
+
+	public Duration getShutdownTimeout() {
+		return shutdownTimeout;
+	}
+
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		this.shutdownTimeout = shutdownTimeout;
+	}
+}
@@ -0,0 +1,26 @@
+package com.looksee.auditManager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.looksee.auditManager.publish.PageAuditMessageFormat;
+
+/**
+ * Settings for the page-audit messages this service publishes, bound from
+ * {@code audit-manager.page-audit-message.*}.
+ *
+ * @see com.looksee.auditManager.publish.PageAuditMessagePublisher
+ */
+@ConfigurationProperties(prefix = "audit-manager.page-audit-message")
+public class PageAuditMessageProperties {
+
+	/** Wire format of published messages; consumers read it from the {@code contentType} attribute. */
+	private PageAuditMessageFormat format = PageAuditMessageFormat.JSON;
+
+	public PageAuditMessageFormat getFormat() {
+		return format;
+	}
+
+	public void setFormat(PageAuditMessageFormat format) {
+		this.format = format;
+	}
+}
@@ -0,0 +1,79 @@
+package com.looksee.auditManager.config;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.looksee.models.enums.AuditName;
+
+/**
+ * Settings for routing page-audit messages to per-audit or per-category
+ * topics, bound from {@code audit-manager.page-audit-routing.*}.
+ *
+ * @see com.looksee.auditManager.publish.PageAuditTopicRouter
+ */
+@ConfigurationProperties(prefix = "audit-manager.page-audit-routing")
+public class PageAuditRoutingProperties {
+
+	/** Whether messages go to the topics of their audits; when off, every message goes to {@code pubsub.page_audit_topic}. */
+	private boolean enabled = false;
+
+	/** Named groups of audits that share a topic, such as {@code visual-design}. */
+	private Map<String, Category> categories = new LinkedHashMap<>();
+
+	/** Topic of a single audit, taking precedence over its category's. */
+	private Map<AuditName, String> topics = new LinkedHashMap<>();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Map<String, Category> getCategories() {
+		return categories;
+	}
+
+	public void setCategories(Map<String, Category> categories) {
+		this.categories = categories;
+	}
+
+	public Map<AuditName, String> getTopics() {
+		return topics;
+	}
+
+	public void setTopics(Map<AuditName, String> topics) {
+		this.topics = topics;
+	}
+
+	/** A group of audits published to one topic. */
+	public static class Category {
+
+		/** The audits in the category; an audit may belong to one category at most. */
+		private Set<AuditName> audits = EnumSet.noneOf(AuditName.class);
+
+		/** Topic of the category's audits; unset keeps them on {@code pubsub.page_audit_topic}. */
+		private String topic;
+
+		public Set<AuditName> getAudits() {
+			return audits;
+		}
+
+		public void setAudits(Set<AuditName> audits) {
+			this.audits = audits;
+		}
+
+		public String getTopic() {
+			return topic;
+		}
+
+		public void setTopic(String topic) {
+			this.topic = topic;
+		}
+	}
+}
@@ -3,6 +3,7 @@ package com.looksee.auditManager.config;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 import com.looksee.gcp.PubSubPageAuditPublisherImpl;
 import com.looksee.services.AuditRecordService;
@@ -18,6 +19,11 @@ import com.looksee.services.PageStateService;
  * {@link ConditionalOnMissingBean} so that test or profile-specific overrides
  * take precedence.
  *
+ * <p>Nothing in this service calls these beans any more: page states are
+ * read as projections and records written through {@code Neo4jClient}. They
+ * are {@link Lazy}, so startup does not create them or the repositories they
+ * inject.
+ *
  * <h3>Contract</h3>
  * <ul>
  *   <li><b>Postcondition:</b> Each factory method returns a non-null,
@@ -33,6 +39,7 @@ public class PubSubConfig {
      * @return a new {@link PubSubPageAuditPublisherImpl} instance; never {@code null}
      */
     @Bean(name = "audit_record_topic")
+    @Lazy
     @ConditionalOnMissingBean(name = "audit_record_topic")
     public PubSubPageAuditPublisherImpl auditRecordTopic() {
         return new PubSubPageAuditPublisherImpl();
@@ -44,6 +51,7 @@ public class PubSubConfig {
      * @return a new {@link AuditRecordService} instance; never {@code null}
      */
     @Bean(name = "audit_record_service")
+    @Lazy
     @ConditionalOnMissingBean(name = "audit_record_service")
     public AuditRecordService auditRecordService() {
         return new AuditRecordService();
@@ -55,6 +63,7 @@ public class PubSubConfig {
      * @return a new {@link PageStateService} instance; never {@code null}
      */
     @Bean(name = "page_state_service")
+    @Lazy
     @ConditionalOnMissingBean(name = "page_state_service")
     public PageStateService pageStateService() {
         return new PageStateService();
@@ -0,0 +1,86 @@
+package com.looksee.auditManager.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the streaming-pull ingestion mode, bound from
+ * {@code audit-manager.pull.*}.
+ *
+ * <p>Flow control (maximum outstanding messages and bytes) is configured on
+ * the Pub/Sub client itself through
+ * {@code spring.cloud.gcp.pubsub.subscriber.flow-control.*}; these properties
+ * only govern how received messages are grouped and handed to the processor.
+ *
+ * @see com.looksee.auditManager.pull.PageBuiltPullSubscriber
+ */
+@ConfigurationProperties(prefix = "audit-manager.pull")
+public class PullSubscriberProperties {
+
+	/** Whether the streaming-pull subscriber is started. */
+	private boolean enabled = false;
+
+	/** Name of the page-built subscription to pull from. */
+	private String subscription;
+
+	/** Maximum number of messages handed to the processor at once. */
+	private int batchSize = 100;
+
+	/** How long a worker waits for a batch to fill before processing what it has. */
+	private Duration batchTimeout = Duration.ofMillis(50);
+
+	/** Number of threads draining batches concurrently. */
+	private int workerThreads = 4;
+
+	/** How long shutdown waits for in-flight batches before nacking the rest. */
+	private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getSubscription() {
+		return subscription;
+	}
+
+	public void setSubscription(String subscription) {
+		this.subscription = subscription;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public Duration getBatchTimeout() {
+		return batchTimeout;
+	}
+
+	public void setBatchTimeout(Duration batchTimeout) {
+		this.batchTimeout = batchTimeout;
+	}
+
+	public int getWorkerThreads() {
+		return workerThreads;
+	}
+
+	public void setWorkerThreads(int workerThreads) {
+		this.workerThreads = workerThreads;
+	}
+
+	public Duration getShutdownTimeout() {
+		return shutdownTimeout;
+	}
+
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		this.shutdownTimeout = shutdownTimeout;
+	}
+}
@@ -0,0 +1,110 @@
+package com.looksee.auditManager.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for replaying archives of page-built messages, bound from
+ * {@code audit-manager.replay.*}.
+ *
+ * <p>The {@code replay} profile turns replay on and the web server off; the
+ * archives to read are passed as {@code audit-manager.replay.archives}.
+ *
+ * @see com.looksee.auditManager.replay.ArchiveReplayer
+ */
+@ConfigurationProperties(prefix = "audit-manager.replay")
+public class ReplayProperties {
+
+	/** Whether the archives are replayed after startup, after which the application exits. */
+	private boolean enabled = false;
+
+	/** NDJSON or line-delimited Base64 archives to replay, in order. */
+	private List<Path> archives = new ArrayList<>();
+
+	/** Records handed to the processor together, with one eligibility query for all of them. */
+	private int batchSize = 500;
+
+	/** Batches being processed at once. */
+	private int parallelism = 4;
+
+	/** How often the byte offset reached is saved, so an interrupted run can resume from it. */
+	private Duration checkpointInterval = Duration.ofSeconds(10);
+
+	/** Where checkpoints and failed records are kept; next to each archive when not set. */
+	private Path stateDirectory;
+
+	/** Bytes read from an archive at a time. */
+	private DataSize readBufferSize = DataSize.ofMegabytes(1);
+
+	/** Longest record accepted; longer lines are counted as invalid and skipped. */
+	private DataSize maxRecordSize = DataSize.ofMegabytes(1);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public List<Path> getArchives() {
+		return archives;
+	}
+
+	public void setArchives(List<Path> archives) {
+		this.archives = archives;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public Duration getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	public void setCheckpointInterval(Duration checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	public Path getStateDirectory() {
+		return stateDirectory;
+	}
+
+	public void setStateDirectory(Path stateDirectory) {
+		this.stateDirectory = stateDirectory;
+	}
+
+	public DataSize getReadBufferSize() {
+		return readBufferSize;
+	}
+
+	public void setReadBufferSize(DataSize readBufferSize) {
+		this.readBufferSize = readBufferSize;
+	}
+
+	public DataSize getMaxRecordSize() {
+		return maxRecordSize;
+	}
+
+	public void setMaxRecordSize(DataSize maxRecordSize) {
+		this.maxRecordSize = maxRecordSize;
+	}
+}
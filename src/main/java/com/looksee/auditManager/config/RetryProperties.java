@@ -0,0 +1,128 @@
+package com.looksee.auditManager.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for retrying transient backend failures, bound from
+ * {@code audit-manager.retry.*}.
+ *
+ * @see com.looksee.auditManager.execution.Retries
+ */
+@ConfigurationProperties(prefix = "audit-manager.retry")
+public class RetryProperties {
+
+	/** Threads that time backoffs; retried calls run on worker threads, never request threads. */
+	private int threads = 4;
+
+	/** Retry and circuit breaker settings for Neo4j queries and writes. */
+	private Backend neo4j = new Backend(4, Duration.ofMillis(200), Duration.ofSeconds(5));
+
+	/** Retry and circuit breaker settings for page-audit publishes. */
+	private Backend pubsub = new Backend(3, Duration.ofMillis(100), Duration.ofSeconds(2));
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public Backend getNeo4j() {
+		return neo4j;
+	}
+
+	public void setNeo4j(Backend neo4j) {
+		this.neo4j = neo4j;
+	}
+
+	public Backend getPubsub() {
+		return pubsub;
+	}
+
+	public void setPubsub(Backend pubsub) {
+		this.pubsub = pubsub;
+	}
+
+	/** Retry and circuit breaker settings for one backend. */
+	public static class Backend {
+
+		/** Attempts per call, the first included; {@code 1} disables retrying. */
+		private int maxAttempts;
+
+		/** Backoff ceiling before the first retry; the actual wait is drawn uniformly below it. */
+		private Duration initialBackoff;
+
+		/** The backoff ceiling never grows beyond this. */
+		private Duration maxBackoff;
+
+		/** Factor the backoff ceiling grows by after each retry. */
+		private double multiplier = 2.0;
+
+		/** Consecutive transient failures that open the circuit breaker. */
+		private int failureThreshold = 20;
+
+		/** How long an open breaker rejects calls before letting a trial call through. */
+		private Duration openDuration = Duration.ofSeconds(30);
+
+		public Backend() {
+			this(3, Duration.ofMillis(100), Duration.ofSeconds(2));
+		}
+
+		Backend(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+			this.maxAttempts = maxAttempts;
+			this.initialBackoff = initialBackoff;
+			this.maxBackoff = maxBackoff;
+		}
+
+		public int getMaxAttempts() {
+			return maxAttempts;
+		}
+
+		public void setMaxAttempts(int maxAttempts) {
+			this.maxAttempts = maxAttempts;
+		}
+
+		public Duration getInitialBackoff() {
+			return initialBackoff;
+		}
+
+		public void setInitialBackoff(Duration initialBackoff) {
+			this.initialBackoff = initialBackoff;
+		}
+
+		public Duration getMaxBackoff() {
+			return maxBackoff;
+		}
+
+		public void setMaxBackoff(Duration maxBackoff) {
+			this.maxBackoff = maxBackoff;
+		}
+
+		public double getMultiplier() {
+			return multiplier;
+		}
+
+		public void setMultiplier(double multiplier) {
+			this.multiplier = multiplier;
+		}
+
+		public int getFailureThreshold() {
+			return failureThreshold;
+		}
+
+		public void setFailureThreshold(int failureThreshold) {
+			this.failureThreshold = failureThreshold;
+		}
+
+		public Duration getOpenDuration() {
+			return openDuration;
+		}
+
+		public void setOpenDuration(Duration openDuration) {
+			this.openDuration = openDuration;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package com.looksee.auditManager.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps this service's own beans eager when lazy initialization is on.
+ *
+ * <p>The {@code fast-start} profile sets
+ * {@code spring.main.lazy-initialization=true}, so the LookseeCore services
+ * and Neo4j repositories this service never calls are not created at all.
+ * The request path itself, from the controller down to the Neo4j driver and
+ * the Pub/Sub publisher it depends on, is still created at startup, so the
+ * first delivery after a scale-from-zero does not pay for it.
+ */
+@Configuration
+public class StartupConfig {
+
+	private static final String PACKAGE_PREFIX = "com.looksee.auditManager.";
+
+	/**
+	 * Excludes every bean declared in {@code com.looksee.auditManager} from
+	 * lazy initialization.
+	 *
+	 * @return the filter; never {@code null}
+	 */
+	@Bean
+	public static LazyInitializationExcludeFilter eagerAuditManagerBeans() {
+		return (beanName, beanDefinition, beanType) -> beanType != null && beanType.getName().startsWith(PACKAGE_PREFIX);
+	}
+}
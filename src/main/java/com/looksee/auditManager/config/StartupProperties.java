@@ -0,0 +1,26 @@
+package com.looksee.auditManager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for application startup, bound from {@code audit-manager.startup.*}.
+ *
+ * @see com.looksee.auditManager.Application
+ */
+@ConfigurationProperties(prefix = "audit-manager.startup")
+public class StartupProperties {
+
+	/**
+	 * Shut down as soon as the application has started; used by the Docker
+	 * build's class-archive training run.
+	 */
+	private boolean exitAfterStart = false;
+
+	public boolean isExitAfterStart() {
+		return exitAfterStart;
+	}
+
+	public void setExitAfterStart(boolean exitAfterStart) {
+		this.exitAfterStart = exitAfterStart;
+	}
+}
@@ -0,0 +1,48 @@
+package com.looksee.auditManager.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.looksee.auditManager.execution.VirtualThreads;
+
+/**
+ * Opt-in virtual-thread execution for the embedded Tomcat server.
+ *
+ * <p>Request threads spend nearly all their time blocked on Neo4j or Pub/Sub,
+ * so with {@code audit-manager.execution.virtual-threads=true} every request
+ * runs on its own virtual thread instead of a slot in Tomcat's platform-thread
+ * pool. Concurrency is then bounded by the backend
+ * {@link com.looksee.auditManager.execution.Bulkheads}, where waiting is cheap,
+ * rather than by the pool size.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Precondition:</b> The JVM is Java 21 or newer; startup fails
+ *       otherwise.</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "audit-manager.execution", name = "virtual-threads", havingValue = "true")
+public class VirtualThreadConfig {
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+	/**
+	 * Replaces Tomcat's request executor with a virtual-thread-per-task executor.
+	 *
+	 * @return a customizer for the Tomcat protocol handler; never {@code null}
+	 * @throws IllegalStateException if the runtime does not support virtual threads
+	 */
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		if (!VirtualThreads.isSupported()) {
+			throw new IllegalStateException("audit-manager.execution.virtual-threads requires Java 21 or newer, but the runtime is "
+				+ Runtime.version());
+		}
+		log.info("Serving requests on virtual threads");
+		return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newVirtualThreadPerTaskExecutor());
+	}
+}
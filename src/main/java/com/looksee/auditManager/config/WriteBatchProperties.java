@@ -0,0 +1,70 @@
+package com.looksee.auditManager.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for coalescing page audit record writes, bound from
+ * {@code audit-manager.write-batch.*}.
+ *
+ * @see com.looksee.auditManager.batch.PageAuditRecordBatcher
+ */
+@ConfigurationProperties(prefix = "audit-manager.write-batch")
+public class WriteBatchProperties {
+
+	/** Maximum number of records written by one statement. */
+	private int maxSize = 200;
+
+	/** How long a writer waits for a batch to fill before writing what it has. */
+	private Duration window = Duration.ofMillis(20);
+
+	/** Number of threads writing batches concurrently. */
+	private int writerThreads = 2;
+
+	/** Maximum drafts waiting for a writer; further drafts are rejected until it drains. */
+	private int queueCapacity = 10_000;
+
+	/** How long shutdown waits for in-flight batches, retries included. */
+	private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public Duration getWindow() {
+		return window;
+	}
+
+	public void setWindow(Duration window) {
+		this.window = window;
+	}
+
+	public int getWriterThreads() {
+		return writerThreads;
+	}
+
+	public void setWriterThreads(int writerThreads) {
+		this.writerThreads = writerThreads;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public Duration getShutdownTimeout() {
+		return shutdownTimeout;
+	}
+
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		this.shutdownTimeout = shutdownTimeout;
+	}
+}
@@ -0,0 +1,307 @@
+package com.looksee.auditManager.dedup;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.looksee.auditManager.config.DuplicateFilterProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+/**
+ * In-memory index of {@code (auditRecordId, pageId)} pairs this instance has
+ * already seen audited, used to reject Pub/Sub redeliveries and crawler
+ * duplicates without a Neo4j round trip.
+ *
+ * <p>Each domain audit gets its own exact {@link LongHashSet} of primitive
+ * page ids, so the filter has no false positives and never drops a page that
+ * still needs auditing. Domain audits are held in a concurrent map and each
+ * set is locked on its own, so deliveries for different domain audits never
+ * wait on each other.
+ *
+ * <p>Total heap is capped at {@code audit-manager.dedup.max-bytes}: when the
+ * cap is exceeded the least recently used domain audits are evicted first.
+ * Domain audits are also evicted once they have been idle for
+ * {@code audit-manager.dedup.idle-timeout}, which is when their crawl has
+ * finished, or explicitly through {@link #evict(long)} once they are known to
+ * be complete. Losing an entry is always safe; the next message for that
+ * audit simply goes to Neo4j again.
+ *
+ * <p>Published meters:
+ * <ul>
+ *   <li>{@code audit_manager.dedup.memory} &ndash; gauge of the heap held by
+ *       all indexes, in bytes</li>
+ *   <li>{@code audit_manager.dedup.domain_audits} &ndash; gauge of the domain
+ *       audits indexed</li>
+ *   <li>{@code audit_manager.dedup.evictions} &ndash; counter of domain audits
+ *       evicted, for any reason</li>
+ * </ul>
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> {@link #isProcessed(long, long)} only returns
+ *       {@code true} for pairs previously passed to
+ *       {@link #markProcessed(long, long)}.</li>
+ *   <li><b>Invariant:</b> Once concurrent calls have returned,
+ *       {@link #memoryBytes()} is at most {@code max-bytes}, or a single
+ *       audit's index if that alone is larger.</li>
+ * </ul>
+ */
+@Component
+public class DuplicatePageFilter {
+	private static final Logger log = LoggerFactory.getLogger(DuplicatePageFilter.class);
+
+	static final String MEMORY_GAUGE = "audit_manager.dedup.memory";
+	static final String DOMAIN_AUDITS_GAUGE = "audit_manager.dedup.domain_audits";
+	static final String EVICTION_COUNTER = "audit_manager.dedup.evictions";
+
+	private final DuplicateFilterProperties properties;
+	private final LongSupplier clock;
+	private final Map<Long, AuditPageIndex> indexes = new ConcurrentHashMap<>();
+	private final AtomicLong memoryBytes = new AtomicLong();
+	private final AtomicLong nextIdleSweep;
+	private final Object evictionLock = new Object();
+	private final Counter evictions;
+
+	/**
+	 * Creates a new {@code DuplicatePageFilter}.
+	 *
+	 * @param properties filter settings; must not be {@code null}
+	 * @param registry   registry for the filter's meters; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if {@code max-bytes} or {@code idle-timeout} is not positive
+	 */
+	@Autowired
+	public DuplicatePageFilter(DuplicateFilterProperties properties, MeterRegistry registry) {
+		this(properties, registry, System::nanoTime);
+	}
+
+	DuplicatePageFilter(DuplicateFilterProperties properties, MeterRegistry registry, LongSupplier clock) {
+		this.properties = Objects.requireNonNull(properties, "properties must not be null");
+		Objects.requireNonNull(registry, "registry must not be null");
+		this.clock = Objects.requireNonNull(clock, "clock must not be null");
+
+		if (properties.getMaxBytes() < 1) {
+			throw new IllegalArgumentException("audit-manager.dedup.max-bytes must be positive");
+		}
+		if (properties.getIdleTimeout() == null
+			|| properties.getIdleTimeout().isNegative() || properties.getIdleTimeout().isZero()) {
+			throw new IllegalArgumentException("audit-manager.dedup.idle-timeout must be positive");
+		}
+		this.nextIdleSweep = new AtomicLong(clock.getAsLong() + idleSweepInterval());
+
+		Gauge.builder(MEMORY_GAUGE, memoryBytes, AtomicLong::get)
+			.description("Heap held by the duplicate filter's per-audit indexes")
+			.baseUnit(BaseUnits.BYTES)
+			.register(registry);
+		Gauge.builder(DOMAIN_AUDITS_GAUGE, indexes, Map::size)
+			.description("Domain audits indexed by the duplicate filter")
+			.register(registry);
+		this.evictions = Counter.builder(EVICTION_COUNTER)
+			.description("Domain audits evicted from the duplicate filter")
+			.register(registry);
+	}
+
+	/**
+	 * Returns whether the page is already known to be audited within the
+	 * domain audit.
+	 *
+	 * @param auditRecordId the domain audit record identifier
+	 * @param pageId        the page state identifier
+	 * @return {@code true} only if the pair was previously marked processed
+	 */
+	public boolean isProcessed(long auditRecordId, long pageId) {
+		if (!properties.isEnabled()) {
+			return false;
+		}
+		long now = clock.getAsLong();
+		sweepIdleIfDue(now);
+		AuditPageIndex index = indexes.get(auditRecordId);
+		if (index == null) {
+			return false;
+		}
+		if (isIdle(index, now)) {
+			remove(auditRecordId, index);
+			return false;
+		}
+		return index.contains(pageId, now);
+	}
+
+	/**
+	 * Records that the page has been audited within the domain audit.
+	 *
+	 * @param auditRecordId the domain audit record identifier
+	 * @param pageId        the page state identifier
+	 */
+	public void markProcessed(long auditRecordId, long pageId) {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		long now = clock.getAsLong();
+		AuditPageIndex index = indexes.computeIfAbsent(auditRecordId, id -> {
+			AuditPageIndex created = new AuditPageIndex(now);
+			memoryBytes.addAndGet(created.sizeInBytes());
+			return created;
+		});
+		long grown = index.add(pageId, now);
+		long footprint = grown == 0 ? memoryBytes.get() : memoryBytes.addAndGet(grown);
+		if (footprint > properties.getMaxBytes()) {
+			enforceCeiling(auditRecordId, now);
+		}
+	}
+
+	/**
+	 * Drops everything known about a domain audit, typically once it has
+	 * completed.
+	 *
+	 * @param auditRecordId the domain audit record identifier
+	 */
+	public void evict(long auditRecordId) {
+		AuditPageIndex index = indexes.get(auditRecordId);
+		if (index != null) {
+			remove(auditRecordId, index);
+		}
+	}
+
+	/**
+	 * Returns the heap currently held by all per-audit indexes.
+	 *
+	 * @return the footprint in bytes
+	 */
+	public long memoryBytes() {
+		return memoryBytes.get();
+	}
+
+	/**
+	 * Returns the number of domain audits currently indexed.
+	 *
+	 * @return the number of indexed domain audits
+	 */
+	public int auditCount() {
+		return indexes.size();
+	}
+
+	/**
+	 * Returns how many domain audits have been evicted, for any reason.
+	 *
+	 * @return the eviction count
+	 */
+	public long evictionCount() {
+		return (long) evictions.count();
+	}
+
+	/**
+	 * Evicts every idle domain audit, at most once per quarter of the idle
+	 * timeout, so the scan stays off nearly every call.
+	 */
+	private void sweepIdleIfDue(long now) {
+		long due = nextIdleSweep.get();
+		if (now - due < 0 || !nextIdleSweep.compareAndSet(due, now + idleSweepInterval())) {
+			return;
+		}
+		indexes.forEach((auditRecordId, index) -> {
+			if (isIdle(index, now)) {
+				remove(auditRecordId, index);
+			}
+		});
+	}
+
+	/**
+	 * Evicts the least recently used domain audits, other than
+	 * {@code current}, until the footprint is back under the ceiling.
+	 */
+	private void enforceCeiling(long current, long now) {
+		synchronized (evictionLock) {
+			sweepIdleIfDue(now);
+			while (memoryBytes.get() > properties.getMaxBytes()) {
+				Map.Entry<Long, AuditPageIndex> eldest = null;
+				for (Map.Entry<Long, AuditPageIndex> entry : indexes.entrySet()) {
+					if (entry.getKey() != current
+						&& (eldest == null || entry.getValue().lastAccess - eldest.getValue().lastAccess < 0)) {
+						eldest = entry;
+					}
+				}
+				if (eldest == null) {
+					return;
+				}
+				remove(eldest.getKey(), eldest.getValue());
+				log.debug("Evicted duplicate index for auditRecordId={} to stay under {} bytes", eldest.getKey(), properties.getMaxBytes());
+			}
+		}
+	}
+
+	private void remove(long auditRecordId, AuditPageIndex index) {
+		if (indexes.remove(auditRecordId, index)) {
+			memoryBytes.addAndGet(-index.markRemoved());
+			evictions.increment();
+		}
+	}
+
+	private boolean isIdle(AuditPageIndex index, long now) {
+		return now - index.lastAccess >= properties.getIdleTimeout().toNanos();
+	}
+
+	private long idleSweepInterval() {
+		return properties.getIdleTimeout().toNanos() / 4;
+	}
+
+	/**
+	 * Exact page set for one domain audit, guarded by its own monitor. Once
+	 * removed from the filter, additions are dropped and no longer counted
+	 * toward the footprint.
+	 */
+	private static final class AuditPageIndex {
+		private final LongHashSet pages = new LongHashSet(0);
+		private volatile long lastAccess;
+		/** Guarded by {@code this}. */
+		private boolean removed;
+
+		private AuditPageIndex(long now) {
+			this.lastAccess = now;
+		}
+
+		private synchronized boolean contains(long pageId, long now) {
+			lastAccess = now;
+			return pages.contains(pageId);
+		}
+
+		/**
+		 * Adds a page.
+		 *
+		 * @return how many bytes the set grew by
+		 */
+		private synchronized long add(long pageId, long now) {
+			lastAccess = now;
+			if (removed) {
+				return 0;
+			}
+			long before = pages.sizeInBytes();
+			pages.add(pageId);
+			return pages.sizeInBytes() - before;
+		}
+
+		/**
+		 * Marks the index removed.
+		 *
+		 * @return the bytes it held
+		 */
+		private synchronized long markRemoved() {
+			removed = true;
+			return pages.sizeInBytes();
+		}
+
+		private synchronized long sizeInBytes() {
+			return pages.sizeInBytes();
+		}
+	}
+}
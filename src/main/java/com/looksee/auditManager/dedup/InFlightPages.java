@@ -0,0 +1,161 @@
+package com.looksee.auditManager.dedup;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.looksee.auditManager.ProcessingOutcome;
+
+/**
+ * Serializes the processing of each {@code (auditRecordId, pageId)} pair
+ * within this instance, so two deliveries of the same page can never both
+ * pass the eligibility check before either record is written.
+ *
+ * <p>The first delivery of a page claims it and runs the check-then-write.
+ * Deliveries arriving while that claim is held do no work of their own: they
+ * complete with the first delivery's outcome, {@link ProcessingOutcome#AUDIT_CREATED}
+ * reported as {@link ProcessingOutcome#ALREADY_AUDITED}, or fail with its
+ * failure so they are redelivered. The claim is dropped as soon as the first
+ * delivery completes; later deliveries go through the normal eligibility
+ * check, which then sees the record.
+ *
+ * <p>Claims are held in a {@link ConcurrentHashMap}, which locks per hash bin
+ * only for the instant of the claim or release, and no thread ever waits on a
+ * claim held by another. Unrelated pages therefore never contend, however
+ * long a write takes. Duplicates across instances are caught by the record
+ * write itself, see
+ * {@link com.looksee.auditManager.repository.PageAuditRecordRepository}.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> At most one claim per pair is owned at any time.</li>
+ *   <li><b>Postcondition:</b> Every owned claim must be completed exactly
+ *       once through {@link Claim#complete(CompletableFuture)}.</li>
+ * </ul>
+ */
+@Component
+public class InFlightPages {
+
+	private final ConcurrentHashMap<PageKey, CompletableFuture<ProcessingOutcome>> claims = new ConcurrentHashMap<>();
+
+	/**
+	 * Claims a page, or joins the claim another delivery already holds.
+	 *
+	 * @param auditRecordId the domain audit record identifier
+	 * @param pageId        the page state identifier
+	 * @return the claim; never {@code null}
+	 */
+	public Claim claim(long auditRecordId, long pageId) {
+		PageKey key = new PageKey(auditRecordId, pageId);
+		CompletableFuture<ProcessingOutcome> mine = new CompletableFuture<>();
+		CompletableFuture<ProcessingOutcome> existing = claims.putIfAbsent(key, mine);
+		return existing == null ? new Claim(this, key, mine) : new Claim(null, key, existing);
+	}
+
+	/**
+	 * Runs {@code work} for a page unless another delivery of it is already in
+	 * flight, in which case that delivery's outcome is shared.
+	 *
+	 * @param auditRecordId the domain audit record identifier
+	 * @param pageId        the page state identifier
+	 * @param work          the check-then-write for the page; must not be {@code null}
+	 * @return the outcome of {@code work}, or of the delivery already in
+	 *         flight; never {@code null}
+	 * @throws NullPointerException if {@code work} is {@code null}
+	 */
+	public CompletableFuture<ProcessingOutcome> run(
+		long auditRecordId,
+		long pageId,
+		Supplier<CompletableFuture<ProcessingOutcome>> work) {
+		Objects.requireNonNull(work, "work must not be null");
+
+		Claim claim = claim(auditRecordId, pageId);
+		if (!claim.isOwner()) {
+			return claim.outcome();
+		}
+		CompletableFuture<ProcessingOutcome> outcome;
+		try {
+			outcome = work.get();
+		} catch (RuntimeException e) {
+			outcome = CompletableFuture.failedFuture(e);
+		}
+		return claim.complete(outcome);
+	}
+
+	/**
+	 * Returns the number of pages currently claimed.
+	 *
+	 * @return the claimed page count
+	 */
+	public int size() {
+		return claims.size();
+	}
+
+	/** A delivery's hold on a page, either as its owner or as a follower of the owner. */
+	public static final class Claim {
+		private final InFlightPages owner;
+		private final PageKey key;
+		private final CompletableFuture<ProcessingOutcome> future;
+
+		private Claim(InFlightPages owner, PageKey key, CompletableFuture<ProcessingOutcome> future) {
+			this.owner = owner;
+			this.key = key;
+			this.future = future;
+		}
+
+		/**
+		 * Indicates whether this delivery must do the work for the page.
+		 *
+		 * @return {@code true} if this delivery owns the claim
+		 */
+		public boolean isOwner() {
+			return owner != null;
+		}
+
+		/**
+		 * Returns the outcome a follower reports, once the owner completes.
+		 *
+		 * @return the owner's outcome with {@link ProcessingOutcome#AUDIT_CREATED}
+		 *         reported as {@link ProcessingOutcome#ALREADY_AUDITED}; never {@code null}
+		 * @throws IllegalStateException if this delivery owns the claim
+		 */
+		public CompletableFuture<ProcessingOutcome> outcome() {
+			if (isOwner()) {
+				throw new IllegalStateException("The owner of a claim completes it instead of waiting on it");
+			}
+			return future.thenApply(outcome ->
+				outcome == ProcessingOutcome.AUDIT_CREATED ? ProcessingOutcome.ALREADY_AUDITED : outcome);
+		}
+
+		/**
+		 * Releases the claim once the owner's work completes, and passes its
+		 * outcome on to every follower.
+		 *
+		 * @param outcome the owner's pending outcome; must not be {@code null}
+		 * @return a future completed like {@code outcome} once the claim is
+		 *         released; never {@code null}
+		 * @throws IllegalStateException if this delivery does not own the claim
+		 */
+		public CompletableFuture<ProcessingOutcome> complete(CompletableFuture<ProcessingOutcome> outcome) {
+			assert outcome != null : "outcome must not be null";
+			if (!isOwner()) {
+				throw new IllegalStateException("Only the owner of a claim can complete it");
+			}
+			return outcome.whenComplete((result, error) -> {
+				// Release before notifying, so a follower redelivered after a failure can claim the page afresh.
+				owner.claims.remove(key, future);
+				if (error != null) {
+					future.completeExceptionally(error);
+				} else {
+					future.complete(result);
+				}
+			});
+		}
+	}
+
+	private record PageKey(long auditRecordId, long pageId) {
+	}
+}
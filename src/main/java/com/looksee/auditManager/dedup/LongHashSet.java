@@ -0,0 +1,145 @@
+package com.looksee.auditManager.dedup;
+
+/**
+ * Open-addressing hash set of primitive {@code long} values.
+ *
+ * <p>Values are stored unboxed in a single {@code long[]} with linear probing,
+ * so each member costs 8 bytes at most twice over (the table is kept at most
+ * half full) instead of the ~50 bytes of a boxed {@code HashSet<Long>} entry.
+ * Removal is not supported because members are only ever dropped together
+ * with the whole set.
+ *
+ * <p>Not thread-safe; callers synchronize externally.
+ */
+final class LongHashSet {
+	private static final int MIN_CAPACITY = 16;
+
+	/** Marks an empty slot; the value itself is tracked by {@link #containsEmptyMarker}. */
+	private static final long EMPTY = 0L;
+
+	private long[] table;
+	private int size;
+	private boolean containsEmptyMarker;
+
+	/**
+	 * Creates a set sized to hold {@code expectedSize} values without resizing.
+	 *
+	 * @param expectedSize the expected number of values; must not be negative
+	 */
+	LongHashSet(int expectedSize) {
+		assert expectedSize >= 0 : "expectedSize must not be negative";
+		table = new long[tableSizeFor(expectedSize)];
+	}
+
+	/**
+	 * Adds a value to the set.
+	 *
+	 * @param value the value to add
+	 * @return {@code true} if the value was not already present
+	 */
+	boolean add(long value) {
+		if (value == EMPTY) {
+			if (containsEmptyMarker) {
+				return false;
+			}
+			containsEmptyMarker = true;
+			size++;
+			return true;
+		}
+		if ((size + 1) * 2 > table.length) {
+			resize(table.length * 2);
+		}
+		return insert(table, value);
+	}
+
+	/**
+	 * Returns whether the value is a member of the set.
+	 *
+	 * @param value the value to look up
+	 * @return {@code true} if the value is present
+	 */
+	boolean contains(long value) {
+		if (value == EMPTY) {
+			return containsEmptyMarker;
+		}
+		int mask = table.length - 1;
+		for (int slot = slot(value, mask); ; slot = (slot + 1) & mask) {
+			long current = table[slot];
+			if (current == value) {
+				return true;
+			}
+			if (current == EMPTY) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of values in the set.
+	 *
+	 * @return the size
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the heap used by the backing table.
+	 *
+	 * @return the size of the table in bytes
+	 */
+	long sizeInBytes() {
+		return (long) table.length * Long.BYTES;
+	}
+
+	private boolean insert(long[] target, long value) {
+		int mask = target.length - 1;
+		for (int slot = slot(value, mask); ; slot = (slot + 1) & mask) {
+			long current = target[slot];
+			if (current == value) {
+				return false;
+			}
+			if (current == EMPTY) {
+				target[slot] = value;
+				size++;
+				return true;
+			}
+		}
+	}
+
+	private void resize(int capacity) {
+		long[] old = table;
+		table = new long[capacity];
+		size = containsEmptyMarker ? 1 : 0;
+		for (long value : old) {
+			if (value != EMPTY) {
+				insert(table, value);
+			}
+		}
+	}
+
+	private static int slot(long value, int mask) {
+		return (int) mix(value) & mask;
+	}
+
+	/**
+	 * 64-bit finalizer from MurmurHash3; spreads sequential ids across the
+	 * whole table.
+	 *
+	 * @param value the value to mix
+	 * @return the mixed value
+	 */
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return value;
+	}
+
+	private static int tableSizeFor(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+		return Math.max(MIN_CAPACITY, capacity);
+	}
+}
@@ -0,0 +1,240 @@
+package com.looksee.auditManager.execution;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.looksee.auditManager.config.ConcurrencyLimitProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Adaptive limit on how many push requests are processed at once, so that
+ * excess load is shed at the door instead of queuing on Neo4j.
+ *
+ * <p>The limit follows the TCP Vegas algorithm, driven by the latency of the
+ * eligibility query every request makes, bulkhead wait included. That query
+ * has the same shape for every page, so its latency moves only with how
+ * loaded Neo4j is. The lowest latency seen recently is taken as the latency
+ * without queuing, and {@code limit * (1 - noLoad / latency)} estimates how
+ * many requests are waiting rather than being served. A short queue grows the
+ * limit, a long queue or a backend failure, Neo4j or Pub/Sub, shrinks it, and
+ * in between it holds. Steps scale with {@code log10(limit)}, so a large limit
+ * moves faster than a small one. The no-load latency is re-measured every
+ * {@value #PROBE_MULTIPLIER} &times; limit samples so it follows Neo4j when
+ * its baseline changes.
+ *
+ * <p>Requests beyond the limit are refused immediately by
+ * {@link #tryAcquire()}, so the caller can answer with a retryable status and
+ * let Pub/Sub back off.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> The limit stays within
+ *       {@code [min-limit, max-limit]}, and at most that many permits are held
+ *       at once.</li>
+ *   <li><b>Postcondition:</b> Every permit returned by {@link #tryAcquire()}
+ *       must be released exactly once.</li>
+ * </ul>
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+	private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+	static final String LIMIT_GAUGE = "audit_manager.concurrency.limit";
+	static final String IN_FLIGHT_GAUGE = "audit_manager.concurrency.in_flight";
+	static final String NO_LOAD_LATENCY_GAUGE = "audit_manager.concurrency.no_load_latency";
+
+	/** How many samples, per unit of limit, pass between re-measurements of the no-load latency. */
+	static final int PROBE_MULTIPLIER = 30;
+
+	private static final Permit UNLIMITED = new Permit(null);
+
+	private final boolean enabled;
+	private final int minLimit;
+	private final int maxLimit;
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private volatile int limit;
+	private double estimatedLimit;
+	private long noLoadNanos;
+	private long samplesSinceProbe;
+
+	/**
+	 * Creates a new {@code AdaptiveConcurrencyLimiter} and registers its meters.
+	 *
+	 * @param properties limit settings; must not be {@code null}
+	 * @param registry   registry for the limit gauges; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if the limits are not positive or not ordered
+	 */
+	public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+		Objects.requireNonNull(properties, "properties must not be null");
+		Objects.requireNonNull(registry, "registry must not be null");
+		if (properties.getMinLimit() < 1
+			|| properties.getInitialLimit() < properties.getMinLimit()
+			|| properties.getMaxLimit() < properties.getInitialLimit()) {
+			throw new IllegalArgumentException(
+				"audit-manager.concurrency-limit requires 1 <= min-limit <= initial-limit <= max-limit");
+		}
+
+		this.enabled = properties.isEnabled();
+		this.minLimit = properties.getMinLimit();
+		this.maxLimit = properties.getMaxLimit();
+		this.limit = properties.getInitialLimit();
+		this.estimatedLimit = properties.getInitialLimit();
+
+		Gauge.builder(LIMIT_GAUGE, this, AdaptiveConcurrencyLimiter::getLimit)
+			.description("Current adaptive limit on concurrently processed push requests")
+			.register(registry);
+		Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+			.description("Push requests admitted by the adaptive limit and not yet completed")
+			.register(registry);
+		Gauge.builder(NO_LOAD_LATENCY_GAUGE, this, limiter -> limiter.getNoLoadLatencyNanos() / 1e9)
+			.description("Lowest recent eligibility query latency, taken as the latency without queuing")
+			.baseUnit("seconds")
+			.register(registry);
+	}
+
+	/**
+	 * Admits a request if fewer than {@link #getLimit()} are in flight.
+	 *
+	 * @return a permit to release once the request completes, or {@code null}
+	 *         if the request must be shed
+	 */
+	public Permit tryAcquire() {
+		if (!enabled) {
+			return UNLIMITED;
+		}
+		while (true) {
+			int current = inFlight.get();
+			if (current >= limit) {
+				return null;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return new Permit(this);
+			}
+		}
+	}
+
+	/**
+	 * Returns the current limit.
+	 *
+	 * @return the maximum concurrent requests admitted
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Returns the number of permits currently held.
+	 *
+	 * @return the admitted requests not yet released
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Returns the latency currently taken as the no-load baseline.
+	 *
+	 * @return the baseline in nanoseconds, or {@code 0} before the first sample
+	 */
+	public synchronized long getNoLoadLatencyNanos() {
+		return noLoadNanos;
+	}
+
+	/**
+	 * Feeds one latency measurement of the eligibility query to the limit.
+	 *
+	 * @param latencyNanos how long the query took, bulkhead wait included
+	 */
+	public void onLatency(long latencyNanos) {
+		if (enabled) {
+			onSample(latencyNanos, inFlight.get(), false);
+		}
+	}
+
+	/**
+	 * Reports a request that failed because a backend was overloaded or
+	 * unavailable, which shrinks the limit.
+	 */
+	public void onDropped() {
+		if (enabled) {
+			onSample(0L, inFlight.get(), true);
+		}
+	}
+
+	/**
+	 * Updates the limit from one sample.
+	 *
+	 * @param rttNanos  the measured latency; ignored for drops
+	 * @param inFlight  how many requests were in flight at the time
+	 * @param dropped   whether a request failed because a backend was overloaded or unavailable
+	 */
+	synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+		if (dropped) {
+			setEstimatedLimit(estimatedLimit - Math.max(1.0, Math.log10(estimatedLimit)));
+			return;
+		}
+		if (rttNanos <= 0) {
+			return;
+		}
+		if (++samplesSinceProbe >= PROBE_MULTIPLIER * (long) limit) {
+			samplesSinceProbe = 0;
+			noLoadNanos = rttNanos;
+			return;
+		}
+		if (noLoadNanos == 0 || rttNanos < noLoadNanos) {
+			noLoadNanos = rttNanos;
+			return;
+		}
+
+		double step = Math.max(1.0, Math.log10(estimatedLimit));
+		double queued = Math.ceil(estimatedLimit * (1.0 - (double) noLoadNanos / rttNanos));
+		double next;
+		if (inFlight * 2 < estimatedLimit) {
+			// not enough load to tell whether the limit is too high
+			return;
+		} else if (queued <= step) {
+			next = estimatedLimit + 6 * step;
+		} else if (queued < 3 * step) {
+			next = estimatedLimit + step;
+		} else if (queued > 6 * step) {
+			next = estimatedLimit - step;
+		} else {
+			return;
+		}
+
+		setEstimatedLimit(next);
+	}
+
+	private void setEstimatedLimit(double next) {
+		estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+		int rounded = (int) estimatedLimit;
+		if (rounded != limit) {
+			log.debug("Concurrency limit {} -> {} (noLoad={}ns, inFlight={})", limit, rounded, noLoadNanos, inFlight.get());
+			limit = rounded;
+		}
+	}
+
+	/** An admitted request; release it once the request completes. */
+	public static final class Permit {
+		private final AdaptiveConcurrencyLimiter limiter;
+
+		private Permit(AdaptiveConcurrencyLimiter limiter) {
+			this.limiter = limiter;
+		}
+
+		/** Returns the permit to the limiter. */
+		public void release() {
+			if (limiter != null) {
+				limiter.inFlight.decrementAndGet();
+			}
+		}
+	}
+}
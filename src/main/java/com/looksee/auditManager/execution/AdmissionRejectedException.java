@@ -0,0 +1,18 @@
+package com.looksee.auditManager.execution;
+
+/**
+ * Thrown when {@link FairAdmissionScheduler} turns a message away: its
+ * account's queue is full, it waited too long, or the scheduler is stopping.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a new {@code AdmissionRejectedException}.
+	 *
+	 * @param message why the message was turned away
+	 */
+	public AdmissionRejectedException(String message) {
+		super(message);
+	}
+}
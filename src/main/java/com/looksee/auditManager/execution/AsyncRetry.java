@@ -0,0 +1,261 @@
+package com.looksee.auditManager.execution;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.looksee.auditManager.config.RetryProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Retries transient failures of one backend without holding the calling
+ * thread, behind a {@link CircuitBreaker}.
+ *
+ * <p>The first attempt runs on the caller's thread, so a call that succeeds
+ * straight away costs nothing extra. When it fails with a transient error the
+ * caller gets back an incomplete future and is free to return; the next
+ * attempt is handed to a worker executor after an exponential backoff with
+ * full jitter: the wait is drawn uniformly from
+ * {@code [0, min(max-backoff, initial-backoff * multiplier^(retry - 1))]}, so
+ * callers that failed together do not retry together. Nothing is held while
+ * waiting, neither a thread nor a bulkhead permit nor a driver session, as
+ * long as the retried call acquires those itself. The shared scheduler only
+ * times the backoff; it never runs an attempt, so an attempt that blocks on
+ * its backend or a bulkhead cannot delay the wake-up of any other retry.
+ *
+ * <p>Every attempt first asks the breaker for permission. Transient failures
+ * count towards opening it, successes close it, and other failures, which
+ * say nothing about the backend, leave it as it is. A rejected attempt fails
+ * the call with {@link CircuitOpenException} instead of being retried.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> A call makes at most {@code max-attempts} attempts.</li>
+ *   <li><b>Postcondition:</b> The returned future always completes; it fails
+ *       with the last attempt's failure, unwrapped from
+ *       {@link CompletionException}.</li>
+ * </ul>
+ */
+public final class AsyncRetry {
+	private static final Logger log = LoggerFactory.getLogger(AsyncRetry.class);
+
+	static final String ATTEMPTS_COUNTER = "audit_manager.retry.attempts";
+	static final String CALLS_COUNTER = "audit_manager.retry.calls";
+	static final String BREAKER_STATE_GAUGE = "audit_manager.circuit_breaker.state";
+
+	private final String name;
+	private final int maxAttempts;
+	private final long initialBackoffNanos;
+	private final long maxBackoffNanos;
+	private final double multiplier;
+	private final Predicate<Throwable> transientFailure;
+	private final CircuitBreaker breaker;
+	private final ScheduledExecutorService scheduler;
+	private final Executor workers;
+	private final DoubleSupplier random;
+
+	private final Counter retries;
+	private final Counter succeeded;
+	private final Counter succeededAfterRetry;
+	private final Counter failed;
+	private final Counter rejected;
+
+	/**
+	 * Creates a new {@code AsyncRetry} and registers its meters.
+	 *
+	 * @param name             backend name used in logs and as the {@code backend} tag; must not be {@code null}
+	 * @param settings         retry and breaker settings; must not be {@code null}
+	 * @param transientFailure decides which failures are retried; must not be {@code null}
+	 * @param breaker          the backend's circuit breaker; must not be {@code null}
+	 * @param scheduler        wakes retried attempts once their backoff has passed; must not be {@code null}
+	 * @param workers          runs retried attempts; must not be {@code null}
+	 * @param random           source of uniform values in {@code [0, 1)} for jitter; must not be {@code null}
+	 * @param registry         registry for the retry meters; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if a setting is out of range
+	 */
+	AsyncRetry(
+		String name,
+		RetryProperties.Backend settings,
+		Predicate<Throwable> transientFailure,
+		CircuitBreaker breaker,
+		ScheduledExecutorService scheduler,
+		Executor workers,
+		DoubleSupplier random,
+		MeterRegistry registry) {
+		this.name = Objects.requireNonNull(name, "name must not be null");
+		Objects.requireNonNull(settings, "settings must not be null");
+		this.transientFailure = Objects.requireNonNull(transientFailure, "transientFailure must not be null");
+		this.breaker = Objects.requireNonNull(breaker, "breaker must not be null");
+		this.scheduler = Objects.requireNonNull(scheduler, "scheduler must not be null");
+		this.workers = Objects.requireNonNull(workers, "workers must not be null");
+		this.random = Objects.requireNonNull(random, "random must not be null");
+		Objects.requireNonNull(registry, "registry must not be null");
+
+		if (settings.getMaxAttempts() < 1
+			|| settings.getInitialBackoff() == null || settings.getInitialBackoff().isNegative()
+			|| settings.getMaxBackoff() == null || settings.getMaxBackoff().compareTo(settings.getInitialBackoff()) < 0
+			|| settings.getMultiplier() < 1.0) {
+			throw new IllegalArgumentException("audit-manager.retry." + name
+				+ " requires max-attempts >= 1, 0 <= initial-backoff <= max-backoff and multiplier >= 1");
+		}
+		this.maxAttempts = settings.getMaxAttempts();
+		this.initialBackoffNanos = settings.getInitialBackoff().toNanos();
+		this.maxBackoffNanos = settings.getMaxBackoff().toNanos();
+		this.multiplier = settings.getMultiplier();
+
+		this.retries = Counter.builder(ATTEMPTS_COUNTER)
+			.description("Retried attempts of backend calls, first attempts excluded")
+			.tag("backend", name)
+			.register(registry);
+		this.succeeded = callCounter(registry, "success");
+		this.succeededAfterRetry = callCounter(registry, "success_after_retry");
+		this.failed = callCounter(registry, "failure");
+		this.rejected = callCounter(registry, "rejected");
+		Gauge.builder(BREAKER_STATE_GAUGE, breaker, b -> b.getState().ordinal())
+			.description("Circuit breaker state: 0 closed, 1 half open, 2 open")
+			.tag("backend", name)
+			.register(registry);
+	}
+
+	/**
+	 * Runs a blocking call, retrying it on a worker thread if it fails
+	 * transiently.
+	 *
+	 * @param action the call; must not be {@code null}
+	 * @param <T>    the result type
+	 * @return a future completed with the first successful result, or with
+	 *         the failure that ended the retries; never {@code null}
+	 */
+	public <T> CompletableFuture<T> call(Supplier<T> action) {
+		assert action != null : "action must not be null";
+		return callAsync(() -> CompletableFuture.completedFuture(action.get()));
+	}
+
+	/**
+	 * Starts an asynchronous call, retrying it on a worker thread if it fails
+	 * transiently.
+	 *
+	 * @param action starts the call; must not be {@code null}
+	 * @param <T>    the result type
+	 * @return a future completed with the first successful result, or with
+	 *         the failure that ended the retries; never {@code null}
+	 */
+	public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> action) {
+		assert action != null : "action must not be null";
+		CompletableFuture<T> result = new CompletableFuture<>();
+		attempt(action, 1, result);
+		return result;
+	}
+
+	/**
+	 * Returns the backend's circuit breaker.
+	 *
+	 * @return the breaker; never {@code null}
+	 */
+	public CircuitBreaker getCircuitBreaker() {
+		return breaker;
+	}
+
+	private <T> void attempt(Supplier<CompletableFuture<T>> action, int attempt, CompletableFuture<T> result) {
+		if (!breaker.tryAcquirePermission()) {
+			rejected.increment();
+			result.completeExceptionally(new CircuitOpenException("Circuit breaker " + name + " is open"));
+			return;
+		}
+
+		CompletableFuture<T> future;
+		try {
+			future = action.get();
+		} catch (RuntimeException e) {
+			future = CompletableFuture.failedFuture(e);
+		}
+		future.whenComplete((value, error) -> {
+			if (error == null) {
+				breaker.onSuccess();
+				(attempt == 1 ? succeeded : succeededAfterRetry).increment();
+				result.complete(value);
+				return;
+			}
+
+			Throwable cause = unwrap(error);
+			if (!transientFailure.test(cause)) {
+				breaker.onIgnored();
+				failed.increment();
+				result.completeExceptionally(cause);
+				return;
+			}
+			breaker.onFailure();
+			if (attempt >= maxAttempts) {
+				failed.increment();
+				result.completeExceptionally(cause);
+				return;
+			}
+
+			long delay = backoffNanos(attempt);
+			log.debug("Retrying {} call in {}ms after attempt {} failed: {}", name, delay / 1_000_000, attempt, cause.toString());
+			retries.increment();
+			try {
+				scheduler.schedule(() -> retry(action, attempt + 1, result, cause), delay, TimeUnit.NANOSECONDS);
+			} catch (RejectedExecutionException e) {
+				// shutting down: report the failure we have instead of one about the scheduler
+				failed.increment();
+				result.completeExceptionally(cause);
+			}
+		});
+	}
+
+	/**
+	 * Hands a retried attempt to the workers, so the scheduler thread is free
+	 * for the next wake-up straight away.
+	 */
+	private <T> void retry(Supplier<CompletableFuture<T>> action, int attempt, CompletableFuture<T> result, Throwable lastCause) {
+		try {
+			workers.execute(() -> attempt(action, attempt, result));
+		} catch (RejectedExecutionException e) {
+			failed.increment();
+			result.completeExceptionally(lastCause);
+		}
+	}
+
+	/**
+	 * Draws the wait before retry number {@code retry}.
+	 *
+	 * @param retry the number of attempts made so far, at least {@code 1}
+	 * @return the wait in nanoseconds
+	 */
+	long backoffNanos(int retry) {
+		double ceiling = Math.min(maxBackoffNanos, initialBackoffNanos * Math.pow(multiplier, retry - 1));
+		return (long) (ceiling * random.getAsDouble());
+	}
+
+	private Counter callCounter(MeterRegistry registry, String outcome) {
+		return Counter.builder(CALLS_COUNTER)
+			.description("Backend calls by how they ended, retries included")
+			.tag("backend", name)
+			.tag("outcome", outcome)
+			.register(registry);
+	}
+
+	private static Throwable unwrap(Throwable error) {
+		Throwable cause = error;
+		while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		return cause;
+	}
+}
@@ -0,0 +1,135 @@
+package com.looksee.auditManager.execution;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Semaphore bulkhead limiting how many callers use a backend at once.
+ *
+ * <p>Callers beyond the limit wait in the semaphore queue for up to
+ * {@code maxWait}. On virtual threads that wait costs almost nothing, so extra
+ * concurrency queues here instead of exhausting the backend's own pool.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> At most {@code maxConcurrent} calls hold a permit,
+ *       and every permit is released exactly once when its call completes.</li>
+ * </ul>
+ */
+public final class Bulkhead {
+	private final String name;
+	private final int maxConcurrent;
+	private final Duration maxWait;
+	private final Semaphore permits;
+
+	/**
+	 * Creates a new {@code Bulkhead}.
+	 *
+	 * @param name          name used in error messages; must not be {@code null}
+	 * @param maxConcurrent maximum concurrent calls; must be positive
+	 * @param maxWait       how long to wait for a permit; must not be {@code null}
+	 * @throws NullPointerException     if {@code name} or {@code maxWait} is {@code null}
+	 * @throws IllegalArgumentException if {@code maxConcurrent} is not positive
+	 */
+	public Bulkhead(String name, int maxConcurrent, Duration maxWait) {
+		this.name = Objects.requireNonNull(name, "name must not be null");
+		this.maxWait = Objects.requireNonNull(maxWait, "maxWait must not be null");
+		if (maxConcurrent < 1) {
+			throw new IllegalArgumentException("Bulkhead " + name + " must allow at least one concurrent call");
+		}
+		this.maxConcurrent = maxConcurrent;
+		this.permits = new Semaphore(maxConcurrent, true);
+	}
+
+	/**
+	 * Runs a blocking call while holding a permit.
+	 *
+	 * @param action the call; must not be {@code null}
+	 * @param <T>    the result type
+	 * @return the call's result
+	 * @throws BulkheadFullException if no permit became available in time
+	 */
+	public <T> T call(Supplier<T> action) {
+		acquire();
+		try {
+			return action.get();
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Starts an asynchronous call while holding a permit, releasing it when
+	 * the returned future completes.
+	 *
+	 * @param action starts the call; must not be {@code null}
+	 * @param <T>    the result type
+	 * @return a future completed like the one {@code action} returned
+	 * @throws BulkheadFullException if no permit became available in time
+	 */
+	public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> action) {
+		acquire();
+		return start(action);
+	}
+
+	private <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> action) {
+		CompletableFuture<T> result;
+		try {
+			result = action.get();
+		} catch (RuntimeException | Error e) {
+			permits.release();
+			throw e;
+		}
+		return result.whenComplete((value, error) -> permits.release());
+	}
+
+	/**
+	 * Starts an asynchronous call if a permit is free right now, releasing it
+	 * when the returned future completes. Never waits, so a caller that must
+	 * not block can put the call off instead.
+	 *
+	 * @param action starts the call; must not be {@code null}
+	 * @param <T>    the result type
+	 * @return a future completed like the one {@code action} returned
+	 * @throws BulkheadFullException if no permit is free
+	 */
+	public <T> CompletableFuture<T> tryCallAsync(Supplier<CompletableFuture<T>> action) {
+		if (!permits.tryAcquire()) {
+			throw new BulkheadFullException("Bulkhead " + name + " is full");
+		}
+		return start(action);
+	}
+
+	/**
+	 * Returns the number of permits currently free.
+	 *
+	 * @return the free permits
+	 */
+	public int availablePermits() {
+		return permits.availablePermits();
+	}
+
+	/**
+	 * Returns the configured limit.
+	 *
+	 * @return the maximum concurrent calls
+	 */
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	private void acquire() {
+		try {
+			if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+				throw new BulkheadFullException("Bulkhead " + name + " is full: no permit within " + maxWait);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BulkheadFullException("Interrupted while waiting for bulkhead " + name, e);
+		}
+	}
+}
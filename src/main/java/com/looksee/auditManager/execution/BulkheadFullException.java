@@ -0,0 +1,27 @@
+package com.looksee.auditManager.execution;
+
+/**
+ * Thrown when a {@link Bulkhead} permit could not be obtained in time.
+ */
+public class BulkheadFullException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a new {@code BulkheadFullException}.
+	 *
+	 * @param message description of the bulkhead and wait
+	 */
+	public BulkheadFullException(String message) {
+		super(message);
+	}
+
+	/**
+	 * Creates a new {@code BulkheadFullException} with a cause.
+	 *
+	 * @param message description of the bulkhead and wait
+	 * @param cause   the reason waiting stopped
+	 */
+	public BulkheadFullException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,52 @@
+package com.looksee.auditManager.execution;
+
+import java.util.Objects;
+
+import org.springframework.stereotype.Component;
+
+import com.looksee.auditManager.config.ExecutionProperties;
+
+/**
+ * The bulkheads shared by every component that talks to a backend.
+ *
+ * <p>{@link #neo4j()} is sized to the Neo4j driver's connection pool so that
+ * callers queue here, cheaply, instead of timing out inside the driver.
+ * {@link #pubsub()} is sized to the publisher's flow control so outstanding
+ * publishes stay within what the channel accepts.
+ */
+@Component
+public class Bulkheads {
+	private final Bulkhead neo4j;
+	private final Bulkhead pubsub;
+
+	/**
+	 * Creates the bulkheads from configuration.
+	 *
+	 * @param properties execution settings; must not be {@code null}
+	 * @throws NullPointerException     if {@code properties} is {@code null}
+	 * @throws IllegalArgumentException if a limit is not positive
+	 */
+	public Bulkheads(ExecutionProperties properties) {
+		Objects.requireNonNull(properties, "properties must not be null");
+		this.neo4j = new Bulkhead("neo4j", properties.getNeo4jMaxConcurrent(), properties.getBulkheadMaxWait());
+		this.pubsub = new Bulkhead("pubsub", properties.getPubsubMaxConcurrent(), properties.getBulkheadMaxWait());
+	}
+
+	/**
+	 * Returns the bulkhead guarding Neo4j calls.
+	 *
+	 * @return the Neo4j bulkhead; never {@code null}
+	 */
+	public Bulkhead neo4j() {
+		return neo4j;
+	}
+
+	/**
+	 * Returns the bulkhead guarding page-audit publishes.
+	 *
+	 * @return the Pub/Sub bulkhead; never {@code null}
+	 */
+	public Bulkhead pubsub() {
+		return pubsub;
+	}
+}
@@ -0,0 +1,142 @@
+package com.looksee.auditManager.execution;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Consecutive-failure circuit breaker for one backend.
+ *
+ * <p>While {@link State#CLOSED} every call is permitted. After
+ * {@code failureThreshold} transient failures in a row the breaker opens and
+ * rejects calls outright, so requests fail fast instead of queuing retries
+ * against a backend that is down. Once {@code openDuration} has passed, a
+ * single trial call is let through: its success closes the breaker, its
+ * failure opens it again.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> While {@link State#HALF_OPEN}, at most one call is
+ *       permitted until that call reports back.</li>
+ *   <li><b>Postcondition:</b> Every permitted call must report back exactly
+ *       once through {@link #onSuccess()}, {@link #onFailure()} or
+ *       {@link #onIgnored()}.</li>
+ * </ul>
+ */
+public final class CircuitBreaker {
+	private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+	/** Breaker states, in the order of their gauge values. */
+	public enum State {
+		/** Calls are permitted. */
+		CLOSED,
+		/** One trial call is permitted to test whether the backend has recovered. */
+		HALF_OPEN,
+		/** Calls are rejected. */
+		OPEN
+	}
+
+	private final String name;
+	private final int failureThreshold;
+	private final long openNanos;
+	private final LongSupplier clock;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private long openedAt;
+	private boolean trialInFlight;
+
+	/**
+	 * Creates a new {@code CircuitBreaker}.
+	 *
+	 * @param name             name used in logs; must not be {@code null}
+	 * @param failureThreshold consecutive failures that open the breaker; must be positive
+	 * @param openDuration     how long the breaker stays open; must not be {@code null} or negative
+	 * @param clock            nanosecond time source; must not be {@code null}
+	 * @throws NullPointerException     if any reference argument is {@code null}
+	 * @throws IllegalArgumentException if the threshold is not positive or the duration is negative
+	 */
+	public CircuitBreaker(String name, int failureThreshold, Duration openDuration, LongSupplier clock) {
+		this.name = Objects.requireNonNull(name, "name must not be null");
+		Objects.requireNonNull(openDuration, "openDuration must not be null");
+		this.clock = Objects.requireNonNull(clock, "clock must not be null");
+		if (failureThreshold < 1 || openDuration.isNegative()) {
+			throw new IllegalArgumentException("Circuit breaker " + name + " needs a positive failure threshold and a non-negative open duration");
+		}
+		this.failureThreshold = failureThreshold;
+		this.openNanos = openDuration.toNanos();
+	}
+
+	/**
+	 * Asks to make a call.
+	 *
+	 * @return {@code true} if the call may proceed, {@code false} if it must
+	 *         be rejected
+	 */
+	public synchronized boolean tryAcquirePermission() {
+		if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+			transitionTo(State.HALF_OPEN);
+		}
+		switch (state) {
+		case CLOSED:
+			return true;
+		case HALF_OPEN:
+			if (trialInFlight) {
+				return false;
+			}
+			trialInFlight = true;
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/** Reports a permitted call that succeeded. */
+	public synchronized void onSuccess() {
+		consecutiveFailures = 0;
+		trialInFlight = false;
+		if (state != State.CLOSED) {
+			transitionTo(State.CLOSED);
+		}
+	}
+
+	/** Reports a permitted call that failed because the backend was unavailable. */
+	public synchronized void onFailure() {
+		trialInFlight = false;
+		if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+			openedAt = clock.getAsLong();
+			if (state != State.OPEN) {
+				transitionTo(State.OPEN);
+			}
+		}
+	}
+
+	/** Reports a permitted call that failed for a reason that says nothing about the backend. */
+	public synchronized void onIgnored() {
+		trialInFlight = false;
+	}
+
+	/**
+	 * Returns the current state.
+	 *
+	 * @return the state; never {@code null}
+	 */
+	public synchronized State getState() {
+		return state;
+	}
+
+	private void transitionTo(State next) {
+		if (next == State.OPEN) {
+			log.warn("Circuit breaker {} {} -> OPEN after {} consecutive failures", name, state, consecutiveFailures);
+		} else {
+			log.info("Circuit breaker {} {} -> {}", name, state, next);
+		}
+		if (next == State.CLOSED) {
+			consecutiveFailures = 0;
+		}
+		state = next;
+	}
+}
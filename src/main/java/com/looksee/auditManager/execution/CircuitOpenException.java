@@ -0,0 +1,18 @@
+package com.looksee.auditManager.execution;
+
+/**
+ * Thrown when a {@link CircuitBreaker} rejects a call because its backend is
+ * considered down.
+ */
+public class CircuitOpenException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a new {@code CircuitOpenException}.
+	 *
+	 * @param message description of the breaker
+	 */
+	public CircuitOpenException(String message) {
+		super(message);
+	}
+}
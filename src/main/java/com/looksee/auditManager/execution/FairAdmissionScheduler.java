@@ -0,0 +1,523 @@
+package com.looksee.auditManager.execution;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.looksee.auditManager.config.ExecutionProperties;
+import com.looksee.auditManager.config.FairSchedulingProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Admits page-built messages in per-account fair order, so one account's
+ * large crawl cannot starve every other account's small ones.
+ *
+ * <p>At most {@code audit-manager.fair-scheduling.max-concurrent} messages are
+ * processed at once, push and pull together. A message that arrives while
+ * that budget is spent waits in its account's queue, and whenever a message
+ * finishes the next one is taken from the queues by deficit round robin: each
+ * account with waiting messages takes its turn in rotation and starts up to
+ * its weight in messages per turn, {@code default-weight} unless
+ * {@code weights.<accountId>} says otherwise. An account with weight
+ * {@code 4} thus gets four times the share of a busy budget of one with
+ * weight {@code 1}, however many messages either has waiting, and an idle
+ * budget is never held back from an account that has work. A message that
+ * finds the budget free and nobody waiting starts at once on the caller's
+ * thread. Messages taken from a queue start on a worker thread, since their
+ * eligibility check blocks: up to {@code max-concurrent} platform threads, or
+ * a virtual thread each when {@code audit-manager.execution.virtual-threads}
+ * is on. Push wait timeouts run on a thread of their own, so they fire on
+ * time however long the workers are busy.
+ *
+ * <p>{@link #trySubmit(long, Supplier)} is for push deliveries: a message
+ * waits at most {@code push-max-wait}, and at most
+ * {@code max-queued-per-account} may wait per account, so Pub/Sub gets a
+ * retryable answer before its acknowledgement deadline.
+ * {@link #submit(long, Supplier)} is for pulled messages, which wait as long
+ * as they need; the subscriber's flow control already bounds how many are
+ * held.
+ *
+ * <p>Meters, per account that has had messages within
+ * {@code idle-timeout}:
+ * <ul>
+ *   <li>{@code audit_manager.fair_scheduling.queue_depth} &ndash; gauge of
+ *       waiting messages, tagged {@code account}</li>
+ *   <li>{@code audit_manager.fair_scheduling.wait} &ndash; timer from
+ *       submission to start, tagged {@code account}</li>
+ *   <li>{@code audit_manager.fair_scheduling.rejected} &ndash; counter of
+ *       turned-away messages, tagged {@code account} and
+ *       {@code reason=queue_full|timeout|stopped}</li>
+ * </ul>
+ * plus {@code audit_manager.fair_scheduling.running}, a gauge of messages
+ * holding the budget. An account with nothing waiting that has had no
+ * messages for {@code idle-timeout} is dropped together with its meters, so
+ * the {@code account} tag, and memory, grow with the accounts currently
+ * crawling rather than every account ever seen. An account that comes back
+ * starts with fresh meters and round-robin credit.
+ *
+ * <p>When {@code audit-manager.fair-scheduling.enabled} is off, every message
+ * starts on submission and no threads or meters are created.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> At most {@code max-concurrent} messages are
+ *       running at once.</li>
+ *   <li><b>Invariant:</b> Messages of one account start in submission
+ *       order.</li>
+ *   <li><b>Postcondition:</b> Every submitted message is either started
+ *       exactly once or rejected with an {@link AdmissionRejectedException}.</li>
+ * </ul>
+ */
+@Component
+public class FairAdmissionScheduler implements SmartLifecycle {
+	private static final Logger log = LoggerFactory.getLogger(FairAdmissionScheduler.class);
+
+	/** Stops after the web server and the pull subscriber, and before the page audit write batcher. */
+	static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 1024;
+
+	static final String QUEUE_DEPTH_GAUGE = "audit_manager.fair_scheduling.queue_depth";
+	static final String RUNNING_GAUGE = "audit_manager.fair_scheduling.running";
+	static final String WAIT_TIMER = "audit_manager.fair_scheduling.wait";
+	static final String REJECTED_COUNTER = "audit_manager.fair_scheduling.rejected";
+
+	private final FairSchedulingProperties properties;
+	private final ExecutionProperties execution;
+	private final MeterRegistry registry;
+	private final boolean enabled;
+	private final AtomicInteger runningGauge = new AtomicInteger();
+
+	/** Accounts seen within {@code idle-timeout}, kept so their meters stay registered; guarded by {@code this}. */
+	private final Map<Long, AccountQueue> accounts = new HashMap<>();
+	/** Accounts with waiting messages, in round-robin order; guarded by {@code this}. */
+	private final ArrayDeque<AccountQueue> active = new ArrayDeque<>();
+	/** Messages holding the budget; guarded by {@code this}. */
+	private int running;
+	/** Messages waiting in any queue; guarded by {@code this}. */
+	private int queued;
+	/** Whether messages are accepted; guarded by {@code this}. */
+	private boolean started;
+
+	private ScheduledThreadPoolExecutor timer;
+	private ExecutorService workers;
+
+	/**
+	 * Creates a new {@code FairAdmissionScheduler} and registers its meters.
+	 *
+	 * @param properties scheduling settings; must not be {@code null}
+	 * @param execution  whether queued messages start on virtual threads; must not be {@code null}
+	 * @param registry   registry for the scheduling meters; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if a setting is out of range
+	 */
+	public FairAdmissionScheduler(FairSchedulingProperties properties, ExecutionProperties execution, MeterRegistry registry) {
+		this.properties = Objects.requireNonNull(properties, "properties must not be null");
+		this.execution = Objects.requireNonNull(execution, "execution must not be null");
+		this.registry = Objects.requireNonNull(registry, "registry must not be null");
+		this.enabled = properties.isEnabled();
+		if (!enabled) {
+			return;
+		}
+
+		if (properties.getMaxConcurrent() < 1 || properties.getMaxQueuedPerAccount() < 1) {
+			throw new IllegalArgumentException(
+				"audit-manager.fair-scheduling.max-concurrent and max-queued-per-account must be positive");
+		}
+		if (!isPositive(properties.getPushMaxWait()) || !isPositive(properties.getIdleTimeout())
+			|| !isPositive(properties.getShutdownTimeout())) {
+			throw new IllegalArgumentException(
+				"audit-manager.fair-scheduling.push-max-wait, idle-timeout and shutdown-timeout must be positive");
+		}
+		if (!(properties.getDefaultWeight() > 0)) {
+			throw new IllegalArgumentException("audit-manager.fair-scheduling.default-weight must be positive");
+		}
+		properties.getWeights().forEach((accountId, weight) -> {
+			if (weight == null || !(weight > 0)) {
+				throw new IllegalArgumentException("audit-manager.fair-scheduling.weights." + accountId + " must be positive");
+			}
+		});
+
+		Gauge.builder(RUNNING_GAUGE, runningGauge, AtomicInteger::get)
+			.description("Page-built messages holding the fair scheduling budget")
+			.register(registry);
+	}
+
+	/**
+	 * Starts a push delivery now, or queues it behind its account's earlier
+	 * messages for at most {@code push-max-wait}.
+	 *
+	 * @param accountId the account the message belongs to
+	 * @param task      starts processing the message; must not be {@code null}
+	 * @param <T>       the result type
+	 * @return a future completed like the one {@code task} returned, or
+	 *         exceptionally with an {@link AdmissionRejectedException} if the
+	 *         account's queue was full, the wait ran out or the scheduler
+	 *         stopped first; never {@code null}
+	 */
+	public <T> CompletableFuture<T> trySubmit(long accountId, Supplier<CompletableFuture<T>> task) {
+		return submit(accountId, task, true);
+	}
+
+	/**
+	 * Starts a pulled message now, or queues it behind its account's earlier
+	 * messages for as long as it takes.
+	 *
+	 * @param accountId the account the message belongs to
+	 * @param task      starts processing the message; must not be {@code null}
+	 * @param <T>       the result type
+	 * @return a future completed like the one {@code task} returned, or
+	 *         exceptionally with an {@link AdmissionRejectedException} if the
+	 *         scheduler stopped first; never {@code null}
+	 */
+	public <T> CompletableFuture<T> submit(long accountId, Supplier<CompletableFuture<T>> task) {
+		return submit(accountId, task, false);
+	}
+
+	private <T> CompletableFuture<T> submit(long accountId, Supplier<CompletableFuture<T>> task, boolean bounded) {
+		assert task != null : "task must not be null";
+
+		if (!enabled) {
+			return start(task);
+		}
+
+		CompletableFuture<T> result = new CompletableFuture<>();
+		Waiting waiting = new Waiting(() -> run(task, result), result);
+		AccountQueue account;
+		String rejection = null;
+		boolean startNow = false;
+		synchronized (this) {
+			account = accounts.computeIfAbsent(accountId, this::newAccount);
+			account.lastSubmitNanos = waiting.enqueuedNanos;
+			waiting.account = account;
+			if (!started) {
+				rejection = "stopped";
+			} else if (active.isEmpty() && running < properties.getMaxConcurrent()) {
+				running++;
+				startNow = true;
+			} else if (bounded && account.waiting.size() >= properties.getMaxQueuedPerAccount()) {
+				rejection = "queue_full";
+			} else {
+				enqueue(waiting);
+				if (bounded) {
+					waiting.timeout = timer.schedule(() -> expire(waiting),
+						properties.getPushMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+				}
+			}
+		}
+
+		if (rejection != null) {
+			reject(waiting, rejection);
+		} else if (startNow) {
+			runningGauge.incrementAndGet();
+			account.waitTimer.record(0, TimeUnit.NANOSECONDS);
+			waiting.start.run();
+		}
+		return result;
+	}
+
+	@Override
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+		ScheduledThreadPoolExecutor timeouts = new ScheduledThreadPoolExecutor(1,
+			runnable -> new Thread(runnable, "fair-admission-timer"));
+		timeouts.setRemoveOnCancelPolicy(true);
+		timeouts.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		long sweepInterval = properties.getIdleTimeout().toNanos() / 4;
+		timeouts.scheduleWithFixedDelay(this::evictIdleAccounts, sweepInterval, sweepInterval, TimeUnit.NANOSECONDS);
+		synchronized (this) {
+			timer = timeouts;
+			workers = execution.isVirtualThreads() ? VirtualThreads.newVirtualThreadPerTaskExecutor() : newWorkerPool();
+			started = true;
+		}
+		log.info("Started fair admission scheduling with maxConcurrent={} pushMaxWait={} defaultWeight={} weights={}",
+			properties.getMaxConcurrent(), properties.getPushMaxWait(), properties.getDefaultWeight(), properties.getWeights());
+	}
+
+	/**
+	 * Stops accepting messages, keeps starting waiting ones for up to
+	 * {@code shutdown-timeout}, then rejects the rest.
+	 */
+	@Override
+	public void stop() {
+		if (!enabled) {
+			return;
+		}
+		List<Waiting> rejected = new ArrayList<>();
+		synchronized (this) {
+			started = false;
+			long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+			try {
+				for (long remaining = deadline - System.nanoTime(); queued > 0 && remaining > 0; remaining = deadline - System.nanoTime()) {
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			for (Waiting waiting = poll(); waiting != null; waiting = poll()) {
+				rejected.add(waiting);
+			}
+		}
+		rejected.forEach(waiting -> reject(waiting, "stopped"));
+		timer.shutdown();
+		workers.shutdown();
+		log.info("Stopped fair admission scheduling; rejected {} waiting messages", rejected.size());
+	}
+
+	@Override
+	public synchronized boolean isRunning() {
+		return started;
+	}
+
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+
+	/**
+	 * Runs a task holding the budget, and once its future completes gives the
+	 * budget to the next waiting message.
+	 */
+	private <T> void run(Supplier<CompletableFuture<T>> task, CompletableFuture<T> result) {
+		start(task).whenComplete((value, error) -> {
+			finished();
+			if (error == null) {
+				result.complete(value);
+			} else {
+				result.completeExceptionally(error);
+			}
+		});
+	}
+
+	private void finished() {
+		Waiting next;
+		synchronized (this) {
+			next = poll();
+			if (next == null) {
+				running--;
+			}
+		}
+		if (next == null) {
+			runningGauge.decrementAndGet();
+		} else {
+			dispatch(next);
+		}
+	}
+
+	/**
+	 * Starts a message taken from a queue on a worker thread, never on the
+	 * thread that completed the previous one, which may be a Neo4j writer.
+	 */
+	private void dispatch(Waiting waiting) {
+		if (waiting.timeout != null) {
+			waiting.timeout.cancel(false);
+		}
+		waiting.account.waitTimer.record(System.nanoTime() - waiting.enqueuedNanos, TimeUnit.NANOSECONDS);
+		try {
+			workers.execute(waiting.start);
+		} catch (RejectedExecutionException e) {
+			reject(waiting, "stopped");
+			finished();
+		}
+	}
+
+	/** Rejects a push delivery that is still waiting when its wait runs out. */
+	private void expire(Waiting waiting) {
+		synchronized (this) {
+			AccountQueue account = waiting.account;
+			if (!account.waiting.remove(waiting)) {
+				return;
+			}
+			account.depth = account.waiting.size();
+			if (account.waiting.isEmpty()) {
+				active.remove(account);
+				account.deficit = 0;
+			}
+			dequeued();
+		}
+		reject(waiting, "timeout");
+	}
+
+	/**
+	 * Drops every account with nothing waiting whose last message was
+	 * submitted at least {@code idle-timeout} ago, and removes its meters.
+	 * Runs on the timer a quarter of the idle timeout apart, under the lock so
+	 * an account that returns meanwhile registers its meters afresh.
+	 */
+	private synchronized void evictIdleAccounts() {
+		long now = System.nanoTime();
+		long idleTimeout = properties.getIdleTimeout().toNanos();
+		Iterator<AccountQueue> iterator = accounts.values().iterator();
+		while (iterator.hasNext()) {
+			AccountQueue account = iterator.next();
+			if (account.waiting.isEmpty() && now - account.lastSubmitNanos >= idleTimeout) {
+				iterator.remove();
+				removeMeters(account);
+			}
+		}
+	}
+
+	private void removeMeters(AccountQueue account) {
+		for (String name : List.of(QUEUE_DEPTH_GAUGE, WAIT_TIMER, REJECTED_COUNTER)) {
+			registry.find(name).tag("account", account.tag).meters().forEach(registry::remove);
+		}
+	}
+
+	private void enqueue(Waiting waiting) {
+		AccountQueue account = waiting.account;
+		if (account.waiting.isEmpty()) {
+			active.addLast(account);
+		}
+		account.waiting.addLast(waiting);
+		account.depth = account.waiting.size();
+		queued++;
+	}
+
+	/**
+	 * Takes the next message by deficit round robin. An account at the head
+	 * of the rotation with less than one message of credit is given its
+	 * weight in credit; while it has credit it starts messages, and once it
+	 * runs out or empties it leaves the head.
+	 *
+	 * @return the next message, or {@code null} if none is waiting
+	 */
+	private Waiting poll() {
+		assert Thread.holdsLock(this);
+		while (!active.isEmpty()) {
+			AccountQueue account = active.peekFirst();
+			if (account.deficit < 1) {
+				account.deficit += account.weight;
+				if (account.deficit < 1) {
+					active.addLast(active.pollFirst());
+					continue;
+				}
+			}
+			account.deficit -= 1;
+			Waiting next = account.waiting.pollFirst();
+			account.depth = account.waiting.size();
+			if (account.waiting.isEmpty()) {
+				active.pollFirst();
+				account.deficit = 0;
+			} else if (account.deficit < 1) {
+				active.addLast(active.pollFirst());
+			}
+			dequeued();
+			return next;
+		}
+		return null;
+	}
+
+	private void dequeued() {
+		if (--queued == 0) {
+			notifyAll();
+		}
+	}
+
+	private void reject(Waiting waiting, String reason) {
+		Counter.builder(REJECTED_COUNTER)
+			.description("Page-built messages turned away by fair scheduling")
+			.tag("account", waiting.account.tag)
+			.tag("reason", reason)
+			.register(registry)
+			.increment();
+		waiting.result.completeExceptionally(new AdmissionRejectedException(
+			"Message for account " + waiting.account.tag + " was not admitted: " + reason));
+	}
+
+	private AccountQueue newAccount(long accountId) {
+		AccountQueue account = new AccountQueue(accountId,
+			properties.getWeights().getOrDefault(accountId, properties.getDefaultWeight()));
+		Gauge.builder(QUEUE_DEPTH_GAUGE, account, queue -> queue.depth)
+			.description("Page-built messages waiting for fair scheduling")
+			.tag("account", account.tag)
+			.register(registry);
+		account.waitTimer = Timer.builder(WAIT_TIMER)
+			.description("Time page-built messages waited for fair scheduling")
+			.tag("account", account.tag)
+			.register(registry);
+		return account;
+	}
+
+	/**
+	 * Platform threads for queued messages: never more than
+	 * {@code max-concurrent}, since only messages holding the budget are
+	 * dispatched, and released again once idle.
+	 */
+	private ExecutorService newWorkerPool() {
+		AtomicInteger threadIndex = new AtomicInteger();
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(properties.getMaxConcurrent(), properties.getMaxConcurrent(),
+			60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+			runnable -> new Thread(runnable, "fair-admission-" + threadIndex.incrementAndGet()));
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	private static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> task) {
+		try {
+			return task.get();
+		} catch (RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	private static boolean isPositive(Duration duration) {
+		return duration != null && !duration.isNegative() && !duration.isZero();
+	}
+
+	/** The waiting messages and round-robin state of one account. */
+	private static final class AccountQueue {
+		final String tag;
+		final double weight;
+		final ArrayDeque<Waiting> waiting = new ArrayDeque<>();
+		/** Messages the account may still start in its current turn. */
+		double deficit;
+		/** Size of {@link #waiting}, readable without the scheduler's lock. */
+		volatile int depth;
+		/** When the account's latest message was submitted, by {@link System#nanoTime()}. */
+		long lastSubmitNanos;
+		Timer waitTimer;
+
+		AccountQueue(long accountId, double weight) {
+			this.tag = Long.toString(accountId);
+			this.weight = weight;
+		}
+	}
+
+	/** A message waiting for the budget. */
+	private static final class Waiting {
+		final Runnable start;
+		final CompletableFuture<?> result;
+		final long enqueuedNanos = System.nanoTime();
+		AccountQueue account;
+		ScheduledFuture<?> timeout;
+
+		Waiting(Runnable start, CompletableFuture<?> result) {
+			this.start = start;
+			this.result = result;
+		}
+	}
+}
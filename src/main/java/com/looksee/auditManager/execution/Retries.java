@@ -0,0 +1,174 @@
+package com.looksee.auditManager.execution;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.neo4j.driver.exceptions.ServiceUnavailableException;
+import org.neo4j.driver.exceptions.SessionExpiredException;
+import org.neo4j.driver.exceptions.TransientException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import com.google.api.gax.rpc.ApiException;
+import com.looksee.auditManager.config.ExecutionProperties;
+import com.looksee.auditManager.config.RetryProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The retry policies shared by every component that talks to a backend.
+ *
+ * <p>{@link #neo4j()} retries lost connections, expired sessions and
+ * transient errors such as deadlocks, whether they arrive from the driver
+ * directly or translated by Spring Data. {@link #pubsub()} retries the errors
+ * the Pub/Sub client itself marks retryable. Anything else, including a full
+ * {@link Bulkhead}, fails straight away.
+ *
+ * <p>Backoffs are timed on a small scheduler pool, so a message waiting for
+ * a retry never holds a request thread. The scheduler only wakes a retry up;
+ * the attempt itself runs on a worker thread, a virtual thread when
+ * {@code audit-manager.execution.virtual-threads} is on, so a blocking Neo4j
+ * query or bulkhead wait never delays another retry's wake-up. Retried calls
+ * should acquire their bulkhead permit inside the retried action so that none
+ * is held during the backoff either.
+ */
+@Component
+public class Retries implements DisposableBean {
+
+	private final ScheduledThreadPoolExecutor scheduler;
+	private final ExecutorService workers;
+	private final AsyncRetry neo4j;
+	private final AsyncRetry pubsub;
+
+	/**
+	 * Creates the retry policies from configuration and registers their meters.
+	 *
+	 * @param properties retry settings; must not be {@code null}
+	 * @param execution  execution settings, which choose the worker threads; must not be {@code null}
+	 * @param registry   registry for the retry and breaker meters; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if a setting is out of range
+	 * @throws IllegalStateException    if virtual threads are enabled on a runtime without them
+	 */
+	public Retries(RetryProperties properties, ExecutionProperties execution, MeterRegistry registry) {
+		Objects.requireNonNull(properties, "properties must not be null");
+		Objects.requireNonNull(execution, "execution must not be null");
+		Objects.requireNonNull(registry, "registry must not be null");
+		if (properties.getThreads() < 1) {
+			throw new IllegalArgumentException("audit-manager.retry.threads must be positive");
+		}
+
+		AtomicInteger threadIndex = new AtomicInteger();
+		this.scheduler = new ScheduledThreadPoolExecutor(properties.getThreads(), runnable -> {
+			Thread thread = new Thread(runnable, "backend-retry-" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.scheduler.setRemoveOnCancelPolicy(true);
+		this.workers = execution.isVirtualThreads() ? VirtualThreads.newVirtualThreadPerTaskExecutor() : newWorkerPool();
+		this.neo4j = create("neo4j", properties.getNeo4j(), Retries::isTransientNeo4jFailure, registry);
+		this.pubsub = create("pubsub", properties.getPubsub(), Retries::isTransientPubSubFailure, registry);
+	}
+
+	/**
+	 * Returns the retry policy for Neo4j queries and writes.
+	 *
+	 * @return the Neo4j policy; never {@code null}
+	 */
+	public AsyncRetry neo4j() {
+		return neo4j;
+	}
+
+	/**
+	 * Returns the retry policy for page-audit publishes.
+	 *
+	 * @return the Pub/Sub policy; never {@code null}
+	 */
+	public AsyncRetry pubsub() {
+		return pubsub;
+	}
+
+	/**
+	 * Stops the scheduler once the retries already scheduled have woken up,
+	 * then the workers once those attempts have run; any further retry they
+	 * would need fails with its last error instead.
+	 */
+	@Override
+	public void destroy() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		scheduler.shutdown();
+		scheduler.awaitTermination(10, TimeUnit.SECONDS);
+		workers.shutdown();
+		workers.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Indicates whether a Neo4j failure is worth retrying.
+	 *
+	 * @param error the failure; must not be {@code null}
+	 * @return {@code true} if it or one of its causes is a lost connection,
+	 *         an expired session or a transient error
+	 */
+	static boolean isTransientNeo4jFailure(Throwable error) {
+		for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ServiceUnavailableException
+				|| cause instanceof SessionExpiredException
+				|| cause instanceof TransientException
+				|| cause instanceof TransientDataAccessException
+				|| cause instanceof RecoverableDataAccessException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Indicates whether a Pub/Sub failure is worth retrying.
+	 *
+	 * @param error the failure; must not be {@code null}
+	 * @return {@code true} if it or one of its causes is an error the Pub/Sub
+	 *         client marks retryable
+	 */
+	static boolean isTransientPubSubFailure(Throwable error) {
+		for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ApiException && ((ApiException) cause).isRetryable()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private AsyncRetry create(
+		String name,
+		RetryProperties.Backend settings,
+		Predicate<Throwable> transientFailure,
+		MeterRegistry registry) {
+		Objects.requireNonNull(settings, "audit-manager.retry." + name + " must not be null");
+		CircuitBreaker breaker = new CircuitBreaker(name, settings.getFailureThreshold(), settings.getOpenDuration(), System::nanoTime);
+		return new AsyncRetry(name, settings, transientFailure, breaker, scheduler, workers,
+			() -> ThreadLocalRandom.current().nextDouble(), registry);
+	}
+
+	/**
+	 * Platform threads for retried attempts, created on demand and retired
+	 * when idle. The pool is unbounded on purpose: the bulkheads already cap
+	 * how many calls reach a backend, and the breakers stop retries piling up
+	 * while it is down.
+	 */
+	private static ExecutorService newWorkerPool() {
+		AtomicInteger threadIndex = new AtomicInteger();
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "backend-retry-worker-" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+}
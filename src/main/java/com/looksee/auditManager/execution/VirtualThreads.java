@@ -0,0 +1,58 @@
+package com.looksee.auditManager.execution;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to Java 21 virtual threads from code compiled for Java 17.
+ *
+ * <p>The build targets Java 17 bytecode because the class scanner bundled with
+ * Spring Framework 5.3 cannot read newer class files, so the Java 21 factory is
+ * looked up reflectively and only used when the running JVM provides it.
+ */
+public final class VirtualThreads {
+
+	private static final Method NEW_EXECUTOR = lookupExecutorFactory();
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * Returns whether the running JVM supports virtual threads without preview
+	 * flags.
+	 *
+	 * @return {@code true} on Java 21 or newer
+	 */
+	public static boolean isSupported() {
+		return NEW_EXECUTOR != null;
+	}
+
+	/**
+	 * Creates an executor that starts a new virtual thread for each task.
+	 *
+	 * @return a new executor; never {@code null}
+	 * @throws IllegalStateException if the runtime does not support virtual threads
+	 */
+	public static ExecutorService newVirtualThreadPerTaskExecutor() {
+		if (NEW_EXECUTOR == null) {
+			throw new IllegalStateException("Virtual threads require Java 21 or newer, but the runtime is " + Runtime.version());
+		}
+		try {
+			return (ExecutorService) NEW_EXECUTOR.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Failed to create virtual-thread executor", e);
+		}
+	}
+
+	private static Method lookupExecutorFactory() {
+		if (Runtime.version().feature() < 21) {
+			return null;
+		}
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+}
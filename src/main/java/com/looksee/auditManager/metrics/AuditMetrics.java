@@ -0,0 +1,253 @@
+package com.looksee.auditManager.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.looksee.auditManager.PageBuiltMessageDecoder.Rejection;
+import com.looksee.auditManager.ProcessingOutcome;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters for the page-built pipeline, exported in Prometheus format
+ * on the management port at {@code /actuator/prometheus}.
+ *
+ * <ul>
+ *   <li>{@code audit_manager.stage} &ndash; timer with a percentile histogram
+ *       per {@link Stage}, tagged {@code outcome=success|failure}</li>
+ *   <li>{@code audit_manager.messages} &ndash; counter per push response,
+ *       tagged with the HTTP {@code status} and the {@code outcome}: the
+ *       {@link ProcessingOutcome} for {@code 200}, the {@link Rejection} for
+ *       {@code 400}, {@code concurrency_limit} for {@code 429} and the
+ *       {@link FailureCause} for {@code 500}</li>
+ *   <li>{@code audit_manager.requests.in_flight} &ndash; gauge of push
+ *       requests received but not yet answered</li>
+ *   <li>{@code audit_manager.startup.first_processed} &ndash; time gauge of
+ *       the JVM uptime when the first message was answered with {@code 200},
+ *       {@code NaN} until then; next to Spring Boot's
+ *       {@code application.ready.time} it shows how long a cold start kept
+ *       the first delivery waiting</li>
+ * </ul>
+ *
+ * <p>Every meter is registered up front and looked up by enum ordinal, so
+ * recording costs two {@link System#nanoTime()} calls and a lock-free
+ * update, with no tag resolution or allocation per message.
+ */
+@Component
+public class AuditMetrics {
+	private static final Logger log = LoggerFactory.getLogger(AuditMetrics.class);
+
+	static final String STAGE_TIMER = "audit_manager.stage";
+	static final String MESSAGE_COUNTER = "audit_manager.messages";
+	static final String IN_FLIGHT_GAUGE = "audit_manager.requests.in_flight";
+	static final String FIRST_PROCESSED_GAUGE = "audit_manager.startup.first_processed";
+
+	/** A timed step of the pipeline. */
+	public enum Stage {
+		/** Reading the push envelope and Base64-decoding its data. */
+		DECODE,
+		/** Binding the decoded bytes to a {@code PageBuiltMessage}. */
+		PARSE,
+		/** The Neo4j eligibility lookup, including any bulkhead wait. */
+		ELIGIBILITY,
+		/** One batched page audit record write to Neo4j. */
+		RECORD_WRITE,
+		/** Publishing the page-audit message until Pub/Sub accepts it. */
+		PUBLISH
+	}
+
+	private final Map<Stage, Timer> successTimers = new EnumMap<>(Stage.class);
+	private final Map<Stage, Timer> failureTimers = new EnumMap<>(Stage.class);
+	private final Map<ProcessingOutcome, Counter> outcomeCounters = new EnumMap<>(ProcessingOutcome.class);
+	private final Map<Rejection, Counter> rejectionCounters = new EnumMap<>(Rejection.class);
+	private final Map<FailureCause, Counter> failureCounters = new EnumMap<>(FailureCause.class);
+	private final Counter shedCounter;
+	private final Counter admissionShedCounter;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final LongSupplier uptimeMillis;
+	private volatile long firstProcessedMillis = -1;
+
+	/**
+	 * Registers every meter with {@code registry}.
+	 *
+	 * @param registry the registry to publish to; must not be {@code null}
+	 * @throws NullPointerException if {@code registry} is {@code null}
+	 */
+	@Autowired
+	public AuditMetrics(MeterRegistry registry) {
+		this(registry, ManagementFactory.getRuntimeMXBean()::getUptime);
+	}
+
+	/**
+	 * Registers every meter with {@code registry}, reading the JVM uptime
+	 * from {@code uptimeMillis}.
+	 *
+	 * @param registry     the registry to publish to; must not be {@code null}
+	 * @param uptimeMillis milliseconds since the JVM started; must not be {@code null}
+	 * @throws NullPointerException if any argument is {@code null}
+	 */
+	AuditMetrics(MeterRegistry registry, LongSupplier uptimeMillis) {
+		Objects.requireNonNull(registry, "registry must not be null");
+		this.uptimeMillis = Objects.requireNonNull(uptimeMillis, "uptimeMillis must not be null");
+
+		for (Stage stage : Stage.values()) {
+			successTimers.put(stage, stageTimer(registry, stage, "success"));
+			failureTimers.put(stage, stageTimer(registry, stage, "failure"));
+		}
+		for (ProcessingOutcome outcome : ProcessingOutcome.values()) {
+			outcomeCounters.put(outcome, messageCounter(registry, "200", outcome.name()));
+		}
+		for (Rejection rejection : Rejection.values()) {
+			rejectionCounters.put(rejection, messageCounter(registry, "400", rejection.name()));
+		}
+		for (FailureCause cause : FailureCause.values()) {
+			failureCounters.put(cause, messageCounter(registry, "500", cause.name()));
+		}
+		shedCounter = messageCounter(registry, "429", "concurrency_limit");
+		admissionShedCounter = messageCounter(registry, "429", "fair_scheduling");
+		Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+			.description("Page-built messages received, pushed or pulled, but not yet answered")
+			.register(registry);
+		TimeGauge.builder(FIRST_PROCESSED_GAUGE, this, TimeUnit.MILLISECONDS,
+				metrics -> metrics.firstProcessedMillis < 0 ? Double.NaN : metrics.firstProcessedMillis)
+			.description("JVM uptime when the first page-built message was processed")
+			.register(registry);
+	}
+
+	/**
+	 * Records how long a stage took.
+	 *
+	 * @param stage       the stage; must not be {@code null}
+	 * @param startNanos  {@link System#nanoTime()} when the stage started
+	 * @param succeeded   whether the stage succeeded
+	 */
+	public void recordStage(Stage stage, long startNanos, boolean succeeded) {
+		Timer timer = succeeded ? successTimers.get(stage) : failureTimers.get(stage);
+		timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Runs a blocking stage and records its duration; the stage counts as
+	 * failed if {@code action} throws.
+	 *
+	 * @param stage  the stage; must not be {@code null}
+	 * @param action the work; must not be {@code null}
+	 * @param <T>    the result type
+	 * @return the result of {@code action}
+	 */
+	public <T> T time(Stage stage, Supplier<T> action) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			T result = action.get();
+			succeeded = true;
+			return result;
+		} finally {
+			recordStage(stage, start, succeeded);
+		}
+	}
+
+	/**
+	 * Counts a message answered with {@code 200 OK}.
+	 *
+	 * @param outcome what happened to the page; must not be {@code null}
+	 */
+	public void processed(ProcessingOutcome outcome) {
+		outcomeCounters.get(outcome).increment();
+		if (firstProcessedMillis < 0) {
+			markFirstProcessed();
+		}
+	}
+
+	/**
+	 * Counts a message answered with {@code 400 Bad Request}.
+	 *
+	 * @param rejection why it was rejected; must not be {@code null}
+	 */
+	public void rejected(Rejection rejection) {
+		rejectionCounters.get(rejection).increment();
+	}
+
+	/**
+	 * Counts a message answered with {@code 500}.
+	 *
+	 * @param error the failure, possibly wrapped in a {@code CompletionException}; must not be {@code null}
+	 */
+	public void failed(Throwable error) {
+		failureCounters.get(FailureCause.of(error)).increment();
+	}
+
+	/**
+	 * Counts a message answered with {@code 429 Too Many Requests} because the
+	 * concurrency limit was reached.
+	 */
+	public void shed() {
+		shedCounter.increment();
+	}
+
+	/**
+	 * Counts a message answered with {@code 429 Too Many Requests} because
+	 * fair scheduling did not admit it in time.
+	 */
+	public void admissionShed() {
+		admissionShedCounter.increment();
+	}
+
+	/**
+	 * Marks a push request or pulled message as started; pair with
+	 * {@link #requestFinished()}.
+	 */
+	public void requestStarted() {
+		inFlight.incrementAndGet();
+	}
+
+	/**
+	 * Marks a push request as answered, or a pulled message as acked or nacked.
+	 */
+	public void requestFinished() {
+		inFlight.decrementAndGet();
+	}
+
+	private synchronized void markFirstProcessed() {
+		if (firstProcessedMillis < 0) {
+			firstProcessedMillis = uptimeMillis.getAsLong();
+			log.info("First page-built message processed {}ms after JVM start", firstProcessedMillis);
+		}
+	}
+
+	private static Timer stageTimer(MeterRegistry registry, Stage stage, String outcome) {
+		return Timer.builder(STAGE_TIMER)
+			.description("Time spent in each step of handling a page-built message")
+			.tag("stage", stage.name().toLowerCase(Locale.ROOT))
+			.tag("outcome", outcome)
+			.publishPercentileHistogram()
+			.minimumExpectedValue(Duration.ofNanos(1_000))
+			.maximumExpectedValue(Duration.ofSeconds(30))
+			.register(registry);
+	}
+
+	private static Counter messageCounter(MeterRegistry registry, String status, String outcome) {
+		return Counter.builder(MESSAGE_COUNTER)
+			.description("Page-built messages by response status and outcome")
+			.tag("status", status)
+			.tag("outcome", outcome.toLowerCase(Locale.ROOT))
+			.register(registry);
+	}
+}
@@ -0,0 +1,73 @@
+package com.looksee.auditManager.metrics;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.springframework.dao.DataAccessException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.api.gax.rpc.ApiException;
+import com.google.cloud.spring.pubsub.core.PubSubException;
+import com.looksee.auditManager.execution.BulkheadFullException;
+import com.looksee.auditManager.execution.CircuitOpenException;
+
+/**
+ * Coarse reason a message failed with {@code 500}, used as a metric tag so
+ * its cardinality stays fixed whatever exceptions are thrown.
+ */
+public enum FailureCause {
+	/** A backend bulkhead had no permit within its maximum wait. */
+	BULKHEAD_FULL,
+	/** A backend's circuit breaker was open after repeated transient failures. */
+	CIRCUIT_OPEN,
+	/** Neo4j rejected or failed a query. */
+	NEO4J,
+	/** Pub/Sub did not accept the page-audit message. */
+	PUBSUB,
+	/** The page-audit message could not be serialized. */
+	SERIALIZATION,
+	/** Anything else. */
+	UNEXPECTED;
+
+	/**
+	 * Classifies a failure, looking through {@link CompletionException} and
+	 * {@link ExecutionException} wrappers.
+	 *
+	 * @param error the failure; must not be {@code null}
+	 * @return the cause; never {@code null}
+	 */
+	public static FailureCause of(Throwable error) {
+		Throwable cause = error;
+		while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		if (cause instanceof BulkheadFullException) {
+			return BULKHEAD_FULL;
+		}
+		if (cause instanceof CircuitOpenException) {
+			return CIRCUIT_OPEN;
+		}
+		if (cause instanceof DataAccessException || cause instanceof Neo4jException) {
+			return NEO4J;
+		}
+		if (cause instanceof ApiException || cause instanceof PubSubException) {
+			return PUBSUB;
+		}
+		if (cause instanceof JsonProcessingException) {
+			return SERIALIZATION;
+		}
+		return UNEXPECTED;
+	}
+
+	/**
+	 * Indicates whether the failure came from a backend being overloaded or
+	 * unavailable, as opposed to a problem with the message itself.
+	 *
+	 * @return {@code true} for {@link #BULKHEAD_FULL}, {@link #CIRCUIT_OPEN},
+	 *         {@link #NEO4J} and {@link #PUBSUB}
+	 */
+	public boolean isBackendFailure() {
+		return this == BULKHEAD_FULL || this == CIRCUIT_OPEN || this == NEO4J || this == PUBSUB;
+	}
+}
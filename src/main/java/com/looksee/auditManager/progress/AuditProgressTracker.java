@@ -0,0 +1,433 @@
+package com.looksee.auditManager.progress;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherOperations;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.pubsub.v1.PubsubMessage;
+import com.looksee.auditManager.ProcessingOutcome;
+import com.looksee.auditManager.config.AuditProgressProperties;
+import com.looksee.auditManager.execution.Bulkheads;
+import com.looksee.auditManager.execution.Retries;
+import com.looksee.auditManager.publish.PageAuditMessageFormat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts how the pages of each domain audit fare and publishes the counts
+ * to the audit-update topic ({@code pubsub.audit_update}), so clients follow
+ * a crawl's progress without polling Neo4j.
+ *
+ * <p>{@link com.looksee.auditManager.PageAuditProcessor} reports every page
+ * it checks: queued for auditing, skipped for one of the
+ * {@link ProcessingOutcome} reasons, or failed and left for Pub/Sub to
+ * redeliver. Pages found {@link ProcessingOutcome#ALREADY_AUDITED} are
+ * redeliveries of pages already counted and are left out. The counts are kept in memory per domain audit and published
+ * every {@code audit-manager.progress.flush-interval} as one
+ * {@link DomainAuditProgressMessage} per domain audit that made progress
+ * since the last flush, so the number of messages depends on how many audits
+ * are running, not on how many pages they have. Each message carries the
+ * totals of the domain audit's counters on this instance, identified by a
+ * random source id, and a sequence number that grows with every update of
+ * that source, so consumers drop an update Pub/Sub delivers twice, or that a
+ * retry after a timeout published again, instead of counting it twice. An
+ * update whose publish fails is superseded by the next flush's, which is
+ * sent even if nothing was counted meanwhile.
+ *
+ * <p>LookseeCore's {@code PubSubAuditUpdatePublisherImpl} waits on each
+ * publish; updates are sent through the shared
+ * {@link PubSubPublisherOperations} to the same topic instead, under the
+ * {@link Bulkheads#pubsub()} bulkhead and {@link Retries#pubsub()} policy.
+ * The JSON is that of {@link PageAuditMessageFormat#JSON}, and each message
+ * is tagged with {@link DomainAuditProgressMessage#MESSAGE_TYPE_ATTRIBUTE} so
+ * consumers of the shared topic can tell it from LookseeCore's updates.
+ * Updates are off by default until those consumers are ready for them.
+ *
+ * <p>A domain audit whose counters stay unchanged for
+ * {@code audit-manager.progress.idle-timeout} is forgotten; if its pages come
+ * back, they are counted from zero under a new source. Counters are
+ * only ever changed under their map entry's lock, so a page reported while
+ * its audit is being flushed or forgotten is never lost.
+ *
+ * <p>Meters:
+ * <ul>
+ *   <li>{@code audit_manager.progress.updates} &ndash; counter of progress
+ *       updates, tagged {@code outcome=sent|failed}</li>
+ *   <li>{@code audit_manager.progress.domain_audits} &ndash; gauge of domain
+ *       audits whose counters are kept</li>
+ * </ul>
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> Updates of one source carry totals that never
+ *       decrease, under sequence numbers that strictly increase.</li>
+ *   <li><b>Postcondition:</b> When disabled, nothing is counted, published
+ *       or registered.</li>
+ * </ul>
+ */
+@Component
+public class AuditProgressTracker implements SmartLifecycle {
+	private static final Logger log = LoggerFactory.getLogger(AuditProgressTracker.class);
+
+	/** Stops after the page audit write batcher, so the pages of its last batches are reported too. */
+	static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+	static final String UPDATE_COUNTER = "audit_manager.progress.updates";
+	static final String DOMAIN_AUDITS_GAUGE = "audit_manager.progress.domain_audits";
+
+	private static final ObjectMapper MAPPER = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+	private static final ProcessingOutcome[] OUTCOMES = ProcessingOutcome.values();
+
+	private final PubSubPublisherOperations publisherOperations;
+	private final String topic;
+	private final AuditProgressProperties properties;
+	private final Bulkheads bulkheads;
+	private final Retries retries;
+	private final LongSupplier clock;
+	private final ConcurrentHashMap<Long, Progress> audits = new ConcurrentHashMap<>();
+
+	private final Counter sent;
+	private final Counter failed;
+
+	private volatile boolean running;
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Creates a new {@code AuditProgressTracker} and, when enabled, registers
+	 * its meters.
+	 *
+	 * @param publisherOperations Pub/Sub publisher; must not be {@code null}
+	 * @param topic               the audit-update topic; must not be blank when enabled
+	 * @param properties          progress settings; must not be {@code null}
+	 * @param bulkheads           backend concurrency limits; must not be {@code null}
+	 * @param retries             backend retry policies; must not be {@code null}
+	 * @param registry            registry for the progress meters; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if a setting is out of range
+	 */
+	@Autowired
+	public AuditProgressTracker(
+		PubSubPublisherOperations publisherOperations,
+		@Value("${pubsub.audit_update}") String topic,
+		AuditProgressProperties properties,
+		Bulkheads bulkheads,
+		Retries retries,
+		MeterRegistry registry) {
+		this(publisherOperations, topic, properties, bulkheads, retries, registry, System::nanoTime);
+	}
+
+	/**
+	 * Creates a new {@code AuditProgressTracker} that reads monotonic time
+	 * from {@code clock}.
+	 *
+	 * @param publisherOperations Pub/Sub publisher; must not be {@code null}
+	 * @param topic               the audit-update topic; must not be blank when enabled
+	 * @param properties          progress settings; must not be {@code null}
+	 * @param bulkheads           backend concurrency limits; must not be {@code null}
+	 * @param retries             backend retry policies; must not be {@code null}
+	 * @param registry            registry for the progress meters; must not be {@code null}
+	 * @param clock               nanoseconds, as by {@link System#nanoTime()}; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if a setting is out of range
+	 */
+	AuditProgressTracker(
+		PubSubPublisherOperations publisherOperations,
+		String topic,
+		AuditProgressProperties properties,
+		Bulkheads bulkheads,
+		Retries retries,
+		MeterRegistry registry,
+		LongSupplier clock) {
+		this.publisherOperations = Objects.requireNonNull(publisherOperations, "publisherOperations must not be null");
+		this.topic = Objects.requireNonNull(topic, "topic must not be null");
+		this.properties = Objects.requireNonNull(properties, "properties must not be null");
+		this.bulkheads = Objects.requireNonNull(bulkheads, "bulkheads must not be null");
+		this.retries = Objects.requireNonNull(retries, "retries must not be null");
+		Objects.requireNonNull(registry, "registry must not be null");
+		this.clock = Objects.requireNonNull(clock, "clock must not be null");
+
+		if (!properties.isEnabled()) {
+			this.sent = null;
+			this.failed = null;
+			return;
+		}
+		if (topic.isBlank()) {
+			throw new IllegalArgumentException("pubsub.audit_update must not be blank while audit-manager.progress.enabled is true");
+		}
+		if (isNotPositive(properties.getFlushInterval())
+			|| isNotPositive(properties.getIdleTimeout())
+			|| isNotPositive(properties.getShutdownTimeout())) {
+			throw new IllegalArgumentException("audit-manager.progress.flush-interval, idle-timeout and shutdown-timeout must be positive");
+		}
+		Gauge.builder(DOMAIN_AUDITS_GAUGE, audits, Map::size)
+			.description("Domain audits whose progress counters are kept")
+			.register(registry);
+		this.sent = updateCounter(registry, "sent");
+		this.failed = updateCounter(registry, "failed");
+	}
+
+	/**
+	 * Counts a page of a domain audit once {@code outcome} completes: by its
+	 * {@link ProcessingOutcome}, or as failed if it completes exceptionally.
+	 * Pages already audited are not counted.
+	 *
+	 * @param accountId     the account that owns the domain audit
+	 * @param auditRecordId the domain audit record identifier
+	 * @param outcome       the page's pending outcome; must not be {@code null}
+	 * @return {@code outcome}, so the call can wrap the expression producing it
+	 */
+	public CompletableFuture<ProcessingOutcome> track(long accountId, long auditRecordId, CompletableFuture<ProcessingOutcome> outcome) {
+		assert outcome != null : "outcome must not be null";
+
+		if (properties.isEnabled()) {
+			outcome.whenComplete((result, error) -> {
+				if (error != null) {
+					add(accountId, auditRecordId, -1, 1);
+				} else if (result != ProcessingOutcome.ALREADY_AUDITED) {
+					add(accountId, auditRecordId, result.ordinal(), 0);
+				}
+			});
+		}
+		return outcome;
+	}
+
+	@Override
+	public void start() {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "audit-progress-flusher"));
+		running = true;
+		long interval = properties.getFlushInterval().toMillis();
+		scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+		log.info("Started audit progress updates to topic={} every flushInterval={}", topic, properties.getFlushInterval());
+	}
+
+	@Override
+	public void stop() {
+		if (!running) {
+			return;
+		}
+		running = false;
+		scheduler.shutdown();
+		long timeout = properties.getShutdownTimeout().toMillis();
+		try {
+			if (!scheduler.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+				scheduler.shutdownNow();
+			}
+			flush().get(timeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			scheduler.shutdownNow();
+		} catch (ExecutionException | TimeoutException e) {
+			log.warn("Failed to publish the last audit progress updates before shutdown", e);
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+
+	/**
+	 * Publishes the totals of every domain audit that made progress since the
+	 * last flush, or whose last update failed, and forgets domain audits that
+	 * have been idle for longer than {@code idle-timeout}.
+	 *
+	 * @return a future completed once every update has been accepted or has
+	 *         failed and been marked for the next flush; never failed itself
+	 */
+	CompletableFuture<Void> flush() {
+		long now = clock.getAsLong();
+		long idleTimeout = properties.getIdleTimeout().toNanos();
+		List<Snapshot> snapshots = new ArrayList<>();
+		for (Long auditRecordId : audits.keySet()) {
+			audits.computeIfPresent(auditRecordId, (id, progress) -> {
+				Snapshot snapshot = progress.snapshot(id);
+				if (snapshot != null) {
+					snapshots.add(snapshot);
+					return progress;
+				}
+				return now - progress.lastRecorded >= idleTimeout ? null : progress;
+			});
+		}
+
+		List<CompletableFuture<?>> publishes = new ArrayList<>(snapshots.size());
+		for (Snapshot snapshot : snapshots) {
+			publishes.add(publish(snapshot).handle((messageId, error) -> {
+				if (error == null) {
+					sent.increment();
+				} else {
+					failed.increment();
+					log.warn("Failed to publish progress of auditRecordId={}; sending it with the next update",
+						snapshot.auditRecordId(), error);
+					republish(snapshot);
+				}
+				return null;
+			}));
+		}
+		return CompletableFuture.allOf(publishes.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * Adds to the counters of a domain audit, creating them if needed.
+	 *
+	 * @param accountId     the account that owns the domain audit
+	 * @param auditRecordId the domain audit record identifier
+	 * @param outcome       ordinal of the {@link ProcessingOutcome} to count once, or {@code -1} for none
+	 * @param failures      number of failures to count
+	 */
+	private void add(long accountId, long auditRecordId, int outcome, long failures) {
+		long now = clock.getAsLong();
+		audits.compute(auditRecordId, (id, progress) -> {
+			Progress counted = progress == null ? new Progress(accountId) : progress;
+			if (outcome >= 0) {
+				counted.outcomes[outcome]++;
+			}
+			counted.failures += failures;
+			counted.changed = true;
+			counted.lastRecorded = now;
+			return counted;
+		});
+	}
+
+	/**
+	 * Makes the next flush publish a domain audit whose update could not be
+	 * published, unless it has been forgotten since.
+	 *
+	 * @param snapshot the failed update; must not be {@code null}
+	 */
+	private void republish(Snapshot snapshot) {
+		audits.computeIfPresent(snapshot.auditRecordId(), (id, progress) -> {
+			if (progress.source.equals(snapshot.source())) {
+				progress.changed = true;
+			}
+			return progress;
+		});
+	}
+
+	/**
+	 * Encodes and publishes one update.
+	 *
+	 * @param snapshot the counts to publish; must not be {@code null}
+	 * @return a future completed with the Pub/Sub message id, or exceptionally
+	 *         if the update cannot be encoded or published; never {@code null}
+	 */
+	private CompletableFuture<String> publish(Snapshot snapshot) {
+		PubsubMessage pubsubMessage;
+		try {
+			pubsubMessage = PubsubMessage.newBuilder()
+				.setData(UnsafeByteOperations.unsafeWrap(MAPPER.writeValueAsBytes(snapshot.toMessage())))
+				.putAttributes(PageAuditMessageFormat.CONTENT_TYPE_ATTRIBUTE, PageAuditMessageFormat.JSON.getContentType())
+				.putAttributes(DomainAuditProgressMessage.MESSAGE_TYPE_ATTRIBUTE, DomainAuditProgressMessage.MESSAGE_TYPE)
+				.build();
+		} catch (JsonProcessingException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		log.debug("Sending progress of auditRecordId={} to Pub/Sub", snapshot.auditRecordId());
+		return retries.pubsub().callAsync(
+			() -> bulkheads.pubsub().callAsync(() -> publisherOperations.publish(topic, pubsubMessage).completable()));
+	}
+
+	private static boolean isNotPositive(Duration duration) {
+		return duration == null || duration.isNegative() || duration.isZero();
+	}
+
+	private static Counter updateCounter(MeterRegistry registry, String outcome) {
+		return Counter.builder(UPDATE_COUNTER)
+			.description("Domain audit progress updates published to the audit-update topic")
+			.tag("outcome", outcome)
+			.register(registry);
+	}
+
+	/**
+	 * Counters of one domain audit on this instance; only read or written
+	 * under its entry's lock in {@link #audits}.
+	 */
+	private static final class Progress {
+		private final long accountId;
+		private final String source = UUID.randomUUID().toString();
+		private final long[] outcomes = new long[OUTCOMES.length];
+		private long failures;
+		private long sequence;
+		/** Whether the totals need publishing. */
+		private boolean changed;
+		private long lastRecorded;
+
+		private Progress(long accountId) {
+			this.accountId = accountId;
+		}
+
+		/**
+		 * Takes the totals under the next sequence number, if they changed
+		 * since the last time.
+		 *
+		 * @param auditRecordId the domain audit record identifier
+		 * @return the totals, or {@code null} if they did not change
+		 */
+		private Snapshot snapshot(long auditRecordId) {
+			if (!changed) {
+				return null;
+			}
+			changed = false;
+			return new Snapshot(accountId, auditRecordId, source, ++sequence, outcomes.clone(), failures);
+		}
+	}
+
+	/**
+	 * Totals of one domain audit taken by a flush.
+	 *
+	 * @param accountId     the account that owns the domain audit
+	 * @param auditRecordId the domain audit record identifier
+	 * @param source        the counters the totals were taken from
+	 * @param sequence      the number of this update of {@code source}
+	 * @param outcomes      pages counted per {@link ProcessingOutcome}, by ordinal
+	 * @param failures      failed page deliveries
+	 */
+	private record Snapshot(long accountId, long auditRecordId, String source, long sequence, long[] outcomes, long failures) {
+
+		private DomainAuditProgressMessage toMessage() {
+			Map<String, Long> skipped = new LinkedHashMap<>();
+			for (ProcessingOutcome outcome : OUTCOMES) {
+				if (outcome.isSkipped() && outcome != ProcessingOutcome.ALREADY_AUDITED) {
+					skipped.put(outcome.name().toLowerCase(Locale.ROOT), outcomes[outcome.ordinal()]);
+				}
+			}
+			return new DomainAuditProgressMessage(accountId, auditRecordId, source, sequence,
+				outcomes[ProcessingOutcome.AUDIT_CREATED.ordinal()], skipped, failures);
+		}
+	}
+}
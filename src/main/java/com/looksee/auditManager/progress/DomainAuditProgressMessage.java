@@ -0,0 +1,116 @@
+package com.looksee.auditManager.progress;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.looksee.models.message.DomainAuditMessage;
+
+/**
+ * Progress of a domain audit's pages through one instance of this service,
+ * published on the audit-update topic by {@link AuditProgressTracker}.
+ *
+ * <p>The topic also carries LookseeCore's audit updates, so every message
+ * of this type has a {@value #MESSAGE_TYPE_ATTRIBUTE} attribute of
+ * {@value #MESSAGE_TYPE}; consumers that do not know it should ignore it.
+ *
+ * <p>Counts are totals of one {@code source}: the counters one instance
+ * keeps for the domain audit, from when it first saw one of its pages until
+ * it stops or forgets the audit. Every update of a source carries all its
+ * counts with a {@code sequence} one higher than the previous one, so a
+ * consumer keeps the update with the highest sequence per
+ * {@code domainAuditRecordId} and {@code source}, drops any it has already
+ * seen, and adds up the sources of a domain audit. A redelivered or retried
+ * update is then counted once, and updates from several instances and
+ * restarts, which are new sources, still add up. {@code pagesQueued} counts pages, since a
+ * page's audit record is only ever created once. {@code pagesSkipped} counts
+ * page-built messages, so a page the crawler reports twice is skipped twice;
+ * redeliveries of pages already audited are not counted at all.
+ * {@code failedDeliveries} counts deliveries that failed and will be
+ * redelivered, so their pages usually show up again later.
+ */
+public class DomainAuditProgressMessage extends DomainAuditMessage {
+
+	/** Pub/Sub attribute naming the type of an audit-update message. */
+	public static final String MESSAGE_TYPE_ATTRIBUTE = "messageType";
+
+	/** Value of {@link #MESSAGE_TYPE_ATTRIBUTE} on every progress update. */
+	public static final String MESSAGE_TYPE = "DomainAuditProgress";
+
+	private String source;
+	private long sequence;
+	private long pagesQueued;
+	private Map<String, Long> pagesSkipped = new LinkedHashMap<>();
+	private long failedDeliveries;
+
+	public DomainAuditProgressMessage() {
+	}
+
+	/**
+	 * Creates a new {@code DomainAuditProgressMessage}.
+	 *
+	 * @param accountId           the account that owns the domain audit
+	 * @param domainAuditRecordId the domain audit record identifier
+	 * @param source              identifies the counters the counts are totals of; must not be {@code null}
+	 * @param sequence            numbers the updates of {@code source}, from {@code 1}
+	 * @param pagesQueued         pages whose audit record was created and page-audit message queued
+	 * @param pagesSkipped        page-built messages skipped, by lower-case {@link com.looksee.auditManager.ProcessingOutcome} name; must not be {@code null}
+	 * @param failedDeliveries    page-built deliveries that failed and will be redelivered
+	 */
+	public DomainAuditProgressMessage(
+		long accountId,
+		long domainAuditRecordId,
+		String source,
+		long sequence,
+		long pagesQueued,
+		Map<String, Long> pagesSkipped,
+		long failedDeliveries) {
+		super(accountId, domainAuditRecordId);
+		assert source != null : "source must not be null";
+		assert pagesSkipped != null : "pagesSkipped must not be null";
+		this.source = source;
+		this.sequence = sequence;
+		this.pagesQueued = pagesQueued;
+		this.pagesSkipped = pagesSkipped;
+		this.failedDeliveries = failedDeliveries;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public void setSource(String source) {
+		this.source = source;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public void setSequence(long sequence) {
+		this.sequence = sequence;
+	}
+
+	public long getPagesQueued() {
+		return pagesQueued;
+	}
+
+	public void setPagesQueued(long pagesQueued) {
+		this.pagesQueued = pagesQueued;
+	}
+
+	public Map<String, Long> getPagesSkipped() {
+		return pagesSkipped;
+	}
+
+	public void setPagesSkipped(Map<String, Long> pagesSkipped) {
+		this.pagesSkipped = pagesSkipped;
+	}
+
+	public long getFailedDeliveries() {
+		return failedDeliveries;
+	}
+
+	public void setFailedDeliveries(long failedDeliveries) {
+		this.failedDeliveries = failedDeliveries;
+	}
+}
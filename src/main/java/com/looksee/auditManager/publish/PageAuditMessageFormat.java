@@ -0,0 +1,73 @@
+package com.looksee.auditManager.publish;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.looksee.models.message.PageAuditMessage;
+
+/**
+ * Wire formats a {@link PageAuditMessage} can be published in.
+ *
+ * <p>Both carry the same fields under the same names, so a consumer maps
+ * either onto the same class with the matching Jackson mapper. Which one a
+ * message uses is announced in its {@link #CONTENT_TYPE_ATTRIBUTE} attribute,
+ * the header Spring Cloud Stream consumers already negotiate on; a message
+ * without the attribute is JSON.
+ */
+public enum PageAuditMessageFormat {
+	/** UTF-8 JSON, as every consumer has always read. */
+	JSON("application/json", JsonMapper.builder().addModule(new JavaTimeModule()).build()),
+	/**
+	 * CBOR (RFC 8949): binary, with no number formatting or string escaping,
+	 * and decoders available for every mainstream language.
+	 */
+	CBOR("application/cbor", CBORMapper.builder().addModule(new JavaTimeModule()).build());
+
+	/** Pub/Sub attribute naming the format of a message's data. */
+	public static final String CONTENT_TYPE_ATTRIBUTE = "contentType";
+
+	private final String contentType;
+	private final ObjectMapper mapper;
+
+	PageAuditMessageFormat(String contentType, ObjectMapper mapper) {
+		this.contentType = contentType;
+		this.mapper = mapper;
+	}
+
+	/**
+	 * Returns the media type announced in {@link #CONTENT_TYPE_ATTRIBUTE}.
+	 *
+	 * @return the media type; never {@code null}
+	 */
+	public String getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * Encodes a message in this format.
+	 *
+	 * @param message the message; must not be {@code null}
+	 * @return the encoded bytes; never {@code null}
+	 * @throws JsonProcessingException if the message cannot be encoded
+	 */
+	public byte[] encode(PageAuditMessage message) throws JsonProcessingException {
+		assert message != null : "message must not be null";
+		return mapper.writeValueAsBytes(message);
+	}
+
+	/**
+	 * Decodes a message encoded in this format.
+	 *
+	 * @param data the encoded bytes; must not be {@code null}
+	 * @return the decoded message; never {@code null}
+	 * @throws IOException if {@code data} is not a message in this format
+	 */
+	public PageAuditMessage decode(byte[] data) throws IOException {
+		assert data != null : "data must not be null";
+		return mapper.readValue(data, PageAuditMessage.class);
+	}
+}
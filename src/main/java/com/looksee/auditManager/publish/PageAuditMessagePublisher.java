@@ -0,0 +1,132 @@
+package com.looksee.auditManager.publish;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherOperations;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.pubsub.v1.PubsubMessage;
+import com.looksee.auditManager.config.PageAuditMessageProperties;
+import com.looksee.auditManager.execution.Bulkheads;
+import com.looksee.auditManager.execution.Retries;
+import com.looksee.models.message.PageAuditMessage;
+
+/**
+ * Non-blocking publisher for {@link PageAuditMessage}s.
+ *
+ * <p>LookseeCore's {@code PubSubPageAuditPublisherImpl} waits on the publish
+ * future before returning, which parks the calling thread for the whole RPC.
+ * This publisher sends through the shared {@link PubSubPublisherOperations}
+ * and hands the future back instead, so {@link PageAuditOutboxRelay} can
+ * publish a whole batch of outbox entries at once and wait for them together.
+ *
+ * <p>Each message goes to the topics {@link PageAuditTopicRouter} chooses for
+ * its audits: {@code pubsub.page_audit_topic} unless routing is configured.
+ * A message routed to several topics is encoded once and published to all of
+ * them concurrently.
+ *
+ * <p>Messages are encoded in {@code audit-manager.page-audit-message.format},
+ * JSON unless configured otherwise, straight to bytes, which become the
+ * Pub/Sub data without another copy or a detour through a {@code String}.
+ * The format is announced in the
+ * {@link PageAuditMessageFormat#CONTENT_TYPE_ATTRIBUTE} attribute.
+ *
+ * <p>Messages are grouped into publish requests by the client's batching
+ * settings ({@code spring.cloud.gcp.pubsub.publisher.batching.*}), and
+ * {@code batching.flow-control.*} bounds how many may be outstanding at once.
+ * The {@link Bulkheads#pubsub()} bulkhead applies the same bound before a
+ * message reaches the client, and never makes the caller wait for a permit:
+ * a publish that finds it full fails straight away with a
+ * {@link com.looksee.auditManager.execution.BulkheadFullException}, so the
+ * relay's thread is never parked and it can put the rest of its batch off.
+ * Publishes that fail with an error the client marks retryable are retried by
+ * {@link Retries#pubsub()}, with no permit held while waiting.
+ */
+@Component
+public class PageAuditMessagePublisher {
+
+	private final PubSubPublisherOperations publisherOperations;
+	private final PageAuditTopicRouter router;
+	private final PageAuditMessageFormat format;
+	private final Bulkheads bulkheads;
+	private final Retries retries;
+
+	/**
+	 * Creates a new {@code PageAuditMessagePublisher}.
+	 *
+	 * @param publisherOperations Pub/Sub publisher; must not be {@code null}
+	 * @param router              chooses the topics of each message; must not be {@code null}
+	 * @param properties          message format settings; must not be {@code null}
+	 * @param bulkheads           backend concurrency limits; must not be {@code null}
+	 * @param retries             backend retry policies; must not be {@code null}
+	 * @throws NullPointerException if any argument is {@code null}
+	 */
+	public PageAuditMessagePublisher(
+		PubSubPublisherOperations publisherOperations,
+		PageAuditTopicRouter router,
+		PageAuditMessageProperties properties,
+		Bulkheads bulkheads,
+		Retries retries) {
+		this.publisherOperations = Objects.requireNonNull(publisherOperations, "publisherOperations must not be null");
+		this.router = Objects.requireNonNull(router, "router must not be null");
+		Objects.requireNonNull(properties, "properties must not be null");
+		this.format = Objects.requireNonNull(properties.getFormat(), "audit-manager.page-audit-message.format must not be null");
+		this.bulkheads = Objects.requireNonNull(bulkheads, "bulkheads must not be null");
+		this.retries = Objects.requireNonNull(retries, "retries must not be null");
+	}
+
+	/**
+	 * Encodes a message and queues it for publishing to the topics of its
+	 * audits without waiting for it to be sent.
+	 *
+	 * @param message     the message; must not be {@code null}
+	 * @param auditLabels the audits the message's page audit record runs; must not be {@code null}
+	 * @return a future completed with the Pub/Sub message id from each topic,
+	 *         once every topic has accepted the message, or completed
+	 *         exceptionally if the message cannot be encoded or a topic did
+	 *         not accept it, with a
+	 *         {@link com.looksee.auditManager.execution.BulkheadFullException},
+	 *         already completed when this returns, if too many publishes are
+	 *         outstanding; never {@code null}
+	 */
+	public CompletableFuture<List<String>> publish(PageAuditMessage message, List<String> auditLabels) {
+		assert message != null : "message must not be null";
+		assert auditLabels != null : "auditLabels must not be null";
+
+		PubsubMessage pubsubMessage;
+		try {
+			pubsubMessage = PubsubMessage.newBuilder()
+				.setData(UnsafeByteOperations.unsafeWrap(format.encode(message)))
+				.putAttributes(PageAuditMessageFormat.CONTENT_TYPE_ATTRIBUTE, format.getContentType())
+				.build();
+		} catch (JsonProcessingException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+
+		List<String> topics = router.route(auditLabels);
+		if (topics.size() == 1) {
+			return publish(topics.get(0), pubsubMessage).thenApply(List::of);
+		}
+		List<CompletableFuture<String>> publishes = new ArrayList<>(topics.size());
+		for (String topic : topics) {
+			publishes.add(publish(topic, pubsubMessage));
+		}
+		return CompletableFuture
+			.allOf(publishes.toArray(new CompletableFuture<?>[0]))
+			.thenApply(done -> {
+				List<String> messageIds = new ArrayList<>(publishes.size());
+				publishes.forEach(publish -> messageIds.add(publish.join()));
+				return messageIds;
+			});
+	}
+
+	private CompletableFuture<String> publish(String topic, PubsubMessage pubsubMessage) {
+		return retries.pubsub().callAsync(
+			() -> bulkheads.pubsub().tryCallAsync(() -> publisherOperations.publish(topic, pubsubMessage).completable()));
+	}
+}
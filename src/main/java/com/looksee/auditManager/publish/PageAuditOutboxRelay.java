@@ -0,0 +1,496 @@
+package com.looksee.auditManager.publish;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.looksee.auditManager.config.OutboxProperties;
+import com.looksee.auditManager.execution.BulkheadFullException;
+import com.looksee.auditManager.execution.Bulkheads;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.auditManager.metrics.AuditMetrics.Stage;
+import com.looksee.auditManager.repository.PageAuditOutboxBacklog;
+import com.looksee.auditManager.repository.PageAuditOutboxEntry;
+import com.looksee.auditManager.repository.PageAuditOutboxRepository;
+import com.looksee.models.message.PageAuditMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes the {@link PageAuditMessage}s waiting in the Neo4j outbox.
+ *
+ * <p>Every page audit record is written together with an outbox entry for
+ * its message, so a request is answered as soon as that one write commits
+ * and a Pub/Sub outage no longer fails it. This relay drains the entries on
+ * a single background thread: it claims up to
+ * {@code audit-manager.outbox.batch-size} of them in one query, hands them
+ * all to {@link PageAuditMessagePublisher}, whose client batches them into
+ * publish requests, and once every publish has completed, or the lease has
+ * passed, deletes the ones Pub/Sub accepted in one more query. The thread
+ * never waits on Pub/Sub, not even for a {@link Bulkheads#pubsub()} permit:
+ * once the bulkhead is full the rest of the batch is put off and its claim
+ * released, so the next drain takes those entries up again straight away
+ * rather than after the lease. The thread is only busy while it talks to
+ * Neo4j. A drain keeps going while it gets full batches, or had to put some
+ * off, and every message it published was accepted.
+ *
+ * <p>Record writes {@linkplain #wake() wake} the relay so messages go out
+ * without waiting for the next poll; wakes that arrive while a drain is
+ * pending or running are folded into it, so the busier the service, the
+ * larger each batch. The relay also polls every
+ * {@code audit-manager.outbox.poll-interval}, which picks up entries other
+ * instances left behind, refreshes the backlog gauges and, until it has
+ * succeeded once, creates the indexes claims rely on. Neo4j being
+ * unreachable at startup therefore never fails it.
+ *
+ * <p>Delivery is at least once. An entry whose publish fails stays claimed
+ * until its lease expires and is then published again, by this instance or
+ * any other; so is one whose message was accepted but whose deletion failed.
+ * Entries are published in roughly the order they were written, not strictly.
+ * An entry routed to several topics is deleted only once every one of them
+ * has accepted its message; if any has not, it is published again to all of
+ * them, so subscribers of the others may see it twice.
+ *
+ * <p>Meters, next to the {@link Stage#PUBLISH} stage timer:
+ * <ul>
+ *   <li>{@code audit_manager.outbox.backlog} &ndash; gauge of entries
+ *       waiting at the last poll, claimed or not</li>
+ *   <li>{@code audit_manager.outbox.oldest_age} &ndash; time gauge of how
+ *       long the oldest waiting entry has been waiting</li>
+ *   <li>{@code audit_manager.outbox.relay_lag} &ndash; timer from a record's
+ *       write to Pub/Sub accepting its message</li>
+ *   <li>{@code audit_manager.outbox.messages} &ndash; counter of relayed
+ *       messages, tagged {@code outcome=sent|failed|deferred}</li>
+ * </ul>
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> At most one drain runs at a time.</li>
+ *   <li><b>Postcondition:</b> An entry is deleted only after Pub/Sub has
+ *       accepted its message on every topic it is routed to.</li>
+ * </ul>
+ */
+@Component
+public class PageAuditOutboxRelay implements SmartLifecycle {
+	private static final Logger log = LoggerFactory.getLogger(PageAuditOutboxRelay.class);
+
+	/** Stops after the page audit write batcher, so the entries of its last batches are drained too. */
+	static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 3072;
+
+	static final String BACKLOG_GAUGE = "audit_manager.outbox.backlog";
+	static final String OLDEST_AGE_GAUGE = "audit_manager.outbox.oldest_age";
+	static final String RELAY_LAG_TIMER = "audit_manager.outbox.relay_lag";
+	static final String MESSAGE_COUNTER = "audit_manager.outbox.messages";
+
+	private final PageAuditOutboxRepository repository;
+	private final PageAuditMessagePublisher publisher;
+	private final OutboxProperties properties;
+	private final Bulkheads bulkheads;
+	private final AuditMetrics metrics;
+	private final LongSupplier clock;
+	private final ScheduledExecutorService scheduler;
+	private final AtomicBoolean wakeRequested = new AtomicBoolean();
+	private final AtomicBoolean draining = new AtomicBoolean();
+
+	private final Timer relayLag;
+	private final Counter sent;
+	private final Counter failed;
+	private final Counter deferred;
+	private volatile PageAuditOutboxBacklog backlog = PageAuditOutboxBacklog.EMPTY;
+	private volatile CompletableFuture<Void> currentDrain = CompletableFuture.completedFuture(null);
+	/** Only read or written on the relay thread. */
+	private boolean indexesCreated;
+
+	private volatile boolean running;
+	private ScheduledFuture<?> polling;
+
+	/**
+	 * Creates a new {@code PageAuditOutboxRelay} and registers its meters.
+	 *
+	 * @param repository outbox reads and deletes; must not be {@code null}
+	 * @param publisher  non-blocking publisher for page-audit messages; must not be {@code null}
+	 * @param properties relay settings; must not be {@code null}
+	 * @param bulkheads  backend concurrency limits; must not be {@code null}
+	 * @param metrics    publish stage timer; must not be {@code null}
+	 * @param registry   registry for the outbox meters; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if a setting is out of range
+	 */
+	@Autowired
+	public PageAuditOutboxRelay(
+		PageAuditOutboxRepository repository,
+		PageAuditMessagePublisher publisher,
+		OutboxProperties properties,
+		Bulkheads bulkheads,
+		AuditMetrics metrics,
+		MeterRegistry registry) {
+		this(repository, publisher, properties, bulkheads, metrics, registry, System::currentTimeMillis);
+	}
+
+	/**
+	 * Creates a new {@code PageAuditOutboxRelay} that reads wall-clock time
+	 * from {@code clock}.
+	 *
+	 * @param repository outbox reads and deletes; must not be {@code null}
+	 * @param publisher  non-blocking publisher for page-audit messages; must not be {@code null}
+	 * @param properties relay settings; must not be {@code null}
+	 * @param bulkheads  backend concurrency limits; must not be {@code null}
+	 * @param metrics    publish stage timer; must not be {@code null}
+	 * @param registry   registry for the outbox meters; must not be {@code null}
+	 * @param clock      epoch milliseconds, compared with the Neo4j server's {@code timestamp()}; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if a setting is out of range
+	 */
+	PageAuditOutboxRelay(
+		PageAuditOutboxRepository repository,
+		PageAuditMessagePublisher publisher,
+		OutboxProperties properties,
+		Bulkheads bulkheads,
+		AuditMetrics metrics,
+		MeterRegistry registry,
+		LongSupplier clock) {
+		this.repository = Objects.requireNonNull(repository, "repository must not be null");
+		this.publisher = Objects.requireNonNull(publisher, "publisher must not be null");
+		this.properties = Objects.requireNonNull(properties, "properties must not be null");
+		this.bulkheads = Objects.requireNonNull(bulkheads, "bulkheads must not be null");
+		this.metrics = Objects.requireNonNull(metrics, "metrics must not be null");
+		Objects.requireNonNull(registry, "registry must not be null");
+		this.clock = Objects.requireNonNull(clock, "clock must not be null");
+
+		if (properties.getBatchSize() < 1
+			|| properties.getPollInterval() == null || properties.getPollInterval().isNegative() || properties.getPollInterval().isZero()
+			|| properties.getLease() == null || properties.getLease().isNegative() || properties.getLease().isZero()) {
+			throw new IllegalArgumentException("audit-manager.outbox.batch-size, poll-interval and lease must be positive");
+		}
+
+		Gauge.builder(BACKLOG_GAUGE, this, relay -> relay.backlog.getSize())
+			.description("Page audit messages waiting in the outbox after the last drain")
+			.register(registry);
+		TimeGauge.builder(OLDEST_AGE_GAUGE, this, TimeUnit.MILLISECONDS, PageAuditOutboxRelay::oldestAgeMillis)
+			.description("How long the oldest page audit message in the outbox has been waiting")
+			.register(registry);
+		this.relayLag = Timer.builder(RELAY_LAG_TIMER)
+			.description("Time from a page audit record's write to Pub/Sub accepting its message")
+			.publishPercentileHistogram()
+			.register(registry);
+		this.sent = messageCounter(registry, "sent");
+		this.failed = messageCounter(registry, "failed");
+		this.deferred = messageCounter(registry, "deferred");
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "page-audit-outbox-relay");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Asks for a drain soon, without waiting for the next poll. Does nothing
+	 * if a drain is already pending or the relay is not running.
+	 */
+	public void wake() {
+		if (!running || !wakeRequested.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			scheduler.execute(this::drain);
+		} catch (RejectedExecutionException e) {
+			// stopping: the final drain picks the entries up
+			wakeRequested.set(false);
+		}
+	}
+
+	@Override
+	public void start() {
+		running = true;
+		polling = scheduler.scheduleWithFixedDelay(this::poll, 0, properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+		log.info("Started page audit outbox relay with batchSize={} pollInterval={} lease={}",
+			properties.getBatchSize(), properties.getPollInterval(), properties.getLease());
+	}
+
+	/**
+	 * Stops polling, waits for the running drain, then drains once more, all
+	 * within {@code shutdown-timeout}.
+	 */
+	@Override
+	public void stop() {
+		running = false;
+		polling.cancel(false);
+		long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+		try {
+			currentDrain.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			drain().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | TimeoutException e) {
+			log.warn("The page audit outbox was still being drained when shutdown timed out", e);
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+
+	/**
+	 * Poll: creates the outbox indexes if that has not succeeded yet,
+	 * refreshes the backlog gauges, and drains.
+	 */
+	void poll() {
+		if (!indexesCreated) {
+			try {
+				bulkheads.neo4j().call(() -> {
+					repository.createIndexes();
+					return null;
+				});
+				indexesCreated = true;
+			} catch (RuntimeException e) {
+				log.warn("Failed to create the page audit outbox indexes; retrying on the next poll", e);
+			}
+		}
+		try {
+			backlog = bulkheads.neo4j().call(repository::backlog);
+		} catch (RuntimeException e) {
+			log.warn("Failed to read the page audit outbox backlog; retrying on the next poll", e);
+		}
+		drain();
+	}
+
+	/**
+	 * Starts claiming, publishing and clearing batches of entries until a
+	 * batch comes back short, none of it could be published, or not every
+	 * message published was accepted. If a
+	 * drain is already running, nothing new is started; a wake that arrived
+	 * meanwhile drains again once it has finished. Failures are logged and
+	 * left to the next drain.
+	 *
+	 * @return a future completed once the drain has finished; never failed
+	 */
+	CompletableFuture<Void> drain() {
+		if (!draining.compareAndSet(false, true)) {
+			return currentDrain;
+		}
+		wakeRequested.set(false);
+		CompletableFuture<Void> done = new CompletableFuture<>();
+		currentDrain = done;
+		drainBatch(done);
+		return done;
+	}
+
+	/**
+	 * Claims and relays one batch, then continues with the next one from the
+	 * relay thread once the batch has been cleared.
+	 *
+	 * @param done the running drain's future; must not be {@code null}
+	 */
+	private void drainBatch(CompletableFuture<Void> done) {
+		List<PageAuditOutboxEntry> entries;
+		try {
+			entries = bulkheads.neo4j().call(() -> repository.claim(properties.getBatchSize(), properties.getLease()));
+		} catch (RuntimeException e) {
+			log.warn("Failed to claim page audit outbox entries; retrying on the next poll", e);
+			finishDrain(done);
+			return;
+		}
+		if (entries.isEmpty()) {
+			finishDrain(done);
+			return;
+		}
+		relay(entries).whenComplete((relayed, error) -> {
+			if (error != null) {
+				log.warn("Failed to clear relayed page audit outbox entries; retrying once their lease expires", error);
+				finishDrain(done);
+			} else if (relayed.accepted() == relayed.published()
+				&& (relayed.deferred() > 0 ? relayed.published() > 0 : entries.size() == properties.getBatchSize())) {
+				drainBatch(done);
+			} else {
+				finishDrain(done);
+			}
+		});
+	}
+
+	private void finishDrain(CompletableFuture<Void> done) {
+		draining.set(false);
+		done.complete(null);
+		if (running && wakeRequested.get()) {
+			try {
+				scheduler.execute(this::drain);
+			} catch (RejectedExecutionException e) {
+				// stopping: the final drain picks the entries up
+			}
+		}
+	}
+
+	/**
+	 * Publishes a claimed batch until the Pub/Sub bulkhead is full and, on
+	 * the relay thread once every publish has completed or the lease has
+	 * passed, releases the entries it put off and deletes those whose
+	 * messages Pub/Sub accepted.
+	 *
+	 * @param entries the claimed entries; must not be {@code null}
+	 * @return a future completed with how many messages were published,
+	 *         accepted and put off, or exceptionally if the accepted entries
+	 *         could not be deleted; never {@code null}
+	 */
+	private CompletableFuture<Relayed> relay(List<PageAuditOutboxEntry> entries) {
+		List<CompletableFuture<List<String>>> publishes = new ArrayList<>(entries.size());
+		for (PageAuditOutboxEntry entry : entries) {
+			if (bulkheads.pubsub().availablePermits() == 0) {
+				break;
+			}
+			CompletableFuture<List<String>> published = publish(entry);
+			if (published.isCompletedExceptionally() && failure(published) instanceof BulkheadFullException) {
+				// another publisher took the last permit first
+				break;
+			}
+			publishes.add(published);
+		}
+		List<PageAuditOutboxEntry> publishedEntries = entries.subList(0, publishes.size());
+		List<PageAuditOutboxEntry> putOff = entries.subList(publishes.size(), entries.size());
+		return CompletableFuture.allOf(publishes.toArray(new CompletableFuture<?>[0]))
+			.completeOnTimeout(null, properties.getLease().toMillis(), TimeUnit.MILLISECONDS)
+			.handleAsync((ignored, error) -> {
+				release(putOff);
+				return new Relayed(publishes.size(), markSent(publishedEntries, publishes), putOff.size());
+			}, scheduler);
+	}
+
+	/**
+	 * Gives up the claim on entries that were put off, so the next drain, on
+	 * any instance, claims them again without waiting for the lease.
+	 *
+	 * @param entries the entries that were not published; must not be {@code null}
+	 */
+	private void release(List<PageAuditOutboxEntry> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		log.debug("Pub/Sub bulkhead is full; putting off {} page audit outbox entries", entries.size());
+		deferred.increment(entries.size());
+		long[] ids = entries.stream().mapToLong(PageAuditOutboxEntry::getId).toArray();
+		try {
+			bulkheads.neo4j().call(() -> {
+				repository.release(ids);
+				return null;
+			});
+		} catch (RuntimeException e) {
+			log.warn("Failed to release {} put-off page audit outbox entries; retrying once their lease expires", ids.length, e);
+		}
+	}
+
+	/**
+	 * Deletes the entries whose messages Pub/Sub has accepted.
+	 *
+	 * @param entries   the claimed entries; must not be {@code null}
+	 * @param publishes their publishes, aligned with {@code entries}; must not be {@code null}
+	 * @return how many messages were accepted
+	 */
+	private int markSent(List<PageAuditOutboxEntry> entries, List<CompletableFuture<List<String>>> publishes) {
+		long[] sentIds = new long[entries.size()];
+		int accepted = 0;
+		for (int i = 0; i < entries.size(); i++) {
+			CompletableFuture<List<String>> published = publishes.get(i);
+			if (published.isDone() && !published.isCompletedExceptionally()) {
+				sentIds[accepted++] = entries.get(i).getId();
+			} else {
+				log.warn("Failed to publish PageAuditMessage for pageAuditId={}; retrying once its lease expires",
+					entries.get(i).getPageAuditId(), failure(published));
+			}
+		}
+		failed.increment(entries.size() - accepted);
+		if (accepted > 0) {
+			long[] ids = Arrays.copyOf(sentIds, accepted);
+			bulkheads.neo4j().call(() -> {
+				repository.markSent(ids);
+				return null;
+			});
+			sent.increment(accepted);
+		}
+		return accepted;
+	}
+
+	/**
+	 * Publishes the message of one entry.
+	 *
+	 * @param entry the claimed entry; must not be {@code null}
+	 * @return a future completed with the Pub/Sub message ids once every topic
+	 *         of the entry has accepted its message, or exceptionally if the
+	 *         message cannot be encoded or published; never {@code null}
+	 */
+	private CompletableFuture<List<String>> publish(PageAuditOutboxEntry entry) {
+		log.info("Sending PageAuditMessage to Pub/Sub for pageAuditId={}", entry.getPageAuditId());
+		long start = System.nanoTime();
+		CompletableFuture<List<String>> published;
+		try {
+			published = publisher.publish(new PageAuditMessage(entry.getAccountId(), entry.getPageAuditId()), entry.getAuditLabels());
+		} catch (RuntimeException e) {
+			metrics.recordStage(Stage.PUBLISH, start, false);
+			return CompletableFuture.failedFuture(e);
+		}
+		return published.whenComplete((messageIds, error) -> {
+			metrics.recordStage(Stage.PUBLISH, start, error == null);
+			if (error == null) {
+				relayLag.record(Math.max(0, clock.getAsLong() - entry.getCreatedAt()), TimeUnit.MILLISECONDS);
+			}
+		});
+	}
+
+	/** How a claimed batch was relayed. */
+	private record Relayed(int published, int accepted, int deferred) {
+	}
+
+	private static Throwable failure(CompletableFuture<?> publish) {
+		if (!publish.isDone()) {
+			return new TimeoutException("not accepted within the lease");
+		}
+		try {
+			publish.join();
+			return null;
+		} catch (CompletionException e) {
+			return e.getCause();
+		} catch (CancellationException e) {
+			return e;
+		}
+	}
+
+	private double oldestAgeMillis() {
+		long oldest = backlog.getOldestCreatedAt();
+		return oldest < 0 ? 0 : Math.max(0, clock.getAsLong() - oldest);
+	}
+
+	private static Counter messageCounter(MeterRegistry registry, String outcome) {
+		return Counter.builder(MESSAGE_COUNTER)
+			.description("Page audit messages relayed from the outbox")
+			.tag("outcome", outcome)
+			.register(registry);
+	}
+}
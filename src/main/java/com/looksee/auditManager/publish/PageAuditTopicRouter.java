@@ -0,0 +1,134 @@
+package com.looksee.auditManager.publish;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.looksee.auditManager.config.PageAuditRoutingProperties;
+import com.looksee.auditManager.config.PageAuditRoutingProperties.Category;
+import com.looksee.models.enums.AuditName;
+
+/**
+ * Chooses the topics a page-audit message is published to from the audits
+ * its page audit record will run.
+ *
+ * <p>With {@code audit-manager.page-audit-routing.enabled} off, every message
+ * goes to {@code pubsub.page_audit_topic} alone, as it always has. With it
+ * on, an audit goes to the topic configured for it in
+ * {@code audit-manager.page-audit-routing.topics}, else to the topic of the
+ * category it belongs to, else to {@code pubsub.page_audit_topic}; a message
+ * goes once to each distinct topic of its audits. Downstream services then
+ * only receive the pages they audit, and an expensive audit such as
+ * {@link AuditName#IMAGE_COPYRIGHT} can have a subscription, and a backlog,
+ * of its own.
+ *
+ * <p>Labels that are not an {@link AuditName}, and records with no labels at
+ * all, go to {@code pubsub.page_audit_topic}, so no page is left unaudited by
+ * a label this service does not know.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Postcondition:</b> {@link #route(List)} returns at least one
+ *       topic and no topic twice.</li>
+ * </ul>
+ */
+@Component
+public class PageAuditTopicRouter {
+	private static final Logger log = LoggerFactory.getLogger(PageAuditTopicRouter.class);
+
+	private final String defaultTopic;
+	private final List<String> defaultTopics;
+	private final Map<String, String> topicsByLabel;
+
+	/**
+	 * Creates a new {@code PageAuditTopicRouter}.
+	 *
+	 * @param defaultTopic the page-audit topic; must not be {@code null}
+	 * @param properties   routing settings; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if a topic is blank or an audit is in more than one category
+	 */
+	public PageAuditTopicRouter(
+		@Value("${pubsub.page_audit_topic}") String defaultTopic,
+		PageAuditRoutingProperties properties) {
+		this.defaultTopic = Objects.requireNonNull(defaultTopic, "defaultTopic must not be null");
+		Objects.requireNonNull(properties, "properties must not be null");
+		this.defaultTopics = List.of(defaultTopic);
+		this.topicsByLabel = properties.isEnabled() ? topicsByLabel(properties) : Map.of();
+		if (properties.isEnabled()) {
+			log.info("Routing page-audit messages by audit: {}", topicsByLabel);
+		}
+	}
+
+	/**
+	 * Returns the topics a page audit record's message is published to.
+	 *
+	 * @param auditLabels the audit labels stored on the record; must not be {@code null}
+	 * @return the distinct topics, in the order of the labels that chose them;
+	 *         never {@code null} or empty
+	 */
+	public List<String> route(List<String> auditLabels) {
+		assert auditLabels != null : "auditLabels must not be null";
+
+		if (topicsByLabel.isEmpty() || auditLabels.isEmpty()) {
+			return defaultTopics;
+		}
+		List<String> topics = new ArrayList<>(2);
+		for (String label : auditLabels) {
+			String topic = topicsByLabel.getOrDefault(label, defaultTopic);
+			if (!topics.contains(topic)) {
+				topics.add(topic);
+			}
+		}
+		return topics;
+	}
+
+	/**
+	 * Resolves the configured categories and per-audit topics to the topic of
+	 * every audit, keyed by its label.
+	 */
+	private Map<String, String> topicsByLabel(PageAuditRoutingProperties properties) {
+		Map<AuditName, String> categoryOf = new EnumMap<>(AuditName.class);
+		Map<AuditName, String> topics = new EnumMap<>(AuditName.class);
+		properties.getCategories().forEach((name, category) -> {
+			String topic = topicOf(category, name);
+			for (AuditName auditName : category.getAudits()) {
+				String previous = categoryOf.put(auditName, name);
+				if (previous != null) {
+					throw new IllegalArgumentException("audit-manager.page-audit-routing: " + auditName
+						+ " is in both the " + previous + " and " + name + " categories");
+				}
+				topics.put(auditName, topic);
+			}
+		});
+		properties.getTopics().forEach((auditName, topic) -> {
+			if (topic == null || topic.isBlank()) {
+				throw new IllegalArgumentException("audit-manager.page-audit-routing.topics." + auditName + " must not be blank");
+			}
+			topics.put(auditName, topic);
+		});
+
+		Map<String, String> byLabel = new HashMap<>();
+		topics.forEach((auditName, topic) -> byLabel.put(auditName.name(), topic));
+		return byLabel;
+	}
+
+	private String topicOf(Category category, String name) {
+		String topic = category.getTopic();
+		if (topic == null) {
+			return defaultTopic;
+		}
+		if (topic.isBlank()) {
+			throw new IllegalArgumentException("audit-manager.page-audit-routing.categories." + name + ".topic must not be blank");
+		}
+		return topic;
+	}
+}
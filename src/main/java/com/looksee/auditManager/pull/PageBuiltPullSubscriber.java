@@ -0,0 +1,310 @@
+package com.looksee.auditManager.pull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.google.cloud.pubsub.v1.Subscriber;
+import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberOperations;
+import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
+import com.looksee.auditManager.PageAuditProcessor;
+import com.looksee.auditManager.PageBuiltMessageDecoder;
+import com.looksee.auditManager.PageBuiltMessageDecoder.Rejection;
+import com.looksee.auditManager.ProcessingOutcome;
+import com.looksee.auditManager.batch.BatchCollector;
+import com.looksee.auditManager.config.PullSubscriberProperties;
+import com.looksee.auditManager.execution.AdmissionRejectedException;
+import com.looksee.auditManager.execution.FairAdmissionScheduler;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.models.message.PageBuiltMessage;
+
+/**
+ * Streaming-pull alternative to the {@code POST /} push endpoint.
+ *
+ * <p>Messages delivered by the Pub/Sub streaming-pull client are buffered and
+ * drained in batches of up to {@code audit-manager.pull.batch-size} by a fixed
+ * pool of worker threads. Every message in a batch is decoded as a push
+ * delivery would be, and the decoded messages of each account go through
+ * {@link PageAuditProcessor#processAll(List)} together, with one eligibility
+ * query for all of them. Each message is still acknowledged on its own once
+ * its record write completes, so workers move on to the next batch instead of
+ * waiting for Neo4j:
+ * <ul>
+ *   <li>processed (audited or skipped) &rarr; ack</li>
+ *   <li>malformed payload &rarr; ack, since redelivery can never fix it</li>
+ *   <li>infrastructure failure &rarr; nack, so Pub/Sub redelivers it</li>
+ * </ul>
+ *
+ * <p>Each message is counted in {@link AuditMetrics} under the status a push
+ * delivery would have been answered with, and is in flight from the moment a
+ * worker takes it until it is acked or nacked.
+ *
+ * <p>Each account's share of a batch is started through
+ * {@link FairAdmissionScheduler} as a single task, which it holds in that
+ * account's queue while its budget is spent, so a worker hands the batch over
+ * and moves on without waiting for it to be admitted.
+ *
+ * <p>The buffer is not bounded here on purpose: every buffered or in-flight
+ * message counts as outstanding for the client until it is acked or nacked, so
+ * both, like messages waiting for admission, are capped by
+ * {@code spring.cloud.gcp.pubsub.subscriber.flow-control.max-outstanding-element-count}
+ * and {@code max-outstanding-request-bytes}.
+ *
+ * <p>Only created when {@code audit-manager.pull.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "audit-manager.pull", name = "enabled", havingValue = "true")
+public class PageBuiltPullSubscriber implements SmartLifecycle {
+	private static final Logger log = LoggerFactory.getLogger(PageBuiltPullSubscriber.class);
+
+	private final PubSubSubscriberOperations subscriberOperations;
+	private final PageBuiltMessageDecoder messageDecoder;
+	private final PageAuditProcessor pageAuditProcessor;
+	private final PullSubscriberProperties properties;
+	private final FairAdmissionScheduler admissionScheduler;
+	private final AuditMetrics metrics;
+	private final BlockingQueue<BasicAcknowledgeablePubsubMessage> buffer = new LinkedBlockingQueue<>();
+
+	private volatile boolean running;
+	private Subscriber subscriber;
+	private ExecutorService workers;
+
+	/**
+	 * Creates a new {@code PageBuiltPullSubscriber}.
+	 *
+	 * @param subscriberOperations Pub/Sub subscriber used for streaming pull; must not be {@code null}
+	 * @param messageDecoder       decoder for message payloads; must not be {@code null}
+	 * @param pageAuditProcessor   processor that creates page audits; must not be {@code null}
+	 * @param properties           pull-mode settings; must not be {@code null}
+	 * @param admissionScheduler   per-account fair ordering of decoded messages; must not be {@code null}
+	 * @param metrics              message counters and in-flight gauge; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if the subscription is blank or a size setting is not positive
+	 */
+	public PageBuiltPullSubscriber(
+		PubSubSubscriberOperations subscriberOperations,
+		PageBuiltMessageDecoder messageDecoder,
+		PageAuditProcessor pageAuditProcessor,
+		PullSubscriberProperties properties,
+		FairAdmissionScheduler admissionScheduler,
+		AuditMetrics metrics) {
+		this.subscriberOperations = Objects.requireNonNull(subscriberOperations, "subscriberOperations must not be null");
+		this.messageDecoder = Objects.requireNonNull(messageDecoder, "messageDecoder must not be null");
+		this.pageAuditProcessor = Objects.requireNonNull(pageAuditProcessor, "pageAuditProcessor must not be null");
+		this.properties = Objects.requireNonNull(properties, "properties must not be null");
+		this.admissionScheduler = Objects.requireNonNull(admissionScheduler, "admissionScheduler must not be null");
+		this.metrics = Objects.requireNonNull(metrics, "metrics must not be null");
+
+		if (properties.getSubscription() == null || properties.getSubscription().isBlank()) {
+			throw new IllegalArgumentException("audit-manager.pull.subscription must be set when pull mode is enabled");
+		}
+		if (properties.getBatchSize() < 1 || properties.getWorkerThreads() < 1) {
+			throw new IllegalArgumentException("audit-manager.pull.batch-size and worker-threads must be positive");
+		}
+	}
+
+	@Override
+	public void start() {
+		running = true;
+		int threads = properties.getWorkerThreads();
+		AtomicInteger threadIndex = new AtomicInteger();
+		workers = Executors.newFixedThreadPool(threads,
+			runnable -> new Thread(runnable, "page-built-pull-" + threadIndex.incrementAndGet()));
+		for (int i = 0; i < threads; i++) {
+			workers.execute(this::drainLoop);
+		}
+
+		subscriber = subscriberOperations.subscribe(properties.getSubscription(), this::enqueue);
+		log.info("Started streaming pull from subscription={} with batchSize={} workerThreads={}",
+			properties.getSubscription(), properties.getBatchSize(), threads);
+	}
+
+	@Override
+	public void stop() {
+		if (subscriber != null) {
+			subscriber.stopAsync();
+		}
+		running = false;
+		workers.shutdown();
+		try {
+			if (!workers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+				workers.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			workers.shutdownNow();
+		}
+
+		List<BasicAcknowledgeablePubsubMessage> unprocessed = new ArrayList<>();
+		buffer.drainTo(unprocessed);
+		unprocessed.forEach(BasicAcknowledgeablePubsubMessage::nack);
+		log.info("Stopped streaming pull; nacked {} buffered messages", unprocessed.size());
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Streaming-pull callback: hands a delivered message to the workers.
+	 *
+	 * @param message the delivered message; must not be {@code null}
+	 */
+	void enqueue(BasicAcknowledgeablePubsubMessage message) {
+		buffer.add(message);
+	}
+
+	/**
+	 * Worker loop: repeatedly collects a batch and processes it until the
+	 * subscriber is stopped.
+	 */
+	private void drainLoop() {
+		List<BasicAcknowledgeablePubsubMessage> batch = new ArrayList<>(properties.getBatchSize());
+		while (running) {
+			try {
+				collectBatch(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				batch.forEach(BasicAcknowledgeablePubsubMessage::nack);
+				return;
+			}
+			if (!batch.isEmpty()) {
+				processBatch(batch);
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * Fills {@code batch} with up to {@code batch-size} messages, waiting at
+	 * most {@code batch-timeout} for the first message and again for the
+	 * batch to fill once the first has arrived.
+	 *
+	 * @param batch the list to fill; must be empty
+	 * @throws InterruptedException if the worker is interrupted while waiting
+	 */
+	void collectBatch(List<BasicAcknowledgeablePubsubMessage> batch) throws InterruptedException {
+		BatchCollector.collect(buffer, batch, properties.getBatchSize(), properties.getBatchTimeout());
+	}
+
+	/**
+	 * Decodes every message in the batch and processes the decoded ones
+	 * through {@link PageAuditProcessor#processAll(List)}, one call per
+	 * account, acknowledging each message individually once its own outcome
+	 * is known.
+	 *
+	 * @param batch the messages to process; must not be {@code null}
+	 */
+	void processBatch(List<BasicAcknowledgeablePubsubMessage> batch) {
+		Map<Long, List<Pulled>> byAccount = new LinkedHashMap<>();
+		for (BasicAcknowledgeablePubsubMessage message : batch) {
+			metrics.requestStarted();
+			PageBuiltMessage pageBuiltMessage = messageDecoder.parseMessage(message.getPubsubMessage().getData().toByteArray());
+			if (pageBuiltMessage == null) {
+				log.warn("Acknowledging malformed PageBuiltMessage messageId={}", message.getPubsubMessage().getMessageId());
+				metrics.rejected(Rejection.INVALID_FORMAT);
+				metrics.requestFinished();
+				message.ack();
+				continue;
+			}
+			byAccount.computeIfAbsent(pageBuiltMessage.getAccountId(), accountId -> new ArrayList<>())
+				.add(new Pulled(message, pageBuiltMessage));
+		}
+		byAccount.forEach(this::admit);
+	}
+
+	/**
+	 * Processes one account's messages from a batch in a single turn of
+	 * {@link FairAdmissionScheduler}, which holds that turn until every one
+	 * of their writes has completed, then acks or nacks each message from its
+	 * own outcome.
+	 *
+	 * @param accountId the account all of {@code pulled} belong to
+	 * @param pulled    the account's decoded messages; must not be empty
+	 */
+	private void admit(long accountId, List<Pulled> pulled) {
+		List<PageBuiltMessage> messages = new ArrayList<>(pulled.size());
+		List<CompletableFuture<ProcessingOutcome>> outcomes = new ArrayList<>(pulled.size());
+		for (Pulled item : pulled) {
+			messages.add(item.message());
+			outcomes.add(new CompletableFuture<>());
+		}
+
+		admissionScheduler.submit(accountId, () -> {
+			List<CompletableFuture<ProcessingOutcome>> processed = pageAuditProcessor.processAll(messages);
+			for (int i = 0; i < processed.size(); i++) {
+				CompletableFuture<ProcessingOutcome> outcome = outcomes.get(i);
+				processed.get(i).whenComplete((result, error) -> {
+					if (error == null) {
+						outcome.complete(result);
+					} else {
+						outcome.completeExceptionally(unwrap(error));
+					}
+				});
+			}
+			return CompletableFuture.allOf(processed.toArray(new CompletableFuture<?>[0]));
+		}).whenComplete((done, error) -> {
+			if (error != null) {
+				outcomes.forEach(outcome -> outcome.completeExceptionally(unwrap(error)));
+			}
+		});
+
+		for (int i = 0; i < pulled.size(); i++) {
+			Pulled item = pulled.get(i);
+			outcomes.get(i).whenComplete((outcome, error) -> settle(item, outcome, error));
+		}
+	}
+
+	/**
+	 * Counts a processed message and acks it, or nacks it if processing failed.
+	 *
+	 * @param pulled  the message and its decoded payload; must not be {@code null}
+	 * @param outcome the processing outcome, if it succeeded
+	 * @param error   the failure, if it did not
+	 */
+	private void settle(Pulled pulled, ProcessingOutcome outcome, Throwable error) {
+		metrics.requestFinished();
+		if (error == null) {
+			metrics.processed(outcome);
+			pulled.delivery().ack();
+			return;
+		}
+		if (unwrap(error) instanceof AdmissionRejectedException) {
+			metrics.admissionShed();
+		} else {
+			metrics.failed(error);
+		}
+		log.error("Failed to process pulled PageBuiltMessage for pageId={}", pulled.message().getPageId(), error);
+		pulled.delivery().nack();
+	}
+
+	private static Throwable unwrap(Throwable error) {
+		return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+	}
+
+	/**
+	 * A pulled delivery and the message decoded from it.
+	 *
+	 * @param delivery the delivery to ack or nack
+	 * @param message  its decoded payload
+	 */
+	private record Pulled(BasicAcknowledgeablePubsubMessage delivery, PageBuiltMessage message) {
+	}
+}
@@ -0,0 +1,166 @@
+package com.looksee.auditManager.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Reads the lines of an archive from a {@link FileChannel}, starting at any
+ * byte offset, through one reused buffer.
+ *
+ * <p>Memory stays constant whatever the size of the archive: one read
+ * buffer, plus one line being assembled, which is never allowed to grow past
+ * the maximum record size. A longer line is consumed and reported with no
+ * bytes. Blank lines are skipped; {@code \r\n} endings are accepted, and the
+ * last line needs no newline.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> Lines are returned in file order, each with the
+ *       byte offset just past its newline, so resuming at that offset
+ *       continues with the next line.</li>
+ * </ul>
+ */
+final class ArchiveLineReader {
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final int maxLineLength;
+	private byte[] line = new byte[256];
+	private int lineLength;
+	private long lineBytes;
+	private boolean lineTooLong;
+	private long lineStart;
+	private long readPosition;
+
+	/**
+	 * Creates a new {@code ArchiveLineReader}.
+	 *
+	 * @param channel       the archive; must not be {@code null}
+	 * @param offset        byte offset of the first line to read; must be the start of a line
+	 * @param bufferSize    bytes read from the channel at a time; must be positive
+	 * @param maxLineLength longest line returned with its bytes; must be positive
+	 * @throws NullPointerException if {@code channel} is {@code null}
+	 */
+	ArchiveLineReader(FileChannel channel, long offset, int bufferSize, int maxLineLength) {
+		this.channel = Objects.requireNonNull(channel, "channel must not be null");
+		assert offset >= 0 : "offset must not be negative";
+		assert bufferSize > 0 && maxLineLength > 0 : "bufferSize and maxLineLength must be positive";
+		this.buffer = ByteBuffer.allocate(bufferSize);
+		this.buffer.flip();
+		this.maxLineLength = maxLineLength;
+		this.lineStart = offset;
+		this.readPosition = offset;
+	}
+
+	/**
+	 * Reads the next non-blank line.
+	 *
+	 * @return the line, or {@code null} at the end of the archive
+	 * @throws IOException if the archive cannot be read
+	 */
+	ArchiveLine next() throws IOException {
+		while (true) {
+			if (!buffer.hasRemaining()) {
+				buffer.clear();
+				int read = channel.read(buffer, readPosition);
+				buffer.flip();
+				if (read <= 0) {
+					return lineBytes > 0 ? finish(0) : null;
+				}
+				readPosition += read;
+			}
+			byte[] bytes = buffer.array();
+			int start = buffer.position();
+			int end = buffer.limit();
+			int newline = start;
+			while (newline < end && bytes[newline] != '\n') {
+				newline++;
+			}
+			append(bytes, start, newline - start);
+			if (newline == end) {
+				buffer.position(end);
+				continue;
+			}
+			buffer.position(newline + 1);
+			ArchiveLine result = finish(1);
+			if (result != null) {
+				return result;
+			}
+		}
+	}
+
+	/**
+	 * Returns the byte offset just past the last line returned, or the offset
+	 * the reader started at if none was.
+	 *
+	 * @return the offset to resume from
+	 */
+	long position() {
+		return lineStart;
+	}
+
+	/**
+	 * Adds bytes to the line being assembled, or only counts them once the
+	 * line is too long to keep.
+	 */
+	private void append(byte[] bytes, int start, int length) {
+		lineBytes += length;
+		if (lineTooLong) {
+			return;
+		}
+		if (lineLength + length > maxLineLength) {
+			lineTooLong = true;
+			return;
+		}
+		if (lineLength + length > line.length) {
+			line = Arrays.copyOf(line, Math.min(maxLineLength, Math.max(line.length * 2, lineLength + length)));
+		}
+		System.arraycopy(bytes, start, line, lineLength, length);
+		lineLength += length;
+	}
+
+	/**
+	 * Completes the line being assembled and starts the next.
+	 *
+	 * @param terminator length of the newline that ended it, {@code 0} at the end of the archive
+	 * @return the line, or {@code null} if it was blank
+	 */
+	private ArchiveLine finish(int terminator) {
+		long offset = lineStart;
+		lineStart += lineBytes + terminator;
+		boolean tooLong = lineTooLong;
+		int end = lineLength;
+		lineLength = 0;
+		lineBytes = 0;
+		lineTooLong = false;
+		if (tooLong) {
+			return new ArchiveLine(offset, lineStart, null);
+		}
+		while (end > 0 && isWhitespace(line[end - 1])) {
+			end--;
+		}
+		int start = 0;
+		while (start < end && isWhitespace(line[start])) {
+			start++;
+		}
+		return start == end ? null : new ArchiveLine(offset, lineStart, Arrays.copyOfRange(line, start, end));
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\r';
+	}
+
+	/**
+	 * One line of an archive.
+	 *
+	 * @param offset byte offset of the line's first byte
+	 * @param end    byte offset just past its newline
+	 * @param bytes  the line without surrounding whitespace, or {@code null}
+	 *               if it was longer than the maximum record size
+	 */
+	record ArchiveLine(long offset, long end, byte[] bytes) {
+	}
+}
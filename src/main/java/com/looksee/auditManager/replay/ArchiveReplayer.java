@@ -0,0 +1,464 @@
+package com.looksee.auditManager.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.looksee.auditManager.PageAuditProcessor;
+import com.looksee.auditManager.PageBuiltMessageDecoder;
+import com.looksee.auditManager.PageBuiltMessageDecoder.PushDecodeResult;
+import com.looksee.auditManager.ProcessingOutcome;
+import com.looksee.auditManager.config.ReplayProperties;
+import com.looksee.auditManager.replay.ArchiveLineReader.ArchiveLine;
+import com.looksee.models.message.PageBuiltMessage;
+
+/**
+ * Replays archives of page-built messages through the same eligibility and
+ * creation logic as {@code POST /}, then lets the application exit.
+ *
+ * <p>Each archive holds one record per line: a push envelope or raw
+ * {@link PageBuiltMessage} as JSON, or the Base64 of a message's JSON. It is
+ * read in a single streaming pass by {@link ArchiveLineReader}, so memory
+ * stays constant however large the archive is. Records are grouped into
+ * batches of {@code audit-manager.replay.batch-size} and handed to
+ * {@link PageAuditProcessor#processAll(List)}, which checks a whole batch in
+ * one query and leaves the writes to the page audit record batcher; up to
+ * {@code parallelism} batches are in flight at once, and reading waits while
+ * they are.
+ *
+ * <p>Batches may finish out of order. Only once every batch before it has
+ * finished too is a batch added to the summary, its failed records appended
+ * to the archive's {@code .failed} file, and the byte offset past it made the
+ * one a resumed run starts from. That offset and the summary are saved to the
+ * archive's {@code .checkpoint} file every {@code checkpoint-interval} and at
+ * the end, so after an interruption the next run picks up where the last
+ * checkpoint left off; records after it are processed again, which only
+ * reports them as already audited. A finished archive keeps its checkpoint,
+ * so running it again does nothing until the checkpoint is deleted. A
+ * checkpoint also records the archive's absolute path, size and modification
+ * time, and is refused if the archive no longer matches them. Failed
+ * records are not retried; the {@code .failed} file is itself an archive that
+ * can be replayed once the cause is fixed.
+ *
+ * <p>Only created when {@code audit-manager.replay.enabled=true}, as in the
+ * {@code replay} profile.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> A saved checkpoint's offset is never past a record
+ *       that has not finished processing, and its counts cover exactly the
+ *       records before it.</li>
+ *   <li><b>Postcondition:</b> {@link #getExitCode()} is {@code 0} only if
+ *       every archive was read to the end with no failed record.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(prefix = "audit-manager.replay", name = "enabled", havingValue = "true")
+public class ArchiveReplayer implements ApplicationRunner, ExitCodeGenerator {
+	private static final Logger log = LoggerFactory.getLogger(ArchiveReplayer.class);
+
+	static final String CHECKPOINT_SUFFIX = ".checkpoint";
+	static final String FAILED_SUFFIX = ".failed";
+
+	private final PageBuiltMessageDecoder decoder;
+	private final PageAuditProcessor processor;
+	private final ReplayProperties properties;
+	private volatile boolean succeeded = true;
+
+	/**
+	 * Creates a new {@code ArchiveReplayer}.
+	 *
+	 * @param decoder    decoder for archive records; must not be {@code null}
+	 * @param processor  processor that creates page audits; must not be {@code null}
+	 * @param properties replay settings; must not be {@code null}
+	 * @throws NullPointerException     if any argument is {@code null}
+	 * @throws IllegalArgumentException if no archive is named or a setting is out of range
+	 */
+	public ArchiveReplayer(PageBuiltMessageDecoder decoder, PageAuditProcessor processor, ReplayProperties properties) {
+		this.decoder = Objects.requireNonNull(decoder, "decoder must not be null");
+		this.processor = Objects.requireNonNull(processor, "processor must not be null");
+		this.properties = Objects.requireNonNull(properties, "properties must not be null");
+
+		if (properties.getArchives() == null || properties.getArchives().isEmpty()) {
+			throw new IllegalArgumentException("audit-manager.replay.archives must name at least one archive");
+		}
+		if (properties.getBatchSize() < 1 || properties.getParallelism() < 1) {
+			throw new IllegalArgumentException("audit-manager.replay.batch-size and parallelism must be at least 1");
+		}
+		if (properties.getCheckpointInterval() == null
+			|| properties.getCheckpointInterval().isNegative() || properties.getCheckpointInterval().isZero()) {
+			throw new IllegalArgumentException("audit-manager.replay.checkpoint-interval must be positive");
+		}
+		if (!isIntSized(properties.getReadBufferSize().toBytes()) || !isIntSized(properties.getMaxRecordSize().toBytes())) {
+			throw new IllegalArgumentException("audit-manager.replay.read-buffer-size and max-record-size must be between 1B and 2GB");
+		}
+	}
+
+	/**
+	 * Replays every configured archive in order, logging a summary of each.
+	 * An archive that cannot be read is logged and skipped.
+	 *
+	 * @param args the application arguments; not used
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		ReplaySummary total = new ReplaySummary();
+		for (Path archive : properties.getArchives()) {
+			try {
+				total.add(replay(archive));
+			} catch (IOException | RuntimeException e) {
+				succeeded = false;
+				log.error("Failed to replay archive={}", archive, e);
+			} catch (InterruptedException e) {
+				succeeded = false;
+				Thread.currentThread().interrupt();
+				log.warn("Interrupted while replaying archive={}; resume from its checkpoint", archive);
+				return;
+			}
+		}
+		if (properties.getArchives().size() > 1) {
+			log.info("Replayed {} archives: {}", properties.getArchives().size(), total);
+		}
+	}
+
+	@Override
+	public int getExitCode() {
+		return succeeded ? 0 : 1;
+	}
+
+	/**
+	 * Replays one archive from its checkpoint, or from the start if it has
+	 * none.
+	 *
+	 * @param archive the archive; must not be {@code null}
+	 * @return the counts for the whole archive, including those of earlier
+	 *         runs it resumed from; never {@code null}
+	 * @throws IOException          if the archive or its state cannot be read or
+	 *                              written, or its checkpoint was saved for a
+	 *                              different or since modified archive
+	 * @throws InterruptedException if interrupted while batches are in flight;
+	 *                              the checkpoint is saved first
+	 */
+	public ReplaySummary replay(Path archive) throws IOException, InterruptedException {
+		assert archive != null : "archive must not be null";
+
+		Path stateDirectory = properties.getStateDirectory() != null
+			? properties.getStateDirectory()
+			: archive.toAbsolutePath().getParent();
+		Path checkpointFile = stateDirectory.resolve(archive.getFileName() + CHECKPOINT_SUFFIX);
+		Path failedFile = stateDirectory.resolve(archive.getFileName() + FAILED_SUFFIX);
+
+		try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+			ArchiveIdentity identity = ArchiveIdentity.of(archive, channel);
+			long offset = 0;
+			ReplaySummary resumed = new ReplaySummary();
+			if (Files.exists(checkpointFile)) {
+				Properties checkpoint = new Properties();
+				try (InputStream in = Files.newInputStream(checkpointFile)) {
+					checkpoint.load(in);
+				}
+				ArchiveIdentity saved = ArchiveIdentity.load(checkpoint);
+				if (!identity.equals(saved)) {
+					throw new IOException("Checkpoint " + checkpointFile + " was saved for "
+						+ (saved == null ? "an unknown archive" : saved) + ", not " + identity
+						+ "; delete it to replay the archive from the start");
+				}
+				offset = Long.parseLong(checkpoint.getProperty("offset", "0"));
+				if (offset < 0 || offset > channel.size()) {
+					throw new IOException("Checkpoint " + checkpointFile + " is at offset " + offset
+						+ ", outside archive " + archive + " of " + channel.size() + " bytes");
+				}
+				resumed = ReplaySummary.load(checkpoint);
+				log.info("Resuming archive={} at offset={} of {} bytes with {}", archive, offset, channel.size(), resumed);
+			} else {
+				log.info("Replaying archive={} of {} bytes", archive, channel.size());
+			}
+
+			long start = System.nanoTime();
+			long resumedRecords = resumed.getRecords();
+			Run run = new Run(identity, checkpointFile, failedFile, offset, resumed);
+			try {
+				run.replay(new ArchiveLineReader(channel, offset,
+					(int) properties.getReadBufferSize().toBytes(), (int) properties.getMaxRecordSize().toBytes()));
+			} finally {
+				run.close();
+			}
+
+			ReplaySummary summary = run.summary();
+			double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+			log.info("Replayed archive={}: {} in {} s ({} records/s)", archive, summary,
+				String.format("%.1f", seconds), Math.round((summary.getRecords() - resumedRecords) / seconds));
+			if (summary.getFailed() > 0) {
+				succeeded = false;
+				log.warn("{} records of archive={} failed; replay {} once the cause is fixed", summary.getFailed(), archive, failedFile);
+			}
+			return summary;
+		}
+	}
+
+	/**
+	 * State of one archive's replay: the batches in flight, and everything up
+	 * to the first of them, which is what a checkpoint records.
+	 */
+	private final class Run {
+		private final ArchiveIdentity archive;
+		private final Path checkpointFile;
+		private final Path failedFile;
+		private final OutputStream failedOut;
+		private final Deque<Batch> pending = new ArrayDeque<>();
+		private final Semaphore inFlight = new Semaphore(properties.getParallelism());
+		private final ExecutorService workers;
+
+		/** Guarded by {@code this}. */
+		private long committedOffset;
+		/** Guarded by {@code this}. */
+		private final ReplaySummary committed;
+		/** Guarded by {@code this}. */
+		private IOException failedWriteError;
+
+		private Run(ArchiveIdentity archive, Path checkpointFile, Path failedFile, long offset, ReplaySummary resumed) throws IOException {
+			this.archive = archive;
+			this.checkpointFile = checkpointFile;
+			this.failedFile = failedFile;
+			this.committedOffset = offset;
+			this.committed = resumed;
+			this.failedOut = new BufferedOutputStream(offset == 0
+				? Files.newOutputStream(failedFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)
+				: Files.newOutputStream(failedFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+			AtomicInteger threads = new AtomicInteger();
+			this.workers = Executors.newFixedThreadPool(properties.getParallelism(),
+				runnable -> new Thread(runnable, "archive-replay-" + threads.incrementAndGet()));
+		}
+
+		/**
+		 * Reads the archive to the end, handing each batch to a worker, and
+		 * saves a checkpoint every {@code checkpoint-interval} and once every
+		 * batch has finished.
+		 */
+		private void replay(ArchiveLineReader reader) throws IOException, InterruptedException {
+			long checkpointInterval = properties.getCheckpointInterval().toNanos();
+			long nextCheckpoint = System.nanoTime() + checkpointInterval;
+			try {
+				while (true) {
+					List<ArchiveLine> lines = new ArrayList<>(properties.getBatchSize());
+					ArchiveLine line;
+					while (lines.size() < properties.getBatchSize() && (line = reader.next()) != null) {
+						lines.add(line);
+					}
+					if (lines.isEmpty()) {
+						break;
+					}
+					inFlight.acquire();
+					Batch batch = new Batch(lines);
+					synchronized (this) {
+						pending.addLast(batch);
+					}
+					workers.execute(() -> process(batch));
+					if (System.nanoTime() - nextCheckpoint >= 0) {
+						saveCheckpoint();
+						nextCheckpoint = System.nanoTime() + checkpointInterval;
+					}
+				}
+				inFlight.acquire(properties.getParallelism());
+				inFlight.release(properties.getParallelism());
+			} finally {
+				saveCheckpoint();
+			}
+		}
+
+		/**
+		 * Decodes and processes one batch, and commits it once every record
+		 * has an outcome. Never throws.
+		 */
+		private void process(Batch batch) {
+			List<PageBuiltMessage> messages = new ArrayList<>(batch.lines.size());
+			List<ArchiveLine> sources = new ArrayList<>(batch.lines.size());
+			for (ArchiveLine line : batch.lines) {
+				PushDecodeResult decoded = line.bytes() == null ? null : decoder.decodeArchiveLine(line.bytes());
+				if (decoded == null || !decoded.isAccepted()) {
+					log.warn("Skipping invalid record at offset={} of archive={}", line.offset(), archive.path());
+					batch.counts.recordInvalid();
+				} else {
+					messages.add(decoded.message());
+					sources.add(line);
+				}
+			}
+
+			List<CompletableFuture<ProcessingOutcome>> outcomes;
+			try {
+				outcomes = messages.isEmpty() ? List.of() : processor.processAll(messages);
+			} catch (RuntimeException e) {
+				log.warn("Failed to process {} records from offset={} of archive={}", messages.size(), batch.lines.get(0).offset(), archive.path(), e);
+				CompletableFuture<ProcessingOutcome> failed = CompletableFuture.failedFuture(e);
+				outcomes = new ArrayList<>(messages.size());
+				for (int i = 0; i < messages.size(); i++) {
+					outcomes.add(failed);
+				}
+			}
+			List<CompletableFuture<ProcessingOutcome>> results = outcomes;
+			CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).whenComplete((done, error) -> {
+				for (int i = 0; i < results.size(); i++) {
+					CompletableFuture<ProcessingOutcome> result = results.get(i);
+					if (result.isCompletedExceptionally()) {
+						batch.counts.recordFailure();
+						batch.failedLines.add(sources.get(i).bytes());
+					} else {
+						batch.counts.record(result.join());
+					}
+				}
+				commit(batch);
+			});
+		}
+
+		/**
+		 * Marks a batch finished and commits every finished batch at the head
+		 * of the queue.
+		 */
+		private synchronized void commit(Batch batch) {
+			batch.done = true;
+			while (!pending.isEmpty() && pending.peekFirst().done) {
+				Batch head = pending.pollFirst();
+				committed.add(head.counts);
+				committedOffset = head.end;
+				try {
+					for (byte[] line : head.failedLines) {
+						failedOut.write(line);
+						failedOut.write('\n');
+					}
+				} catch (IOException e) {
+					failedWriteError = e;
+				}
+				inFlight.release();
+			}
+		}
+
+		/**
+		 * Writes the committed offset and counts to the checkpoint file,
+		 * replacing it atomically, once the failed records before that offset
+		 * have been written out.
+		 */
+		private void saveCheckpoint() throws IOException {
+			Properties checkpoint = new Properties();
+			synchronized (this) {
+				if (failedWriteError != null) {
+					throw new IOException("Failed to write failed records to " + failedFile, failedWriteError);
+				}
+				failedOut.flush();
+				committed.store(checkpoint);
+				checkpoint.setProperty("offset", Long.toString(committedOffset));
+			}
+			archive.store(checkpoint);
+			Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+			try (OutputStream out = Files.newOutputStream(temporary)) {
+				checkpoint.store(out, "Replay checkpoint; delete to replay the archive from the start");
+			}
+			Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		private synchronized ReplaySummary summary() {
+			ReplaySummary summary = new ReplaySummary();
+			summary.add(committed);
+			return summary;
+		}
+
+		/**
+		 * Stops the workers and closes the {@code .failed} file, deleting it if
+		 * nothing was ever written to it.
+		 */
+		private void close() throws IOException {
+			workers.shutdown();
+			synchronized (this) {
+				failedOut.close();
+				if (committed.getFailed() == 0 && Files.size(failedFile) == 0) {
+					Files.delete(failedFile);
+				}
+			}
+		}
+	}
+
+	/** Records read together and handed to the processor as one batch. */
+	private static final class Batch {
+		private final List<ArchiveLine> lines;
+		private final long end;
+		private final ReplaySummary counts = new ReplaySummary();
+		private final List<byte[]> failedLines = new ArrayList<>();
+		/** Guarded by the {@link Run}. */
+		private boolean done;
+
+		private Batch(List<ArchiveLine> lines) {
+			this.lines = lines;
+			this.end = lines.get(lines.size() - 1).end();
+		}
+	}
+
+	/**
+	 * The archive a checkpoint was saved for, so it is never resumed against
+	 * another file of the same name or one that changed since.
+	 */
+	private record ArchiveIdentity(String path, long size, long lastModified) {
+		private static final String PATH = "archive";
+		private static final String SIZE = "archive_size";
+		private static final String LAST_MODIFIED = "archive_last_modified";
+
+		static ArchiveIdentity of(Path archive, FileChannel channel) throws IOException {
+			return new ArchiveIdentity(archive.toAbsolutePath().normalize().toString(), channel.size(),
+				Files.getLastModifiedTime(archive).toMillis());
+		}
+
+		/**
+		 * Reads the identity saved in a checkpoint.
+		 *
+		 * @return the identity, or {@code null} if the checkpoint has none
+		 */
+		static ArchiveIdentity load(Properties checkpoint) {
+			String path = checkpoint.getProperty(PATH);
+			String size = checkpoint.getProperty(SIZE);
+			String lastModified = checkpoint.getProperty(LAST_MODIFIED);
+			if (path == null || size == null || lastModified == null) {
+				return null;
+			}
+			return new ArchiveIdentity(path, Long.parseLong(size), Long.parseLong(lastModified));
+		}
+
+		void store(Properties checkpoint) {
+			checkpoint.setProperty(PATH, path);
+			checkpoint.setProperty(SIZE, Long.toString(size));
+			checkpoint.setProperty(LAST_MODIFIED, Long.toString(lastModified));
+		}
+
+		@Override
+		public String toString() {
+			return path + " (" + size + " bytes, modified " + Instant.ofEpochMilli(lastModified) + ")";
+		}
+	}
+
+	private static boolean isIntSized(long bytes) {
+		return bytes > 0 && bytes <= Integer.MAX_VALUE;
+	}
+}
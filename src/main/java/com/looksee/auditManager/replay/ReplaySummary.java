@@ -0,0 +1,154 @@
+package com.looksee.auditManager.replay;
+
+import java.util.Locale;
+import java.util.Properties;
+import java.util.StringJoiner;
+
+import com.looksee.auditManager.ProcessingOutcome;
+
+/**
+ * Counts of what became of the records of a replayed archive.
+ *
+ * <p>Not thread-safe: each instance is written by one thread at a time.
+ */
+public final class ReplaySummary {
+
+	private static final ProcessingOutcome[] OUTCOMES = ProcessingOutcome.values();
+
+	private final long[] outcomes = new long[OUTCOMES.length];
+	private long failed;
+	private long invalid;
+
+	void record(ProcessingOutcome outcome) {
+		outcomes[outcome.ordinal()]++;
+	}
+
+	void recordFailure() {
+		failed++;
+	}
+
+	void recordInvalid() {
+		invalid++;
+	}
+
+	/**
+	 * Adds every count of {@code other} to this summary.
+	 *
+	 * @param other the counts to add; must not be {@code null}
+	 */
+	void add(ReplaySummary other) {
+		for (int i = 0; i < outcomes.length; i++) {
+			outcomes[i] += other.outcomes[i];
+		}
+		failed += other.failed;
+		invalid += other.invalid;
+	}
+
+	/**
+	 * Returns the number of records read, whatever became of them.
+	 *
+	 * @return the number of records
+	 */
+	public long getRecords() {
+		long records = failed + invalid;
+		for (long count : outcomes) {
+			records += count;
+		}
+		return records;
+	}
+
+	/**
+	 * Returns the number of records whose page audit was created.
+	 *
+	 * @return the number of audits created
+	 */
+	public long getCreated() {
+		return outcomes[ProcessingOutcome.AUDIT_CREATED.ordinal()];
+	}
+
+	/**
+	 * Returns the number of records skipped for one reason.
+	 *
+	 * @param outcome the reason; must be a {@linkplain ProcessingOutcome#isSkipped() skip}
+	 * @return the number of records skipped for it
+	 */
+	public long getSkipped(ProcessingOutcome outcome) {
+		assert outcome.isSkipped() : "outcome must be a skip reason";
+		return outcomes[outcome.ordinal()];
+	}
+
+	/**
+	 * Returns the number of records skipped for any reason.
+	 *
+	 * @return the number of records skipped
+	 */
+	public long getSkipped() {
+		return getRecords() - getCreated() - failed - invalid;
+	}
+
+	/**
+	 * Returns the number of records that failed to process; they are kept in
+	 * the archive's {@code .failed} file.
+	 *
+	 * @return the number of failed records
+	 */
+	public long getFailed() {
+		return failed;
+	}
+
+	/**
+	 * Returns the number of records that could not be decoded, or were longer
+	 * than the maximum record size.
+	 *
+	 * @return the number of invalid records
+	 */
+	public long getInvalid() {
+		return invalid;
+	}
+
+	/**
+	 * Writes the counts into a checkpoint.
+	 *
+	 * @param checkpoint the checkpoint properties; must not be {@code null}
+	 */
+	void store(Properties checkpoint) {
+		for (ProcessingOutcome outcome : OUTCOMES) {
+			checkpoint.setProperty(key(outcome), Long.toString(outcomes[outcome.ordinal()]));
+		}
+		checkpoint.setProperty("failed", Long.toString(failed));
+		checkpoint.setProperty("invalid", Long.toString(invalid));
+	}
+
+	/**
+	 * Reads the counts saved in a checkpoint.
+	 *
+	 * @param checkpoint the checkpoint properties; must not be {@code null}
+	 * @return the counts; never {@code null}
+	 * @throws NumberFormatException if a count is not a number
+	 */
+	static ReplaySummary load(Properties checkpoint) {
+		ReplaySummary summary = new ReplaySummary();
+		for (ProcessingOutcome outcome : OUTCOMES) {
+			summary.outcomes[outcome.ordinal()] = Long.parseLong(checkpoint.getProperty(key(outcome), "0"));
+		}
+		summary.failed = Long.parseLong(checkpoint.getProperty("failed", "0"));
+		summary.invalid = Long.parseLong(checkpoint.getProperty("invalid", "0"));
+		return summary;
+	}
+
+	@Override
+	public String toString() {
+		StringJoiner skipped = new StringJoiner(", ", " (", ")");
+		for (ProcessingOutcome outcome : OUTCOMES) {
+			if (outcome.isSkipped()) {
+				skipped.add(key(outcome) + "=" + outcomes[outcome.ordinal()]);
+			}
+		}
+		return "records=" + getRecords() + " created=" + getCreated() + " skipped=" + getSkipped() + skipped
+			+ " failed=" + failed + " invalid=" + invalid;
+	}
+
+	private static String key(ProcessingOutcome outcome) {
+		return outcome.name().toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,93 @@
+package com.looksee.auditManager.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.looksee.auditManager.ProcessingOutcome;
+
+/**
+ * Everything {@link com.looksee.auditManager.PageAuditProcessor} needs to
+ * decide whether a page should be audited, resolved in a single round trip by
+ * {@link PageAuditEligibilityRepository}.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> {@link #getAuditLabels()} is never {@code null}; it
+ *       is empty when the domain audit does not exist or has no labels.</li>
+ * </ul>
+ */
+public final class PageAuditEligibility {
+
+	private final List<String> auditLabels;
+	private final boolean alreadyAudited;
+	private final boolean landable;
+	private final boolean pageStatePresent;
+
+	/**
+	 * Creates a new {@code PageAuditEligibility}.
+	 *
+	 * @param auditLabels      raw audit labels stored on the domain audit; {@code null} is treated as empty
+	 * @param alreadyAudited   whether the page already has an audit in the domain audit
+	 * @param landable         whether the page is reachable from a landing step
+	 * @param pageStatePresent whether a {@link com.looksee.models.PageState} exists for the page
+	 */
+	public PageAuditEligibility(List<String> auditLabels, boolean alreadyAudited, boolean landable, boolean pageStatePresent) {
+		this.auditLabels = auditLabels == null ? Collections.emptyList() : Collections.unmodifiableList(auditLabels);
+		this.alreadyAudited = alreadyAudited;
+		this.landable = landable;
+		this.pageStatePresent = pageStatePresent;
+	}
+
+	public List<String> getAuditLabels() {
+		return auditLabels;
+	}
+
+	public boolean isAlreadyAudited() {
+		return alreadyAudited;
+	}
+
+	public boolean isLandable() {
+		return landable;
+	}
+
+	public boolean isPageStatePresent() {
+		return pageStatePresent;
+	}
+
+	/**
+	 * Indicates whether the page should be audited.
+	 *
+	 * @return {@code true} if the page is not yet audited, landable and persisted
+	 */
+	public boolean isEligible() {
+		return !alreadyAudited && landable && pageStatePresent;
+	}
+
+	/**
+	 * Returns the reason an ineligible page is skipped, checked in the order
+	 * already-audited, not-landable, missing page state.
+	 *
+	 * @return the skip outcome; never {@code null}
+	 * @throws IllegalStateException if the page is eligible
+	 */
+	public ProcessingOutcome getSkipOutcome() {
+		if (alreadyAudited) {
+			return ProcessingOutcome.ALREADY_AUDITED;
+		}
+		if (!landable) {
+			return ProcessingOutcome.NOT_LANDABLE;
+		}
+		if (!pageStatePresent) {
+			return ProcessingOutcome.PAGE_STATE_MISSING;
+		}
+		throw new IllegalStateException("eligible pages have no skip outcome");
+	}
+
+	@Override
+	public String toString() {
+		return "PageAuditEligibility{alreadyAudited=" + alreadyAudited
+			+ ", landable=" + landable
+			+ ", pageStatePresent=" + pageStatePresent
+			+ ", auditLabels=" + auditLabels + "}";
+	}
+}
@@ -0,0 +1,188 @@
+package com.looksee.auditManager.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Repository;
+
+import com.looksee.models.message.PageBuiltMessage;
+
+/**
+ * Resolves page-audit eligibility with a single Cypher round trip.
+ *
+ * <p>Replaces the four serial lookups previously made per message
+ * ({@code AuditRecordService.findById}, {@code wasPageAlreadyAudited},
+ * {@code PageStateService.isPageLandable} and {@code PageStateService.findById}).
+ * Only scalar values are returned, so a skipped page never hydrates a
+ * {@link com.looksee.models.PageState} or a
+ * {@link com.looksee.models.audit.DomainAuditRecord}.
+ *
+ * <p>The patterns mirror the relationships maintained by LookseeCore:
+ * {@code (DomainAuditRecord)-[:HAS]->(PageAuditRecord)-[:FOR]->(PageState)}
+ * for prior audits and {@code (LandingStep)-[:STARTS_WITH]->(PageState)} for
+ * landability.
+ *
+ * <p>{@link #resolveAll(List)} runs the same checks for a whole batch of pages
+ * in one {@code UNWIND} statement, and {@link #findUnauditedPages(long)} runs
+ * them set-based over every page of a domain audit, reached through
+ * {@code (DomainAuditRecord)-[:HAS]->(PageState)} as in
+ * {@code AuditRecordService.getPageStatesForDomainAuditRecord}.
+ */
+@Repository
+public class PageAuditEligibilityRepository {
+
+	static final String ELIGIBILITY_QUERY =
+		"OPTIONAL MATCH (dar:DomainAuditRecord) WHERE id(dar) = $auditRecordId "
+		+ "OPTIONAL MATCH (page:PageState) WHERE id(page) = $pageId "
+		+ "OPTIONAL MATCH (dar)-[:HAS]->(audited:PageAuditRecord)-[:FOR]->(page) "
+		+ "WITH dar, page, count(audited) > 0 AS alreadyAudited "
+		+ "OPTIONAL MATCH (step:LandingStep)-[:STARTS_WITH]->(page) "
+		+ "RETURN dar.auditLabels AS auditLabels, alreadyAudited, "
+		+ "count(step) > 0 AS landable, page IS NOT NULL AS pageStatePresent";
+
+	static final String BATCH_ELIGIBILITY_QUERY =
+		"UNWIND $rows AS row "
+		+ "OPTIONAL MATCH (dar:DomainAuditRecord) WHERE id(dar) = row.auditRecordId "
+		+ "OPTIONAL MATCH (page:PageState) WHERE id(page) = row.pageId "
+		+ "OPTIONAL MATCH (dar)-[:HAS]->(audited:PageAuditRecord)-[:FOR]->(page) "
+		+ "WITH row, dar, page, count(audited) > 0 AS alreadyAudited "
+		+ "OPTIONAL MATCH (step:LandingStep)-[:STARTS_WITH]->(page) "
+		+ "RETURN row.index AS index, dar.auditLabels AS auditLabels, alreadyAudited, "
+		+ "count(step) > 0 AS landable, page IS NOT NULL AS pageStatePresent";
+
+	static final String UNAUDITED_PAGES_QUERY =
+		"MATCH (dar:DomainAuditRecord) WHERE id(dar) = $auditRecordId "
+		+ "OPTIONAL MATCH (dar)-[:HAS]->(page:PageState) "
+		+ "WHERE (:LandingStep)-[:STARTS_WITH]->(page) "
+		+ "AND NOT (dar)-[:HAS]->(:PageAuditRecord)-[:FOR]->(page) "
+		+ "RETURN dar.auditLabels AS auditLabels, collect(DISTINCT id(page)) AS pageIds";
+
+	private final Neo4jClient neo4jClient;
+
+	/**
+	 * Creates a new {@code PageAuditEligibilityRepository}.
+	 *
+	 * @param neo4jClient client used to run Cypher; must not be {@code null}
+	 * @throws NullPointerException if {@code neo4jClient} is {@code null}
+	 */
+	public PageAuditEligibilityRepository(Neo4jClient neo4jClient) {
+		this.neo4jClient = Objects.requireNonNull(neo4jClient, "neo4jClient must not be null");
+	}
+
+	/**
+	 * Resolves the domain audit labels, the already-audited flag, landability
+	 * and page-state existence for a page in one query.
+	 *
+	 * @param auditRecordId the parent domain audit record identifier
+	 * @param pageId        the page state identifier
+	 * @return the resolved eligibility; never {@code null}
+	 * @throws IllegalStateException if the query returns no row
+	 */
+	public PageAuditEligibility resolve(long auditRecordId, long pageId) {
+		return neo4jClient.query(ELIGIBILITY_QUERY)
+			.bindAll(Map.of("auditRecordId", auditRecordId, "pageId", pageId))
+			.fetchAs(PageAuditEligibility.class)
+			.mappedBy((typeSystem, record) -> toEligibility(record))
+			.one()
+			.orElseThrow(() -> new IllegalStateException(
+				"Eligibility query returned no row for auditRecordId=" + auditRecordId + ", pageId=" + pageId));
+	}
+
+	/**
+	 * Resolves eligibility for many pages in one query.
+	 *
+	 * @param messages the pages to check; must not be {@code null} or empty
+	 * @return the resolved eligibilities, aligned with {@code messages}; never {@code null}
+	 * @throws IllegalStateException if the query returns no row for a page
+	 */
+	public List<PageAuditEligibility> resolveAll(List<PageBuiltMessage> messages) {
+		assert messages != null && !messages.isEmpty() : "messages must not be null or empty";
+
+		List<Map<String, Object>> rows = new ArrayList<>(messages.size());
+		for (int i = 0; i < messages.size(); i++) {
+			PageBuiltMessage message = messages.get(i);
+			rows.add(Map.of(
+				"index", i,
+				"auditRecordId", message.getAuditRecordId(),
+				"pageId", message.getPageId()));
+		}
+
+		Collection<IndexedEligibility> resolved = neo4jClient.query(BATCH_ELIGIBILITY_QUERY)
+			.bindAll(Map.of("rows", rows))
+			.fetchAs(IndexedEligibility.class)
+			.mappedBy((typeSystem, record) -> new IndexedEligibility(record.get("index").asInt(), toEligibility(record)))
+			.all();
+
+		PageAuditEligibility[] eligibilities = new PageAuditEligibility[messages.size()];
+		for (IndexedEligibility row : resolved) {
+			eligibilities[row.index()] = row.eligibility();
+		}
+		for (int i = 0; i < eligibilities.length; i++) {
+			if (eligibilities[i] == null) {
+				throw new IllegalStateException("Eligibility query returned no row for auditRecordId="
+					+ messages.get(i).getAuditRecordId() + ", pageId=" + messages.get(i).getPageId());
+			}
+		}
+		return Arrays.asList(eligibilities);
+	}
+
+	/**
+	 * Lists the landable pages of a domain audit that have no page audit yet,
+	 * in one query.
+	 *
+	 * @param auditRecordId the domain audit record identifier
+	 * @return the pages and the domain audit's labels, or empty if the domain
+	 *         audit does not exist; never {@code null}
+	 */
+	public Optional<UnauditedPages> findUnauditedPages(long auditRecordId) {
+		return neo4jClient.query(UNAUDITED_PAGES_QUERY)
+			.bindAll(Map.of("auditRecordId", auditRecordId))
+			.fetchAs(UnauditedPages.class)
+			.mappedBy((typeSystem, record) -> toUnauditedPages(record))
+			.one();
+	}
+
+	/**
+	 * Maps the result row of {@link #UNAUDITED_PAGES_QUERY} to an
+	 * {@link UnauditedPages}.
+	 *
+	 * @param record the result row; must not be {@code null}
+	 * @return the mapped pages; never {@code null}
+	 */
+	static UnauditedPages toUnauditedPages(Record record) {
+		Value labels = record.get("auditLabels");
+		List<Long> pageIds = record.get("pageIds").asList(Value::asLong);
+		return new UnauditedPages(
+			labels.isNull() ? null : labels.asList(Value::asString),
+			pageIds.stream().mapToLong(Long::longValue).toArray());
+	}
+
+	/**
+	 * Maps a result row of {@link #ELIGIBILITY_QUERY} or
+	 * {@link #BATCH_ELIGIBILITY_QUERY} to a {@link PageAuditEligibility}.
+	 *
+	 * @param record the result row; must not be {@code null}
+	 * @return the mapped eligibility; never {@code null}
+	 */
+	static PageAuditEligibility toEligibility(Record record) {
+		Value labels = record.get("auditLabels");
+		List<String> auditLabels = labels.isNull() ? null : labels.asList(Value::asString);
+		return new PageAuditEligibility(
+			auditLabels,
+			record.get("alreadyAudited").asBoolean(),
+			record.get("landable").asBoolean(),
+			record.get("pageStatePresent").asBoolean());
+	}
+
+	/** A row of {@link #BATCH_ELIGIBILITY_QUERY} with the position of its page in the request. */
+	record IndexedEligibility(int index, PageAuditEligibility eligibility) {
+	}
+}
@@ -0,0 +1,39 @@
+package com.looksee.auditManager.repository;
+
+/**
+ * How many page audit messages are waiting in the outbox and since when,
+ * read by {@link PageAuditOutboxRepository#backlog()}.
+ */
+public final class PageAuditOutboxBacklog {
+
+	/** The backlog of an empty outbox. */
+	public static final PageAuditOutboxBacklog EMPTY = new PageAuditOutboxBacklog(0, -1);
+
+	private final long size;
+	private final long oldestCreatedAt;
+
+	/**
+	 * Creates a new {@code PageAuditOutboxBacklog}.
+	 *
+	 * @param size            the number of entries waiting
+	 * @param oldestCreatedAt epoch milliseconds when the oldest entry was written, or {@code -1} if there is none
+	 */
+	public PageAuditOutboxBacklog(long size, long oldestCreatedAt) {
+		this.size = size;
+		this.oldestCreatedAt = oldestCreatedAt;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns when the oldest waiting entry was written.
+	 *
+	 * @return epoch milliseconds by the Neo4j server's clock, or {@code -1}
+	 *         if the outbox is empty
+	 */
+	public long getOldestCreatedAt() {
+		return oldestCreatedAt;
+	}
+}
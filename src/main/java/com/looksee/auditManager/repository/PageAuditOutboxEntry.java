@@ -0,0 +1,60 @@
+package com.looksee.auditManager.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page audit message waiting in the outbox, claimed by
+ * {@link PageAuditOutboxRepository#claim(int, java.time.Duration)}.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> {@link #getAuditLabels()} is never {@code null}; it
+ *       is empty when the record has no labels.</li>
+ * </ul>
+ */
+public final class PageAuditOutboxEntry {
+
+	private final long id;
+	private final long pageAuditId;
+	private final long accountId;
+	private final long createdAt;
+	private final List<String> auditLabels;
+
+	/**
+	 * Creates a new {@code PageAuditOutboxEntry}.
+	 *
+	 * @param id          the outbox node identifier
+	 * @param pageAuditId the page audit record the message announces
+	 * @param accountId   the account the message is published for
+	 * @param createdAt   epoch milliseconds, by the Neo4j server's clock, when the record was written
+	 * @param auditLabels the audits the record runs; {@code null} is treated as empty
+	 */
+	public PageAuditOutboxEntry(long id, long pageAuditId, long accountId, long createdAt, List<String> auditLabels) {
+		this.id = id;
+		this.pageAuditId = pageAuditId;
+		this.accountId = accountId;
+		this.createdAt = createdAt;
+		this.auditLabels = auditLabels == null ? Collections.emptyList() : Collections.unmodifiableList(auditLabels);
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public long getPageAuditId() {
+		return pageAuditId;
+	}
+
+	public long getAccountId() {
+		return accountId;
+	}
+
+	public long getCreatedAt() {
+		return createdAt;
+	}
+
+	public List<String> getAuditLabels() {
+		return auditLabels;
+	}
+}
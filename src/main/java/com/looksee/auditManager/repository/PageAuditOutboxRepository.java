@@ -0,0 +1,195 @@
+package com.looksee.auditManager.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads and clears the {@code PageAuditOutbox} entries that
+ * {@link PageAuditRecordRepository} writes alongside each new page audit
+ * record.
+ *
+ * <p>An entry is a node {@code (:PageAuditOutbox)-[:PUBLISHES]->(:PageAuditRecord)}
+ * holding the account id, the time the record was written and
+ * {@code claimedUntil}, which is {@code 0} until the entry is first claimed.
+ * Entries are claimed in batches under a lease: a claim stamps
+ * {@code claimedUntil} on each entry, and no other claim returns it until the
+ * lease has passed. The
+ * statement locks each candidate before checking its lease again, so two
+ * instances claiming at the same time never both get the same entry. An
+ * entry whose message was published is deleted by {@link #markSent(long[])},
+ * one its claimant put off is handed back by {@link #release(long[])};
+ * one that was not, because the publish failed or the claimant died, is
+ * claimed again once its lease expires.
+ *
+ * <p>Claims walk the {@code createdAt} index in order: the
+ * {@code createdAt >= 0} predicate is what lets the planner use it for the
+ * {@code ORDER BY ... LIMIT}, so a claim reads the oldest entries and stops
+ * after {@code limit} unclaimed ones rather than sorting the whole backlog.
+ * The {@code claimedUntil} predicate is a plain comparison, never a
+ * {@code coalesce}, so it stays usable by the {@code claimedUntil} index when
+ * the planner prefers it. Entries skipped for a live lease are at most those
+ * other claimants are publishing. {@link #createIndexes()} creates both
+ * indexes and gives entries written before {@code claimedUntil} was set on
+ * creation their {@code 0}, since a comparison with a missing property never
+ * matches.
+ *
+ * <p>{@link #backlog()} takes the count from the label's count store and the
+ * oldest entry from the first {@code createdAt} index entry, so it stays
+ * cheap however large the backlog grows.
+ */
+@Repository
+public class PageAuditOutboxRepository {
+
+	static final String CLAIM_QUERY =
+		"MATCH (outbox:PageAuditOutbox)-[:PUBLISHES]->(par:PageAuditRecord) "
+		+ "WHERE outbox.createdAt >= 0 AND outbox.claimedUntil < timestamp() "
+		+ "WITH outbox, par ORDER BY outbox.createdAt LIMIT $limit "
+		+ "SET outbox._claimLock = true "
+		+ "REMOVE outbox._claimLock "
+		+ "WITH outbox, par WHERE outbox.claimedUntil < timestamp() "
+		+ "SET outbox.claimedUntil = timestamp() + $leaseMillis "
+		+ "RETURN id(outbox) AS id, id(par) AS pageAuditId, outbox.accountId AS accountId, outbox.createdAt AS createdAt, "
+		+ "par.auditLabels AS auditLabels";
+
+	static final String MARK_SENT_QUERY =
+		"UNWIND $ids AS outboxId "
+		+ "MATCH (outbox:PageAuditOutbox) WHERE id(outbox) = outboxId "
+		+ "DETACH DELETE outbox";
+
+	static final String RELEASE_QUERY =
+		"UNWIND $ids AS outboxId "
+		+ "MATCH (outbox:PageAuditOutbox) WHERE id(outbox) = outboxId "
+		+ "SET outbox.claimedUntil = 0";
+
+	static final String CREATED_AT_INDEX =
+		"CREATE INDEX page_audit_outbox_created_at IF NOT EXISTS FOR (outbox:PageAuditOutbox) ON (outbox.createdAt)";
+
+	static final String CLAIMED_UNTIL_INDEX =
+		"CREATE INDEX page_audit_outbox_claimed_until IF NOT EXISTS FOR (outbox:PageAuditOutbox) ON (outbox.claimedUntil)";
+
+	static final String UNSET_CLAIMED_UNTIL_QUERY =
+		"MATCH (outbox:PageAuditOutbox) WHERE outbox.claimedUntil IS NULL "
+		+ "SET outbox.claimedUntil = 0";
+
+	static final String BACKLOG_QUERY =
+		"MATCH (outbox:PageAuditOutbox) "
+		+ "WITH count(outbox) AS size "
+		+ "OPTIONAL MATCH (first:PageAuditOutbox) WHERE first.createdAt >= 0 "
+		+ "WITH size, first.createdAt AS createdAt ORDER BY createdAt LIMIT 1 "
+		+ "RETURN size, createdAt AS oldest";
+
+	private final Neo4jClient neo4jClient;
+
+	/**
+	 * Creates a new {@code PageAuditOutboxRepository}.
+	 *
+	 * @param neo4jClient client used to run Cypher; must not be {@code null}
+	 * @throws NullPointerException if {@code neo4jClient} is {@code null}
+	 */
+	public PageAuditOutboxRepository(Neo4jClient neo4jClient) {
+		this.neo4jClient = Objects.requireNonNull(neo4jClient, "neo4jClient must not be null");
+	}
+
+	/**
+	 * Claims the oldest unclaimed entries.
+	 *
+	 * @param limit the maximum number of entries to claim; must be positive
+	 * @param lease how long the claim keeps the entries from other claimants; must not be {@code null}
+	 * @return the claimed entries, oldest first; never {@code null}
+	 */
+	public List<PageAuditOutboxEntry> claim(int limit, Duration lease) {
+		assert limit > 0 : "limit must be positive";
+		assert lease != null : "lease must not be null";
+
+		return new ArrayList<>(neo4jClient.query(CLAIM_QUERY)
+			.bindAll(Map.of("limit", limit, "leaseMillis", lease.toMillis()))
+			.fetchAs(PageAuditOutboxEntry.class)
+			.mappedBy((typeSystem, record) -> toEntry(record))
+			.all());
+	}
+
+	/**
+	 * Deletes entries whose messages have been published.
+	 *
+	 * @param ids the outbox node identifiers; must not be {@code null} or empty
+	 */
+	public void markSent(long[] ids) {
+		assert ids != null && ids.length > 0 : "ids must not be null or empty";
+
+		neo4jClient.query(MARK_SENT_QUERY)
+			.bindAll(Map.of("ids", ids))
+			.run();
+	}
+
+	/**
+	 * Ends the claim on entries whose messages were not published, so the
+	 * next claim returns them again.
+	 *
+	 * @param ids the outbox node identifiers; must not be {@code null} or empty
+	 */
+	public void release(long[] ids) {
+		assert ids != null && ids.length > 0 : "ids must not be null or empty";
+
+		neo4jClient.query(RELEASE_QUERY)
+			.bindAll(Map.of("ids", ids))
+			.run();
+	}
+
+	/**
+	 * Creates the indexes claims rely on, unless they already exist, and sets
+	 * {@code claimedUntil} on entries written without one.
+	 */
+	public void createIndexes() {
+		neo4jClient.query(CREATED_AT_INDEX).run();
+		neo4jClient.query(CLAIMED_UNTIL_INDEX).run();
+		neo4jClient.query(UNSET_CLAIMED_UNTIL_QUERY).run();
+	}
+
+	/**
+	 * Counts the entries waiting, claimed or not.
+	 *
+	 * @return the backlog; never {@code null}
+	 */
+	public PageAuditOutboxBacklog backlog() {
+		return neo4jClient.query(BACKLOG_QUERY)
+			.fetchAs(PageAuditOutboxBacklog.class)
+			.mappedBy((typeSystem, record) -> toBacklog(record))
+			.one()
+			.orElse(PageAuditOutboxBacklog.EMPTY);
+	}
+
+	/**
+	 * Maps a result row of {@link #CLAIM_QUERY} to a {@link PageAuditOutboxEntry}.
+	 *
+	 * @param record the result row; must not be {@code null}
+	 * @return the mapped entry; never {@code null}
+	 */
+	static PageAuditOutboxEntry toEntry(Record record) {
+		Value labels = record.get("auditLabels");
+		return new PageAuditOutboxEntry(
+			record.get("id").asLong(),
+			record.get("pageAuditId").asLong(),
+			record.get("accountId").asLong(),
+			record.get("createdAt").asLong(),
+			labels.isNull() ? null : labels.asList(Value::asString));
+	}
+
+	/**
+	 * Maps the result row of {@link #BACKLOG_QUERY} to a {@link PageAuditOutboxBacklog}.
+	 *
+	 * @param record the result row; must not be {@code null}
+	 * @return the mapped backlog; never {@code null}
+	 */
+	static PageAuditOutboxBacklog toBacklog(Record record) {
+		Value oldest = record.get("oldest");
+		return new PageAuditOutboxBacklog(record.get("size").asLong(), oldest.isNull() ? -1 : oldest.asLong());
+	}
+}
@@ -0,0 +1,54 @@
+package com.looksee.auditManager.repository;
+
+import java.util.Objects;
+import java.util.Set;
+
+import com.looksee.models.enums.AuditName;
+
+/**
+ * A page audit record waiting to be written by
+ * {@link PageAuditRecordRepository#createForPages(java.util.List)}.
+ */
+public final class PageAuditRecordDraft {
+	private final long accountId;
+	private final long auditRecordId;
+	private final long pageId;
+	private final Set<AuditName> auditNames;
+
+	/**
+	 * Creates a new {@code PageAuditRecordDraft}.
+	 *
+	 * @param accountId     the account the page audit message is published for
+	 * @param auditRecordId the parent domain audit record identifier
+	 * @param pageId        the page state identifier
+	 * @param auditNames    audit types to run; must not be {@code null}
+	 * @throws NullPointerException if {@code auditNames} is {@code null}
+	 */
+	public PageAuditRecordDraft(long accountId, long auditRecordId, long pageId, Set<AuditName> auditNames) {
+		this.accountId = accountId;
+		this.auditRecordId = auditRecordId;
+		this.pageId = pageId;
+		this.auditNames = Objects.requireNonNull(auditNames, "auditNames must not be null");
+	}
+
+	public long getAccountId() {
+		return accountId;
+	}
+
+	public long getAuditRecordId() {
+		return auditRecordId;
+	}
+
+	public long getPageId() {
+		return pageId;
+	}
+
+	public Set<AuditName> getAuditNames() {
+		return auditNames;
+	}
+
+	@Override
+	public String toString() {
+		return "PageAuditRecordDraft{accountId=" + accountId + ", auditRecordId=" + auditRecordId + ", pageId=" + pageId + "}";
+	}
+}
@@ -0,0 +1,148 @@
+package com.looksee.auditManager.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Repository;
+
+import com.looksee.models.enums.AuditLevel;
+import com.looksee.models.enums.AuditName;
+import com.looksee.models.enums.ExecutionStatus;
+
+/**
+ * Write path for {@link com.looksee.models.audit.PageAuditRecord}s.
+ *
+ * <p>Creates records and both of their relationships,
+ * {@code (DomainAuditRecord)-[:HAS]->(PageAuditRecord)-[:FOR]->(PageState)},
+ * for a whole batch of pages in a single parameterized {@code UNWIND}
+ * statement. Because it is one statement it runs in one transaction: every
+ * record in the batch is written with both links or nothing is, so a failure
+ * can never leave an orphaned record behind. Pages of the same domain audit
+ * take the lock on their parent node once per batch instead of once per page.
+ *
+ * <p>Creation is unique per page within a domain audit, even across
+ * instances. The statement takes the write lock on the {@code DomainAuditRecord}
+ * before it looks for an existing record, which creating the {@code HAS}
+ * relationship would take anyway, so two transactions creating records for
+ * the same domain audit check and write one after the other. A page that
+ * already has a record is reported as {@link #EXISTING} instead of being
+ * audited twice.
+ *
+ * <p>Each record created also gets a {@code PageAuditOutbox} node holding
+ * its pending {@code PageAuditMessage}, written by the same statement and so
+ * in the same transaction: a record never exists without either its message
+ * having been published or an outbox entry to publish it from. The entries
+ * are drained by {@link com.looksee.auditManager.publish.PageAuditOutboxRelay}.
+ * A page that already had a record gets no new entry.
+ *
+ * <p>Node labels and property names mirror how Spring Data Neo4j maps the
+ * LookseeCore entity hierarchy, so records written here load back through
+ * {@code AuditRecordService} unchanged.
+ */
+@Repository
+public class PageAuditRecordRepository {
+
+	/** Returned in place of an id when a draft's domain audit or page does not exist. */
+	public static final long MISSING = -1L;
+
+	/** Returned in place of an id when the page already has a record within the domain audit. */
+	public static final long EXISTING = -2L;
+
+	static final String BATCH_CREATE_QUERY =
+		"UNWIND $rows AS row "
+		+ "MATCH (dar:DomainAuditRecord) WHERE id(dar) = row.auditRecordId "
+		+ "MATCH (page:PageState) WHERE id(page) = row.pageId "
+		+ "SET dar._pageAuditLock = true "
+		+ "REMOVE dar._pageAuditLock "
+		+ "MERGE (dar)-[:HAS]->(par:PageAuditRecord)-[:FOR]->(page) "
+		+ "ON CREATE SET par:AuditRecord:LookseeObject, par.key = row.key, par.createdAt = localdatetime(), "
+		+ "par.status = $status, par.level = $level, par.auditLabels = row.auditLabels "
+		+ "FOREACH (created IN CASE WHEN par.key = row.key THEN [1] ELSE [] END | "
+		+ "CREATE (:PageAuditOutbox {accountId: row.accountId, createdAt: timestamp(), claimedUntil: 0})-[:PUBLISHES]->(par)) "
+		+ "RETURN row.index AS index, CASE WHEN par.key = row.key THEN id(par) ELSE " + EXISTING + " END AS id";
+
+	private final Neo4jClient neo4jClient;
+
+	/**
+	 * Creates a new {@code PageAuditRecordRepository}.
+	 *
+	 * @param neo4jClient client used to run Cypher; must not be {@code null}
+	 * @throws NullPointerException if {@code neo4jClient} is {@code null}
+	 */
+	public PageAuditRecordRepository(Neo4jClient neo4jClient) {
+		this.neo4jClient = Objects.requireNonNull(neo4jClient, "neo4jClient must not be null");
+	}
+
+	/**
+	 * Creates page audit records in {@code BUILDING_PAGE} status, links each
+	 * to its domain audit and page, and queues its page audit message in the
+	 * outbox, all in one transaction.
+	 *
+	 * @param drafts the records to create; must not be {@code null} or empty
+	 * @return the new record ids, aligned with {@code drafts}; an entry is
+	 *         {@link #MISSING} if that draft's domain audit or page does not
+	 *         exist, or {@link #EXISTING} if the page already has a record
+	 */
+	public long[] createForPages(List<PageAuditRecordDraft> drafts) {
+		assert drafts != null && !drafts.isEmpty() : "drafts must not be null or empty";
+
+		List<Map<String, Object>> rows = new ArrayList<>(drafts.size());
+		for (int i = 0; i < drafts.size(); i++) {
+			PageAuditRecordDraft draft = drafts.get(i);
+			rows.add(Map.of(
+				"index", i,
+				"accountId", draft.getAccountId(),
+				"auditRecordId", draft.getAuditRecordId(),
+				"pageId", draft.getPageId(),
+				"key", newKey(),
+				"auditLabels", toLabels(draft.getAuditNames())));
+		}
+
+		Collection<long[]> created = neo4jClient.query(BATCH_CREATE_QUERY)
+			.bindAll(Map.of(
+				"rows", rows,
+				"status", ExecutionStatus.BUILDING_PAGE.getShortName(),
+				"level", AuditLevel.PAGE.toString()))
+			.fetchAs(long[].class)
+			.mappedBy((typeSystem, record) -> new long[] { record.get("index").asLong(), record.get("id").asLong() })
+			.all();
+
+		long[] ids = new long[drafts.size()];
+		Arrays.fill(ids, MISSING);
+		for (long[] indexAndId : created) {
+			ids[(int) indexAndId[0]] = indexAndId[1];
+		}
+		return ids;
+	}
+
+	/**
+	 * Generates a unique key in the {@code pageauditrecord:} namespace used by
+	 * LookseeCore.
+	 *
+	 * @return a new key; never {@code null}
+	 */
+	static String newKey() {
+		return "pageauditrecord:" + UUID.randomUUID();
+	}
+
+	/**
+	 * Converts audit names to the string list stored on the node.
+	 *
+	 * @param auditNames the audit names; must not be {@code null}
+	 * @return the enum constant names; never {@code null}
+	 */
+	static List<String> toLabels(Set<AuditName> auditNames) {
+		List<String> labels = new ArrayList<>(auditNames.size());
+		for (AuditName auditName : auditNames) {
+			labels.add(auditName.name());
+		}
+		return labels;
+	}
+}
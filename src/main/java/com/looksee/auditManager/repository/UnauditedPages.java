@@ -0,0 +1,47 @@
+package com.looksee.auditManager.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The pages of a domain audit that still need a page audit, resolved in a
+ * single round trip by {@link PageAuditEligibilityRepository#findUnauditedPages(long)}.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li><b>Invariant:</b> {@link #getAuditLabels()} is never {@code null}; it
+ *       is empty when the domain audit has no labels.</li>
+ *   <li><b>Invariant:</b> {@link #getPageIds()} holds no duplicates.</li>
+ * </ul>
+ */
+public final class UnauditedPages {
+
+	private final List<String> auditLabels;
+	private final long[] pageIds;
+
+	/**
+	 * Creates a new {@code UnauditedPages}.
+	 *
+	 * @param auditLabels raw audit labels stored on the domain audit; {@code null} is treated as empty
+	 * @param pageIds     ids of the landable pages without a page audit; must not be {@code null}
+	 */
+	public UnauditedPages(List<String> auditLabels, long[] pageIds) {
+		assert pageIds != null : "pageIds must not be null";
+		this.auditLabels = auditLabels == null ? Collections.emptyList() : Collections.unmodifiableList(auditLabels);
+		this.pageIds = pageIds;
+	}
+
+	public List<String> getAuditLabels() {
+		return auditLabels;
+	}
+
+	/**
+	 * Returns the ids of the pages to audit.
+	 *
+	 * @return the page state ids; never {@code null}. The array is shared and
+	 *         must not be modified.
+	 */
+	public long[] getPageIds() {
+		return pageIds;
+	}
+}
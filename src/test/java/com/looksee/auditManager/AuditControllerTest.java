@@ -1,59 +1,166 @@
 package com.looksee.auditManager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.neo4j.driver.exceptions.ServiceUnavailableException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-
-import com.looksee.gcp.PubSubPageAuditPublisherImpl;
-import com.looksee.mapper.Body;
-import com.looksee.models.PageState;
-import com.looksee.models.audit.AuditRecord;
-import com.looksee.models.audit.DomainAuditRecord;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherOperations;
+import com.google.pubsub.v1.PubsubMessage;
+import com.looksee.auditManager.AuditController.BatchItemResult;
+import com.looksee.auditManager.AuditController.SeedRequest;
+import com.looksee.auditManager.AuditController.SeedResult;
+import com.looksee.auditManager.batch.PageAuditRecordBatcher;
+import com.looksee.auditManager.cache.DomainAuditLabelCache;
+import com.looksee.auditManager.config.AuditProgressProperties;
+import com.looksee.auditManager.config.BatchPushProperties;
+import com.looksee.auditManager.config.ConcurrencyLimitProperties;
+import com.looksee.auditManager.config.DuplicateFilterProperties;
+import com.looksee.auditManager.config.ExecutionProperties;
+import com.looksee.auditManager.config.FairSchedulingProperties;
+import com.looksee.auditManager.config.LabelCacheProperties;
+import com.looksee.auditManager.config.RetryProperties;
+import com.looksee.auditManager.dedup.DuplicatePageFilter;
+import com.looksee.auditManager.dedup.InFlightPages;
+import com.looksee.auditManager.execution.AdaptiveConcurrencyLimiter;
+import com.looksee.auditManager.execution.Bulkheads;
+import com.looksee.auditManager.execution.FairAdmissionScheduler;
+import com.looksee.auditManager.execution.Retries;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.auditManager.progress.AuditProgressTracker;
+import com.looksee.auditManager.progress.DomainAuditProgressMessage;
+import com.looksee.auditManager.publish.PageAuditOutboxRelay;
+import com.looksee.auditManager.repository.PageAuditEligibility;
+import com.looksee.auditManager.repository.PageAuditEligibilityRepository;
+import com.looksee.auditManager.repository.PageAuditRecordDraft;
+import com.looksee.auditManager.repository.UnauditedPages;
 import com.looksee.models.enums.AuditName;
-import com.looksee.services.AuditRecordService;
-import com.looksee.services.PageStateService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 class AuditControllerTest {
 
 	@Mock
-	private AuditRecordService auditRecordService;
+	private PageAuditOutboxRelay outboxRelay;
 
 	@Mock
-	private PubSubPageAuditPublisherImpl auditRecordTopic;
+	private PageAuditEligibilityRepository eligibilityRepository;
 
 	@Mock
-	private PageStateService pageStateService;
+	private PageAuditRecordBatcher pageAuditRecordBatcher;
 
+	@Mock
+	private PubSubPublisherOperations progressPublisher;
+
+	private DuplicatePageFilter duplicateFilter;
+	private SimpleMeterRegistry registry;
+	private BatchPushProperties batchProperties;
+	private ConcurrencyLimitProperties limitProperties;
+	private RetryProperties retryProperties;
+	private FairSchedulingProperties fairSchedulingProperties;
+	private Retries retries;
+	private FairAdmissionScheduler admissionScheduler;
+	private AuditProgressTracker progressTracker;
 	private AuditController controller;
 
 	@BeforeEach
-	void setup() {
-		controller = new AuditController(auditRecordService, auditRecordTopic, pageStateService);
+	void setup() throws InterruptedException {
+		duplicateFilter = new DuplicatePageFilter(new DuplicateFilterProperties(), new SimpleMeterRegistry());
+		batchProperties = new BatchPushProperties();
+		limitProperties = new ConcurrencyLimitProperties();
+		retryProperties = new RetryProperties();
+		retryProperties.getNeo4j().setInitialBackoff(Duration.ofMillis(20));
+		retryProperties.getNeo4j().setMaxBackoff(Duration.ofMillis(20));
+		fairSchedulingProperties = new FairSchedulingProperties();
+		createController();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		retries.destroy();
+		if (admissionScheduler.isRunning()) {
+			admissionScheduler.stop();
+		}
+		if (progressTracker.isRunning()) {
+			progressTracker.stop();
+		}
+	}
+
+	private void createController() throws InterruptedException {
+		if (retries != null) {
+			retries.destroy();
+		}
+		if (admissionScheduler != null && admissionScheduler.isRunning()) {
+			admissionScheduler.stop();
+		}
+		registry = new SimpleMeterRegistry();
+		retries = new Retries(retryProperties, new ExecutionProperties(), registry);
+		AuditMetrics metrics = new AuditMetrics(registry);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(limitProperties, registry);
+		admissionScheduler = new FairAdmissionScheduler(fairSchedulingProperties, new ExecutionProperties(), registry);
+		admissionScheduler.start();
+		Bulkheads bulkheads = new Bulkheads(new ExecutionProperties());
+		AuditProgressProperties progressProperties = new AuditProgressProperties();
+		progressProperties.setEnabled(true);
+		progressTracker = new AuditProgressTracker(progressPublisher, "audit-update-topic", progressProperties,
+			bulkheads, retries, registry);
+		controller = new AuditController(
+			new PageAuditProcessor(outboxRelay, eligibilityRepository, pageAuditRecordBatcher,
+				new DomainAuditLabelCache(new LabelCacheProperties(), registry), duplicateFilter, new InFlightPages(), bulkheads,
+				retries, metrics, limiter, progressTracker),
+			new PageBuiltMessageDecoder(metrics),
+			metrics,
+			batchProperties,
+			limiter,
+			admissionScheduler);
 	}
 
 	@Test
 	void shouldReturnBadRequestWhenBodyIsMissing() {
-		ResponseEntity<String> response = controller.receiveMessage(null);
+		ResponseEntity<String> response = controller.receiveMessage(envelope("")).join();
 
 		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
 		assertEquals("Invalid Pub/Sub payload", response.getBody());
@@ -61,10 +168,9 @@ class AuditControllerTest {
 
 	@Test
 	void shouldReturnBadRequestWhenMessageIsNull() {
-		Body body = mock(Body.class);
-		when(body.getMessage()).thenReturn(null);
+		InputStream body = envelope("{\"subscription\":\"page-built\",\"message\":null}");
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
 
 		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
 		assertEquals("Invalid Pub/Sub payload", response.getBody());
@@ -72,12 +178,9 @@ class AuditControllerTest {
 
 	@Test
 	void shouldReturnBadRequestWhenMessageDataIsNull() {
-		Body body = mock(Body.class);
-		Body.Message message = mock(Body.Message.class);
-		when(body.getMessage()).thenReturn(message);
-		when(message.getData()).thenReturn(null);
+		InputStream body = envelope("{\"message\":{\"messageId\":\"1\",\"data\":null}}");
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
 
 		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
 		assertEquals("Invalid Pub/Sub payload", response.getBody());
@@ -85,12 +188,9 @@ class AuditControllerTest {
 
 	@Test
 	void shouldReturnBadRequestWhenMessageDataIsMissing() {
-		Body body = mock(Body.class);
-		Body.Message message = mock(Body.Message.class);
-		when(body.getMessage()).thenReturn(message);
-		when(message.getData()).thenReturn("");
+		InputStream body = envelopeWithData("");
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
 
 		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
 		assertEquals("Invalid Pub/Sub payload", response.getBody());
@@ -98,191 +198,541 @@ class AuditControllerTest {
 
 	@Test
 	void shouldReturnBadRequestWhenMessageDataIsNotBase64() throws Exception {
-		Body body = mockBodyWithData("not-base64");
+		InputStream body = envelopeWithData("not-base64");
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
 
 		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
 		assertEquals("Invalid message encoding", response.getBody());
-		verify(auditRecordTopic, never()).publish(any());
+		verify(outboxRelay, never()).wake();
+		assertEquals(1.0, messageCount("400", "invalid_encoding"));
 	}
 
 	@Test
 	void shouldReturnBadRequestWhenDecodedPayloadIsNotJson() throws Exception {
 		String encoded = Base64.getEncoder().encodeToString("invalid-json".getBytes(StandardCharsets.UTF_8));
-		Body body = mockBodyWithData(encoded);
+		InputStream body = envelopeWithData(encoded);
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
 
 		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
 		assertEquals("Invalid message format", response.getBody());
-		verify(auditRecordTopic, never()).publish(any());
+		verify(outboxRelay, never()).wake();
+	}
+
+	@Test
+	void shouldReturnBadRequestWhenEnvelopeIsNotJson() {
+		ResponseEntity<String> response = controller.receiveMessage(envelope("{\"message\":")).join();
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		assertEquals("Invalid Pub/Sub payload", response.getBody());
+	}
+
+	@Test
+	void shouldAcceptUnpaddedBase64Data() {
+		String payload = "{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3}";
+		String encoded = Base64.getEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, false, true));
+
+		ResponseEntity<String> response = controller.receiveMessage(envelopeWithData(encoded)).join();
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
 	}
 
 	@Test
 	void shouldSkipWhenPageAlreadyAudited() throws Exception {
-		Body body = createValidBody();
+		InputStream body = createValidBody();
 
-		when(auditRecordService.wasPageAlreadyAudited(3L, 2L)).thenReturn(true);
-		when(pageStateService.isPageLandable(2L)).thenReturn(true);
-		when(pageStateService.findById(2L)).thenReturn(Optional.of(new PageState()));
-		when(auditRecordService.findById(3L)).thenReturn(Optional.empty());
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, true, true, true));
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
 
 		assertEquals(HttpStatus.OK, response.getStatusCode());
-		verify(auditRecordTopic, never()).publish(any());
+		verify(outboxRelay, never()).wake();
 	}
 
 	@Test
 	void shouldSkipWhenPageIsNotLandable() throws Exception {
-		Body body = createValidBody();
+		InputStream body = createValidBody();
 
-		when(auditRecordService.wasPageAlreadyAudited(3L, 2L)).thenReturn(false);
-		when(pageStateService.isPageLandable(2L)).thenReturn(false);
-		when(pageStateService.findById(2L)).thenReturn(Optional.of(new PageState()));
-		when(auditRecordService.findById(3L)).thenReturn(Optional.empty());
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, false, true));
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
 
 		assertEquals(HttpStatus.OK, response.getStatusCode());
-		verify(auditRecordTopic, never()).publish(any());
+		verify(outboxRelay, never()).wake();
 	}
 
 	@Test
 	void shouldSkipWhenPageStateMissing() throws Exception {
-		Body body = createValidBody();
+		InputStream body = createValidBody();
+
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, true, false));
+
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		verify(outboxRelay, never()).wake();
+	}
+
+	@Test
+	void shouldFailWhenPageStateDisappearsAfterEligibilityCheck() throws Exception {
+		InputStream body = createValidBody();
+
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any()))
+			.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("page 2 does not exist")));
+
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+		verify(outboxRelay, never()).wake();
+	}
+
+	@Test
+	void shouldCreateAuditWhenEligible() throws Exception {
+		InputStream body = createValidBody();
 
-		when(auditRecordService.wasPageAlreadyAudited(3L, 2L)).thenReturn(false);
-		when(pageStateService.isPageLandable(2L)).thenReturn(true);
-		when(pageStateService.findById(2L)).thenReturn(Optional.empty());
-		when(auditRecordService.findById(3L)).thenReturn(Optional.empty());
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any())).thenReturn(CompletableFuture.completedFuture(OptionalLong.of(99L)));
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
 
 		assertEquals(HttpStatus.OK, response.getStatusCode());
-		verify(auditRecordTopic, never()).publish(any());
+		verify(pageAuditRecordBatcher).submit(eq(1L), eq(3L), eq(2L), any());
+		verify(outboxRelay).wake();
+		assertEquals(1.0, messageCount("200", "audit_created"));
+		assertEquals(0.0, registry.get("audit_manager.requests.in_flight").gauge().value());
 	}
 
 	@Test
-	void shouldPublishAuditWhenEligible() throws Exception {
-		Body body = createValidBody();
-		PageState pageState = new PageState();
-		AuditRecord savedRecord = mock(AuditRecord.class);
+	void shouldSkipRedeliveredPageWithoutQueryingNeo4j() throws Exception {
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any())).thenReturn(CompletableFuture.completedFuture(OptionalLong.of(99L)));
+
+		controller.receiveMessage(createValidBody()).join();
+		ResponseEntity<String> response = controller.receiveMessage(createValidBody()).join();
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		verify(eligibilityRepository).resolve(3L, 2L);
+		verify(outboxRelay).wake();
+	}
 
-		when(auditRecordService.wasPageAlreadyAudited(3L, 2L)).thenReturn(false);
-		when(pageStateService.isPageLandable(2L)).thenReturn(true);
-		when(pageStateService.findById(2L)).thenReturn(Optional.of(pageState));
-		when(auditRecordService.findById(3L)).thenReturn(Optional.empty());
-		when(auditRecordService.save(any())).thenReturn(savedRecord);
-		when(savedRecord.getId()).thenReturn(99L);
+	@Test
+	void shouldSkipPageCoalescedIntoSameWriteBatch() throws Exception {
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any())).thenReturn(CompletableFuture.completedFuture(OptionalLong.empty()));
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		ResponseEntity<String> response = controller.receiveMessage(createValidBody()).join();
 
 		assertEquals(HttpStatus.OK, response.getStatusCode());
-		verify(auditRecordService).addPageAuditToDomainAudit(3L, 99L);
-		verify(auditRecordService).addPageToAuditRecord(99L, 2L);
-		ArgumentCaptor<String> payloadCaptor = ArgumentCaptor.forClass(String.class);
-		verify(auditRecordTopic).publish(payloadCaptor.capture());
-		assertTrue(payloadCaptor.getValue().contains("\"accountId\":1"));
-		assertTrue(payloadCaptor.getValue().contains("\"pageAuditId\":99"));
+		verify(outboxRelay, never()).wake();
+	}
+
+	@Test
+	void shouldPublishOneProgressUpdateForManyPagesOfADomainAudit() throws Exception {
+		SettableListenableFuture<String> published = new SettableListenableFuture<>();
+		published.set("message-id");
+		when(progressPublisher.publish(eq("audit-update-topic"), any(PubsubMessage.class))).thenReturn(published);
+		when(eligibilityRepository.resolve(eq(3L), anyLong())).thenAnswer(invocation ->
+			new PageAuditEligibility(null, false, invocation.<Long>getArgument(1) != 7L, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), anyLong(), any())).thenAnswer(invocation ->
+			CompletableFuture.completedFuture(OptionalLong.of(invocation.<Long>getArgument(2))));
+		progressTracker.start();
+
+		for (long pageId = 1; pageId <= 7; pageId++) {
+			controller.receiveMessage(envelopeWithData(encode("{\"accountId\":1,\"pageId\":" + pageId + ",\"auditRecordId\":3}"))).join();
+		}
+		controller.receiveMessage(createValidBody()).join();
+		progressTracker.stop();
+
+		ArgumentCaptor<PubsubMessage> update = ArgumentCaptor.forClass(PubsubMessage.class);
+		verify(progressPublisher).publish(eq("audit-update-topic"), update.capture());
+		DomainAuditProgressMessage progress = new ObjectMapper().registerModule(new JavaTimeModule())
+			.readValue(update.getValue().getData().toByteArray(), DomainAuditProgressMessage.class);
+		assertEquals(3L, progress.getDomainAuditRecordId());
+		assertEquals(6L, progress.getPagesQueued());
+		assertEquals(Map.of("not_landable", 1L, "page_state_missing", 0L), progress.getPagesSkipped());
 	}
 
 	@Test
 	void shouldUseDomainAuditLabelsWhenDomainRecordExists() throws Exception {
-		Body body = createValidBody();
-		PageState pageState = new PageState();
-		AuditRecord savedRecord = mock(AuditRecord.class);
-		DomainAuditRecord domainRecord = mock(DomainAuditRecord.class);
-		Set<AuditName> labels = Set.of(AuditName.ALT_TEXT);
-
-		when(auditRecordService.wasPageAlreadyAudited(3L, 2L)).thenReturn(false);
-		when(pageStateService.isPageLandable(2L)).thenReturn(true);
-		when(pageStateService.findById(2L)).thenReturn(Optional.of(pageState));
-		when(auditRecordService.findById(3L)).thenReturn(Optional.of(domainRecord));
-		when(domainRecord.getAuditLabels()).thenReturn(labels);
-		when(auditRecordService.save(any())).thenReturn(savedRecord);
-		when(savedRecord.getId()).thenReturn(22L);
-
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		InputStream body = createValidBody();
+
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(List.of("ALT_TEXT", "NOT_AN_AUDIT"), false, true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any())).thenReturn(CompletableFuture.completedFuture(OptionalLong.of(22L)));
+
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
 
 		assertEquals(HttpStatus.OK, response.getStatusCode());
-		verify(auditRecordService).save(any());
-		verify(domainRecord).getAuditLabels();
-		verify(auditRecordService).addPageAuditToDomainAudit(3L, 22L);
+		verify(pageAuditRecordBatcher).submit(1L, 3L, 2L, Set.of(AuditName.ALT_TEXT));
 	}
 
 	@Test
-	void shouldReturnInternalServerErrorWhenPublishingFails() throws Exception {
-		Body body = createValidBody();
-		PageState pageState = new PageState();
-		AuditRecord savedRecord = mock(AuditRecord.class);
+	void shouldUseDefaultAuditNamesWhenDomainAuditHasNoLabels() throws Exception {
+		InputStream body = createValidBody();
 
-		when(auditRecordService.wasPageAlreadyAudited(3L, 2L)).thenReturn(false);
-		when(pageStateService.isPageLandable(2L)).thenReturn(true);
-		when(pageStateService.findById(2L)).thenReturn(Optional.of(pageState));
-		when(auditRecordService.findById(3L)).thenReturn(Optional.empty());
-		when(auditRecordService.save(any())).thenReturn(savedRecord);
-		when(savedRecord.getId()).thenReturn(88L);
-		doExecutionFailure();
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(List.of(), false, true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any())).thenReturn(CompletableFuture.completedFuture(OptionalLong.of(23L)));
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		controller.receiveMessage(body).join();
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Set<AuditName>> auditNamesCaptor = ArgumentCaptor.forClass(Set.class);
+		verify(pageAuditRecordBatcher).submit(eq(1L), eq(3L), eq(2L), auditNamesCaptor.capture());
+		Set<AuditName> auditNames = auditNamesCaptor.getValue();
+		assertEquals(11, auditNames.size());
+		assertTrue(auditNames.contains(AuditName.IMAGE_COPYRIGHT));
+	}
+
+	@Test
+	void shouldReturnInternalServerErrorWhenRecordWriteFails() throws Exception {
+		InputStream body = createValidBody();
+
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any()))
+			.thenReturn(CompletableFuture.failedFuture(new RuntimeException("write failed")));
+
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
 
 		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
 		assertEquals("Failed to process message", response.getBody());
+		assertEquals(1.0, messageCount("500", "unexpected"));
+		verify(outboxRelay, never()).wake();
 	}
 
 	@Test
-	void shouldReturnInternalServerErrorWhenInterrupted() throws Exception {
-		Body body = createValidBody();
-		PageState pageState = new PageState();
-		AuditRecord savedRecord = mock(AuditRecord.class);
+	void shouldRespondOnceRecordIsWrittenWithoutWaitingForPublish() throws Exception {
+		CompletableFuture<OptionalLong> pending = new CompletableFuture<>();
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any())).thenReturn(pending);
 
-		when(auditRecordService.wasPageAlreadyAudited(3L, 2L)).thenReturn(false);
-		when(pageStateService.isPageLandable(2L)).thenReturn(true);
-		when(pageStateService.findById(2L)).thenReturn(Optional.of(pageState));
-		when(auditRecordService.findById(3L)).thenReturn(Optional.empty());
-		when(auditRecordService.save(any())).thenReturn(savedRecord);
-		when(savedRecord.getId()).thenReturn(77L);
-		org.mockito.Mockito.doThrow(new InterruptedException("stop"))
-			.when(auditRecordTopic)
-			.publish(any(String.class));
+		CompletableFuture<ResponseEntity<String>> response = controller.receiveMessage(createValidBody());
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		assertFalse(response.isDone());
+		pending.complete(OptionalLong.of(77L));
+		assertEquals(HttpStatus.OK, response.join().getStatusCode());
+		verify(outboxRelay).wake();
+	}
 
-		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
-		assertEquals("Audit processing interrupted", response.getBody());
+	@Test
+	void shouldShedRequestsBeyondConcurrencyLimit() throws Exception {
+		limitProperties.setMinLimit(1);
+		limitProperties.setInitialLimit(1);
+		createController();
+		CompletableFuture<OptionalLong> pending = new CompletableFuture<>();
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any())).thenReturn(pending);
+
+		CompletableFuture<ResponseEntity<String>> admitted = controller.receiveMessage(createValidBody());
+		ResponseEntity<String> shed = controller.receiveMessage(createValidBody()).join();
+
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, shed.getStatusCode());
+		assertEquals("Too many requests", shed.getBody());
+		assertEquals(1.0, messageCount("429", "concurrency_limit"));
+		verify(eligibilityRepository).resolve(3L, 2L);
+		pending.complete(OptionalLong.of(77L));
+		assertEquals(HttpStatus.OK, admitted.join().getStatusCode());
+		assertEquals(0.0, registry.get("audit_manager.concurrency.in_flight").gauge().value());
+	}
+
+	@Test
+	void shouldShedRequestsThatWaitTooLongForFairScheduling() throws Exception {
+		fairSchedulingProperties.setEnabled(true);
+		fairSchedulingProperties.setMaxConcurrent(1);
+		fairSchedulingProperties.setPushMaxWait(Duration.ofMillis(50));
+		createController();
+		CompletableFuture<OptionalLong> pending = new CompletableFuture<>();
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any())).thenReturn(pending);
+
+		CompletableFuture<ResponseEntity<String>> admitted = controller.receiveMessage(createValidBody());
+		ResponseEntity<String> shed = controller.receiveMessage(createValidBody()).get(5, TimeUnit.SECONDS);
+
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, shed.getStatusCode());
+		assertEquals(1.0, messageCount("429", "fair_scheduling"));
+		assertEquals(1.0, registry.get("audit_manager.concurrency.in_flight").gauge().value());
+		pending.complete(OptionalLong.of(77L));
+		assertEquals(HttpStatus.OK, admitted.join().getStatusCode());
+		assertEquals(0.0, registry.get("audit_manager.concurrency.in_flight").gauge().value());
+	}
+
+	@Test
+	void shouldNotHoldConcurrencyPermitsWhileWaitingForFairScheduling() throws Exception {
+		limitProperties.setMinLimit(1);
+		limitProperties.setInitialLimit(1);
+		fairSchedulingProperties.setEnabled(true);
+		fairSchedulingProperties.setMaxConcurrent(1);
+		fairSchedulingProperties.setPushMaxWait(Duration.ofSeconds(5));
+		createController();
+		CompletableFuture<OptionalLong> pending = new CompletableFuture<>();
+		when(eligibilityRepository.resolve(3L, 2L)).thenReturn(new PageAuditEligibility(null, false, true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any())).thenReturn(pending);
+
+		CompletableFuture<ResponseEntity<String>> admitted = controller.receiveMessage(createValidBody());
+		CompletableFuture<ResponseEntity<String>> waiting = controller.receiveMessage(createValidBody());
+
+		assertFalse(waiting.isDone());
+		assertEquals(1.0, registry.get("audit_manager.concurrency.in_flight").gauge().value());
+		pending.complete(OptionalLong.of(77L));
+		assertEquals(HttpStatus.OK, admitted.join().getStatusCode());
+		assertEquals(HttpStatus.OK, waiting.get(5, TimeUnit.SECONDS).getStatusCode());
+		assertEquals(0.0, messageCount("429", "concurrency_limit"));
+		assertEquals(0.0, registry.get("audit_manager.concurrency.in_flight").gauge().value());
+	}
+
+	@Test
+	void shouldCreateExactlyOneRecordPerPageUnderConcurrentDuplicates() throws Exception {
+		DuplicateFilterProperties filterProperties = new DuplicateFilterProperties();
+		filterProperties.setEnabled(false);
+		duplicateFilter = new DuplicatePageFilter(filterProperties, new SimpleMeterRegistry());
+		limitProperties.setEnabled(false);
+		createController();
+		Map<Long, AtomicInteger> created = new ConcurrentHashMap<>();
+		when(eligibilityRepository.resolve(eq(3L), anyLong())).thenAnswer(invocation ->
+			new PageAuditEligibility(null, created.containsKey(invocation.<Long>getArgument(1)), true, true));
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), anyLong(), any())).thenAnswer(invocation -> {
+			long pageId = invocation.getArgument(2);
+			return CompletableFuture.supplyAsync(() -> {
+				created.computeIfAbsent(pageId, id -> new AtomicInteger()).incrementAndGet();
+				return OptionalLong.of(pageId);
+			}, CompletableFuture.delayedExecutor(2, TimeUnit.MILLISECONDS));
+		});
+
+		int pages = 20;
+		int deliveriesPerPage = 16;
+		ExecutorService executor = Executors.newFixedThreadPool(deliveriesPerPage);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<List<ResponseEntity<String>>>> deliveries = new ArrayList<>();
+		try {
+			for (int thread = 0; thread < deliveriesPerPage; thread++) {
+				deliveries.add(executor.submit(() -> {
+					start.await();
+					List<CompletableFuture<ResponseEntity<String>>> responses = new ArrayList<>();
+					for (long pageId = 1; pageId <= pages; pageId++) {
+						responses.add(controller.receiveMessage(envelopeWithData(
+							encode("{\"accountId\":1,\"pageId\":" + pageId + ",\"auditRecordId\":3}"))));
+					}
+					return responses.stream().map(CompletableFuture::join).toList();
+				}));
+			}
+			start.countDown();
+			for (Future<List<ResponseEntity<String>>> delivery : deliveries) {
+				delivery.get(30, TimeUnit.SECONDS).forEach(response -> assertEquals(HttpStatus.OK, response.getStatusCode()));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(pages, created.size());
+		created.values().forEach(count -> assertEquals(1, count.get()));
+		verify(outboxRelay, times(pages)).wake();
+		assertEquals(pages, messageCount("200", "audit_created"));
+		assertEquals(pages * (deliveriesPerPage - 1), messageCount("200", "already_audited"));
 	}
 
 	@Test
 	void shouldReturnInternalServerErrorForUnexpectedException() {
-		Body body = createValidBody();
+		InputStream body = createValidBody();
 
-		when(auditRecordService.findById(3L)).thenThrow(new RuntimeException("boom"));
+		when(eligibilityRepository.resolve(3L, 2L)).thenThrow(new RuntimeException("boom"));
 
-		ResponseEntity<String> response = controller.receiveMessage(body);
+		ResponseEntity<String> response = controller.receiveMessage(body).join();
 
 		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
 		assertEquals("Failed to process message", response.getBody());
 	}
 
-	private void doExecutionFailure() throws Exception {
-		org.mockito.Mockito.doThrow(new ExecutionException(new RuntimeException("pubsub")))
-			.when(auditRecordTopic)
-			.publish(any(String.class));
+	@Test
+	void shouldRetryTransientNeo4jFailureWithoutHoldingTheRequestThread() throws Exception {
+		CountDownLatch retried = new CountDownLatch(1);
+		CountDownLatch callerReturned = new CountDownLatch(1);
+		when(eligibilityRepository.resolve(3L, 2L))
+			.thenThrow(new ServiceUnavailableException("connection lost"))
+			.thenAnswer(invocation -> {
+				retried.countDown();
+				callerReturned.await();
+				return new PageAuditEligibility(null, false, true, true);
+			});
+		when(pageAuditRecordBatcher.submit(eq(1L), eq(3L), eq(2L), any())).thenReturn(CompletableFuture.completedFuture(OptionalLong.of(77L)));
+
+		CompletableFuture<ResponseEntity<String>> response = controller.receiveMessage(createValidBody());
+
+		assertFalse(response.isDone());
+		callerReturned.countDown();
+		assertTrue(retried.await(5, TimeUnit.SECONDS));
+		assertEquals(HttpStatus.OK, response.get(5, TimeUnit.SECONDS).getStatusCode());
+		assertEquals(1.0, registry.get("audit_manager.retry.attempts").tag("backend", "neo4j").counter().count());
+		assertEquals(1.0, registry.get("audit_manager.retry.calls").tag("backend", "neo4j").tag("outcome", "success_after_retry").counter().count());
+	}
+
+	@Test
+	void shouldFailFastOnceNeo4jCircuitBreakerOpens() throws Exception {
+		retryProperties.getNeo4j().setMaxAttempts(1);
+		retryProperties.getNeo4j().setFailureThreshold(2);
+		createController();
+		when(eligibilityRepository.resolve(3L, 2L)).thenThrow(new ServiceUnavailableException("connection lost"));
+
+		controller.receiveMessage(createValidBody()).join();
+		controller.receiveMessage(createValidBody()).join();
+		ResponseEntity<String> response = controller.receiveMessage(createValidBody()).join();
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+		verify(eligibilityRepository, times(2)).resolve(3L, 2L);
+		assertEquals(1.0, messageCount("500", "circuit_open"));
+		assertEquals(2.0, registry.get("audit_manager.circuit_breaker.state").tag("backend", "neo4j").gauge().value());
 	}
 
-	private Body createValidBody() {
+	@Test
+	void receiveBatch_shouldReportEachItemIndependently() throws Exception {
 		String payload = "{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3}";
-		String encoded = Base64.getEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
-		return mockBodyWithData(encoded);
+		InputStream body = envelope("[{\"message\":{\"data\":\"" + encode(payload) + "\"}},"
+			+ "{\"accountId\":1,\"pageId\":4,\"auditRecordId\":3},"
+			+ "{\"message\":{\"data\":\"not-base64\"}}]");
+
+		when(eligibilityRepository.resolveAll(anyList())).thenReturn(List.of(
+			new PageAuditEligibility(null, false, true, true),
+			new PageAuditEligibility(null, false, false, true)));
+		when(pageAuditRecordBatcher.submitAll(anyList())).thenReturn(List.of(CompletableFuture.completedFuture(OptionalLong.of(99L))));
+
+		ResponseEntity<List<BatchItemResult>> response = controller.receiveBatch(body).join();
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(List.of(
+			new BatchItemResult(200, "Successfully processed message"),
+			new BatchItemResult(200, "Successfully processed message"),
+			new BatchItemResult(400, "Invalid message encoding")), response.getBody());
+		verify(eligibilityRepository).resolveAll(anyList());
+		verify(eligibilityRepository, never()).resolve(anyLong(), anyLong());
+		verify(outboxRelay).wake();
+		assertEquals(1.0, messageCount("200", "audit_created"));
+		assertEquals(1.0, messageCount("200", "not_landable"));
+		assertEquals(1.0, messageCount("400", "invalid_encoding"));
+		assertEquals(0.0, registry.get("audit_manager.requests.in_flight").gauge().value());
+	}
+
+	@Test
+	void receiveBatch_shouldFailOnlyItemsWhoseWriteFailed() throws Exception {
+		InputStream body = envelope("[{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3},"
+			+ "{\"accountId\":1,\"pageId\":4,\"auditRecordId\":3}]");
+
+		when(eligibilityRepository.resolveAll(anyList())).thenReturn(List.of(
+			new PageAuditEligibility(null, false, true, true),
+			new PageAuditEligibility(null, false, true, true)));
+		when(pageAuditRecordBatcher.submitAll(anyList())).thenReturn(List.of(
+			CompletableFuture.completedFuture(OptionalLong.of(99L)),
+			CompletableFuture.failedFuture(new IllegalStateException("page 4 does not exist"))));
+
+		ResponseEntity<List<BatchItemResult>> response = controller.receiveBatch(body).join();
+
+		assertEquals(List.of(
+			new BatchItemResult(200, "Successfully processed message"),
+			new BatchItemResult(500, "Failed to process message")), response.getBody());
+	}
+
+	@Test
+	void receiveBatch_shouldRejectBodyThatIsNotAnArray() {
+		ResponseEntity<List<BatchItemResult>> response = controller.receiveBatch(createValidBody()).join();
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		verify(eligibilityRepository, never()).resolveAll(anyList());
+	}
+
+	@Test
+	void receiveBatch_shouldRejectBatchOverTheLimit() {
+		batchProperties.setMaxItems(1);
+		InputStream body = envelope("[{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3},"
+			+ "{\"accountId\":1,\"pageId\":4,\"auditRecordId\":3}]");
+
+		ResponseEntity<List<BatchItemResult>> response = controller.receiveBatch(body).join();
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		verify(eligibilityRepository, never()).resolveAll(anyList());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void seedDomainAudit_shouldAuditEveryUnauditedPage() throws Exception {
+		when(eligibilityRepository.findUnauditedPages(3L))
+			.thenReturn(Optional.of(new UnauditedPages(List.of("LINKS"), new long[] { 2L, 4L, 5L })));
+		when(pageAuditRecordBatcher.submitPaced(anyList())).thenReturn(List.of(
+			CompletableFuture.completedFuture(OptionalLong.of(98L)),
+			CompletableFuture.completedFuture(OptionalLong.empty()),
+			CompletableFuture.failedFuture(new IllegalStateException("page 5 was deleted"))));
+
+		ResponseEntity<SeedResult> response = controller.seedDomainAudit(new SeedRequest(1L, 3L)).join();
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(new SeedResult(3, 1, 1, 1), response.getBody());
+		ArgumentCaptor<List<PageAuditRecordDraft>> drafts = ArgumentCaptor.forClass(List.class);
+		verify(pageAuditRecordBatcher).submitPaced(drafts.capture());
+		assertEquals(List.of(2L, 4L, 5L), drafts.getValue().stream().map(PageAuditRecordDraft::getPageId).toList());
+		assertEquals(Set.of(AuditName.LINKS), drafts.getValue().get(0).getAuditNames());
+		assertEquals(1L, drafts.getValue().get(0).getAccountId());
+		verify(outboxRelay).wake();
+		assertEquals(1.0, messageCount("200", "audit_created"));
+		assertEquals(0.0, registry.get("audit_manager.requests.in_flight").gauge().value());
+	}
+
+	@Test
+	void seedDomainAudit_shouldForgetTheDomainAuditOnceEveryPageIsWritten() {
+		when(eligibilityRepository.findUnauditedPages(3L))
+			.thenReturn(Optional.of(new UnauditedPages(List.of("LINKS"), new long[] { 2L, 4L })));
+		when(pageAuditRecordBatcher.submitPaced(anyList())).thenReturn(List.of(
+			CompletableFuture.completedFuture(OptionalLong.of(98L)),
+			CompletableFuture.completedFuture(OptionalLong.of(99L))));
+
+		controller.seedDomainAudit(new SeedRequest(1L, 3L)).join();
+
+		assertEquals(0.0, registry.get("cache.size").tag("cache", "domain_audit_labels").gauge().value());
+		assertEquals(0, duplicateFilter.auditCount());
+	}
+
+	@Test
+	void seedDomainAudit_shouldReturnNotFoundForUnknownDomainAudit() {
+		when(eligibilityRepository.findUnauditedPages(3L)).thenReturn(Optional.empty());
+
+		ResponseEntity<SeedResult> response = controller.seedDomainAudit(new SeedRequest(1L, 3L)).join();
+
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+		verify(pageAuditRecordBatcher, never()).submitPaced(anyList());
+	}
+
+	@Test
+	void seedDomainAudit_shouldRejectRequestWithoutAccount() {
+		ResponseEntity<SeedResult> response = controller.seedDomainAudit(new SeedRequest(null, 3L)).join();
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		verify(eligibilityRepository, never()).findUnauditedPages(anyLong());
+	}
+
+	@Test
+	void seedDomainAudit_shouldReturnInternalServerErrorWhenPagesCannotBeListed() {
+		when(eligibilityRepository.findUnauditedPages(3L)).thenThrow(new RuntimeException("neo4j"));
+
+		ResponseEntity<SeedResult> response = controller.seedDomainAudit(new SeedRequest(1L, 3L)).join();
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+	}
+
+	private double messageCount(String status, String outcome) {
+		return registry.get("audit_manager.messages").tag("status", status).tag("outcome", outcome).counter().count();
+	}
+
+	private InputStream createValidBody() {
+		return envelopeWithData(encode("{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3}"));
+	}
+
+	private static String encode(String payload) {
+		return Base64.getEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private InputStream envelopeWithData(String data) {
+		return envelope("{\"message\":{\"attributes\":{\"origin\":\"crawler\"},\"data\":\"" + data
+			+ "\",\"messageId\":\"42\"},\"subscription\":\"page-built\"}");
 	}
 
-	private Body mockBodyWithData(String data) {
-		Body body = mock(Body.class);
-		Body.Message message = mock(Body.Message.class);
-		when(body.getMessage()).thenReturn(message);
-		when(message.getData()).thenReturn(data);
-		return body;
+	private InputStream envelope(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
 	}
 }
@@ -0,0 +1,166 @@
+package com.looksee.auditManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.looksee.auditManager.PageBuiltMessageDecoder.PushDecodeResult;
+import com.looksee.auditManager.PageBuiltMessageDecoder.Rejection;
+import com.looksee.auditManager.metrics.AuditMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PageBuiltMessageDecoderTest {
+	private static final String PAYLOAD = "{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3}";
+
+	private final PageBuiltMessageDecoder decoder = new PageBuiltMessageDecoder(new AuditMetrics(new SimpleMeterRegistry()));
+
+	@Test
+	void decodePushEnvelope_shouldSkipUnknownNestedFields() {
+		String json = "{\"deliveryAttempt\":2,\"message\":{\"attributes\":{\"a\":[1,{\"b\":null}]},\"data\":\""
+			+ encode(PAYLOAD) + "\",\"publishTime\":\"2024-01-01T00:00:00Z\"},\"subscription\":\"s\"}";
+
+		PushDecodeResult result = decode(json);
+
+		assertTrue(result.isAccepted());
+		assertNull(result.rejection());
+		assertEquals(2L, result.message().getPageId());
+		assertEquals(3L, result.message().getAuditRecordId());
+	}
+
+	@Test
+	void decodePushEnvelope_shouldRejectNonObjectBody() {
+		assertEquals(Rejection.INVALID_PAYLOAD, decode("[]").rejection());
+	}
+
+	@Test
+	void decodePushEnvelope_shouldRejectNonStringData() {
+		assertEquals(Rejection.INVALID_PAYLOAD, decode("{\"message\":{\"data\":{\"x\":1}}}").rejection());
+	}
+
+	@Test
+	void decodePushEnvelope_shouldRejectJsonNullPayload() {
+		assertEquals(Rejection.INVALID_FORMAT, decode("{\"message\":{\"data\":\"" + encode("null") + "\"}}").rejection());
+	}
+
+	@Test
+	void decodePushEnvelope_shouldDecodeConsecutiveMessagesIntoReusedBuffer() {
+		StringBuilder large = new StringBuilder("{\"accountId\":1,\"pageId\":7,\"auditRecordId\":3,\"padding\":\"");
+		large.append("x".repeat(100_000)).append("\"}");
+
+		PushDecodeResult first = decode("{\"message\":{\"data\":\"" + encode(large.toString()) + "\"}}");
+		PushDecodeResult second = decode("{\"message\":{\"data\":\"" + encode(PAYLOAD) + "\"}}");
+
+		assertEquals(Rejection.INVALID_FORMAT, first.rejection());
+		assertEquals(2L, second.message().getPageId());
+	}
+
+	@Test
+	void decodePushEnvelope_shouldDecodeAShorterMessageAfterALongerOne() {
+		String longer = "{\"accountId\":1,\"pageId\":7,\"auditRecordId\":3" + " ".repeat(200) + "}";
+
+		PushDecodeResult first = decode("{\"message\":{\"data\":\"" + encode(longer) + "\"}}");
+		PushDecodeResult second = decode("{\"message\":{\"data\":\"" + encode(PAYLOAD) + "\"}}");
+		PushDecodeResult third = decode("{\"message\":{\"data\":\"" + encode(PAYLOAD).replace("=", "") + "\"}}");
+
+		assertEquals(7L, first.message().getPageId());
+		assertEquals(2L, second.message().getPageId());
+		assertEquals(2L, third.message().getPageId());
+	}
+
+	@Test
+	void decodePushEnvelope_shouldAcceptUnpaddedBase64() {
+		String unpadded = encode(PAYLOAD).replace("=", "");
+
+		assertEquals(2L, decode("{\"message\":{\"data\":\"" + unpadded + "\"}}").message().getPageId());
+	}
+
+	@Test
+	void decodePushEnvelope_shouldRejectBase64WithLineBreaksOrWhitespace() {
+		String encoded = encode(PAYLOAD);
+		String wrapped = encoded.substring(0, 8) + "\\r\\n" + encoded.substring(8);
+		String spaced = encoded.substring(0, 8) + " " + encoded.substring(8);
+		String tabbed = "\\t" + encoded;
+
+		assertEquals(Rejection.INVALID_ENCODING, decode("{\"message\":{\"data\":\"" + wrapped + "\"}}").rejection());
+		assertEquals(Rejection.INVALID_ENCODING, decode("{\"message\":{\"data\":\"" + spaced + "\"}}").rejection());
+		assertEquals(Rejection.INVALID_ENCODING, decode("{\"message\":{\"data\":\"" + tabbed + "\"}}").rejection());
+	}
+
+	@Test
+	void decodePushEnvelope_shouldRejectNonAsciiInBase64() {
+		String encoded = encode(PAYLOAD);
+		String accented = encoded.substring(0, 4) + "\u00e9" + encoded.substring(5);
+
+		assertEquals(Rejection.INVALID_ENCODING, decode("{\"message\":{\"data\":\"" + accented + "\"}}").rejection());
+		assertEquals(2L, decode("{\"message\":{\"data\":\"" + encoded + "\"}}").message().getPageId());
+	}
+
+	@Test
+	void decodeBatch_shouldDecodeEachItemIndependently() {
+		String unpadded = encode(PAYLOAD).replace("=", "");
+		String json = "[{\"message\":{\"data\":\"" + encode(PAYLOAD) + "\"}},"
+			+ "{\"accountId\":1,\"pageId\":5,\"auditRecordId\":3},"
+			+ "{\"message\":{\"data\":\"not-base64\"}},"
+			+ "{\"message\":{\"data\":\"\"}},"
+			+ "42,"
+			+ "{\"pageId\":\"not-a-number\"},"
+			+ "{\"message\":{\"data\":\"" + unpadded + "\"}},"
+			+ "{\"message\":{\"data\":\"" + encode(PAYLOAD).replace("J", "\\nJ") + "\"}}]";
+
+		List<PushDecodeResult> results = decoder.decodeBatch(stream(json));
+
+		assertEquals(8, results.size());
+		assertEquals(2L, results.get(0).message().getPageId());
+		assertEquals(5L, results.get(1).message().getPageId());
+		assertEquals(Rejection.INVALID_ENCODING, results.get(2).rejection());
+		assertEquals(Rejection.INVALID_PAYLOAD, results.get(3).rejection());
+		assertEquals(Rejection.INVALID_PAYLOAD, results.get(4).rejection());
+		assertEquals(Rejection.INVALID_FORMAT, results.get(5).rejection());
+		assertEquals(2L, results.get(6).message().getPageId());
+		assertEquals(Rejection.INVALID_ENCODING, results.get(7).rejection());
+	}
+
+	@Test
+	void decodeBatch_shouldRejectBodyThatIsNotAnArray() {
+		assertNull(decoder.decodeBatch(stream("{\"accountId\":1}")));
+		assertNull(decoder.decodeBatch(stream("[{\"accountId\":1},")));
+		assertTrue(decoder.decodeBatch(stream("[]")).isEmpty());
+	}
+
+	@Test
+	void decodeArchiveLine_shouldAcceptJsonAndBase64Records() {
+		String envelope = "{\"message\":{\"data\":\"" + encode(PAYLOAD) + "\"}}";
+
+		assertEquals(2L, decoder.decodeArchiveLine(bytes(PAYLOAD)).message().getPageId());
+		assertEquals(2L, decoder.decodeArchiveLine(bytes(envelope)).message().getPageId());
+		assertEquals(2L, decoder.decodeArchiveLine(bytes(encode(PAYLOAD))).message().getPageId());
+		assertEquals(Rejection.INVALID_PAYLOAD, decoder.decodeArchiveLine(bytes("{not json")).rejection());
+		assertEquals(Rejection.INVALID_ENCODING, decoder.decodeArchiveLine(bytes("not base64!")).rejection());
+		assertEquals(Rejection.INVALID_ENCODING, decoder.decodeArchiveLine(bytes(encode(PAYLOAD).replace("J", " J"))).rejection());
+		assertEquals(Rejection.INVALID_FORMAT, decoder.decodeArchiveLine(bytes(encode("[1]"))).rejection());
+	}
+
+	private PushDecodeResult decode(String json) {
+		return decoder.decodePushEnvelope(stream(json));
+	}
+
+	private static byte[] bytes(String line) {
+		return line.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static ByteArrayInputStream stream(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String encode(String payload) {
+		return Base64.getEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+	}
+}
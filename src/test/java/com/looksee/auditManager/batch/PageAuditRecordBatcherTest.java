@@ -0,0 +1,284 @@
+package com.looksee.auditManager.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.neo4j.driver.exceptions.TransientException;
+
+import com.looksee.auditManager.config.ExecutionProperties;
+import com.looksee.auditManager.config.RetryProperties;
+import com.looksee.auditManager.config.WriteBatchProperties;
+import com.looksee.auditManager.execution.BulkheadFullException;
+import com.looksee.auditManager.execution.Bulkheads;
+import com.looksee.auditManager.execution.Retries;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.auditManager.repository.PageAuditRecordDraft;
+import com.looksee.auditManager.repository.PageAuditRecordRepository;
+import com.looksee.models.enums.AuditName;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PageAuditRecordBatcherTest {
+
+	private static final Set<AuditName> LINKS = Set.of(AuditName.LINKS);
+
+	private PageAuditRecordRepository repository;
+	private WriteBatchProperties properties;
+	private Retries retries;
+	private PageAuditRecordBatcher batcher;
+
+	@BeforeEach
+	void setup() {
+		repository = mock(PageAuditRecordRepository.class);
+		properties = new WriteBatchProperties();
+		properties.setMaxSize(3);
+		properties.setWindow(Duration.ofMillis(200));
+		properties.setWriterThreads(1);
+		RetryProperties retryProperties = new RetryProperties();
+		retryProperties.getNeo4j().setInitialBackoff(Duration.ofMillis(1));
+		retries = new Retries(retryProperties, new ExecutionProperties(), new SimpleMeterRegistry());
+		batcher = new PageAuditRecordBatcher(repository, properties, new Bulkheads(new ExecutionProperties()), retries,
+			new AuditMetrics(new SimpleMeterRegistry()));
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (batcher.isRunning()) {
+			batcher.stop();
+		}
+		retries.destroy();
+	}
+
+	@Test
+	void shouldRejectNonPositiveMaxSize() {
+		properties.setMaxSize(0);
+
+		assertThrows(IllegalArgumentException.class, () -> new PageAuditRecordBatcher(repository, properties, new Bulkheads(new ExecutionProperties()),
+			retries, new AuditMetrics(new SimpleMeterRegistry())));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void shouldWriteConcurrentSubmissionsInOneStatement() {
+		when(repository.createForPages(anyList())).thenReturn(new long[] { 10L, 11L, 12L });
+		batcher.start();
+
+		CompletableFuture<OptionalLong> first = batcher.submit(1L, 3L, 1L, LINKS);
+		CompletableFuture<OptionalLong> second = batcher.submit(1L, 3L, 2L, LINKS);
+		CompletableFuture<OptionalLong> third = batcher.submit(1L, 3L, 4L, LINKS);
+
+		assertEquals(OptionalLong.of(10L), first.join());
+		assertEquals(OptionalLong.of(11L), second.join());
+		assertEquals(OptionalLong.of(12L), third.join());
+		ArgumentCaptor<List<PageAuditRecordDraft>> drafts = ArgumentCaptor.forClass(List.class);
+		verify(repository).createForPages(drafts.capture());
+		assertEquals(3, drafts.getValue().size());
+	}
+
+	@Test
+	void shouldWriteImmediatelyWhenNotRunning() {
+		when(repository.createForPages(anyList())).thenReturn(new long[] { 10L });
+
+		assertEquals(OptionalLong.of(10L), batcher.submit(1L, 3L, 1L, LINKS).join());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void submitAll_shouldSplitIntoStatementsOfMaxSize() {
+		when(repository.createForPages(anyList())).thenReturn(new long[] { 10L, 11L, 12L }, new long[] { 13L });
+
+		List<CompletableFuture<OptionalLong>> results = batcher.submitAll(List.of(
+			new PageAuditRecordDraft(1L, 3L, 1L, LINKS), new PageAuditRecordDraft(1L, 3L, 2L, LINKS),
+			new PageAuditRecordDraft(1L, 3L, 4L, LINKS), new PageAuditRecordDraft(1L, 3L, 5L, LINKS)));
+
+		assertEquals(OptionalLong.of(10L), results.get(0).join());
+		assertEquals(OptionalLong.of(13L), results.get(3).join());
+		ArgumentCaptor<List<PageAuditRecordDraft>> drafts = ArgumentCaptor.forClass(List.class);
+		verify(repository, times(2)).createForPages(drafts.capture());
+		assertEquals(3, drafts.getAllValues().get(0).size());
+		assertEquals(1, drafts.getAllValues().get(1).size());
+	}
+
+	@Test
+	void shouldFailWriteWhoseEndpointsAreMissing() {
+		when(repository.createForPages(anyList())).thenReturn(new long[] { PageAuditRecordRepository.MISSING });
+
+		CompletableFuture<OptionalLong> result = batcher.submit(1L, 3L, 1L, LINKS);
+
+		CompletionException error = assertThrows(CompletionException.class, result::join);
+		assertTrue(error.getCause() instanceof IllegalStateException);
+	}
+
+	@Test
+	void shouldRetryStatementThatFailedTransiently() {
+		when(repository.createForPages(anyList()))
+			.thenThrow(new TransientException("Neo.TransientError.Transaction.DeadlockDetected", "deadlock"))
+			.thenReturn(new long[] { 10L });
+
+		CompletableFuture<OptionalLong> result = batcher.submit(1L, 3L, 1L, LINKS);
+
+		assertEquals(OptionalLong.of(10L), result.join());
+		verify(repository, times(2)).createForPages(anyList());
+	}
+
+	@Test
+	void shouldReportRecordCreatedElsewhereAsAlreadyAudited() {
+		when(repository.createForPages(anyList())).thenReturn(new long[] { PageAuditRecordRepository.EXISTING });
+
+		assertEquals(OptionalLong.empty(), batcher.submit(1L, 3L, 1L, LINKS).join());
+	}
+
+	@Test
+	void shouldFailEveryWriteWhenStatementFails() {
+		when(repository.createForPages(anyList())).thenThrow(new RuntimeException("neo4j"));
+
+		List<PageAuditRecordBatcher.PendingWrite> batch = pending(new long[][] { { 3L, 1L }, { 3L, 2L } });
+		batcher.flush(batch);
+
+		assertTrue(batch.get(0).future().isCompletedExceptionally());
+		assertTrue(batch.get(1).future().isCompletedExceptionally());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void shouldCoalesceDuplicatePagesWithinBatch() {
+		when(repository.createForPages(anyList())).thenReturn(new long[] { 10L });
+
+		List<PageAuditRecordBatcher.PendingWrite> batch = pending(new long[][] { { 3L, 1L }, { 3L, 1L } });
+		batcher.flush(batch);
+
+		assertEquals(OptionalLong.of(10L), batch.get(0).future().join());
+		assertEquals(OptionalLong.empty(), batch.get(1).future().join());
+		ArgumentCaptor<List<PageAuditRecordDraft>> drafts = ArgumentCaptor.forClass(List.class);
+		verify(repository).createForPages(drafts.capture());
+		assertEquals(1, drafts.getValue().size());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void shouldWriteRowsOrderedByDomainAudit() {
+		when(repository.createForPages(anyList())).thenReturn(new long[] { 10L, 11L, 12L });
+
+		List<PageAuditRecordBatcher.PendingWrite> batch = pending(new long[][] { { 5L, 1L }, { 3L, 2L }, { 3L, 1L } });
+		batcher.flush(batch);
+
+		ArgumentCaptor<List<PageAuditRecordDraft>> drafts = ArgumentCaptor.forClass(List.class);
+		verify(repository).createForPages(drafts.capture());
+		assertEquals(List.of(3L, 3L, 5L), drafts.getValue().stream().map(PageAuditRecordDraft::getAuditRecordId).toList());
+		assertEquals(List.of(1L, 2L, 1L), drafts.getValue().stream().map(PageAuditRecordDraft::getPageId).toList());
+		assertEquals(OptionalLong.of(12L), batch.get(0).future().join());
+		assertEquals(OptionalLong.of(11L), batch.get(1).future().join());
+		assertEquals(OptionalLong.of(10L), batch.get(2).future().join());
+	}
+
+	@Test
+	void shouldRejectDraftsBeyondQueueCapacity() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(repository.createForPages(anyList())).thenAnswer(invocation -> {
+			release.await();
+			return new long[] { 10L };
+		});
+		properties.setMaxSize(1);
+		properties.setQueueCapacity(1);
+		batcher = new PageAuditRecordBatcher(repository, properties, new Bulkheads(new ExecutionProperties()), retries,
+			new AuditMetrics(new SimpleMeterRegistry()));
+		batcher.start();
+
+		CompletableFuture<OptionalLong> writing = batcher.submit(1L, 3L, 1L, LINKS);
+		verify(repository, timeout(1000)).createForPages(anyList());
+		CompletableFuture<OptionalLong> queued = batcher.submit(1L, 3L, 2L, LINKS);
+		CompletableFuture<OptionalLong> rejected = batcher.submit(1L, 3L, 4L, LINKS);
+
+		assertTrue(assertThrows(CompletionException.class, rejected::join).getCause() instanceof BulkheadFullException);
+		release.countDown();
+		assertEquals(OptionalLong.of(10L), writing.join());
+		assertEquals(OptionalLong.of(10L), queued.join());
+	}
+
+	@Test
+	void submitPaced_shouldWriteMorePagesThanQueueCapacity() {
+		when(repository.createForPages(anyList())).thenAnswer(invocation -> {
+			List<PageAuditRecordDraft> drafts = invocation.getArgument(0);
+			return drafts.stream().mapToLong(PageAuditRecordDraft::getPageId).toArray();
+		});
+		properties.setWindow(Duration.ofMillis(10));
+		properties.setQueueCapacity(4);
+		batcher = new PageAuditRecordBatcher(repository, properties, new Bulkheads(new ExecutionProperties()), retries,
+			new AuditMetrics(new SimpleMeterRegistry()));
+		batcher.start();
+		List<PageAuditRecordDraft> drafts = new ArrayList<>();
+		for (long pageId = 1; pageId <= 20; pageId++) {
+			drafts.add(new PageAuditRecordDraft(1L, 3L, pageId, LINKS));
+		}
+
+		List<CompletableFuture<OptionalLong>> results = batcher.submitPaced(drafts);
+
+		for (int i = 0; i < drafts.size(); i++) {
+			assertEquals(OptionalLong.of(i + 1L), results.get(i).join());
+		}
+		verify(repository, times(7)).createForPages(anyList());
+	}
+
+	@Test
+	void shouldAwaitRetryingWritesOnStop() {
+		when(repository.createForPages(anyList()))
+			.thenThrow(new TransientException("Neo.TransientError.Transaction.DeadlockDetected", "deadlock"))
+			.thenAnswer(invocation -> {
+				Thread.sleep(200);
+				return new long[] { 10L };
+			});
+		properties.setWindow(Duration.ofMillis(10));
+		batcher.start();
+
+		CompletableFuture<OptionalLong> result = batcher.submit(1L, 3L, 1L, LINKS);
+		verify(repository, timeout(1000).times(2)).createForPages(anyList());
+		batcher.stop();
+
+		assertTrue(result.isDone());
+		assertEquals(OptionalLong.of(10L), result.join());
+	}
+
+	@Test
+	void shouldFlushQueuedWritesOnStop() {
+		when(repository.createForPages(anyList())).thenReturn(new long[] { 10L });
+		properties.setWindow(Duration.ofSeconds(5));
+		properties.setShutdownTimeout(Duration.ofMillis(100));
+		batcher.start();
+
+		CompletableFuture<OptionalLong> result = batcher.submit(1L, 3L, 1L, LINKS);
+		batcher.stop();
+
+		assertFalse(batcher.isRunning());
+		assertEquals(OptionalLong.of(10L), result.join());
+		verify(repository, timeout(1000)).createForPages(anyList());
+	}
+
+	private List<PageAuditRecordBatcher.PendingWrite> pending(long[][] pairs) {
+		List<PageAuditRecordBatcher.PendingWrite> batch = new ArrayList<>();
+		for (long[] pair : pairs) {
+			batch.add(new PageAuditRecordBatcher.PendingWrite(new PageAuditRecordDraft(1L, pair[0], pair[1], LINKS)));
+		}
+		return batch;
+	}
+}
@@ -0,0 +1,99 @@
+package com.looksee.auditManager.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.looksee.auditManager.config.LabelCacheProperties;
+import com.looksee.models.enums.AuditName;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DomainAuditLabelCacheTest {
+
+	private LabelCacheProperties properties;
+	private SimpleMeterRegistry registry;
+	private DomainAuditLabelCache cache;
+
+	@BeforeEach
+	void setup() {
+		properties = new LabelCacheProperties();
+		registry = new SimpleMeterRegistry();
+		cache = new DomainAuditLabelCache(properties, registry);
+	}
+
+	@Test
+	void resolve_shouldParseLabelsOncePerDomainAudit() {
+		Set<AuditName> first = cache.resolve(3L, List.of("LINKS", "TITLES"));
+		Set<AuditName> second = cache.resolve(3L, List.of("LINKS", "TITLES"));
+
+		assertEquals(Set.of(AuditName.LINKS, AuditName.TITLES), first);
+		assertSame(first, second);
+		assertEquals(1, cache.stats().hitCount());
+		assertEquals(1, cache.stats().missCount());
+	}
+
+	@Test
+	void resolve_shouldReplaceEntryWhenLabelsChange() {
+		cache.resolve(3L, List.of("LINKS", "TITLES"));
+
+		Set<AuditName> changed = cache.resolve(3L, List.of("ALT_TEXT"));
+
+		assertEquals(Set.of(AuditName.ALT_TEXT), changed);
+		assertSame(changed, cache.resolve(3L, List.of("ALT_TEXT")));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void shouldPublishStatisticsToTheRegistry() {
+		cache.resolve(3L, List.of("LINKS"));
+		cache.resolve(3L, List.of("LINKS"));
+
+		assertEquals(1.0, registry.get("cache.gets").tags("cache", DomainAuditLabelCache.CACHE_NAME, "result", "hit")
+			.functionCounter().count());
+		assertEquals(1.0, registry.get("cache.gets").tags("cache", DomainAuditLabelCache.CACHE_NAME, "result", "miss")
+			.functionCounter().count());
+		assertEquals(1.0, registry.get("cache.size").tag("cache", DomainAuditLabelCache.CACHE_NAME).gauge().value());
+	}
+
+	@Test
+	void resolve_shouldShareDefaultsWhenNoLabelIsUsable() {
+		assertSame(DomainAuditLabelCache.DEFAULT_AUDIT_NAMES, cache.resolve(3L, List.of()));
+		assertSame(DomainAuditLabelCache.DEFAULT_AUDIT_NAMES, cache.resolve(4L, List.of("NOT_AN_AUDIT")));
+		assertEquals(11, DomainAuditLabelCache.DEFAULT_AUDIT_NAMES.size());
+	}
+
+	@Test
+	void resolve_shouldReturnImmutableSet() {
+		Set<AuditName> auditNames = cache.resolve(3L, List.of("LINKS"));
+
+		assertThrows(UnsupportedOperationException.class, () -> auditNames.add(AuditName.TITLES));
+	}
+
+	@Test
+	void invalidate_shouldReparseLabels() {
+		cache.resolve(3L, List.of("LINKS"));
+
+		cache.invalidate(3L);
+
+		assertEquals(Set.of(AuditName.TITLES), cache.resolve(3L, List.of("TITLES")));
+	}
+
+	@Test
+	void shouldEvictBeyondMaximumSize() {
+		properties.setMaximumSize(1);
+		DomainAuditLabelCache bounded = new DomainAuditLabelCache(properties, registry);
+
+		bounded.resolve(1L, List.of("LINKS"));
+		bounded.resolve(2L, List.of("LINKS"));
+
+		assertEquals(1, bounded.size());
+		assertEquals(1, bounded.stats().evictionCount());
+	}
+}
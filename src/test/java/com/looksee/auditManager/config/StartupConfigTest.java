@@ -0,0 +1,27 @@
+package com.looksee.auditManager.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+
+import com.looksee.auditManager.AuditController;
+import com.looksee.services.AuditRecordService;
+
+class StartupConfigTest {
+
+	private final LazyInitializationExcludeFilter filter = StartupConfig.eagerAuditManagerBeans();
+
+	@Test
+	void shouldKeepAuditManagerBeansEager() {
+		assertTrue(filter.isExcluded("auditController", new RootBeanDefinition(AuditController.class), AuditController.class));
+	}
+
+	@Test
+	void shouldLeaveLibraryBeansLazy() {
+		assertFalse(filter.isExcluded("audit_record_service", new RootBeanDefinition(AuditRecordService.class), AuditRecordService.class));
+		assertFalse(filter.isExcluded("unknown", new RootBeanDefinition(), null));
+	}
+}
@@ -0,0 +1,154 @@
+package com.looksee.auditManager.dedup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.looksee.auditManager.config.DuplicateFilterProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DuplicatePageFilterTest {
+
+	private DuplicateFilterProperties properties;
+	private AtomicLong now;
+	private SimpleMeterRegistry registry;
+	private DuplicatePageFilter filter;
+
+	@BeforeEach
+	void setup() {
+		properties = new DuplicateFilterProperties();
+		now = new AtomicLong();
+		registry = new SimpleMeterRegistry();
+		filter = new DuplicatePageFilter(properties, registry, now::get);
+	}
+
+	@Test
+	void shouldReportOnlyMarkedPairs() {
+		filter.markProcessed(3L, 2L);
+
+		assertTrue(filter.isProcessed(3L, 2L));
+		assertFalse(filter.isProcessed(3L, 4L));
+		assertFalse(filter.isProcessed(5L, 2L));
+	}
+
+	@Test
+	void shouldKeepEveryPageMarkedConcurrently() {
+		List<CompletableFuture<Void>> writers = new ArrayList<>();
+		for (long auditRecordId = 1; auditRecordId <= 4; auditRecordId++) {
+			long audit = auditRecordId;
+			for (int writer = 0; writer < 2; writer++) {
+				long first = writer;
+				writers.add(CompletableFuture.runAsync(() -> {
+					for (long pageId = first; pageId < 2_000; pageId += 2) {
+						filter.markProcessed(audit, pageId);
+					}
+				}));
+			}
+		}
+		CompletableFuture.allOf(writers.toArray(new CompletableFuture<?>[0])).join();
+
+		for (long auditRecordId = 1; auditRecordId <= 4; auditRecordId++) {
+			for (long pageId = 0; pageId < 2_000; pageId++) {
+				assertTrue(filter.isProcessed(auditRecordId, pageId));
+			}
+			assertFalse(filter.isProcessed(auditRecordId, 2_000L));
+		}
+	}
+
+	@Test
+	void shouldPublishFootprintAuditsAndEvictions() {
+		filter.markProcessed(3L, 2L);
+		filter.markProcessed(4L, 2L);
+		filter.evict(3L);
+
+		assertEquals((double) filter.memoryBytes(), registry.get(DuplicatePageFilter.MEMORY_GAUGE).gauge().value());
+		assertEquals(1.0, registry.get(DuplicatePageFilter.DOMAIN_AUDITS_GAUGE).gauge().value());
+		assertEquals(1.0, registry.get(DuplicatePageFilter.EVICTION_COUNTER).counter().count());
+	}
+
+	@Test
+	void shouldEvictCompletedAudit() {
+		filter.markProcessed(3L, 2L);
+		long footprint = filter.memoryBytes();
+
+		filter.evict(3L);
+
+		assertFalse(filter.isProcessed(3L, 2L));
+		assertEquals(0, filter.auditCount());
+		assertEquals(0, filter.memoryBytes());
+		assertTrue(footprint > 0);
+		assertEquals(1, filter.evictionCount());
+	}
+
+	@Test
+	void shouldEvictIdleAudits() {
+		properties.setIdleTimeout(Duration.ofMinutes(10));
+		filter.markProcessed(3L, 2L);
+
+		now.addAndGet(Duration.ofMinutes(11).toNanos());
+
+		assertFalse(filter.isProcessed(3L, 2L));
+		assertEquals(0, filter.auditCount());
+	}
+
+	@Test
+	void shouldEvictLeastRecentlyUsedAuditWhenOverMemoryCeiling() {
+		filter.markProcessed(1L, 10L);
+		properties.setMaxBytes(filter.memoryBytes() * 2);
+		now.incrementAndGet();
+		filter.markProcessed(2L, 20L);
+		now.incrementAndGet();
+		filter.isProcessed(1L, 10L);
+		now.incrementAndGet();
+
+		filter.markProcessed(3L, 30L);
+
+		assertTrue(filter.memoryBytes() <= properties.getMaxBytes());
+		assertTrue(filter.isProcessed(1L, 10L));
+		assertFalse(filter.isProcessed(2L, 20L));
+		assertTrue(filter.isProcessed(3L, 30L));
+	}
+
+	@Test
+	void shouldDoNothingWhenDisabled() {
+		properties.setEnabled(false);
+
+		filter.markProcessed(3L, 2L);
+
+		assertFalse(filter.isProcessed(3L, 2L));
+		assertEquals(0, filter.memoryBytes());
+	}
+
+	@Test
+	void shouldRejectNonPositiveIdleTimeout() {
+		properties.setIdleTimeout(Duration.ZERO);
+
+		assertThrows(IllegalArgumentException.class, () -> new DuplicatePageFilter(properties, registry));
+	}
+
+	@Test
+	void longHashSet_shouldGrowAndTrackZero() {
+		LongHashSet set = new LongHashSet(0);
+		for (long value = 0; value < 1_000; value++) {
+			assertTrue(set.add(value));
+		}
+
+		assertFalse(set.add(0L));
+		assertFalse(set.add(999L));
+		assertEquals(1_000, set.size());
+		assertTrue(set.contains(0L));
+		assertFalse(set.contains(-1L));
+		assertTrue(set.sizeInBytes() >= 2_000 * Long.BYTES);
+	}
+}
@@ -0,0 +1,75 @@
+package com.looksee.auditManager.dedup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.looksee.auditManager.ProcessingOutcome;
+
+class InFlightPagesTest {
+
+	private final InFlightPages inFlightPages = new InFlightPages();
+
+	@Test
+	void shouldShareOwnersOutcomeWithConcurrentDuplicates() {
+		CompletableFuture<ProcessingOutcome> work = new CompletableFuture<>();
+		AtomicInteger runs = new AtomicInteger();
+
+		CompletableFuture<ProcessingOutcome> first = inFlightPages.run(3L, 2L, () -> {
+			runs.incrementAndGet();
+			return work;
+		});
+		CompletableFuture<ProcessingOutcome> second = inFlightPages.run(3L, 2L, () -> {
+			runs.incrementAndGet();
+			return work;
+		});
+		assertFalse(second.isDone());
+
+		work.complete(ProcessingOutcome.AUDIT_CREATED);
+
+		assertEquals(ProcessingOutcome.AUDIT_CREATED, first.join());
+		assertEquals(ProcessingOutcome.ALREADY_AUDITED, second.join());
+		assertEquals(1, runs.get());
+		assertEquals(0, inFlightPages.size());
+	}
+
+	@Test
+	void shouldNotSerializeUnrelatedPages() {
+		InFlightPages.Claim first = inFlightPages.claim(3L, 2L);
+		InFlightPages.Claim otherPage = inFlightPages.claim(3L, 4L);
+		InFlightPages.Claim otherAudit = inFlightPages.claim(5L, 2L);
+
+		assertTrue(first.isOwner());
+		assertTrue(otherPage.isOwner());
+		assertTrue(otherAudit.isOwner());
+		assertFalse(inFlightPages.claim(3L, 2L).isOwner());
+	}
+
+	@Test
+	void shouldFailFollowersAndReleaseClaimWhenOwnerFails() {
+		InFlightPages.Claim owner = inFlightPages.claim(3L, 2L);
+		InFlightPages.Claim follower = inFlightPages.claim(3L, 2L);
+
+		owner.complete(CompletableFuture.failedFuture(new RuntimeException("neo4j")));
+
+		assertThrows(CompletionException.class, follower.outcome()::join);
+		assertTrue(inFlightPages.claim(3L, 2L).isOwner());
+	}
+
+	@Test
+	void shouldFailOwnerWhoseWorkThrows() {
+		CompletableFuture<ProcessingOutcome> outcome = inFlightPages.run(3L, 2L, () -> {
+			throw new IllegalStateException("boom");
+		});
+
+		assertThrows(CompletionException.class, outcome::join);
+		assertEquals(0, inFlightPages.size());
+	}
+}
@@ -0,0 +1,126 @@
+package com.looksee.auditManager.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.looksee.auditManager.config.ConcurrencyLimitProperties;
+import com.looksee.auditManager.execution.AdaptiveConcurrencyLimiter.Permit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyLimiterTest {
+
+	private ConcurrencyLimitProperties properties;
+	private SimpleMeterRegistry registry;
+
+	@BeforeEach
+	void setup() {
+		properties = new ConcurrencyLimitProperties();
+		properties.setMinLimit(2);
+		properties.setInitialLimit(10);
+		properties.setMaxLimit(100);
+		registry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	void tryAcquire_shouldShedBeyondLimitUntilReleased() {
+		properties.setInitialLimit(2);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, registry);
+
+		Permit first = limiter.tryAcquire();
+		assertNotNull(limiter.tryAcquire());
+		assertNull(limiter.tryAcquire());
+
+		first.release();
+		assertNotNull(limiter.tryAcquire());
+		assertEquals(2, limiter.getInFlight());
+		assertEquals(2.0, registry.get(AdaptiveConcurrencyLimiter.IN_FLIGHT_GAUGE).gauge().value());
+	}
+
+	@Test
+	void shouldGrowLimitWhileLatencyStaysAtBaseline() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, registry);
+
+		limiter.onSample(1_000_000L, 10, false);
+		limiter.onSample(1_000_000L, 10, false);
+
+		assertEquals(16, limiter.getLimit());
+		assertEquals(16.0, registry.get(AdaptiveConcurrencyLimiter.LIMIT_GAUGE).gauge().value());
+		assertEquals(0.001, registry.get(AdaptiveConcurrencyLimiter.NO_LOAD_LATENCY_GAUGE).gauge().value(), 1e-9);
+	}
+
+	@Test
+	void shouldShrinkLimitWhenLatencyShowsQueuing() {
+		properties.setInitialLimit(50);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, registry);
+
+		limiter.onSample(1_000_000L, 50, false);
+		limiter.onSample(10_000_000L, 50, false);
+
+		assertEquals(48, limiter.getLimit());
+	}
+
+	@Test
+	void shouldHoldLimitWithoutEnoughLoadToJudge() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, registry);
+
+		limiter.onSample(1_000_000L, 1, false);
+		limiter.onSample(1_000_000L, 1, false);
+		limiter.onSample(50_000_000L, 1, false);
+
+		assertEquals(10, limiter.getLimit());
+	}
+
+	@Test
+	void onDropped_shouldShrinkLimitNoFurtherThanMinimum() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, registry);
+
+		limiter.onDropped();
+		assertEquals(9, limiter.getLimit());
+
+		for (int i = 0; i < 20; i++) {
+			limiter.onDropped();
+		}
+		assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	void shouldRemeasureBaselinePeriodically() {
+		properties.setInitialLimit(2);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, registry);
+
+		limiter.onSample(1_000L, 0, false);
+		for (int i = 1; i < AdaptiveConcurrencyLimiter.PROBE_MULTIPLIER * 2 - 1; i++) {
+			limiter.onSample(5_000L, 0, false);
+		}
+		assertEquals(1_000L, limiter.getNoLoadLatencyNanos());
+
+		limiter.onSample(5_000L, 0, false);
+		assertEquals(5_000L, limiter.getNoLoadLatencyNanos());
+	}
+
+	@Test
+	void shouldAdmitEverythingWhenDisabled() {
+		properties.setEnabled(false);
+		properties.setInitialLimit(2);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, registry);
+
+		for (int i = 0; i < 5; i++) {
+			assertNotNull(limiter.tryAcquire());
+		}
+		limiter.onDropped();
+		assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	void shouldRejectUnorderedLimits() {
+		properties.setMinLimit(20);
+
+		assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(properties, registry));
+	}
+}
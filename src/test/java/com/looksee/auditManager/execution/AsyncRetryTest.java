@@ -0,0 +1,188 @@
+package com.looksee.auditManager.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.exceptions.ServiceUnavailableException;
+
+import com.looksee.auditManager.config.RetryProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AsyncRetryTest {
+
+	private ScheduledThreadPoolExecutor scheduler;
+	private ExecutorService workers;
+	private SimpleMeterRegistry registry;
+	private RetryProperties.Backend settings;
+
+	@BeforeEach
+	void setup() {
+		scheduler = new ScheduledThreadPoolExecutor(1, runnable -> new Thread(runnable, "retry-scheduler"));
+		workers = Executors.newCachedThreadPool();
+		registry = new SimpleMeterRegistry();
+		settings = new RetryProperties.Backend();
+		settings.setMaxAttempts(3);
+		settings.setInitialBackoff(Duration.ofMillis(50));
+		settings.setMaxBackoff(Duration.ofMillis(200));
+		settings.setFailureThreshold(10);
+	}
+
+	@AfterEach
+	void tearDown() {
+		scheduler.shutdownNow();
+		workers.shutdownNow();
+	}
+
+	@Test
+	void call_shouldRetryWithoutBlockingCaller() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		Thread caller = Thread.currentThread();
+		AtomicInteger attemptsOnCaller = new AtomicInteger();
+
+		CompletableFuture<String> result = retry(0.5).call(() -> {
+			if (Thread.currentThread() == caller) {
+				attemptsOnCaller.incrementAndGet();
+			}
+			if (attempts.incrementAndGet() < 3) {
+				throw new ServiceUnavailableException("connection lost");
+			}
+			return "ok";
+		});
+
+		assertFalse(result.isDone());
+		assertEquals("ok", result.get(5, TimeUnit.SECONDS));
+		assertEquals(3, attempts.get());
+		assertEquals(1, attemptsOnCaller.get());
+		assertEquals(2.0, registry.get(AsyncRetry.ATTEMPTS_COUNTER).counter().count());
+		assertEquals(1.0, calls("success_after_retry"));
+	}
+
+	@Test
+	void call_shouldRunRetriedAttemptsOffTheScheduler() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger blockedAttempts = new AtomicInteger();
+		AsyncRetry retry = retry(0);
+
+		CompletableFuture<String> blocked = retry.call(() -> {
+			if (blockedAttempts.incrementAndGet() == 1) {
+				throw new ServiceUnavailableException("connection lost");
+			}
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Thread.currentThread().getName();
+		});
+		AtomicInteger attempts = new AtomicInteger();
+		CompletableFuture<String> other = retry.call(() -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new ServiceUnavailableException("connection lost");
+			}
+			return Thread.currentThread().getName();
+		});
+
+		try {
+			assertNotEquals("retry-scheduler", other.get(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+		}
+		assertNotEquals("retry-scheduler", blocked.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void call_shouldFailWithLastErrorWhenWorkersRejectTheRetry() {
+		workers.shutdown();
+
+		CompletableFuture<String> result = retry(0).call(() -> {
+			throw new ServiceUnavailableException("connection lost");
+		});
+
+		ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(ServiceUnavailableException.class, error.getCause());
+		assertEquals(1.0, calls("failure"));
+	}
+
+	@Test
+	void call_shouldFailWithLastErrorAfterMaxAttempts() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		CompletableFuture<String> result = retry(0).call(() -> {
+			throw new ServiceUnavailableException("attempt " + attempts.incrementAndGet());
+		});
+
+		ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(ServiceUnavailableException.class, error.getCause());
+		assertEquals("attempt 3", error.getCause().getMessage());
+		assertEquals(1.0, calls("failure"));
+	}
+
+	@Test
+	void call_shouldNotRetryNonTransientFailure() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		CompletableFuture<String> result = retry(0).call(() -> {
+			attempts.incrementAndGet();
+			throw new IllegalStateException("bad query");
+		});
+
+		assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, result::get).getCause());
+		assertEquals(1, attempts.get());
+		assertEquals(0.0, registry.get(AsyncRetry.ATTEMPTS_COUNTER).counter().count());
+	}
+
+	@Test
+	void callAsync_shouldRejectWhileBreakerIsOpen() {
+		settings.setMaxAttempts(1);
+		settings.setFailureThreshold(1);
+		AsyncRetry retry = retry(0);
+		retry.callAsync(() -> CompletableFuture.failedFuture(new ServiceUnavailableException("connection lost")));
+		AtomicInteger attempts = new AtomicInteger();
+
+		CompletableFuture<String> result = retry.callAsync(() -> {
+			attempts.incrementAndGet();
+			return CompletableFuture.completedFuture("ok");
+		});
+
+		assertInstanceOf(CircuitOpenException.class, assertThrows(ExecutionException.class, result::get).getCause());
+		assertEquals(0, attempts.get());
+		assertEquals(1.0, calls("rejected"));
+		assertEquals(2.0, registry.get(AsyncRetry.BREAKER_STATE_GAUGE).gauge().value());
+	}
+
+	@Test
+	void backoffNanos_shouldGrowExponentiallyUpToMaxWithFullJitter() {
+		AsyncRetry ceiling = retry(1.0);
+
+		assertEquals(Duration.ofMillis(50).toNanos(), ceiling.backoffNanos(1));
+		assertEquals(Duration.ofMillis(100).toNanos(), ceiling.backoffNanos(2));
+		assertEquals(Duration.ofMillis(200).toNanos(), ceiling.backoffNanos(4));
+		assertEquals(Duration.ofMillis(50).toNanos(), retry(0.5).backoffNanos(2));
+	}
+
+	private AsyncRetry retry(double random) {
+		CircuitBreaker breaker = new CircuitBreaker("neo4j", settings.getFailureThreshold(), settings.getOpenDuration(), System::nanoTime);
+		return new AsyncRetry("neo4j", settings, Retries::isTransientNeo4jFailure, breaker, scheduler, workers, () -> random, registry);
+	}
+
+	private double calls(String outcome) {
+		return registry.get(AsyncRetry.CALLS_COUNTER).tag("outcome", outcome).counter().count();
+	}
+}
@@ -0,0 +1,95 @@
+package com.looksee.auditManager.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.looksee.auditManager.config.ExecutionProperties;
+
+class BulkheadTest {
+
+	@Test
+	void call_shouldReleasePermitAfterFailure() {
+		Bulkhead bulkhead = new Bulkhead("neo4j", 1, Duration.ofMillis(10));
+
+		assertThrows(IllegalStateException.class, () -> bulkhead.call(() -> {
+			throw new IllegalStateException("boom");
+		}));
+
+		assertEquals(1, bulkhead.availablePermits());
+		assertEquals("ok", bulkhead.call(() -> "ok"));
+	}
+
+	@Test
+	void callAsync_shouldHoldPermitUntilFutureCompletes() {
+		Bulkhead bulkhead = new Bulkhead("pubsub", 1, Duration.ofMillis(10));
+		CompletableFuture<String> pending = new CompletableFuture<>();
+
+		CompletableFuture<String> result = bulkhead.callAsync(() -> pending);
+
+		assertEquals(0, bulkhead.availablePermits());
+		assertThrows(BulkheadFullException.class, () -> bulkhead.call(() -> "rejected"));
+		pending.complete("message-id");
+		assertEquals("message-id", result.join());
+		assertEquals(1, bulkhead.availablePermits());
+	}
+
+	@Test
+	void tryCallAsync_shouldFailAtOnceWhenNoPermitIsFree() {
+		Bulkhead bulkhead = new Bulkhead("pubsub", 1, Duration.ofMinutes(1));
+		CompletableFuture<String> pending = new CompletableFuture<>();
+		CompletableFuture<String> result = bulkhead.tryCallAsync(() -> pending);
+
+		assertThrows(BulkheadFullException.class, () -> bulkhead.tryCallAsync(() -> CompletableFuture.completedFuture("rejected")));
+
+		pending.complete("message-id");
+		assertEquals("message-id", result.join());
+		assertEquals("ok", bulkhead.tryCallAsync(() -> CompletableFuture.completedFuture("ok")).join());
+		assertEquals(1, bulkhead.availablePermits());
+	}
+
+	@Test
+	void callAsync_shouldReleasePermitWhenStartFails() {
+		Bulkhead bulkhead = new Bulkhead("pubsub", 1, Duration.ofMillis(10));
+
+		assertThrows(IllegalStateException.class, () -> bulkhead.callAsync(() -> {
+			throw new IllegalStateException("boom");
+		}));
+
+		assertEquals(1, bulkhead.availablePermits());
+	}
+
+	@Test
+	void shouldRejectNonPositiveLimit() {
+		assertThrows(IllegalArgumentException.class, () -> new Bulkhead("neo4j", 0, Duration.ZERO));
+	}
+
+	@Test
+	void bulkheads_shouldBeSizedFromProperties() {
+		ExecutionProperties properties = new ExecutionProperties();
+		properties.setNeo4jMaxConcurrent(50);
+		properties.setPubsubMaxConcurrent(500);
+
+		Bulkheads bulkheads = new Bulkheads(properties);
+
+		assertEquals(50, bulkheads.neo4j().getMaxConcurrent());
+		assertEquals(500, bulkheads.pubsub().getMaxConcurrent());
+	}
+
+	@Test
+	void virtualThreads_shouldMatchRuntimeSupport() {
+		boolean java21 = Runtime.version().feature() >= 21;
+
+		assertEquals(java21, VirtualThreads.isSupported());
+		if (!java21) {
+			assertThrows(IllegalStateException.class, VirtualThreads::newVirtualThreadPerTaskExecutor);
+		} else {
+			assertTrue(VirtualThreads.newVirtualThreadPerTaskExecutor() != null);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.looksee.auditManager.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.looksee.auditManager.execution.CircuitBreaker.State;
+
+class CircuitBreakerTest {
+
+	private final AtomicLong clock = new AtomicLong();
+	private final CircuitBreaker breaker = new CircuitBreaker("neo4j", 2, Duration.ofSeconds(1), clock::get);
+
+	@Test
+	void shouldOpenAfterConsecutiveFailures() {
+		fail();
+		breaker.onSuccess();
+		fail();
+		assertEquals(State.CLOSED, breaker.getState());
+
+		fail();
+
+		assertEquals(State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void shouldNotCountIgnoredFailures() {
+		fail();
+		assertTrue(breaker.tryAcquirePermission());
+		breaker.onIgnored();
+
+		assertEquals(State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void shouldLetOneTrialThroughOnceOpenDurationHasPassed() {
+		fail();
+		fail();
+		clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+		assertTrue(breaker.tryAcquirePermission());
+		assertEquals(State.HALF_OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquirePermission());
+
+		breaker.onSuccess();
+
+		assertEquals(State.CLOSED, breaker.getState());
+		assertTrue(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void shouldReopenWhenTrialFails() {
+		fail();
+		fail();
+		clock.addAndGet(Duration.ofSeconds(1).toNanos());
+		assertTrue(breaker.tryAcquirePermission());
+
+		breaker.onFailure();
+
+		assertEquals(State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void shouldRejectNonPositiveThreshold() {
+		assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("pubsub", 0, Duration.ZERO, clock::get));
+	}
+
+	private void fail() {
+		assertTrue(breaker.tryAcquirePermission());
+		breaker.onFailure();
+	}
+}
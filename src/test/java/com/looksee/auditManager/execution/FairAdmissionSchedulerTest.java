@@ -0,0 +1,254 @@
+package com.looksee.auditManager.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.looksee.auditManager.config.ExecutionProperties;
+import com.looksee.auditManager.config.FairSchedulingProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FairAdmissionSchedulerTest {
+
+	private FairSchedulingProperties properties;
+	private SimpleMeterRegistry registry;
+	private FairAdmissionScheduler scheduler;
+	private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+	@BeforeEach
+	void setup() {
+		properties = new FairSchedulingProperties();
+		properties.setEnabled(true);
+		properties.setMaxConcurrent(1);
+		properties.setShutdownTimeout(Duration.ofMillis(50));
+		registry = new SimpleMeterRegistry();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (scheduler != null && scheduler.isRunning()) {
+			scheduler.stop();
+		}
+	}
+
+	private FairAdmissionScheduler createScheduler() {
+		scheduler = new FairAdmissionScheduler(properties, new ExecutionProperties(), registry);
+		scheduler.start();
+		return scheduler;
+	}
+
+	@Test
+	void submit_shouldStartAtOnceWhenDisabled() {
+		properties.setEnabled(false);
+		createScheduler();
+
+		assertEquals("done", scheduler.trySubmit(1L, () -> CompletableFuture.completedFuture("done")).join());
+		assertFalse(scheduler.isRunning());
+		assertNull(registry.find(FairAdmissionScheduler.RUNNING_GAUGE).gauge());
+	}
+
+	@Test
+	void submit_shouldAlternateBetweenAccountsOnceTheBudgetIsSpent() throws Exception {
+		createScheduler();
+		CompletableFuture<String> blocker = new CompletableFuture<>();
+		CompletableFuture<String> first = scheduler.submit(1L, () -> blocker);
+		List<CompletableFuture<String>> queued = new ArrayList<>();
+		for (String name : List.of("a1", "a2", "a3", "a4")) {
+			queued.add(scheduler.submit(1L, () -> record(name)));
+		}
+		for (String name : List.of("b1", "b2")) {
+			queued.add(scheduler.submit(2L, () -> record(name)));
+		}
+
+		assertEquals(4.0, registry.get(FairAdmissionScheduler.QUEUE_DEPTH_GAUGE).tag("account", "1").gauge().value());
+		assertEquals(2.0, registry.get(FairAdmissionScheduler.QUEUE_DEPTH_GAUGE).tag("account", "2").gauge().value());
+		assertTrue(started.isEmpty());
+		blocker.complete("blocker");
+		assertEquals("blocker", first.join());
+		CompletableFuture.allOf(queued.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+
+		assertEquals(List.of("a1", "b1", "a2", "b2", "a3", "a4"), started);
+		assertEquals(0.0, registry.get(FairAdmissionScheduler.QUEUE_DEPTH_GAUGE).tag("account", "1").gauge().value());
+		assertEquals(5, registry.get(FairAdmissionScheduler.WAIT_TIMER).tag("account", "1").timer().count());
+		assertEquals(0.0, registry.get(FairAdmissionScheduler.RUNNING_GAUGE).gauge().value());
+	}
+
+	@Test
+	void submit_shouldShareTheBudgetByWeight() throws Exception {
+		properties.getWeights().put(1L, 2.0);
+		properties.getWeights().put(3L, 0.5);
+		createScheduler();
+		CompletableFuture<String> blocker = new CompletableFuture<>();
+		scheduler.submit(9L, () -> blocker);
+		List<CompletableFuture<String>> queued = new ArrayList<>();
+		for (String name : List.of("a1", "a2", "a3", "a4")) {
+			queued.add(scheduler.submit(1L, () -> record(name)));
+		}
+		for (String name : List.of("b1", "b2")) {
+			queued.add(scheduler.submit(2L, () -> record(name)));
+		}
+		for (String name : List.of("c1", "c2")) {
+			queued.add(scheduler.submit(3L, () -> record(name)));
+		}
+
+		blocker.complete("blocker");
+		CompletableFuture.allOf(queued.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+
+		assertEquals(List.of("a1", "a2", "b1", "a3", "a4", "b2", "c1", "c2"), started);
+	}
+
+	@Test
+	void trySubmit_shouldRejectAtOnceWhenTheAccountQueueIsFull() {
+		properties.setMaxQueuedPerAccount(1);
+		createScheduler();
+		CompletableFuture<String> blocker = new CompletableFuture<>();
+		scheduler.trySubmit(1L, () -> blocker);
+		CompletableFuture<String> waiting = scheduler.trySubmit(1L, () -> record("waiting"));
+
+		CompletableFuture<String> rejected = scheduler.trySubmit(1L, () -> record("rejected"));
+		CompletableFuture<String> otherAccount = scheduler.trySubmit(2L, () -> record("other"));
+
+		assertRejected(rejected);
+		assertFalse(otherAccount.isDone());
+		assertEquals(1.0, registry.get(FairAdmissionScheduler.REJECTED_COUNTER)
+			.tags("account", "1", "reason", "queue_full").counter().count());
+		blocker.complete("blocker");
+		assertEquals("waiting", waiting.join());
+		assertEquals("other", otherAccount.join());
+	}
+
+	@Test
+	void trySubmit_shouldRejectMessagesThatWaitTooLong() {
+		properties.setPushMaxWait(Duration.ofMillis(20));
+		createScheduler();
+		CompletableFuture<String> blocker = new CompletableFuture<>();
+		scheduler.trySubmit(1L, () -> blocker);
+
+		CompletableFuture<String> expired = scheduler.trySubmit(2L, () -> record("expired"));
+
+		assertRejected(expired);
+		assertEquals(1.0, registry.get(FairAdmissionScheduler.REJECTED_COUNTER)
+			.tags("account", "2", "reason", "timeout").counter().count());
+		assertEquals(0.0, registry.get(FairAdmissionScheduler.QUEUE_DEPTH_GAUGE).tag("account", "2").gauge().value());
+		blocker.complete("blocker");
+		assertEquals("next", scheduler.trySubmit(2L, () -> record("next")).join());
+		assertFalse(started.contains("expired"));
+	}
+
+	@Test
+	void trySubmit_shouldExpireWhileTheWorkersAreBlocked() throws Exception {
+		properties.setPushMaxWait(Duration.ofMillis(200));
+		createScheduler();
+		CompletableFuture<String> blocker = new CompletableFuture<>();
+		scheduler.trySubmit(1L, () -> blocker);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> threads = Collections.synchronizedList(new ArrayList<>());
+		CompletableFuture<String> blocking = scheduler.submit(1L, () -> {
+			threads.add(Thread.currentThread().getName());
+			awaitQuietly(release);
+			return CompletableFuture.completedFuture("blocking");
+		});
+		blocker.complete("blocker");
+
+		CompletableFuture<String> expired = scheduler.trySubmit(2L, () -> record("expired"));
+
+		assertRejected(expired);
+		release.countDown();
+		assertEquals("blocking", blocking.join());
+		assertTrue(threads.get(0).startsWith("fair-admission-"), threads.toString());
+	}
+
+	@Test
+	void shouldDropIdleAccountsAndTheirMeters() throws Exception {
+		properties.setPushMaxWait(Duration.ofMillis(20));
+		properties.setIdleTimeout(Duration.ofMillis(100));
+		createScheduler();
+		CompletableFuture<String> blocker = new CompletableFuture<>();
+		scheduler.trySubmit(1L, () -> blocker);
+		assertRejected(scheduler.trySubmit(2L, () -> record("expired")));
+		blocker.complete("blocker");
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!registry.find(FairAdmissionScheduler.QUEUE_DEPTH_GAUGE).meters().isEmpty() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+
+		assertTrue(registry.find(FairAdmissionScheduler.QUEUE_DEPTH_GAUGE).meters().isEmpty());
+		assertTrue(registry.find(FairAdmissionScheduler.WAIT_TIMER).meters().isEmpty());
+		assertTrue(registry.find(FairAdmissionScheduler.REJECTED_COUNTER).meters().isEmpty());
+		assertEquals("back", scheduler.trySubmit(2L, () -> record("back")).join());
+		assertEquals(1, registry.get(FairAdmissionScheduler.WAIT_TIMER).tag("account", "2").timer().count());
+	}
+
+	@Test
+	void submit_shouldReleaseTheBudgetWhenATaskThrows() {
+		createScheduler();
+
+		CompletableFuture<String> failed = scheduler.submit(1L, () -> {
+			throw new IllegalStateException("boom");
+		});
+
+		ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalStateException.class, error.getCause());
+		assertEquals("next", scheduler.submit(1L, () -> record("next")).join());
+	}
+
+	@Test
+	void stop_shouldRejectWhatIsStillWaitingAndEverythingSubmittedAfter() {
+		createScheduler();
+		CompletableFuture<String> blocker = new CompletableFuture<>();
+		scheduler.submit(1L, () -> blocker);
+		CompletableFuture<String> waiting = scheduler.submit(2L, () -> record("waiting"));
+
+		scheduler.stop();
+
+		assertFalse(scheduler.isRunning());
+		assertRejected(waiting);
+		assertRejected(scheduler.submit(3L, () -> record("late")));
+		assertEquals(1.0, registry.get(FairAdmissionScheduler.REJECTED_COUNTER)
+			.tags("account", "2", "reason", "stopped").counter().count());
+		blocker.complete("blocker");
+	}
+
+	@Test
+	void shouldRejectNonPositiveWeights() {
+		properties.getWeights().put(1L, 0.0);
+
+		assertThrows(IllegalArgumentException.class, () -> new FairAdmissionScheduler(properties, new ExecutionProperties(), registry));
+	}
+
+	private CompletableFuture<String> record(String name) {
+		started.add(name);
+		return CompletableFuture.completedFuture(name);
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void assertRejected(CompletableFuture<?> future) {
+		ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(AdmissionRejectedException.class, error.getCause());
+	}
+}
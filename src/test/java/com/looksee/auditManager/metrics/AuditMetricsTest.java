@@ -0,0 +1,124 @@
+package com.looksee.auditManager.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.google.cloud.spring.pubsub.core.PubSubException;
+import com.looksee.auditManager.PageBuiltMessageDecoder.Rejection;
+import com.looksee.auditManager.ProcessingOutcome;
+import com.looksee.auditManager.execution.BulkheadFullException;
+import com.looksee.auditManager.metrics.AuditMetrics.Stage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditMetricsTest {
+
+	private SimpleMeterRegistry registry;
+	private AuditMetrics metrics;
+
+	@BeforeEach
+	void setup() {
+		registry = new SimpleMeterRegistry();
+		metrics = new AuditMetrics(registry);
+	}
+
+	@Test
+	void shouldRegisterEveryMeterUpFront() {
+		assertEquals(2 * Stage.values().length, registry.find(AuditMetrics.STAGE_TIMER).timers().size());
+		assertEquals(ProcessingOutcome.values().length + Rejection.values().length + FailureCause.values().length + 2,
+			registry.find(AuditMetrics.MESSAGE_COUNTER).counters().size());
+		assertEquals(0.0, registry.get(AuditMetrics.IN_FLIGHT_GAUGE).gauge().value());
+	}
+
+	@Test
+	void shouldRecordUptimeOfFirstProcessedMessageOnly() {
+		AtomicLong uptime = new AtomicLong(1_500);
+		metrics = new AuditMetrics(registry = new SimpleMeterRegistry(), uptime::get);
+		assertTrue(Double.isNaN(firstProcessedSeconds()));
+
+		metrics.processed(ProcessingOutcome.AUDIT_CREATED);
+		uptime.set(9_000);
+		metrics.processed(ProcessingOutcome.ALREADY_AUDITED);
+
+		assertEquals(1.5, firstProcessedSeconds());
+	}
+
+	@Test
+	void time_shouldRecordFailureWhenActionThrows() {
+		assertThrows(IllegalStateException.class, () -> metrics.time(Stage.ELIGIBILITY, () -> {
+			throw new IllegalStateException("neo4j");
+		}));
+		metrics.time(Stage.ELIGIBILITY, () -> "ok");
+
+		assertEquals(1, stageCount(Stage.ELIGIBILITY, "failure"));
+		assertEquals(1, stageCount(Stage.ELIGIBILITY, "success"));
+	}
+
+	@Test
+	void shouldCountOutcomesByStatus() {
+		metrics.processed(ProcessingOutcome.NOT_LANDABLE);
+		metrics.rejected(Rejection.INVALID_ENCODING);
+		metrics.failed(new CompletionException(new BulkheadFullException("full")));
+
+		assertEquals(1.0, count("200", "not_landable"));
+		assertEquals(1.0, count("400", "invalid_encoding"));
+		assertEquals(1.0, count("500", "bulkhead_full"));
+	}
+
+	@Test
+	void shed_shouldCountTooManyRequests() {
+		metrics.shed();
+
+		assertEquals(1.0, count("429", "concurrency_limit"));
+	}
+
+	@Test
+	void admissionShed_shouldCountTooManyRequests() {
+		metrics.admissionShed();
+
+		assertEquals(1.0, count("429", "fair_scheduling"));
+	}
+
+	@Test
+	void shouldTrackInFlightRequests() {
+		metrics.requestStarted();
+		metrics.requestStarted();
+		metrics.requestFinished();
+
+		assertEquals(1.0, registry.get(AuditMetrics.IN_FLIGHT_GAUGE).gauge().value());
+	}
+
+	@Test
+	void failureCause_shouldClassifyWrappedBackendErrors() {
+		assertEquals(FailureCause.NEO4J, FailureCause.of(new TransientDataAccessResourceException("down")));
+		assertEquals(FailureCause.PUBSUB, FailureCause.of(new ExecutionException(new PubSubException("rejected"))));
+		assertEquals(FailureCause.SERIALIZATION, FailureCause.of(new JsonParseException(null, "bad")));
+		assertEquals(FailureCause.UNEXPECTED, FailureCause.of(new CompletionException(null)));
+		assertTrue(FailureCause.BULKHEAD_FULL.isBackendFailure());
+		assertFalse(FailureCause.SERIALIZATION.isBackendFailure());
+	}
+
+	private long stageCount(Stage stage, String outcome) {
+		return registry.get(AuditMetrics.STAGE_TIMER).tag("stage", stage.name().toLowerCase()).tag("outcome", outcome).timer().count();
+	}
+
+	private double firstProcessedSeconds() {
+		return registry.get(AuditMetrics.FIRST_PROCESSED_GAUGE).timeGauge().value(TimeUnit.SECONDS);
+	}
+
+	private double count(String status, String outcome) {
+		return registry.get(AuditMetrics.MESSAGE_COUNTER).tag("status", status).tag("outcome", outcome).counter().count();
+	}
+}
@@ -0,0 +1,268 @@
+package com.looksee.auditManager.progress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherOperations;
+import com.google.pubsub.v1.PubsubMessage;
+import com.looksee.auditManager.ProcessingOutcome;
+import com.looksee.auditManager.config.AuditProgressProperties;
+import com.looksee.auditManager.config.ExecutionProperties;
+import com.looksee.auditManager.config.RetryProperties;
+import com.looksee.auditManager.execution.Bulkheads;
+import com.looksee.auditManager.execution.Retries;
+import com.looksee.auditManager.publish.PageAuditMessageFormat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditProgressTrackerTest {
+
+	private static final String TOPIC = "audit-update-topic";
+	private static final ObjectMapper MAPPER = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+	private final AtomicLong clock = new AtomicLong();
+	private PubSubPublisherOperations publisherOperations;
+	private AuditProgressProperties properties;
+	private SimpleMeterRegistry registry;
+	private Retries retries;
+	private AuditProgressTracker tracker;
+
+	@BeforeEach
+	void setup() {
+		publisherOperations = mock(PubSubPublisherOperations.class);
+		properties = new AuditProgressProperties();
+		properties.setEnabled(true);
+		registry = new SimpleMeterRegistry();
+		retries = new Retries(new RetryProperties(), new ExecutionProperties(), registry);
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		if (tracker != null && tracker.isRunning()) {
+			tracker.stop();
+		}
+		retries.destroy();
+	}
+
+	private AuditProgressTracker createTracker() {
+		tracker = new AuditProgressTracker(publisherOperations, TOPIC, properties, new Bulkheads(new ExecutionProperties()),
+			retries, registry, clock::get);
+		return tracker;
+	}
+
+	@Test
+	void flush_shouldPublishOneUpdatePerDomainAuditHoweverManyPagesItHad() throws Exception {
+		acceptPublishes();
+		createTracker();
+		for (int i = 0; i < 500; i++) {
+			tracker.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+		}
+		tracker.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.NOT_LANDABLE));
+		tracker.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.ALREADY_AUDITED));
+		tracker.track(1L, 3L, CompletableFuture.failedFuture(new IllegalStateException("neo4j down")));
+		tracker.track(2L, 4L, CompletableFuture.completedFuture(ProcessingOutcome.PAGE_STATE_MISSING));
+
+		tracker.flush().join();
+
+		List<DomainAuditProgressMessage> updates = published(2);
+		updates.sort(Comparator.comparingLong(DomainAuditProgressMessage::getDomainAuditRecordId));
+		assertEquals(1L, updates.get(0).getAccountId());
+		assertEquals(3L, updates.get(0).getDomainAuditRecordId());
+		assertEquals(500L, updates.get(0).getPagesQueued());
+		assertEquals(Map.of("not_landable", 1L, "page_state_missing", 0L), updates.get(0).getPagesSkipped());
+		assertEquals(1L, updates.get(0).getFailedDeliveries());
+		assertEquals(4L, updates.get(1).getDomainAuditRecordId());
+		assertEquals(0L, updates.get(1).getPagesQueued());
+		assertEquals(1L, updates.get(1).getPagesSkipped().get("page_state_missing"));
+		assertEquals(2.0, registry.get(AuditProgressTracker.UPDATE_COUNTER).tag("outcome", "sent").counter().count());
+	}
+
+	@Test
+	void flush_shouldOnlyPublishDomainAuditsThatMadeProgressSinceTheLastFlush() throws Exception {
+		acceptPublishes();
+		createTracker();
+		tracker.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+		tracker.track(1L, 4L, CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+		tracker.flush().join();
+
+		tracker.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+		tracker.flush().join();
+		tracker.flush().join();
+
+		List<DomainAuditProgressMessage> updates = published(3);
+		DomainAuditProgressMessage first = updates.get(0).getDomainAuditRecordId() == 3L ? updates.get(0) : updates.get(1);
+		assertEquals(3L, updates.get(2).getDomainAuditRecordId());
+		assertEquals(2L, updates.get(2).getPagesQueued());
+		assertEquals(first.getSource(), updates.get(2).getSource());
+		assertEquals(1L, first.getSequence());
+		assertEquals(2L, updates.get(2).getSequence());
+	}
+
+	@Test
+	void flush_shouldGiveEveryDomainAuditAndEveryTrackerItsOwnSource() throws Exception {
+		acceptPublishes();
+		createTracker();
+		tracker.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+		tracker.track(1L, 4L, CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+		tracker.flush().join();
+		AuditProgressTracker restarted = createTracker();
+		restarted.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+		restarted.flush().join();
+
+		List<DomainAuditProgressMessage> updates = published(3);
+		assertEquals(3, updates.stream().map(DomainAuditProgressMessage::getSource).distinct().count());
+		assertEquals(1L, updates.get(2).getSequence());
+		assertEquals(1L, updates.get(2).getPagesQueued());
+	}
+
+	@Test
+	void track_shouldNotCountRedeliveriesOfPagesAlreadyAudited() throws Exception {
+		acceptPublishes();
+		createTracker();
+
+		tracker.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.ALREADY_AUDITED));
+		tracker.flush().join();
+
+		verify(publisherOperations, never()).publish(any(), any(PubsubMessage.class));
+		assertEquals(0.0, registry.get(AuditProgressTracker.DOMAIN_AUDITS_GAUGE).gauge().value());
+	}
+
+	@Test
+	void track_shouldCountPagesOnceTheyComplete() throws Exception {
+		acceptPublishes();
+		createTracker();
+		CompletableFuture<ProcessingOutcome> pending = new CompletableFuture<>();
+
+		tracker.track(1L, 3L, pending);
+		tracker.flush().join();
+		verify(publisherOperations, never()).publish(any(), any(PubsubMessage.class));
+
+		pending.complete(ProcessingOutcome.AUDIT_CREATED);
+		tracker.flush().join();
+		assertEquals(1L, published(1).get(0).getPagesQueued());
+	}
+
+	@Test
+	void flush_shouldPublishTheTotalsAgainWhenThePublishFails() throws Exception {
+		SettableListenableFuture<String> rejected = new SettableListenableFuture<>();
+		rejected.setException(new IllegalStateException("topic not found"));
+		SettableListenableFuture<String> accepted = new SettableListenableFuture<>();
+		accepted.set("message-id");
+		when(publisherOperations.publish(eq(TOPIC), any(PubsubMessage.class))).thenReturn(rejected, accepted);
+		createTracker();
+		tracker.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+		tracker.flush().join();
+
+		tracker.flush().join();
+		tracker.flush().join();
+
+		List<DomainAuditProgressMessage> updates = published(2);
+		assertEquals(1L, updates.get(1).getPagesQueued());
+		assertEquals(2L, updates.get(1).getSequence());
+		assertEquals(1.0, registry.get(AuditProgressTracker.UPDATE_COUNTER).tag("outcome", "failed").counter().count());
+		assertEquals(1.0, registry.get(AuditProgressTracker.UPDATE_COUNTER).tag("outcome", "sent").counter().count());
+	}
+
+	@Test
+	void flush_shouldForgetDomainAuditsThatStayIdle() throws Exception {
+		acceptPublishes();
+		properties.setIdleTimeout(Duration.ofMinutes(1));
+		createTracker();
+		tracker.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+		tracker.flush().join();
+		assertEquals(1.0, registry.get(AuditProgressTracker.DOMAIN_AUDITS_GAUGE).gauge().value());
+
+		clock.addAndGet(Duration.ofSeconds(59).toNanos());
+		tracker.flush().join();
+		assertEquals(1.0, registry.get(AuditProgressTracker.DOMAIN_AUDITS_GAUGE).gauge().value());
+
+		clock.addAndGet(Duration.ofSeconds(1).toNanos());
+		tracker.flush().join();
+		assertEquals(0.0, registry.get(AuditProgressTracker.DOMAIN_AUDITS_GAUGE).gauge().value());
+		published(1);
+	}
+
+	@Test
+	void stop_shouldPublishWhatIsLeft() throws Exception {
+		acceptPublishes();
+		properties.setFlushInterval(Duration.ofHours(1));
+		createTracker();
+		tracker.start();
+		tracker.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+
+		tracker.stop();
+
+		assertFalse(tracker.isRunning());
+		assertEquals(1L, published(1).get(0).getPagesQueued());
+	}
+
+	@Test
+	void shouldCountNothingWhenDisabled() {
+		properties.setEnabled(false);
+		createTracker();
+		tracker.start();
+
+		tracker.track(1L, 3L, CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+		tracker.stop();
+
+		assertFalse(tracker.isRunning());
+		assertNull(registry.find(AuditProgressTracker.DOMAIN_AUDITS_GAUGE).gauge());
+		verify(publisherOperations, never()).publish(any(), any(PubsubMessage.class));
+	}
+
+	@Test
+	void shouldRejectNonPositiveFlushInterval() {
+		properties.setFlushInterval(Duration.ZERO);
+
+		assertThrows(IllegalArgumentException.class, this::createTracker);
+	}
+
+	private void acceptPublishes() {
+		when(publisherOperations.publish(eq(TOPIC), any(PubsubMessage.class))).thenAnswer(invocation -> {
+			SettableListenableFuture<String> future = new SettableListenableFuture<>();
+			future.set("message-id");
+			return future;
+		});
+	}
+
+	private List<DomainAuditProgressMessage> published(int count) throws IOException {
+		ArgumentCaptor<PubsubMessage> captor = ArgumentCaptor.forClass(PubsubMessage.class);
+		verify(publisherOperations, times(count)).publish(eq(TOPIC), captor.capture());
+		List<DomainAuditProgressMessage> updates = new ArrayList<>();
+		for (PubsubMessage message : captor.getAllValues()) {
+			assertEquals(PageAuditMessageFormat.JSON.getContentType(),
+				message.getAttributesOrThrow(PageAuditMessageFormat.CONTENT_TYPE_ATTRIBUTE));
+			assertEquals(DomainAuditProgressMessage.MESSAGE_TYPE,
+				message.getAttributesOrThrow(DomainAuditProgressMessage.MESSAGE_TYPE_ATTRIBUTE));
+			updates.add(MAPPER.readValue(message.getData().toByteArray(), DomainAuditProgressMessage.class));
+		}
+		return updates;
+	}
+}
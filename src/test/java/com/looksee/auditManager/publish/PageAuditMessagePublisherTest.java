@@ -0,0 +1,164 @@
+package com.looksee.auditManager.publish;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiException;
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherOperations;
+import com.google.pubsub.v1.PubsubMessage;
+import com.looksee.auditManager.config.ExecutionProperties;
+import com.looksee.auditManager.config.PageAuditMessageProperties;
+import com.looksee.auditManager.config.PageAuditRoutingProperties;
+import com.looksee.auditManager.config.RetryProperties;
+import com.looksee.auditManager.execution.Bulkheads;
+import com.looksee.auditManager.execution.Retries;
+import com.looksee.models.enums.AuditName;
+import com.looksee.models.message.PageAuditMessage;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PageAuditMessagePublisherTest {
+
+	private static final PageAuditMessage MESSAGE = new PageAuditMessage(1L, 99L);
+	private static final List<String> LABELS = List.of("LINKS", "IMAGE_COPYRIGHT");
+	private static final PageAuditTopicRouter DEFAULT_ROUTER = new PageAuditTopicRouter("page-audit-topic", new PageAuditRoutingProperties());
+
+	@Test
+	void publish_shouldReturnWithoutWaitingForPubSub() {
+		PubSubPublisherOperations publisherOperations = mock(PubSubPublisherOperations.class);
+		SettableListenableFuture<String> pubSubFuture = new SettableListenableFuture<>();
+		when(publisherOperations.publish(eq("page-audit-topic"), any(PubsubMessage.class))).thenReturn(pubSubFuture);
+		PageAuditMessagePublisher publisher = new PageAuditMessagePublisher(publisherOperations, DEFAULT_ROUTER, new PageAuditMessageProperties(),
+			new Bulkheads(new ExecutionProperties()), new Retries(new RetryProperties(), new ExecutionProperties(), new SimpleMeterRegistry()));
+
+		CompletableFuture<List<String>> result = publisher.publish(MESSAGE, LABELS);
+
+		assertFalse(result.isDone());
+		pubSubFuture.set("message-id");
+		assertEquals(List.of("message-id"), result.join());
+	}
+
+	@Test
+	void publish_shouldRetryErrorsThePubSubClientMarksRetryable() {
+		PubSubPublisherOperations publisherOperations = mock(PubSubPublisherOperations.class);
+		SettableListenableFuture<String> unavailable = new SettableListenableFuture<>();
+		unavailable.setException(new ApiException("unavailable", null, GrpcStatusCode.of(Status.Code.UNAVAILABLE), true));
+		SettableListenableFuture<String> published = new SettableListenableFuture<>();
+		published.set("message-id");
+		when(publisherOperations.publish(eq("page-audit-topic"), any(PubsubMessage.class))).thenReturn(unavailable, published);
+		RetryProperties retryProperties = new RetryProperties();
+		retryProperties.getPubsub().setInitialBackoff(Duration.ofMillis(1));
+		Bulkheads bulkheads = new Bulkheads(new ExecutionProperties());
+		PageAuditMessagePublisher publisher = new PageAuditMessagePublisher(publisherOperations, DEFAULT_ROUTER, new PageAuditMessageProperties(),
+			bulkheads, new Retries(retryProperties, new ExecutionProperties(), new SimpleMeterRegistry()));
+
+		assertEquals(List.of("message-id"), publisher.publish(MESSAGE, LABELS).join());
+		verify(publisherOperations, times(2)).publish(eq("page-audit-topic"), any(PubsubMessage.class));
+		assertEquals(bulkheads.pubsub().getMaxConcurrent(), bulkheads.pubsub().availablePermits());
+	}
+
+	@Test
+	void publish_shouldSendJsonBytesAndAnnounceTheFormat() throws Exception {
+		PubsubMessage sent = publishOnce(PageAuditMessageFormat.JSON);
+
+		assertEquals("application/json", sent.getAttributesOrThrow(PageAuditMessageFormat.CONTENT_TYPE_ATTRIBUTE));
+		String json = sent.getData().toStringUtf8();
+		assertTrue(json.contains("\"accountId\":1"));
+		assertTrue(json.contains("\"pageAuditId\":99"));
+	}
+
+	@Test
+	void publish_shouldSendCborWhenConfigured() throws Exception {
+		PubsubMessage sent = publishOnce(PageAuditMessageFormat.CBOR);
+
+		assertEquals("application/cbor", sent.getAttributesOrThrow(PageAuditMessageFormat.CONTENT_TYPE_ATTRIBUTE));
+		PageAuditMessage decoded = PageAuditMessageFormat.CBOR.decode(sent.getData().toByteArray());
+		assertEquals(1L, decoded.getAccountId());
+		assertEquals(99L, decoded.getPageAuditId());
+		assertTrue(sent.getData().size() < PageAuditMessageFormat.JSON.encode(MESSAGE).length);
+	}
+
+	@Test
+	void publish_shouldFanOutConcurrentlyAndCompleteOnceEveryTopicAccepts() {
+		PubSubPublisherOperations publisherOperations = mock(PubSubPublisherOperations.class);
+		SettableListenableFuture<String> general = new SettableListenableFuture<>();
+		SettableListenableFuture<String> copyright = new SettableListenableFuture<>();
+		when(publisherOperations.publish(eq("page-audit-topic"), any(PubsubMessage.class))).thenReturn(general);
+		when(publisherOperations.publish(eq("image-copyright-topic"), any(PubsubMessage.class))).thenReturn(copyright);
+		PageAuditRoutingProperties routing = new PageAuditRoutingProperties();
+		routing.setEnabled(true);
+		routing.getTopics().put(AuditName.IMAGE_COPYRIGHT, "image-copyright-topic");
+		PageAuditMessagePublisher publisher = new PageAuditMessagePublisher(publisherOperations,
+			new PageAuditTopicRouter("page-audit-topic", routing), new PageAuditMessageProperties(),
+			new Bulkheads(new ExecutionProperties()), new Retries(new RetryProperties(), new ExecutionProperties(), new SimpleMeterRegistry()));
+
+		CompletableFuture<List<String>> result = publisher.publish(MESSAGE, LABELS);
+
+		ArgumentCaptor<PubsubMessage> generalMessage = ArgumentCaptor.forClass(PubsubMessage.class);
+		ArgumentCaptor<PubsubMessage> copyrightMessage = ArgumentCaptor.forClass(PubsubMessage.class);
+		verify(publisherOperations).publish(eq("page-audit-topic"), generalMessage.capture());
+		verify(publisherOperations).publish(eq("image-copyright-topic"), copyrightMessage.capture());
+		assertSame(generalMessage.getValue(), copyrightMessage.getValue());
+		copyright.set("copyright-id");
+		assertFalse(result.isDone());
+		general.set("general-id");
+		assertEquals(List.of("general-id", "copyright-id"), result.join());
+	}
+
+	@Test
+	void publish_shouldFailWhenAnyTopicRejectsTheMessage() {
+		PubSubPublisherOperations publisherOperations = mock(PubSubPublisherOperations.class);
+		SettableListenableFuture<String> general = new SettableListenableFuture<>();
+		general.set("general-id");
+		SettableListenableFuture<String> copyright = new SettableListenableFuture<>();
+		copyright.setException(new IllegalStateException("rejected"));
+		when(publisherOperations.publish(eq("page-audit-topic"), any(PubsubMessage.class))).thenReturn(general);
+		when(publisherOperations.publish(eq("image-copyright-topic"), any(PubsubMessage.class))).thenReturn(copyright);
+		PageAuditRoutingProperties routing = new PageAuditRoutingProperties();
+		routing.setEnabled(true);
+		routing.getTopics().put(AuditName.IMAGE_COPYRIGHT, "image-copyright-topic");
+		PageAuditMessagePublisher publisher = new PageAuditMessagePublisher(publisherOperations,
+			new PageAuditTopicRouter("page-audit-topic", routing), new PageAuditMessageProperties(),
+			new Bulkheads(new ExecutionProperties()), new Retries(new RetryProperties(), new ExecutionProperties(), new SimpleMeterRegistry()));
+
+		CompletableFuture<List<String>> result = publisher.publish(MESSAGE, LABELS);
+
+		assertThrows(CompletionException.class, result::join);
+	}
+
+	private PubsubMessage publishOnce(PageAuditMessageFormat format) {
+		PubSubPublisherOperations publisherOperations = mock(PubSubPublisherOperations.class);
+		SettableListenableFuture<String> published = new SettableListenableFuture<>();
+		published.set("message-id");
+		when(publisherOperations.publish(eq("page-audit-topic"), any(PubsubMessage.class))).thenReturn(published);
+		PageAuditMessageProperties properties = new PageAuditMessageProperties();
+		properties.setFormat(format);
+		PageAuditMessagePublisher publisher = new PageAuditMessagePublisher(publisherOperations, DEFAULT_ROUTER, properties,
+			new Bulkheads(new ExecutionProperties()), new Retries(new RetryProperties(), new ExecutionProperties(), new SimpleMeterRegistry()));
+
+		assertEquals(List.of("message-id"), publisher.publish(MESSAGE, LABELS).join());
+		ArgumentCaptor<PubsubMessage> captor = ArgumentCaptor.forClass(PubsubMessage.class);
+		verify(publisherOperations).publish(eq("page-audit-topic"), captor.capture());
+		return captor.getValue();
+	}
+}
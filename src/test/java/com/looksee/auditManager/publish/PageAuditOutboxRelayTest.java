@@ -0,0 +1,255 @@
+package com.looksee.auditManager.publish;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.looksee.auditManager.config.ExecutionProperties;
+import com.looksee.auditManager.config.OutboxProperties;
+import com.looksee.auditManager.execution.BulkheadFullException;
+import com.looksee.auditManager.execution.Bulkheads;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.auditManager.repository.PageAuditOutboxBacklog;
+import com.looksee.auditManager.repository.PageAuditOutboxEntry;
+import com.looksee.auditManager.repository.PageAuditOutboxRepository;
+import com.looksee.models.message.PageAuditMessage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PageAuditOutboxRelayTest {
+
+	private static final long NOW = 10_000L;
+	private static final List<String> LABELS = List.of("LINKS");
+
+	private PageAuditOutboxRepository repository;
+	private PageAuditMessagePublisher publisher;
+	private OutboxProperties properties;
+	private SimpleMeterRegistry registry;
+	private Bulkheads bulkheads;
+	private PageAuditOutboxRelay relay;
+
+	@BeforeEach
+	void setup() {
+		repository = mock(PageAuditOutboxRepository.class);
+		publisher = mock(PageAuditMessagePublisher.class);
+		properties = new OutboxProperties();
+		registry = new SimpleMeterRegistry();
+		bulkheads = new Bulkheads(new ExecutionProperties());
+		when(repository.backlog()).thenReturn(PageAuditOutboxBacklog.EMPTY);
+		relay = createRelay();
+	}
+
+	private PageAuditOutboxRelay createRelay() {
+		return new PageAuditOutboxRelay(repository, publisher, properties, bulkheads,
+			new AuditMetrics(new SimpleMeterRegistry()), registry, () -> NOW);
+	}
+
+	@Test
+	void drain_shouldPublishClaimedEntriesAndDeleteThemTogether() {
+		when(repository.claim(500, Duration.ofMinutes(1))).thenReturn(List.of(
+			new PageAuditOutboxEntry(7L, 99L, 1L, NOW - 250, LABELS),
+			new PageAuditOutboxEntry(8L, 98L, 1L, NOW - 50, LABELS)));
+		when(publisher.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(List.of("message-id")));
+
+		relay.drain().join();
+
+		ArgumentCaptor<PageAuditMessage> messages = ArgumentCaptor.forClass(PageAuditMessage.class);
+		verify(publisher, times(2)).publish(messages.capture(), eq(LABELS));
+		assertEquals(1L, messages.getAllValues().get(0).getAccountId());
+		assertEquals(99L, messages.getAllValues().get(0).getPageAuditId());
+		verify(repository).markSent(new long[] { 7L, 8L });
+		verify(repository, times(1)).claim(anyInt(), any());
+		assertEquals(2.0, registry.get(PageAuditOutboxRelay.MESSAGE_COUNTER).tag("outcome", "sent").counter().count());
+		assertEquals(2, registry.get(PageAuditOutboxRelay.RELAY_LAG_TIMER).timer().count());
+		assertEquals(250.0, registry.get(PageAuditOutboxRelay.RELAY_LAG_TIMER).timer().max(TimeUnit.MILLISECONDS));
+		verify(repository, never()).backlog();
+	}
+
+	@Test
+	void drain_shouldLeaveEntriesWhosePublishFailedForTheNextLease() {
+		when(repository.claim(500, Duration.ofMinutes(1))).thenReturn(List.of(
+			new PageAuditOutboxEntry(7L, 99L, 1L, NOW, LABELS),
+			new PageAuditOutboxEntry(8L, 98L, 1L, NOW, LABELS)));
+		when(publisher.publish(any(), any())).thenReturn(
+			CompletableFuture.failedFuture(new RuntimeException("pubsub")),
+			CompletableFuture.completedFuture(List.of("message-id")));
+
+		relay.drain().join();
+
+		verify(repository).markSent(new long[] { 8L });
+		assertEquals(1.0, registry.get(PageAuditOutboxRelay.MESSAGE_COUNTER).tag("outcome", "failed").counter().count());
+		assertEquals(1.0, registry.get(PageAuditOutboxRelay.MESSAGE_COUNTER).tag("outcome", "sent").counter().count());
+	}
+
+	@Test
+	void drain_shouldKeepClaimingWhileBatchesComeBackFull() {
+		properties.setBatchSize(2);
+		relay = createRelay();
+		when(repository.claim(2, Duration.ofMinutes(1))).thenReturn(
+			List.of(new PageAuditOutboxEntry(7L, 99L, 1L, NOW, LABELS), new PageAuditOutboxEntry(8L, 98L, 1L, NOW, LABELS)),
+			List.of(new PageAuditOutboxEntry(9L, 97L, 1L, NOW, LABELS)));
+		when(publisher.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(List.of("message-id")));
+
+		relay.drain().join();
+
+		verify(repository, times(2)).claim(2, Duration.ofMinutes(1));
+		verify(repository).markSent(new long[] { 7L, 8L });
+		verify(repository).markSent(new long[] { 9L });
+	}
+
+	@Test
+	void drain_shouldNotWaitOnPubSub() {
+		CompletableFuture<List<String>> pending = new CompletableFuture<>();
+		when(repository.claim(500, Duration.ofMinutes(1))).thenReturn(List.of(new PageAuditOutboxEntry(7L, 99L, 1L, NOW, LABELS)));
+		when(publisher.publish(any(), any())).thenReturn(pending);
+
+		CompletableFuture<Void> drained = relay.drain();
+
+		assertFalse(drained.isDone());
+		verify(repository, never()).markSent(any());
+		pending.complete(List.of("message-id"));
+		drained.join();
+		verify(repository).markSent(new long[] { 7L });
+	}
+
+	@Test
+	void drain_shouldPutOffTheRestOfTheBatchOnceThePubSubBulkheadIsFull() {
+		when(repository.claim(500, Duration.ofMinutes(1))).thenReturn(
+			List.of(
+				new PageAuditOutboxEntry(7L, 99L, 1L, NOW, LABELS),
+				new PageAuditOutboxEntry(8L, 98L, 1L, NOW, LABELS),
+				new PageAuditOutboxEntry(9L, 97L, 1L, NOW, LABELS)),
+			List.of());
+		when(publisher.publish(any(), any())).thenReturn(
+			CompletableFuture.completedFuture(List.of("message-id")),
+			CompletableFuture.failedFuture(new BulkheadFullException("Bulkhead pubsub is full")));
+
+		relay.drain().join();
+
+		verify(publisher, times(2)).publish(any(), any());
+		verify(repository).markSent(new long[] { 7L });
+		verify(repository).release(new long[] { 8L, 9L });
+		verify(repository, times(2)).claim(500, Duration.ofMinutes(1));
+		assertEquals(2.0, registry.get(PageAuditOutboxRelay.MESSAGE_COUNTER).tag("outcome", "deferred").counter().count());
+		assertEquals(0.0, registry.get(PageAuditOutboxRelay.MESSAGE_COUNTER).tag("outcome", "failed").counter().count());
+	}
+
+	@Test
+	void drain_shouldNotWaitForAPubSubPermit() {
+		ExecutionProperties execution = new ExecutionProperties();
+		execution.setPubsubMaxConcurrent(1);
+		execution.setBulkheadMaxWait(Duration.ofMinutes(1));
+		bulkheads = new Bulkheads(execution);
+		relay = createRelay();
+		CompletableFuture<String> outstanding = new CompletableFuture<>();
+		bulkheads.pubsub().callAsync(() -> outstanding);
+		when(repository.claim(500, Duration.ofMinutes(1))).thenReturn(List.of(new PageAuditOutboxEntry(7L, 99L, 1L, NOW, LABELS)));
+
+		relay.drain().orTimeout(5, TimeUnit.SECONDS).join();
+
+		verifyNoInteractions(publisher);
+		verify(repository).release(new long[] { 7L });
+		verify(repository, never()).markSent(any());
+		verify(repository, times(1)).claim(anyInt(), any());
+		outstanding.complete("message-id");
+	}
+
+	@Test
+	void drain_shouldGiveUpOnPublishesThatOutlastTheLease() {
+		properties.setLease(Duration.ofMillis(50));
+		relay = createRelay();
+		when(repository.claim(500, Duration.ofMillis(50))).thenReturn(List.of(
+			new PageAuditOutboxEntry(7L, 99L, 1L, NOW, LABELS),
+			new PageAuditOutboxEntry(8L, 98L, 1L, NOW, LABELS)));
+		when(publisher.publish(any(), any())).thenReturn(
+			new CompletableFuture<>(),
+			CompletableFuture.completedFuture(List.of("message-id")));
+
+		relay.drain().join();
+
+		verify(repository).markSent(new long[] { 8L });
+		assertEquals(1.0, registry.get(PageAuditOutboxRelay.MESSAGE_COUNTER).tag("outcome", "failed").counter().count());
+	}
+
+	@Test
+	void poll_shouldSurviveNeo4jFailureAndReportBacklog() {
+		when(repository.claim(500, Duration.ofMinutes(1)))
+			.thenThrow(new RuntimeException("neo4j"))
+			.thenReturn(List.of());
+		when(repository.backlog())
+			.thenThrow(new RuntimeException("neo4j"))
+			.thenReturn(new PageAuditOutboxBacklog(3L, NOW - 5_000));
+
+		relay.poll();
+		assertEquals(0.0, registry.get(PageAuditOutboxRelay.BACKLOG_GAUGE).gauge().value());
+		relay.poll();
+
+		verify(publisher, never()).publish(any(), any());
+		verify(repository, times(2)).claim(500, Duration.ofMinutes(1));
+		assertEquals(3.0, registry.get(PageAuditOutboxRelay.BACKLOG_GAUGE).gauge().value());
+		assertEquals(5_000.0, registry.get(PageAuditOutboxRelay.OLDEST_AGE_GAUGE).timeGauge().value(TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void poll_shouldCreateIndexesUntilItFirstSucceeds() {
+		when(repository.claim(500, Duration.ofMinutes(1))).thenReturn(List.of());
+		doThrow(new RuntimeException("neo4j unreachable")).doNothing().when(repository).createIndexes();
+
+		relay.poll();
+		relay.poll();
+		relay.poll();
+
+		verify(repository, times(2)).createIndexes();
+	}
+
+	@Test
+	void wake_shouldDoNothingWhileStopped() {
+		relay.wake();
+
+		verifyNoInteractions(repository, publisher);
+	}
+
+	@Test
+	void shouldDrainOnStartWakeAndStop() {
+		properties.setPollInterval(Duration.ofHours(1));
+		relay = createRelay();
+		when(repository.claim(500, Duration.ofMinutes(1))).thenReturn(List.of());
+
+		relay.start();
+		verify(repository, timeout(5_000)).claim(500, Duration.ofMinutes(1));
+		relay.wake();
+		verify(repository, timeout(5_000).times(2)).claim(500, Duration.ofMinutes(1));
+		relay.stop();
+
+		assertFalse(relay.isRunning());
+		verify(repository, atLeast(3)).claim(500, Duration.ofMinutes(1));
+	}
+
+	@Test
+	void shouldRejectNonPositiveBatchSize() {
+		properties.setBatchSize(0);
+
+		assertThrows(IllegalArgumentException.class, this::createRelay);
+	}
+}
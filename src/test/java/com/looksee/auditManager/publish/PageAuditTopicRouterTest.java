@@ -0,0 +1,85 @@
+package com.looksee.auditManager.publish;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.looksee.auditManager.config.PageAuditRoutingProperties;
+import com.looksee.auditManager.config.PageAuditRoutingProperties.Category;
+import com.looksee.models.enums.AuditName;
+
+class PageAuditTopicRouterTest {
+
+	private static final String DEFAULT_TOPIC = "page-audit-topic";
+
+	private PageAuditRoutingProperties properties;
+
+	@BeforeEach
+	void setup() {
+		properties = new PageAuditRoutingProperties();
+		properties.setEnabled(true);
+		properties.getCategories().put("visual-design",
+			category("visual-design-topic", AuditName.TEXT_BACKGROUND_CONTRAST, AuditName.NON_TEXT_BACKGROUND_CONTRAST));
+		properties.getCategories().put("content",
+			category("content-topic", AuditName.ALT_TEXT, AuditName.IMAGE_COPYRIGHT));
+		properties.getTopics().put(AuditName.IMAGE_COPYRIGHT, "image-copyright-topic");
+	}
+
+	@Test
+	void route_shouldSendEveryMessageToTheDefaultTopicWhenDisabled() {
+		properties.setEnabled(false);
+		PageAuditTopicRouter router = new PageAuditTopicRouter(DEFAULT_TOPIC, properties);
+
+		assertEquals(List.of(DEFAULT_TOPIC), router.route(List.of("TEXT_BACKGROUND_CONTRAST", "IMAGE_COPYRIGHT")));
+	}
+
+	@Test
+	void route_shouldSendToEachDistinctTopicOfTheAudits() {
+		PageAuditTopicRouter router = new PageAuditTopicRouter(DEFAULT_TOPIC, properties);
+
+		assertEquals(List.of("visual-design-topic", "content-topic", "image-copyright-topic"), router.route(List.of(
+			"TEXT_BACKGROUND_CONTRAST", "NON_TEXT_BACKGROUND_CONTRAST", "ALT_TEXT", "IMAGE_COPYRIGHT")));
+	}
+
+	@Test
+	void route_shouldOnlySendToTheTopicsOfAuditsThatRun() {
+		PageAuditTopicRouter router = new PageAuditTopicRouter(DEFAULT_TOPIC, properties);
+
+		assertEquals(List.of("image-copyright-topic"), router.route(List.of("IMAGE_COPYRIGHT")));
+	}
+
+	@Test
+	void route_shouldSendUnmappedUnknownAndMissingAuditsToTheDefaultTopic() {
+		properties.getCategories().put("information-architecture", category(null, AuditName.LINKS));
+		PageAuditTopicRouter router = new PageAuditTopicRouter(DEFAULT_TOPIC, properties);
+
+		assertEquals(List.of(DEFAULT_TOPIC, "content-topic"), router.route(List.of("LINKS", "ALT_TEXT", "NOT_AN_AUDIT", "METADATA")));
+		assertEquals(List.of(DEFAULT_TOPIC), router.route(List.of()));
+	}
+
+	@Test
+	void shouldRejectAnAuditInTwoCategories() {
+		properties.getCategories().put("images", category("images-topic", AuditName.ALT_TEXT));
+
+		assertThrows(IllegalArgumentException.class, () -> new PageAuditTopicRouter(DEFAULT_TOPIC, properties));
+	}
+
+	@Test
+	void shouldRejectBlankTopics() {
+		properties.getTopics().put(AuditName.LINKS, " ");
+
+		assertThrows(IllegalArgumentException.class, () -> new PageAuditTopicRouter(DEFAULT_TOPIC, properties));
+	}
+
+	private static Category category(String topic, AuditName... audits) {
+		Category category = new Category();
+		category.setTopic(topic);
+		category.setAudits(EnumSet.of(audits[0], audits));
+		return category;
+	}
+}
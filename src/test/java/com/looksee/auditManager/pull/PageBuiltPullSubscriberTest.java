@@ -0,0 +1,303 @@
+package com.looksee.auditManager.pull;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.google.cloud.pubsub.v1.Subscriber;
+import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberOperations;
+import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
+import com.google.protobuf.ByteString;
+import com.google.pubsub.v1.PubsubMessage;
+import com.looksee.auditManager.PageAuditProcessor;
+import com.looksee.auditManager.PageBuiltMessageDecoder;
+import com.looksee.auditManager.ProcessingOutcome;
+import com.looksee.auditManager.config.ExecutionProperties;
+import com.looksee.auditManager.config.FairSchedulingProperties;
+import com.looksee.auditManager.config.PullSubscriberProperties;
+import com.looksee.auditManager.execution.FairAdmissionScheduler;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.models.message.PageBuiltMessage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PageBuiltPullSubscriberTest {
+
+	@Mock
+	private PubSubSubscriberOperations subscriberOperations;
+
+	@Mock
+	private PageAuditProcessor pageAuditProcessor;
+
+	@Mock
+	private Subscriber subscriber;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AuditMetrics metrics = new AuditMetrics(registry);
+	private final PageBuiltMessageDecoder decoder = new PageBuiltMessageDecoder(metrics);
+	private final FairAdmissionScheduler admissionScheduler =
+		new FairAdmissionScheduler(new FairSchedulingProperties(), new ExecutionProperties(), new SimpleMeterRegistry());
+	private PullSubscriberProperties properties;
+	private PageBuiltPullSubscriber pullSubscriber;
+
+	@BeforeEach
+	void setup() {
+		properties = new PullSubscriberProperties();
+		properties.setEnabled(true);
+		properties.setSubscription("page-built-subscription");
+		properties.setBatchSize(10);
+		properties.setBatchTimeout(Duration.ofMillis(20));
+		properties.setWorkerThreads(2);
+		properties.setShutdownTimeout(Duration.ofSeconds(2));
+		pullSubscriber = new PageBuiltPullSubscriber(subscriberOperations, decoder, pageAuditProcessor, properties, admissionScheduler, metrics);
+		when(subscriberOperations.subscribe(anyString(), any())).thenReturn(subscriber);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (pullSubscriber.isRunning()) {
+			pullSubscriber.stop();
+		}
+	}
+
+	@Test
+	void shouldRejectMissingSubscription() {
+		properties.setSubscription(" ");
+
+		assertThrows(IllegalArgumentException.class,
+			() -> new PageBuiltPullSubscriber(subscriberOperations, decoder, pageAuditProcessor, properties, admissionScheduler, metrics));
+	}
+
+	@Test
+	void shouldRejectNonPositiveBatchSize() {
+		properties.setBatchSize(0);
+
+		assertThrows(IllegalArgumentException.class,
+			() -> new PageBuiltPullSubscriber(subscriberOperations, decoder, pageAuditProcessor, properties, admissionScheduler, metrics));
+	}
+
+	@Test
+	void shouldAckProcessedMessage() throws Exception {
+		processAllReturns(CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+		BasicAcknowledgeablePubsubMessage message = pulledMessage("{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3}");
+
+		startAndDeliver(message);
+
+		verify(message, timeout(2000)).ack();
+		verify(message, never()).nack();
+		assertEquals(1.0, messages("200", "audit_created"));
+		assertEquals(0.0, registry.get("audit_manager.requests.in_flight").gauge().value());
+		assertTrue(registry.get("audit_manager.startup.first_processed").timeGauge().value() >= 0);
+		List<PageBuiltMessage> processed = processedBatches().get(0);
+		assertEquals(1, processed.size());
+		assertEquals(2L, processed.get(0).getPageId());
+		assertEquals(3L, processed.get(0).getAuditRecordId());
+	}
+
+	@Test
+	void shouldAckSkippedMessage() throws Exception {
+		processAllReturns(CompletableFuture.completedFuture(ProcessingOutcome.ALREADY_AUDITED));
+		BasicAcknowledgeablePubsubMessage message = pulledMessage("{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3}");
+
+		startAndDeliver(message);
+
+		verify(message, timeout(2000)).ack();
+	}
+
+	@Test
+	void shouldAckMalformedMessageWithoutProcessing() throws Exception {
+		BasicAcknowledgeablePubsubMessage message = pulledMessage("invalid-json");
+
+		startAndDeliver(message);
+
+		verify(message, timeout(2000)).ack();
+		verify(pageAuditProcessor, never()).processAll(any());
+		assertEquals(1.0, messages("400", "invalid_format"));
+		assertEquals(0.0, registry.get("audit_manager.requests.in_flight").gauge().value());
+	}
+
+	@Test
+	void shouldNackWhenProcessingFails() throws Exception {
+		processAllReturns(CompletableFuture.failedFuture(new RuntimeException("pubsub")));
+		BasicAcknowledgeablePubsubMessage message = pulledMessage("{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3}");
+
+		startAndDeliver(message);
+
+		verify(message, timeout(2000)).nack();
+		verify(message, never()).ack();
+		assertEquals(1.0, messages("500", "unexpected"));
+	}
+
+	@Test
+	void shouldAckOnlyOncePublishCompletes() throws Exception {
+		CompletableFuture<ProcessingOutcome> pending = new CompletableFuture<>();
+		processAllReturns(pending);
+		BasicAcknowledgeablePubsubMessage message = pulledMessage("{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3}");
+
+		pullSubscriber.processBatch(List.of(message));
+
+		verify(message, never()).ack();
+		assertEquals(1.0, registry.get("audit_manager.requests.in_flight").gauge().value());
+		pending.complete(ProcessingOutcome.AUDIT_CREATED);
+		verify(message).ack();
+		assertEquals(0.0, registry.get("audit_manager.requests.in_flight").gauge().value());
+	}
+
+	@Test
+	void shouldCollectUpToBatchSize() throws Exception {
+		properties.setBatchSize(3);
+		PageBuiltPullSubscriber idle = new PageBuiltPullSubscriber(subscriberOperations, decoder, pageAuditProcessor, properties, admissionScheduler, metrics);
+		for (int i = 0; i < 4; i++) {
+			idle.enqueue(pulledMessage("{}"));
+		}
+
+		List<BasicAcknowledgeablePubsubMessage> batch = new ArrayList<>();
+		idle.collectBatch(batch);
+		assertEquals(3, batch.size());
+
+		batch.clear();
+		idle.collectBatch(batch);
+		assertEquals(1, batch.size());
+
+		batch.clear();
+		idle.collectBatch(batch);
+		assertTrue(batch.isEmpty());
+	}
+
+	@Test
+	void shouldNackBufferedMessagesOnStop() {
+		pullSubscriber.start();
+		pullSubscriber.stop();
+		BasicAcknowledgeablePubsubMessage late = pulledMessage("{}");
+		pullSubscriber.enqueue(late);
+
+		pullSubscriber.stop();
+
+		verify(late).nack();
+		verify(late, never()).ack();
+	}
+
+	@Test
+	void shouldSubscribeOnStartAndStopSubscriberOnStop() {
+		pullSubscriber.start();
+
+		assertTrue(pullSubscriber.isRunning());
+		verify(subscriberOperations).subscribe(eq("page-built-subscription"), any());
+
+		pullSubscriber.stop();
+
+		assertFalse(pullSubscriber.isRunning());
+		verify(subscriber).stopAsync();
+	}
+
+	@Test
+	void shouldProcessMessagesDeliveredInOneBatch() throws Exception {
+		processAllReturns(CompletableFuture.completedFuture(ProcessingOutcome.NOT_LANDABLE));
+		BasicAcknowledgeablePubsubMessage first = pulledMessage("{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3}");
+		BasicAcknowledgeablePubsubMessage second = pulledMessage("{\"accountId\":1,\"pageId\":4,\"auditRecordId\":3}");
+
+		startAndDeliver(first, second);
+
+		verify(first, timeout(2000)).ack();
+		verify(second, timeout(2000)).ack();
+	}
+
+	@Test
+	void processBatch_shouldProcessEachAccountTogetherAndSettleEveryMessageApart() {
+		when(pageAuditProcessor.processAll(any())).thenAnswer(invocation -> {
+			List<PageBuiltMessage> messages = invocation.getArgument(0);
+			List<CompletableFuture<ProcessingOutcome>> outcomes = new ArrayList<>();
+			for (PageBuiltMessage message : messages) {
+				outcomes.add(message.getPageId() == 4L
+					? CompletableFuture.failedFuture(new RuntimeException("neo4j"))
+					: CompletableFuture.completedFuture(ProcessingOutcome.AUDIT_CREATED));
+			}
+			return outcomes;
+		});
+		BasicAcknowledgeablePubsubMessage first = pulledMessage("{\"accountId\":1,\"pageId\":2,\"auditRecordId\":3}");
+		BasicAcknowledgeablePubsubMessage other = pulledMessage("{\"accountId\":2,\"pageId\":5,\"auditRecordId\":6}");
+		BasicAcknowledgeablePubsubMessage malformed = pulledMessage("invalid-json");
+		BasicAcknowledgeablePubsubMessage failing = pulledMessage("{\"accountId\":1,\"pageId\":4,\"auditRecordId\":3}");
+
+		pullSubscriber.processBatch(List.of(first, other, malformed, failing));
+
+		List<List<PageBuiltMessage>> batches = processedBatches();
+		assertEquals(2, batches.size());
+		assertEquals(List.of(2L, 4L), batches.get(0).stream().map(PageBuiltMessage::getPageId).toList());
+		assertEquals(List.of(5L), batches.get(1).stream().map(PageBuiltMessage::getPageId).toList());
+		verify(first).ack();
+		verify(other).ack();
+		verify(malformed).ack();
+		verify(failing).nack();
+		verify(failing, never()).ack();
+		assertEquals(2.0, messages("200", "audit_created"));
+		assertEquals(1.0, messages("500", "unexpected"));
+		assertEquals(0.0, registry.get("audit_manager.requests.in_flight").gauge().value());
+	}
+
+	private void processAllReturns(CompletableFuture<ProcessingOutcome> outcome) {
+		when(pageAuditProcessor.processAll(any())).thenAnswer(invocation -> {
+			List<PageBuiltMessage> messages = invocation.getArgument(0);
+			return new ArrayList<>(Collections.nCopies(messages.size(), outcome));
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<List<PageBuiltMessage>> processedBatches() {
+		ArgumentCaptor<List<PageBuiltMessage>> captor = ArgumentCaptor.forClass(List.class);
+		verify(pageAuditProcessor, timeout(2000).atLeastOnce()).processAll(captor.capture());
+		return captor.getAllValues();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void startAndDeliver(BasicAcknowledgeablePubsubMessage... messages) {
+		pullSubscriber.start();
+		ArgumentCaptor<Consumer<BasicAcknowledgeablePubsubMessage>> consumerCaptor = ArgumentCaptor.forClass(Consumer.class);
+		verify(subscriberOperations).subscribe(eq("page-built-subscription"), consumerCaptor.capture());
+		for (BasicAcknowledgeablePubsubMessage message : messages) {
+			consumerCaptor.getValue().accept(message);
+		}
+	}
+
+	private double messages(String status, String outcome) {
+		return registry.get("audit_manager.messages").tag("status", status).tag("outcome", outcome).counter().count();
+	}
+
+	private BasicAcknowledgeablePubsubMessage pulledMessage(String json) {
+		BasicAcknowledgeablePubsubMessage message = mock(BasicAcknowledgeablePubsubMessage.class);
+		PubsubMessage pubsubMessage = PubsubMessage.newBuilder()
+			.setMessageId("message-id")
+			.setData(ByteString.copyFromUtf8(json))
+			.build();
+		when(message.getPubsubMessage()).thenReturn(pubsubMessage);
+		return message;
+	}
+}
@@ -0,0 +1,304 @@
+package com.looksee.auditManager.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.looksee.auditManager.PageAuditProcessor;
+import com.looksee.auditManager.PageBuiltMessageDecoder;
+import com.looksee.auditManager.ProcessingOutcome;
+import com.looksee.auditManager.config.ReplayProperties;
+import com.looksee.auditManager.metrics.AuditMetrics;
+import com.looksee.models.message.PageBuiltMessage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ArchiveReplayerTest {
+
+	private static final long FAILING_PAGE = 99L;
+	private static final long SLOW_PAGE = 1L;
+
+	@TempDir
+	Path directory;
+
+	private final List<Long> processedPages = Collections.synchronizedList(new ArrayList<>());
+	private PageAuditProcessor processor;
+	private ReplayProperties properties;
+
+	@BeforeEach
+	void setup() {
+		processor = mock(PageAuditProcessor.class);
+		when(processor.processAll(anyList())).thenAnswer(invocation -> {
+			List<PageBuiltMessage> messages = invocation.getArgument(0);
+			List<CompletableFuture<ProcessingOutcome>> outcomes = new ArrayList<>();
+			for (PageBuiltMessage message : messages) {
+				processedPages.add(message.getPageId());
+				if (message.getPageId() == FAILING_PAGE) {
+					outcomes.add(CompletableFuture.failedFuture(new IllegalStateException("neo4j down")));
+				} else if (message.getPageId() == SLOW_PAGE) {
+					outcomes.add(CompletableFuture.supplyAsync(() -> ProcessingOutcome.AUDIT_CREATED,
+						CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+				} else {
+					outcomes.add(CompletableFuture.completedFuture(message.getPageId() % 2 == 0
+						? ProcessingOutcome.AUDIT_CREATED
+						: ProcessingOutcome.ALREADY_AUDITED));
+				}
+			}
+			return outcomes;
+		});
+		properties = new ReplayProperties();
+		properties.setEnabled(true);
+		properties.setBatchSize(2);
+		properties.setParallelism(3);
+		properties.setReadBufferSize(DataSize.ofBytes(16));
+	}
+
+	private ArchiveReplayer createReplayer(Path... archives) {
+		properties.setArchives(List.of(archives));
+		return new ArchiveReplayer(new PageBuiltMessageDecoder(new AuditMetrics(new SimpleMeterRegistry())), processor, properties);
+	}
+
+	@Test
+	void replay_shouldProcessEveryFormatOfRecordAcrossBufferBoundaries() throws Exception {
+		Path archive = write("pages.ndjson",
+			raw(1),
+			"{\"message\":{\"data\":\"" + base64(2) + "\"}}\r",
+			"",
+			base64(3),
+			"   ",
+			raw(4),
+			"not a record",
+			raw(6));
+
+		ReplaySummary summary = createReplayer(archive).replay(archive);
+
+		assertEquals(List.of(1L, 2L, 3L, 4L, 6L), sorted(processedPages));
+		assertEquals(6L, summary.getRecords());
+		assertEquals(4L, summary.getCreated());
+		assertEquals(1L, summary.getSkipped(ProcessingOutcome.ALREADY_AUDITED));
+		assertEquals(1L, summary.getSkipped());
+		assertEquals(1L, summary.getInvalid());
+		assertEquals(0L, summary.getFailed());
+		Properties checkpoint = checkpoint(archive);
+		assertEquals(Long.toString(Files.size(archive)), checkpoint.getProperty("offset"));
+		assertEquals("4", checkpoint.getProperty("audit_created"));
+		assertEquals(checkpointFor(archive), identityOf(checkpoint));
+		assertFalse(Files.exists(directory.resolve("pages.ndjson" + ArchiveReplayer.FAILED_SUFFIX)));
+	}
+
+	@Test
+	void replay_shouldResumeFromTheCheckpointedOffset() throws Exception {
+		Path archive = write("pages.ndjson", raw(2), raw(4), raw(6), raw(8));
+		long resumeAt = (raw(2) + "\n" + raw(4) + "\n").length();
+		Properties checkpoint = checkpointFor(archive);
+		checkpoint.setProperty("offset", Long.toString(resumeAt));
+		checkpoint.setProperty("audit_created", "2");
+		saveCheckpoint(archive, checkpoint);
+
+		ReplaySummary summary = createReplayer(archive).replay(archive);
+
+		assertEquals(List.of(6L, 8L), sorted(processedPages));
+		assertEquals(4L, summary.getCreated());
+		assertEquals(4L, summary.getRecords());
+	}
+
+	@Test
+	void run_shouldNotReplayAFinishedArchiveAgain() {
+		Path archive = write("pages.ndjson", raw(2), raw(4), raw(6));
+		ArchiveReplayer replayer = createReplayer(archive);
+
+		replayer.run(null);
+		replayer.run(null);
+
+		verify(processor, times(2)).processAll(anyList());
+		assertEquals(3, processedPages.size());
+		assertEquals(0, replayer.getExitCode());
+	}
+
+	@Test
+	void run_shouldKeepFailedRecordsForALaterReplayAndExitNonZero() throws Exception {
+		Path state = Files.createDirectory(directory.resolve("state"));
+		properties.setStateDirectory(state);
+		Path archive = write("pages.ndjson", raw(2), raw(FAILING_PAGE), raw(4));
+		ArchiveReplayer replayer = createReplayer(archive);
+
+		replayer.run(null);
+
+		assertEquals(1, replayer.getExitCode());
+		assertEquals(raw(FAILING_PAGE) + "\n",
+			Files.readString(state.resolve("pages.ndjson" + ArchiveReplayer.FAILED_SUFFIX)));
+		Properties checkpoint = checkpoint(state, archive);
+		assertEquals("1", checkpoint.getProperty("failed"));
+		assertEquals("2", checkpoint.getProperty("audit_created"));
+	}
+
+	@Test
+	void run_shouldExitNonZeroWhenAnArchiveIsMissing() {
+		Path archive = write("pages.ndjson", raw(2));
+		ArchiveReplayer replayer = createReplayer(directory.resolve("missing.ndjson"), archive);
+
+		replayer.run(null);
+
+		assertEquals(1, replayer.getExitCode());
+		assertEquals(List.of(2L), processedPages);
+	}
+
+	@Test
+	void replay_shouldCountOverlongRecordsAsInvalid() throws Exception {
+		properties.setMaxRecordSize(DataSize.ofBytes(64));
+		String padded = "{\"accountId\":1,\"pageId\":4,\"auditRecordId\":3,\"padding\":\"" + "x".repeat(64) + "\"}";
+		Path archive = write("pages.ndjson", raw(2), padded, raw(6));
+
+		ReplaySummary summary = createReplayer(archive).replay(archive);
+
+		assertEquals(List.of(2L, 6L), sorted(processedPages));
+		assertEquals(1L, summary.getInvalid());
+		assertEquals(2L, summary.getCreated());
+	}
+
+	@Test
+	void replay_shouldRejectACheckpointPastTheEndOfTheArchive() throws Exception {
+		Path archive = write("pages.ndjson", raw(2));
+		Properties checkpoint = checkpointFor(archive);
+		checkpoint.setProperty("offset", "1000");
+		saveCheckpoint(archive, checkpoint);
+		ArchiveReplayer replayer = createReplayer(archive);
+
+		assertThrows(IOException.class, () -> replayer.replay(archive));
+		assertTrue(processedPages.isEmpty());
+	}
+
+	@Test
+	void replay_shouldRefuseACheckpointSavedForAChangedArchive() throws Exception {
+		Path archive = write("pages.ndjson", raw(2), raw(4));
+		ArchiveReplayer replayer = createReplayer(archive);
+		replayer.replay(archive);
+		processedPages.clear();
+
+		write("pages.ndjson", raw(6), raw(8), raw(10));
+
+		IOException refused = assertThrows(IOException.class, () -> replayer.replay(archive));
+		assertTrue(refused.getMessage().contains("delete it to replay the archive from the start"));
+		assertTrue(processedPages.isEmpty());
+	}
+
+	@Test
+	void replay_shouldRefuseACheckpointSavedForAnotherArchiveOfTheSameName() throws Exception {
+		Path state = Files.createDirectory(directory.resolve("state"));
+		properties.setStateDirectory(state);
+		Path first = write("pages.ndjson", raw(2));
+		createReplayer(first).replay(first);
+		processedPages.clear();
+		Path second = Files.createDirectory(directory.resolve("other")).resolve("pages.ndjson");
+		Files.copy(first, second);
+		Files.setLastModifiedTime(second, Files.getLastModifiedTime(first));
+
+		assertThrows(IOException.class, () -> createReplayer(second).replay(second));
+		assertTrue(processedPages.isEmpty());
+	}
+
+	@Test
+	void replay_shouldRefuseACheckpointWithoutAnArchiveIdentity() throws Exception {
+		Path archive = write("pages.ndjson", raw(2));
+		Files.writeString(directory.resolve("pages.ndjson" + ArchiveReplayer.CHECKPOINT_SUFFIX), "offset=0\n");
+
+		assertThrows(IOException.class, () -> createReplayer(archive).replay(archive));
+		assertTrue(processedPages.isEmpty());
+	}
+
+	@Test
+	void shouldRejectNoArchives() {
+		assertThrows(IllegalArgumentException.class, this::createReplayer);
+	}
+
+	@Test
+	void shouldRejectNonPositiveParallelism() {
+		properties.setParallelism(0);
+		Path archive = directory.resolve("pages.ndjson");
+
+		assertThrows(IllegalArgumentException.class, () -> createReplayer(archive));
+	}
+
+	private Path write(String name, String... lines) {
+		Path archive = directory.resolve(name);
+		try {
+			Files.writeString(archive, String.join("\n", lines), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return archive;
+	}
+
+	/** The archive identity a checkpoint for {@code archive} must carry to be resumed. */
+	private static Properties checkpointFor(Path archive) throws IOException {
+		Properties checkpoint = new Properties();
+		checkpoint.setProperty("archive", archive.toAbsolutePath().normalize().toString());
+		checkpoint.setProperty("archive_size", Long.toString(Files.size(archive)));
+		checkpoint.setProperty("archive_last_modified", Long.toString(Files.getLastModifiedTime(archive).toMillis()));
+		return checkpoint;
+	}
+
+	private static Properties identityOf(Properties checkpoint) {
+		Properties identity = new Properties();
+		for (String key : List.of("archive", "archive_size", "archive_last_modified")) {
+			identity.setProperty(key, checkpoint.getProperty(key));
+		}
+		return identity;
+	}
+
+	private void saveCheckpoint(Path archive, Properties checkpoint) throws IOException {
+		try (var out = Files.newOutputStream(directory.resolve(archive.getFileName() + ArchiveReplayer.CHECKPOINT_SUFFIX))) {
+			checkpoint.store(out, null);
+		}
+	}
+
+	private Properties checkpoint(Path archive) throws IOException {
+		return checkpoint(directory, archive);
+	}
+
+	private static Properties checkpoint(Path state, Path archive) throws IOException {
+		Properties checkpoint = new Properties();
+		try (InputStream in = Files.newInputStream(state.resolve(archive.getFileName() + ArchiveReplayer.CHECKPOINT_SUFFIX))) {
+			checkpoint.load(in);
+		}
+		return checkpoint;
+	}
+
+	private static List<Long> sorted(List<Long> pages) {
+		List<Long> copy = new ArrayList<>(pages);
+		Collections.sort(copy);
+		return copy;
+	}
+
+	private static String raw(long pageId) {
+		return "{\"accountId\":1,\"pageId\":" + pageId + ",\"auditRecordId\":3}";
+	}
+
+	private static String base64(long pageId) {
+		return Base64.getEncoder().encodeToString(raw(pageId).getBytes(StandardCharsets.UTF_8));
+	}
+}
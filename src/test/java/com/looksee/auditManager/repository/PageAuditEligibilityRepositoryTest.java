@@ -0,0 +1,163 @@
+package com.looksee.auditManager.repository;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import com.looksee.auditManager.ProcessingOutcome;
+import com.looksee.auditManager.repository.PageAuditEligibilityRepository.IndexedEligibility;
+import com.looksee.models.message.PageBuiltMessage;
+
+class PageAuditEligibilityRepositoryTest {
+
+	private Neo4jClient neo4jClient;
+	private PageAuditEligibilityRepository repository;
+
+	@BeforeEach
+	void setup() {
+		neo4jClient = mock(Neo4jClient.class, RETURNS_DEEP_STUBS);
+		repository = new PageAuditEligibilityRepository(neo4jClient);
+	}
+
+	@Test
+	void resolve_shouldRunSingleQueryWithBothIds() {
+		PageAuditEligibility expected = new PageAuditEligibility(List.of("LINKS"), false, true, true);
+		when(neo4jClient.query(PageAuditEligibilityRepository.ELIGIBILITY_QUERY)
+			.bindAll(any())
+			.fetchAs(PageAuditEligibility.class)
+			.mappedBy(any())
+			.one()).thenReturn(Optional.of(expected));
+
+		PageAuditEligibility result = repository.resolve(3L, 2L);
+
+		assertSame(expected, result);
+		verify(neo4jClient.query(PageAuditEligibilityRepository.ELIGIBILITY_QUERY))
+			.bindAll(Map.of("auditRecordId", 3L, "pageId", 2L));
+	}
+
+	@Test
+	void resolve_shouldFailWhenQueryReturnsNoRow() {
+		when(neo4jClient.query(PageAuditEligibilityRepository.ELIGIBILITY_QUERY)
+			.bindAll(any())
+			.fetchAs(PageAuditEligibility.class)
+			.mappedBy(any())
+			.one()).thenReturn(Optional.empty());
+
+		assertThrows(IllegalStateException.class, () -> repository.resolve(3L, 2L));
+	}
+
+	@Test
+	void resolveAll_shouldAlignRowsWithRequestOrder() {
+		PageAuditEligibility first = new PageAuditEligibility(List.of("LINKS"), false, true, true);
+		PageAuditEligibility second = new PageAuditEligibility(null, true, true, true);
+		when(neo4jClient.query(PageAuditEligibilityRepository.BATCH_ELIGIBILITY_QUERY)
+			.bindAll(any())
+			.fetchAs(IndexedEligibility.class)
+			.mappedBy(any())
+			.all()).thenReturn(List.of(new IndexedEligibility(1, second), new IndexedEligibility(0, first)));
+
+		List<PageAuditEligibility> result = repository.resolveAll(List.of(
+			new PageBuiltMessage(1L, 2L, 3L), new PageBuiltMessage(1L, 4L, 3L)));
+
+		assertSame(first, result.get(0));
+		assertSame(second, result.get(1));
+		verify(neo4jClient.query(PageAuditEligibilityRepository.BATCH_ELIGIBILITY_QUERY))
+			.bindAll(Map.of("rows", List.of(
+				Map.of("index", 0, "auditRecordId", 3L, "pageId", 2L),
+				Map.of("index", 1, "auditRecordId", 3L, "pageId", 4L))));
+	}
+
+	@Test
+	void resolveAll_shouldFailWhenAPageHasNoRow() {
+		when(neo4jClient.query(PageAuditEligibilityRepository.BATCH_ELIGIBILITY_QUERY)
+			.bindAll(any())
+			.fetchAs(IndexedEligibility.class)
+			.mappedBy(any())
+			.all()).thenReturn(List.of(new IndexedEligibility(0, new PageAuditEligibility(null, false, true, true))));
+
+		List<PageBuiltMessage> messages = List.of(new PageBuiltMessage(1L, 2L, 3L), new PageBuiltMessage(1L, 4L, 3L));
+
+		assertThrows(IllegalStateException.class, () -> repository.resolveAll(messages));
+	}
+
+	@Test
+	void findUnauditedPages_shouldBeEmptyWhenDomainAuditDoesNotExist() {
+		when(neo4jClient.query(PageAuditEligibilityRepository.UNAUDITED_PAGES_QUERY)
+			.bindAll(any())
+			.fetchAs(UnauditedPages.class)
+			.mappedBy(any())
+			.one()).thenReturn(Optional.empty());
+
+		assertTrue(repository.findUnauditedPages(3L).isEmpty());
+		verify(neo4jClient.query(PageAuditEligibilityRepository.UNAUDITED_PAGES_QUERY)).bindAll(Map.of("auditRecordId", 3L));
+	}
+
+	@Test
+	void toUnauditedPages_shouldMapLabelsAndPageIds() {
+		Record record = new InternalRecord(
+			List.of("auditLabels", "pageIds"),
+			new org.neo4j.driver.Value[] { Values.NULL, Values.value(List.of(2L, 4L)) });
+
+		UnauditedPages pages = PageAuditEligibilityRepository.toUnauditedPages(record);
+
+		assertTrue(pages.getAuditLabels().isEmpty());
+		assertArrayEquals(new long[] { 2L, 4L }, pages.getPageIds());
+	}
+
+	@Test
+	void toEligibility_shouldMapAllColumns() {
+		Record record = record(Values.value(List.of("LINKS", "TITLES")), true, false, true);
+
+		PageAuditEligibility eligibility = PageAuditEligibilityRepository.toEligibility(record);
+
+		assertEquals(List.of("LINKS", "TITLES"), eligibility.getAuditLabels());
+		assertTrue(eligibility.isAlreadyAudited());
+		assertFalse(eligibility.isLandable());
+		assertTrue(eligibility.isPageStatePresent());
+	}
+
+	@Test
+	void toEligibility_shouldTreatMissingDomainAuditAsNoLabels() {
+		Record record = record(Values.NULL, false, true, false);
+
+		PageAuditEligibility eligibility = PageAuditEligibilityRepository.toEligibility(record);
+
+		assertTrue(eligibility.getAuditLabels().isEmpty());
+		assertEquals(ProcessingOutcome.PAGE_STATE_MISSING, eligibility.getSkipOutcome());
+	}
+
+	@Test
+	void eligibility_shouldReportSkipReasonsInPriorityOrder() {
+		assertEquals(ProcessingOutcome.ALREADY_AUDITED, new PageAuditEligibility(null, true, false, false).getSkipOutcome());
+		assertEquals(ProcessingOutcome.NOT_LANDABLE, new PageAuditEligibility(null, false, false, false).getSkipOutcome());
+		assertTrue(new PageAuditEligibility(null, false, true, true).isEligible());
+		assertThrows(IllegalStateException.class, () -> new PageAuditEligibility(null, false, true, true).getSkipOutcome());
+	}
+
+	private Record record(org.neo4j.driver.Value labels, boolean alreadyAudited, boolean landable, boolean pageStatePresent) {
+		return new InternalRecord(
+			List.of("auditLabels", "alreadyAudited", "landable", "pageStatePresent"),
+			new org.neo4j.driver.Value[] {
+				labels, Values.value(alreadyAudited), Values.value(landable), Values.value(pageStatePresent)
+			});
+	}
+}
@@ -0,0 +1,147 @@
+package com.looksee.auditManager.repository;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+class PageAuditOutboxRepositoryTest {
+
+	private Neo4jClient neo4jClient;
+	private PageAuditOutboxRepository repository;
+
+	@BeforeEach
+	void setup() {
+		neo4jClient = mock(Neo4jClient.class, RETURNS_DEEP_STUBS);
+		repository = new PageAuditOutboxRepository(neo4jClient);
+	}
+
+	@Test
+	void claim_shouldClaimOldestEntriesUnderLease() {
+		PageAuditOutboxEntry entry = new PageAuditOutboxEntry(7L, 99L, 1L, 1_000L, List.of("LINKS"));
+		when(neo4jClient.query(PageAuditOutboxRepository.CLAIM_QUERY)
+			.bindAll(any())
+			.fetchAs(PageAuditOutboxEntry.class)
+			.mappedBy(any())
+			.all()).thenReturn(List.of(entry));
+
+		List<PageAuditOutboxEntry> claimed = repository.claim(500, Duration.ofMinutes(1));
+
+		assertEquals(1, claimed.size());
+		assertSame(entry, claimed.get(0));
+		verify(neo4jClient.query(PageAuditOutboxRepository.CLAIM_QUERY)).bindAll(Map.of("limit", 500, "leaseMillis", 60_000L));
+	}
+
+	@Test
+	void claimQuery_shouldRecheckLeaseAfterLockingEachEntry() {
+		String query = PageAuditOutboxRepository.CLAIM_QUERY;
+
+		int lock = query.indexOf("SET outbox._claimLock = true");
+		assertTrue(query.indexOf("ORDER BY outbox.createdAt LIMIT $limit") < lock);
+		assertTrue(lock < query.lastIndexOf("WHERE outbox.claimedUntil < timestamp()"));
+		assertTrue(query.lastIndexOf("WHERE outbox.claimedUntil < timestamp()")
+			< query.indexOf("SET outbox.claimedUntil = timestamp() + $leaseMillis"));
+	}
+
+	@Test
+	void claimQuery_shouldLetTheCreatedAtIndexDriveTheOrder() {
+		String query = PageAuditOutboxRepository.CLAIM_QUERY;
+
+		assertTrue(query.contains("WHERE outbox.createdAt >= 0 AND outbox.claimedUntil < timestamp()"));
+		assertFalse(query.contains("coalesce"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void markSent_shouldDeleteEntriesInOneStatement() {
+		repository.markSent(new long[] { 7L, 8L });
+
+		ArgumentCaptor<Map<String, Object>> paramsCaptor = ArgumentCaptor.forClass(Map.class);
+		verify(neo4jClient.query(PageAuditOutboxRepository.MARK_SENT_QUERY)).bindAll(paramsCaptor.capture());
+		assertArrayEquals(new long[] { 7L, 8L }, (long[]) paramsCaptor.getValue().get("ids"));
+		verify(neo4jClient.query(PageAuditOutboxRepository.MARK_SENT_QUERY).bindAll(paramsCaptor.getValue())).run();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void release_shouldEndTheClaimOfEntriesInOneStatement() {
+		repository.release(new long[] { 7L, 8L });
+
+		ArgumentCaptor<Map<String, Object>> paramsCaptor = ArgumentCaptor.forClass(Map.class);
+		verify(neo4jClient.query(PageAuditOutboxRepository.RELEASE_QUERY)).bindAll(paramsCaptor.capture());
+		assertArrayEquals(new long[] { 7L, 8L }, (long[]) paramsCaptor.getValue().get("ids"));
+		assertTrue(PageAuditOutboxRepository.RELEASE_QUERY.endsWith("SET outbox.claimedUntil = 0"));
+	}
+
+	@Test
+	void createIndexes_shouldIndexTheClaimFilterAndSortKeys() {
+		repository.createIndexes();
+
+		verify(neo4jClient.query(PageAuditOutboxRepository.CREATED_AT_INDEX)).run();
+		verify(neo4jClient.query(PageAuditOutboxRepository.CLAIMED_UNTIL_INDEX)).run();
+		verify(neo4jClient.query(PageAuditOutboxRepository.UNSET_CLAIMED_UNTIL_QUERY)).run();
+		assertTrue(PageAuditOutboxRepository.CREATED_AT_INDEX.endsWith("IF NOT EXISTS FOR (outbox:PageAuditOutbox) ON (outbox.createdAt)"));
+		assertTrue(PageAuditOutboxRepository.CLAIMED_UNTIL_INDEX.endsWith("IF NOT EXISTS FOR (outbox:PageAuditOutbox) ON (outbox.claimedUntil)"));
+	}
+
+	@Test
+	void backlog_shouldBeEmptyWhenQueryReturnsNothing() {
+		when(neo4jClient.query(PageAuditOutboxRepository.BACKLOG_QUERY)
+			.fetchAs(PageAuditOutboxBacklog.class)
+			.mappedBy(any())
+			.one()).thenReturn(Optional.empty());
+
+		assertSame(PageAuditOutboxBacklog.EMPTY, repository.backlog());
+	}
+
+	@Test
+	void toEntry_shouldMapClaimedRow() {
+		PageAuditOutboxEntry entry = PageAuditOutboxRepository.toEntry(new InternalRecord(
+			List.of("id", "pageAuditId", "accountId", "createdAt", "auditLabels"),
+			new Value[] { Values.value(7L), Values.value(99L), Values.value(1L), Values.value(1_000L),
+				Values.value(List.of("LINKS", "ALT_TEXT")) }));
+
+		assertEquals(7L, entry.getId());
+		assertEquals(99L, entry.getPageAuditId());
+		assertEquals(1L, entry.getAccountId());
+		assertEquals(1_000L, entry.getCreatedAt());
+		assertEquals(List.of("LINKS", "ALT_TEXT"), entry.getAuditLabels());
+	}
+
+	@Test
+	void toEntry_shouldTreatMissingLabelsAsEmpty() {
+		PageAuditOutboxEntry entry = PageAuditOutboxRepository.toEntry(new InternalRecord(
+			List.of("id", "pageAuditId", "accountId", "createdAt", "auditLabels"),
+			new Value[] { Values.value(7L), Values.value(99L), Values.value(1L), Values.value(1_000L), Values.NULL }));
+
+		assertEquals(List.of(), entry.getAuditLabels());
+	}
+
+	@Test
+	void toBacklog_shouldMapEmptyOutbox() {
+		PageAuditOutboxBacklog backlog = PageAuditOutboxRepository.toBacklog(new InternalRecord(
+			List.of("size", "oldest"), new Value[] { Values.value(0L), Values.NULL }));
+
+		assertEquals(0L, backlog.getSize());
+		assertEquals(-1L, backlog.getOldestCreatedAt());
+	}
+}
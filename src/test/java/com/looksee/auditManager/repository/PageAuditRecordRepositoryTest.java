@@ -0,0 +1,118 @@
+package com.looksee.auditManager.repository;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import com.looksee.models.enums.AuditLevel;
+import com.looksee.models.enums.AuditName;
+import com.looksee.models.enums.ExecutionStatus;
+
+class PageAuditRecordRepositoryTest {
+
+	private Neo4jClient neo4jClient;
+	private PageAuditRecordRepository repository;
+
+	@BeforeEach
+	void setup() {
+		neo4jClient = mock(Neo4jClient.class, RETURNS_DEEP_STUBS);
+		repository = new PageAuditRecordRepository(neo4jClient);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void createForPages_shouldCreateAndLinkWholeBatchInOneStatement() {
+		when(neo4jClient.query(PageAuditRecordRepository.BATCH_CREATE_QUERY)
+			.bindAll(any())
+			.fetchAs(long[].class)
+			.mappedBy(any())
+			.all()).thenReturn(List.of(new long[] { 1, 42L }, new long[] { 0, 41L }));
+
+		long[] ids = repository.createForPages(List.of(
+			new PageAuditRecordDraft(1L, 3L, 2L, Set.of(AuditName.LINKS)),
+			new PageAuditRecordDraft(1L, 3L, 4L, Set.of(AuditName.TITLES))));
+
+		assertArrayEquals(new long[] { 41L, 42L }, ids);
+		ArgumentCaptor<Map<String, Object>> paramsCaptor = ArgumentCaptor.forClass(Map.class);
+		verify(neo4jClient.query(PageAuditRecordRepository.BATCH_CREATE_QUERY), atLeastOnce()).bindAll(paramsCaptor.capture());
+		Map<String, Object> params = paramsCaptor.getValue();
+		assertEquals(ExecutionStatus.BUILDING_PAGE.getShortName(), params.get("status"));
+		assertEquals(AuditLevel.PAGE.toString(), params.get("level"));
+		List<Map<String, Object>> rows = (List<Map<String, Object>>) params.get("rows");
+		assertEquals(2, rows.size());
+		assertEquals(1L, rows.get(1).get("accountId"));
+		assertEquals(3L, rows.get(1).get("auditRecordId"));
+		assertEquals(4L, rows.get(1).get("pageId"));
+		assertEquals(List.of("TITLES"), rows.get(1).get("auditLabels"));
+		assertTrue(((String) rows.get(1).get("key")).startsWith("pageauditrecord:"));
+	}
+
+	@Test
+	void createForPages_shouldMarkDraftsWhoseEndpointsAreMissing() {
+		when(neo4jClient.query(PageAuditRecordRepository.BATCH_CREATE_QUERY)
+			.bindAll(any())
+			.fetchAs(long[].class)
+			.mappedBy(any())
+			.all()).thenReturn(List.of(new long[] { 1, 42L }));
+
+		long[] ids = repository.createForPages(List.of(
+			new PageAuditRecordDraft(1L, 3L, 2L, Set.of(AuditName.LINKS)),
+			new PageAuditRecordDraft(1L, 3L, 4L, Set.of(AuditName.LINKS))));
+
+		assertArrayEquals(new long[] { PageAuditRecordRepository.MISSING, 42L }, ids);
+	}
+
+	@Test
+	void createForPages_shouldReportPagesThatAlreadyHaveARecord() {
+		when(neo4jClient.query(PageAuditRecordRepository.BATCH_CREATE_QUERY)
+			.bindAll(any())
+			.fetchAs(long[].class)
+			.mappedBy(any())
+			.all()).thenReturn(List.of(new long[] { 0, PageAuditRecordRepository.EXISTING }, new long[] { 1, 42L }));
+
+		long[] ids = repository.createForPages(List.of(
+			new PageAuditRecordDraft(1L, 3L, 2L, Set.of(AuditName.LINKS)),
+			new PageAuditRecordDraft(1L, 3L, 4L, Set.of(AuditName.LINKS))));
+
+		assertArrayEquals(new long[] { PageAuditRecordRepository.EXISTING, 42L }, ids);
+	}
+
+	@Test
+	void batchCreateQuery_shouldLockDomainAuditBeforeLookingForExistingRecord() {
+		String query = PageAuditRecordRepository.BATCH_CREATE_QUERY;
+
+		assertTrue(query.indexOf("SET dar._pageAuditLock") < query.indexOf("MERGE (dar)-[:HAS]->(par:PageAuditRecord)-[:FOR]->(page)"));
+		assertFalse(query.contains("CREATE (dar)"));
+	}
+
+	@Test
+	void batchCreateQuery_shouldQueueOutboxEntryOnlyForCreatedRecords() {
+		String query = PageAuditRecordRepository.BATCH_CREATE_QUERY;
+
+		assertTrue(query.contains("FOREACH (created IN CASE WHEN par.key = row.key THEN [1] ELSE [] END | "
+			+ "CREATE (:PageAuditOutbox {accountId: row.accountId, createdAt: timestamp(), claimedUntil: 0})-[:PUBLISHES]->(par))"));
+		assertTrue(query.indexOf("PageAuditOutbox") < query.indexOf("RETURN"));
+	}
+
+	@Test
+	void newKey_shouldBeUniquePerRecord() {
+		assertNotEquals(PageAuditRecordRepository.newKey(), PageAuditRecordRepository.newKey());
+	}
+}